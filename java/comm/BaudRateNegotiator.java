@@ -0,0 +1,162 @@
+package comm;
+
+import static comm.Constants.TELEMETRY_SIZE;
+
+import java.util.Arrays;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import comm.protocol.BaudRateAck;
+import comm.protocol.CliftonCommand;
+import comm.protocol.CommandFrame;
+import comm.protocol.TelemetryData;
+
+/**
+ * This class negotiates a higher baud rate with the clifton at connect time.
+ * The handshake for every candidate (highest first) is:
+ * 1. SET_BAUD_RATE is sent at the current baud rate, the clifton switches.
+ * 2. The laptop switches and waits for plausible telemetry data.
+ * 3. SET_BAUD_RATE is sent again at the new baud rate as confirmation.
+ * 4. The clifton answers with a BaudRateAck, only then the laptop commits.
+ * The clifton falls back on its own, if the confirmation does not arrive-
+ * in time, the laptop falls back if no plausible telemetry data or no-
+ * acknowledgement arrives. If only the acknowledgement is lost, the clifton-
+ * hears no valid frame anymore and returns to its default baud rate after-
+ * its loss timeout, like at every non-default baud rate.
+ */
+public final class BaudRateNegotiator {
+    /**
+     * The candidate baud rates, sorted from the highest to the lowest.
+     */
+    private final int[] candidates;
+
+    /**
+     * The number of frames read, until plausible telemetry data is expected.
+     * Frames can be garbage or misaligned directly after the switch.
+     */
+    private static final int VERIFY_ATTEMPTS = 3;
+
+    /**
+     * The number of frames read, until the acknowledgement is expected.
+     * Telemetry data sent before the confirmation can precede it.
+     */
+    private static final int ACK_ATTEMPTS = 3;
+
+    /**
+     * The time the clifton gets to switch its baud rate in ms.
+     */
+    private static final long SWITCH_GUARD_TIME = 50;
+
+    /**
+     * The logger.
+     */
+    private static final Logger LOGGER = LogManager.getLogger(BaudRateNegotiator.class);
+
+    /**
+     * Constructor.
+     *
+     * @param baudRates - the baud rates, that should be tried
+     */
+    public BaudRateNegotiator(final int... baudRates) {
+        this.candidates = Arrays.stream(baudRates)
+                                .boxed()
+                                .sorted((a, b) -> Integer.compare(b, a))
+                                .mapToInt(Integer::intValue)
+                                .toArray();
+    }
+
+    /**
+     * This method negotiates the highest baud rate both sides support.
+     * The connection stays at its current baud rate, if all candidates fail.
+     *
+     * @param connection - the created connection to the clifton
+     * @return int - the baud rate the connection uses afterwards
+     */
+    public int negotiate(final IConnection connection) {
+        final int fallback = connection.getBaudRate();
+
+        for (final int candidate : this.candidates) {
+            if (candidate <= fallback) {
+                break;
+            }
+
+            LOGGER.info("Trying baud rate {}", candidate);
+            final var command = CommandFrame.encode(CliftonCommand.setBaudRate(candidate));
+            if (!connection.sendData(command) || !this.sleep(SWITCH_GUARD_TIME)) {
+                break;
+            }
+
+            if (connection.setBaudRate(candidate)
+                    && this.verify(connection)
+                    && connection.sendData(command)
+                    && this.awaitAck(connection, candidate)) {
+                LOGGER.info("Negotiated baud rate {}", candidate);
+                return candidate;
+            }
+
+            //The clifton falls back on its own, because it got no confirmation-
+            //or hears nothing valid at its baud rate anymore
+            LOGGER.error("Baud rate {} failed, falling back to {}", candidate, fallback);
+            if (!connection.setBaudRate(fallback)) {
+                LOGGER.error("Failed to fall back to baud rate {}", fallback);
+                break;
+            }
+        }
+
+        return connection.getBaudRate();
+    }
+
+    /**
+     * This method waits for plausible telemetry data.
+     *
+     * @param connection - the connection to the clifton
+     * @return boolean - true if plausible telemetry data was received
+     */
+    private boolean verify(final IConnection connection) {
+        for (int i = 0; i < VERIFY_ATTEMPTS; i++) {
+            final var telemetryData = connection.receiveData(TELEMETRY_SIZE)
+                                        .flatMap(TelemetryData::fromByteArray);
+            if (telemetryData.isPresent() && telemetryData.get().isPlausible()) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * This method waits for the acknowledgement of the baud rate.
+     *
+     * @param connection - the connection to the clifton
+     * @param baudRate - the confirmed baud rate
+     * @return boolean - true if the clifton acknowledged the baud rate
+     */
+    private boolean awaitAck(final IConnection connection, final int baudRate) {
+        for (int i = 0; i < ACK_ATTEMPTS; i++) {
+            final var ack = connection.receiveData(TELEMETRY_SIZE)
+                              .flatMap(BaudRateAck::fromByteArray);
+            if (ack.isPresent() && ack.get().baudRate() == baudRate) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * This method sleeps for the given time.
+     *
+     * @param millis - the time to sleep in ms
+     * @return boolean - false if interrupted, true otherwise
+     */
+    private boolean sleep(final long millis) {
+        try {
+            Thread.sleep(millis);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package comm;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.Lock;
+
+/**
+ * This interface represents the source of time and the scheduler of the
+ * communication. All time measurements, sleeps and timed waits go through
+ * it, so the SystemClock can be replaced by the VirtualClock in tests and
+ * simulations, which then run in simulated time.
+ */
+public interface Clock {
+    /**
+     * This method returns the current wall clock time.
+     *
+     * @return long - the time in ms since the epoch
+     */
+    long currentTimeMillis();
+    /**
+     * This method returns the current value of the monotonic time source.
+     *
+     * @return long - the time in ns (only differences are meaningful)
+     */
+    long nanoTime();
+    /**
+     * This method blocks the calling thread for the given time.
+     *
+     * @param nanos - the time to sleep in ns
+     * @throws InterruptedException if the thread was interrupted
+     */
+    void sleepNanos(long nanos) throws InterruptedException;
+    /**
+     * This method waits for a condition to be signaled or the given time-
+     * to elapse, like Condition.awaitNanos. The caller must hold the lock.
+     *
+     * @param lock - the lock of the condition
+     * @param condition - the condition to wait for
+     * @param nanos - the maximum time to wait in ns
+     * @return long - the remaining time in ns, a value <= 0 on timeout
+     * @throws InterruptedException if the thread was interrupted
+     */
+    long awaitNanos(Lock lock, Condition condition, long nanos) throws InterruptedException;
+
+    /**
+     * This method blocks the calling thread for the given time.
+     *
+     * @param millis - the time to sleep in ms
+     * @throws InterruptedException if the thread was interrupted
+     */
+    default void sleep(final long millis) throws InterruptedException {
+        this.sleepNanos(TimeUnit.MILLISECONDS.toNanos(millis));
+    }
+
+    /**
+     * This method creates a thread, that waits via. this clock.
+     * The VirtualClock counts it as runnable from its creation on, so the-
+     * time does not move on before the thread blocked for the first time.
+     *
+     * @param task - the task of the thread
+     * @param name - the name of the thread
+     * @return Thread - the created, not yet started thread
+     */
+    default Thread newThread(final Runnable task, final String name) {
+        return new Thread(task, name);
+    }
+
+    /**
+     * This function returns the clock of the system.
+     *
+     * @return Clock - the system clock
+     */
+    static Clock system() {
+        return SystemClock.INSTANCE;
+    }
+}
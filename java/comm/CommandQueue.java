@@ -0,0 +1,406 @@
+package comm;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.TreeSet;
+import java.util.function.Consumer;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import comm.protocol.CliftonCommand;
+import comm.protocol.CommandFrame;
+
+/**
+ * This class represents the bounded queue of the commands to be sent to the-
+ * clifton. Commands are sent by priority (e.g. STOP_ROUTE before a course)-
+ * and in the order they were queued within the same priority.
+ *
+ * Every command has a deadline, after which it is dropped instead of sent,-
+ * so a reconnect does not flush minutes old courses. If the queue is full,-
+ * a command of a higher priority replaces the newest command of the lowest-
+ * priority, otherwise it is rejected.
+ *
+ * STOP_ROUTE is sent before the other commands, so it supersedes the-
+ * pending START_ROUTE and SET_COURSE commands queued before it. Otherwise-
+ * the clifton would execute them after the stop and sail again.
+ */
+public final class CommandQueue {
+    /**
+     * The logger.
+     */
+    private static final Logger LOGGER = LogManager.getLogger(CommandQueue.class);
+
+    /**
+     * This enum represents the priority of a command, the first is sent first.
+     */
+    public enum Priority {
+        /**
+         * Commands, that bring the boat into a safe state.
+         */
+        SAFETY,
+        /**
+         * Commands, that control the boat.
+         */
+        CONTROL,
+        /**
+         * All other commands.
+         */
+        ROUTINE;
+
+        /**
+         * This function returns the default priority of a command.
+         *
+         * @param id - the id of the command
+         * @return Priority - the priority
+         */
+        public static Priority of(final CliftonCommand.ID id) {
+            return switch (id) {
+                case STOP_ROUTE -> SAFETY;
+                case START_ROUTE, SET_COURSE -> CONTROL;
+                default -> ROUTINE;
+            };
+        }
+    }
+
+    /**
+     * This record represents a queued command.
+     * @param command - the command
+     * @param priority - the priority of the command
+     * @param deadline - the time after which the command is dropped in ms
+     * @param sequence - the order in which the commands were queued
+     */
+    private record Entry(CliftonCommand command, Priority priority, long deadline,
+                         long sequence) { }
+
+    /**
+     * The default capacity of the queue.
+     */
+    public static final int DEFAULT_CAPACITY = 32;
+    /**
+     * The deadline of a command, that never expires.
+     */
+    public static final long NO_DEADLINE = Long.MAX_VALUE;
+    /**
+     * The default time to live of a course in ms, an older course is stale.
+     */
+    public static final long COURSE_TIME_TO_LIVE = 5000;
+    /**
+     * The default time to live of the other commands in ms.
+     */
+    public static final long DEFAULT_TIME_TO_LIVE = 10000;
+
+    /**
+     * The queued commands, ordered by priority and sequence.
+     */
+    private final TreeSet<Entry> entries;
+    /**
+     * The commands packed into the current frame, until it was sent.
+     */
+    private final List<Entry> packed;
+    /**
+     * The maximum number of queued commands.
+     */
+    private final int capacity;
+    /**
+     * The sequence of the next command.
+     */
+    private long sequence;
+    /**
+     * Called with every command, that was rejected or replaced because the-
+     * queue was full.
+     */
+    private volatile Consumer<CliftonCommand> overflowListener;
+    /**
+     * Called with every command, that expired before it was sent.
+     */
+    private volatile Consumer<CliftonCommand> expiryListener;
+    /**
+     * Called with every command, that was superseded by a later STOP_ROUTE.
+     */
+    private volatile Consumer<CliftonCommand> supersededListener;
+
+    /**
+     * Constructor.
+     *
+     * @param size - the maximum number of queued commands
+     */
+    public CommandQueue(final int size) {
+        if (size <= 0) {
+            throw new IllegalArgumentException("Invalid capacity " + size);
+        }
+
+        this.entries = new TreeSet<>(Comparator.comparing(Entry::priority)
+                                               .thenComparingLong(Entry::sequence));
+        this.packed = new ArrayList<>();
+        this.capacity = size;
+        this.sequence = 0;
+        this.overflowListener = null;
+        this.expiryListener = null;
+        this.supersededListener = null;
+    }
+
+    /**
+     * This function returns the default time to live of a command.
+     *
+     * @param id - the id of the command
+     * @return long - the time to live in ms, NO_DEADLINE if it never expires
+     */
+    public static long getDefaultTimeToLive(final CliftonCommand.ID id) {
+        return switch (id) {
+            case STOP_ROUTE -> NO_DEADLINE;
+            case SET_COURSE -> COURSE_TIME_TO_LIVE;
+            default -> DEFAULT_TIME_TO_LIVE;
+        };
+    }
+
+    /**
+     * This method queues a command with its default priority and time to live.
+     *
+     * @param command - the command
+     * @param now - the current time in ms
+     * @return boolean - true if the command was queued, false if the queue is full
+     */
+    public boolean offer(final CliftonCommand command, final long now) {
+        final long timeToLive = getDefaultTimeToLive(command.id());
+        return this.offer(command, Priority.of(command.id()),
+                          timeToLive == NO_DEADLINE ? NO_DEADLINE : now + timeToLive);
+    }
+
+    /**
+     * This method queues a command.
+     * If the queue is full, the newest command of the lowest priority is-
+     * replaced, if it has a lower priority than the new command. A-
+     * STOP_ROUTE removes the queued START_ROUTE and SET_COURSE commands.
+     *
+     * @param command - the command
+     * @param priority - the priority of the command
+     * @param deadline - the time after which the command is dropped in ms
+     * @return boolean - true if the command was queued, false if the queue is full
+     */
+    public boolean offer(final CliftonCommand command, final Priority priority,
+            final long deadline) {
+        final CliftonCommand dropped;
+        final boolean isQueued;
+        final List<CliftonCommand> superseded = new ArrayList<>();
+        synchronized (this) {
+            final var entry = new Entry(command, priority, deadline, this.sequence++);
+            if (command.id() == CliftonCommand.ID.STOP_ROUTE) {
+                this.entries.removeIf(queued -> isRouteCommand(queued)
+                                                && superseded.add(queued.command()));
+            }
+            if (this.entries.size() < this.capacity) {
+                this.entries.add(entry);
+                dropped = null;
+                isQueued = true;
+            } else {
+                final var last = this.entries.last();
+                if (priority.compareTo(last.priority()) < 0) {
+                    this.entries.pollLast();
+                    this.entries.add(entry);
+                    dropped = last.command();
+                    isQueued = true;
+                } else {
+                    dropped = command;
+                    isQueued = false;
+                }
+            }
+        }
+
+        for (final var supersededCommand : superseded) {
+            LOGGER.info("Command superseded by STOP_ROUTE: {}", supersededCommand);
+            inform(this.supersededListener, supersededCommand);
+        }
+        if (dropped != null) {
+            LOGGER.warn("Command queue full, dropped {}", dropped);
+            inform(this.overflowListener, dropped);
+        }
+        return isQueued;
+    }
+
+    /**
+     * This method drops the commands, whose deadline has passed.
+     *
+     * @param now - the current time in ms
+     * @return int - the number of dropped commands
+     */
+    public int expire(final long now) {
+        final List<CliftonCommand> expired = new ArrayList<>();
+        synchronized (this) {
+            final var iterator = this.entries.iterator();
+            while (iterator.hasNext()) {
+                final var entry = iterator.next();
+                if (entry.deadline() <= now) {
+                    iterator.remove();
+                    expired.add(entry.command());
+                }
+            }
+        }
+
+        for (final var command : expired) {
+            LOGGER.warn("Command expired before it was sent: {}", command);
+            inform(this.expiryListener, command);
+        }
+        return expired.size();
+    }
+
+    /**
+     * This method moves the most important commands into a frame, as long as-
+     * they fit. Expired commands are dropped before. The packed commands are-
+     * held back until the frame was sent (commitPacked) or could not be sent-
+     * (restorePacked).
+     *
+     * @param frame - the frame to be filled
+     * @param budget - the maximum number of bytes to be packed
+     * @param now - the current time in ms
+     * @return int - the number of packed commands
+     */
+    public int pack(final CommandFrame frame, final int budget, final long now) {
+        this.expire(now);
+
+        synchronized (this) {
+            int remaining = budget;
+            while (!this.entries.isEmpty()
+                    && this.entries.first().command().getEncodedSize() <= remaining
+                    && frame.add(this.entries.first().command())) {
+                final var entry = this.entries.pollFirst();
+                remaining -= entry.command().getEncodedSize();
+                this.packed.add(entry);
+            }
+            return this.packed.size();
+        }
+    }
+
+    /**
+     * This method removes the packed commands, after the frame was sent.
+     *
+     * @return List<CliftonCommand> - the packed commands
+     */
+    public synchronized List<CliftonCommand> commitPacked() {
+        final List<CliftonCommand> commands = new ArrayList<>(this.packed.size());
+        for (final var entry : this.packed) {
+            commands.add(entry.command());
+        }
+        this.packed.clear();
+        return commands;
+    }
+
+    /**
+     * This method queues the packed commands again, if the frame was not sent.
+     * They keep their priority, deadline and order. START_ROUTE and-
+     * SET_COURSE commands are dropped, if a STOP_ROUTE was queued after them.
+     */
+    public void restorePacked() {
+        final List<CliftonCommand> dropped = new ArrayList<>();
+        final List<CliftonCommand> superseded = new ArrayList<>();
+        synchronized (this) {
+            final long lastStop = this.entries.stream()
+                .filter(queued -> queued.command().id() == CliftonCommand.ID.STOP_ROUTE)
+                .mapToLong(Entry::sequence)
+                .max()
+                .orElse(-1);
+            for (final var entry : this.packed) {
+                if (isRouteCommand(entry) && entry.sequence() < lastStop) {
+                    superseded.add(entry.command());
+                } else {
+                    this.entries.add(entry);
+                }
+            }
+            this.packed.clear();
+            while (this.entries.size() > this.capacity) {
+                dropped.add(this.entries.pollLast().command());
+            }
+        }
+
+        for (final var command : superseded) {
+            LOGGER.info("Command superseded by STOP_ROUTE: {}", command);
+            inform(this.supersededListener, command);
+        }
+        for (final var command : dropped) {
+            LOGGER.warn("Command queue full, dropped {}", command);
+            inform(this.overflowListener, command);
+        }
+    }
+
+    /**
+     * This method checks if no command is queued.
+     *
+     * @return boolean - true if the queue is empty, false otherwise
+     */
+    public synchronized boolean isEmpty() {
+        return this.entries.isEmpty();
+    }
+
+    /**
+     * This method returns the number of queued commands.
+     *
+     * @return int - the number of commands
+     */
+    public synchronized int size() {
+        return this.entries.size();
+    }
+
+    /**
+     * This method returns the maximum number of queued commands.
+     *
+     * @return int - the capacity
+     */
+    public int getCapacity() {
+        return this.capacity;
+    }
+
+    /**
+     * This method sets the listener, that is called with every command, that-
+     * was rejected or replaced because the queue was full.
+     *
+     * @param listener - the listener or null
+     */
+    public void setOverflowListener(final Consumer<CliftonCommand> listener) {
+        this.overflowListener = listener;
+    }
+
+    /**
+     * This method sets the listener, that is called with every command, that-
+     * expired before it was sent.
+     *
+     * @param listener - the listener or null
+     */
+    public void setExpiryListener(final Consumer<CliftonCommand> listener) {
+        this.expiryListener = listener;
+    }
+
+    /**
+     * This method sets the listener, that is called with every command, that-
+     * was superseded by a later STOP_ROUTE.
+     *
+     * @param listener - the listener or null
+     */
+    public void setSupersededListener(final Consumer<CliftonCommand> listener) {
+        this.supersededListener = listener;
+    }
+
+    /**
+     * This function checks if a queued command starts or steers the route.
+     *
+     * @param entry - the queued command
+     * @return boolean - true for START_ROUTE and SET_COURSE, false otherwise
+     */
+    private static boolean isRouteCommand(final Entry entry) {
+        return entry.command().id() == CliftonCommand.ID.START_ROUTE
+               || entry.command().id() == CliftonCommand.ID.SET_COURSE;
+    }
+
+    /**
+     * This function passes a dropped command to a listener.
+     *
+     * @param listener - the listener or null
+     * @param command - the dropped command
+     */
+    private static void inform(final Consumer<CliftonCommand> listener,
+            final CliftonCommand command) {
+        if (listener != null) {
+            listener.accept(command);
+        }
+    }
+}
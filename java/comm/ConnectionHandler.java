@@ -1,13 +1,34 @@
 package comm;
 
-import java.util.Queue;
-import java.util.concurrent.ConcurrentLinkedQueue; //Thread safe queue
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
+import comm.LinkBudget.TrafficClass;
+import comm.analytics.SailingMetrics;
+import comm.analytics.StateEstimate;
+import comm.analytics.StateEstimator;
+import comm.protocol.BaudRateAck;
 import comm.protocol.CliftonCommand;
+import comm.protocol.CommandFrame;
+import comm.protocol.LayoutReport;
+import comm.protocol.MissionAck;
 import comm.protocol.TelemetryData;
+import comm.protocol.TelemetryLayout;
+import comm.protocol.Waypoint;
 
 import utils.observer_pattern.Observable;
 
@@ -35,30 +56,195 @@ public class ConnectionHandler extends Observable {
      */
     private Thread receiveWorkerThread;
     /**
-     * Queue of commands to be sent to the clifton.
+     * Queue of commands to be sent to the clifton (by priority, bounded).
      */
-    private final Queue<CliftonCommand> cliftonCommands;
+    private final CommandQueue cliftonCommands;
+    /**
+     * The byte budget of the link per traffic class.
+     */
+    private final LinkBudget linkBudget;
+    /**
+     * The listeners, that are called with every transmitted command.
+     */
+    private final List<Consumer<CliftonCommand>> transmitListeners;
+    /**
+     * The listeners, that are called with every command dropped unsent.
+     */
+    private final List<Consumer<CliftonCommand>> dropListeners;
+    /**
+     * The listener of the commands dropped because the queue was full, or null.
+     */
+    private volatile Consumer<CliftonCommand> overflowListener;
+    /**
+     * The listener of the commands, that expired before they were sent, or null.
+     */
+    private volatile Consumer<CliftonCommand> expiryListener;
+    /**
+     * Lock to wait for new commands.
+     */
+    private final ReentrantLock commandLock;
+    /**
+     * Signaled if a command was added or the handler is closed.
+     */
+    private final Condition commandAdded;
+    /**
+     * The source of time and the scheduler of the worker threads.
+     */
+    private final Clock clock;
     /**
      * Flag to signal Thrads if they should be running.
      */
     private AtomicBoolean workerThreadsRunning;
     /**
-     * Holds the Data received from the Clifton.
+     * The number of the current session, incremented by every start.
+     * Workers of an older session exit, even if a blocking read outlived-
+     * the close.
+     */
+    private volatile int session;
+    /**
+     * The number of transmitted commands (without heartbeats).
+     */
+    private final LongAdder commandsTransmitted;
+    /**
+     * The number of transmitted heartbeats.
+     */
+    private final LongAdder heartbeatsTransmitted;
+    /**
+     * The number of received telemetry frames.
+     */
+    private final LongAdder telemetryReceived;
+    /**
+     * Holds the last Data received from the Clifton with its reception time,-
+     * published atomically (null until the first frame).
+     */
+    private volatile TelemetrySnapshot telemetrySnapshot;
+    /**
+     * Derives the sailing values of every received frame, only used by the-
+     * receive worker.
+     */
+    private final SailingMetrics sailingMetrics;
+    /**
+     * Estimates the position and heading between the received frames.
+     */
+    private final StateEstimator stateEstimator;
+    /**
+     * The sequence number of the last received frame.
+     */
+    private final AtomicLong telemetrySequence;
+    /**
+     * Lock to wait for newer telemetry data.
+     */
+    private final ReentrantLock snapshotLock;
+    /**
+     * Signaled if a new snapshot was published.
+     */
+    private final Condition snapshotPublished;
+    /**
+     * The number of threads waiting for a new snapshot, the receive worker-
+     * only takes the lock if there are any.
+     */
+    private final AtomicInteger snapshotWaiters;
+    /**
+     * The active mission upload, null if none.
+     */
+    private final AtomicReference<MissionUpload> missionUpload;
+    /**
+     * The id of the last mission upload.
+     */
+    private final AtomicInteger missionId;
+    /**
+     * Flag if the mission upload may send a chunk (new upload or-
+     * acknowledgement), checked by the transmit worker before waiting.
+     */
+    private volatile boolean isMissionPending;
+    /**
+     * Flag if the clifton reported another telemetry layout.
+     */
+    private volatile boolean isLayoutMismatch;
+    /**
+     * The idle time after which a heartbeat is sent in ms (derived from-
+     * the loss timeout of the clifton).
      */
-    private TelemetryData currentTelemetryData;
+    private volatile long heartbeatInterval;
     /**
      * Flag if the last heartbeat was send successfuly.
      */
     private AtomicBoolean isHeartbeatSuccess;
     /**
-     * Timeout for Heartbeat.
+     * Failure detector, that learns the arrival times of the telemetry data.
      */
-    private static final long HEARTBEAT_INTERVAL = 1000;
+    private final PhiAccrualFailureDetector failureDetector;
     /**
-     * Holds a heartbeat.
+     * The current state of the link.
      */
-    private static final CliftonCommand HEARTBEAT_COMMAND =
-            CliftonCommand.heartbeat();
+    private final AtomicReference<LinkState> linkState;
+    /**
+     * The suspicion level from which on the link is suspected.
+     */
+    private volatile double suspicionThreshold;
+    /**
+     * The suspicion level from which on the link is declared lost.
+     */
+    private volatile double lossThreshold;
+    /**
+     * Negotiates a higher baud rate at connect time (optional).
+     */
+    private BaudRateNegotiator baudRateNegotiator;
+    /**
+     * The configured baud rate of the connection, captured before the first-
+     * negotiation. The connection keeps a negotiated baud rate across a-
+     * restart, so it is not captured again.
+     */
+    private volatile int initialBaudRate;
+    /**
+     * The idle time after which a heartbeat is sent, until the clifton-
+     * reported its loss timeout.
+     */
+    private static final long DEFAULT_HEARTBEAT_INTERVAL = 1000;
+    /**
+     * The number of heartbeats within the loss timeout of the clifton, so-
+     * a single lost heartbeat does not disconnect the clifton.
+     */
+    private static final long HEARTBEATS_PER_LOSS_TIMEOUT = 2;
+    /**
+     * The margin for the latency and the jitter of the link in ms.
+     */
+    private static final long HEARTBEAT_MARGIN = 200;
+    /**
+     * The lower bound of the heartbeat interval in ms, so a tiny loss-
+     * timeout does not flood the link with heartbeats.
+     */
+    private static final long MIN_HEARTBEAT_INTERVAL = 100;
+    /**
+     * The expected interval of the telemetry data in ms.
+     */
+    private static final long TELEMETRY_INTERVAL = 1000;
+    /**
+     * The interval in which the transmit worker evaluates the link state in ms.
+     */
+    private static final long LINK_EVALUATION_INTERVAL = 10;
+    /**
+     * The maximum time close waits for the worker threads in ms.
+     */
+    private static final long SHUTDOWN_TIMEOUT = 5;
+    /**
+     * The default suspicion level from which on the link is suspected.
+     */
+    public static final double DEFAULT_SUSPICION_THRESHOLD = 3.0;
+    /**
+     * The default suspicion level from which on the link is declared lost.
+     */
+    public static final double DEFAULT_LOSS_THRESHOLD = 8.0;
+    /**
+     * Holds the frame of a heartbeat.
+     */
+    private static final byte[] HEARTBEAT_FRAME =
+            CommandFrame.encode(CliftonCommand.heartbeat());
+    /**
+     * Holds the frame, that tells the clifton the telemetry layout.
+     */
+    private static final byte[] LAYOUT_FRAME =
+            CommandFrame.encode(CliftonCommand.layout(TelemetryLayout.CHECKSUM));
 
     /**
      * The logger.
@@ -73,26 +259,172 @@ public class ConnectionHandler extends Observable {
      * only XbeeConnection is supported).
      */
     public ConnectionHandler(final IConnection conn) {
+        this(conn, Clock.system());
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param conn - the connection to the clifton
+     * @param clk - the source of time and the scheduler of the worker threads
+     */
+    public ConnectionHandler(final IConnection conn, final Clock clk) {
         this.connection = conn;
+        this.clock = clk;
+        this.commandLock = new ReentrantLock();
+        this.commandAdded = this.commandLock.newCondition();
         this.transmitWorkerThread = null;
         this.receiveWorkerThread = null;
-        this.cliftonCommands = new ConcurrentLinkedQueue<>();
+        this.cliftonCommands = new CommandQueue(CommandQueue.DEFAULT_CAPACITY);
+        this.linkBudget = new LinkBudget(0, clk.currentTimeMillis());
+        this.transmitListeners = new CopyOnWriteArrayList<>();
+        this.dropListeners = new CopyOnWriteArrayList<>();
+        this.overflowListener = null;
+        this.expiryListener = null;
+        this.cliftonCommands.setOverflowListener(
+            command -> this.informDropped(this.overflowListener, command));
+        this.cliftonCommands.setExpiryListener(
+            command -> this.informDropped(this.expiryListener, command));
+        this.cliftonCommands.setSupersededListener(command -> this.informDropped(null, command));
+        this.heartbeatInterval = DEFAULT_HEARTBEAT_INTERVAL;
         this.workerThreadsRunning = new AtomicBoolean(false);
-        this.currentTelemetryData = null;
+        this.session = 0;
+        this.commandsTransmitted = new LongAdder();
+        this.heartbeatsTransmitted = new LongAdder();
+        this.telemetryReceived = new LongAdder();
+        this.telemetrySnapshot = null;
+        this.sailingMetrics = new SailingMetrics();
+        this.stateEstimator = new StateEstimator();
+        this.telemetrySequence = new AtomicLong();
+        this.snapshotLock = new ReentrantLock();
+        this.snapshotPublished = this.snapshotLock.newCondition();
+        this.snapshotWaiters = new AtomicInteger();
+        this.missionUpload = new AtomicReference<>();
+        this.missionId = new AtomicInteger();
+        this.isMissionPending = false;
         this.isHeartbeatSuccess = new AtomicBoolean(false);
+        this.failureDetector = new PhiAccrualFailureDetector(TELEMETRY_INTERVAL,
+                                    clk.currentTimeMillis());
+        this.linkState = new AtomicReference<>(LinkState.LOST);
+        this.suspicionThreshold = DEFAULT_SUSPICION_THRESHOLD;
+        this.lossThreshold = DEFAULT_LOSS_THRESHOLD;
+        this.baudRateNegotiator = null;
+        this.initialBaudRate = 0;
     }
 
     /**
-     * This method closes the connection and stops the worker thread.
+     * This method sets the negotiator, that is used to switch to a higher-
+     * baud rate when the connection is started.
+     *
+     * @param negotiator - the negotiator or null to keep the initial baud rate
      */
-    public void close() {
-        this.connection.close();
-        //Signale the worker thread to stop executing
+    public void setBaudRateNegotiator(final BaudRateNegotiator negotiator) {
+        this.baudRateNegotiator = negotiator;
+    }
+
+    /**
+     * This method sets the thresholds of the failure detector.
+     * Lower values detect a lost link faster, but lead to more false alarms.
+     *
+     * @param suspicion - the suspicion level from which on the link is suspected
+     * @param loss - the suspicion level from which on the link is declared lost
+     */
+    public void setFailureThresholds(final double suspicion, final double loss) {
+        if (suspicion <= 0 || loss < suspicion) {
+            throw new IllegalArgumentException("Invalid failure thresholds");
+        }
+
+        this.suspicionThreshold = suspicion;
+        this.lossThreshold = loss;
+    }
+
+    /**
+     * This method returns the current suspicion level of the link.
+     * The level grows continuously while telemetry data is overdue.
+     *
+     * @return double - the suspicion level (phi)
+     */
+    public double getSuspicionLevel() {
+        return this.failureDetector.phi(this.clock.currentTimeMillis());
+    }
+
+    /**
+     * This method returns the current state of the link.
+     *
+     * @return LinkState - the state of the link
+     */
+    public LinkState getLinkState() {
+        return this.linkState.get();
+    }
+
+    /**
+     * This method returns the number of transmitted commands (without-
+     * heartbeats) since the creation of the handler.
+     *
+     * @return long - the number of transmitted commands
+     */
+    public long getCommandsTransmitted() {
+        return this.commandsTransmitted.sum();
+    }
+
+    /**
+     * This method returns the number of transmitted heartbeats since the-
+     * creation of the handler.
+     *
+     * @return long - the number of transmitted heartbeats
+     */
+    public long getHeartbeatsTransmitted() {
+        return this.heartbeatsTransmitted.sum();
+    }
+
+    /**
+     * This method returns the number of received telemetry frames since the-
+     * creation of the handler.
+     *
+     * @return long - the number of received telemetry frames
+     */
+    public long getTelemetryReceived() {
+        return this.telemetryReceived.sum();
+    }
+
+    /**
+     * This method closes the connection and stops the worker threads.
+     * Blocked reads and waits are interrupted, so it returns within a few-
+     * ms. A worker, that is still blocked in the driver after SHUTDOWN_TIMEOUT,-
+     * is left behind and exits as soon as the read returns.
+     * The queued commands and the metrics are kept, so the handler can be-
+     * started again (e.g. after the port was switched).
+     */
+    public synchronized void close() {
+        //Signale the worker threads to stop executing
         this.workerThreadsRunning.set(false);
-        try {
-            this.transmitWorkerThread.join();
-            this.receiveWorkerThread.join();
-        } catch (InterruptedException ignored) { }
+        this.connection.close();
+        this.signalTransmitWorker();
+
+        final long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(SHUTDOWN_TIMEOUT);
+        for (final var worker : new Thread[] {this.transmitWorkerThread,
+                                              this.receiveWorkerThread}) {
+            if (worker == null) {
+                continue;
+            }
+
+            worker.interrupt();
+            try {
+                TimeUnit.NANOSECONDS.timedJoin(worker, Math.max(1, deadline - System.nanoTime()));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            if (worker.isAlive()) {
+                LOGGER.warn("{} did not stop within {} ms", worker.getName(), SHUTDOWN_TIMEOUT);
+            }
+        }
+
+        this.transmitWorkerThread = null;
+        this.receiveWorkerThread = null;
+        this.isHeartbeatSuccess.set(false);
+        if (this.linkState.getAndSet(LinkState.LOST) != LinkState.LOST) {
+            this.announceChange();
+        }
     }
 
     /**
@@ -106,22 +438,311 @@ public class ConnectionHandler extends Observable {
                 && this.isHeartbeatSuccess.get();
     }
 
+    /**
+     * This method returns the utilization of the link by the laptop within-
+     * the last second.
+     *
+     * @return double - the sent bytes relative to the capacity (0 to 1)
+     */
+    public double getLinkUtilization() {
+        return this.linkBudget.getUtilization(this.clock.currentTimeMillis());
+    }
+
+    /**
+     * This method returns the byte budget of the link, e.g. for the sent-
+     * bytes per traffic class.
+     *
+     * @return LinkBudget - the budget
+     */
+    public LinkBudget getLinkBudget() {
+        return this.linkBudget;
+    }
+
+    /**
+     * This method returns the idle time after which a heartbeat is sent.
+     *
+     * @return long - the heartbeat interval in ms
+     */
+    public long getHeartbeatInterval() {
+        return this.heartbeatInterval;
+    }
+
+    /**
+     * This method checks if the clifton reported another telemetry layout-
+     * (generated from another version of protocol/telemetry.schema).
+     *
+     * @return boolean - true if the layouts differ, false otherwise
+     */
+    public boolean isLayoutMismatch() {
+        return this.isLayoutMismatch;
+    }
+
     /**
      * This method returns the current telemetry data.
      *
      * @return TelemetryData - the current telemetry data
      */
     public TelemetryData getCurrentTelemetryData() {
-        return this.currentTelemetryData;
+        final var snapshot = this.telemetrySnapshot;
+        return snapshot == null ? null : snapshot.data();
+    }
+
+    /**
+     * This method returns the stage, that derives the sailing values of the-
+     * snapshots (e.g. to set the target of the velocity made good).
+     *
+     * @return SailingMetrics - the derived values stage
+     */
+    public SailingMetrics getSailingMetrics() {
+        return this.sailingMetrics;
+    }
+
+    /**
+     * This method returns the estimated position and heading of the sail-
+     * agent now, dead-reckoned from the last received frame.
+     *
+     * @return StateEstimate - the estimated state, null if nothing was received
+     */
+    public StateEstimate getStateEstimate() {
+        return this.stateEstimator.estimate(this.clock.nanoTime());
+    }
+
+    /**
+     * This method returns the estimator of the position and heading (e.g. to-
+     * predict the state at another instant).
+     *
+     * @return StateEstimator - the estimator
+     */
+    public StateEstimator getStateEstimator() {
+        return this.stateEstimator;
+    }
+
+    /**
+     * This method returns the last received telemetry data with its-
+     * sequence number and reception time, without locking.
+     *
+     * @return TelemetrySnapshot - the last snapshot, null if nothing was received
+     */
+    public TelemetrySnapshot getTelemetrySnapshot() {
+        return this.telemetrySnapshot;
+    }
+
+    /**
+     * This method waits until telemetry data newer than a known sequence-
+     * number was received.
+     *
+     * @param sequence - the sequence number already seen (0 for none)
+     * @param timeout - the maximum time to wait in ms
+     * @return Optional<TelemetrySnapshot> - the newer snapshot, empty on timeout
+     */
+    public Optional<TelemetrySnapshot> awaitNewerThan(final long sequence, final long timeout) {
+        var snapshot = this.telemetrySnapshot;
+        if (snapshot != null && snapshot.sequence() > sequence) {
+            return Optional.of(snapshot);
+        }
+
+        long remaining = TimeUnit.MILLISECONDS.toNanos(timeout);
+        this.snapshotLock.lock();
+        this.snapshotWaiters.incrementAndGet();
+        try {
+            //Check again, the receive worker could have published meanwhile
+            while ((snapshot = this.telemetrySnapshot) == null
+                    || snapshot.sequence() <= sequence) {
+                if (remaining <= 0) {
+                    return Optional.empty();
+                }
+                remaining = this.clock.awaitNanos(this.snapshotLock, this.snapshotPublished,
+                                                  remaining);
+            }
+
+            return Optional.of(snapshot);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return Optional.empty();
+        } finally {
+            this.snapshotWaiters.decrementAndGet();
+            this.snapshotLock.unlock();
+        }
+    }
+
+    /**
+     * This method checks if the telemetry data is older than a maximum age.
+     *
+     * @param maxAge - the maximum age in ms
+     * @return boolean - true if no data was received within maxAge, false otherwise
+     */
+    public boolean isStale(final long maxAge) {
+        final var snapshot = this.telemetrySnapshot;
+        return snapshot == null || snapshot.isStale(maxAge, this.clock.nanoTime());
+    }
+
+    /**
+     * This method publishes a received frame and wakes up the waiting threads.
+     *
+     * @param telemetryData - the received telemetry data
+     */
+    private void publishTelemetry(final TelemetryData telemetryData) {
+        final long receiveNanos = this.clock.nanoTime();
+        this.stateEstimator.update(telemetryData, receiveNanos);
+        this.telemetrySnapshot = new TelemetrySnapshot(
+                                    this.telemetrySequence.incrementAndGet(),
+                                    receiveNanos,
+                                    this.clock.currentTimeMillis(),
+                                    telemetryData,
+                                    this.sailingMetrics.update(telemetryData));
+
+        if (this.snapshotWaiters.get() > 0) {
+            this.snapshotLock.lock();
+            try {
+                this.snapshotPublished.signalAll();
+            } finally {
+                this.snapshotLock.unlock();
+            }
+        }
+    }
+
+    /**
+     * This method sends a command to the clifton.
+     * It is queued with the default priority and time to live of its type.
+     *
+     * @param command - the command to be sent
+     * @return boolean - true if the command was queued, false if the queue is full
+     */
+    public boolean sendCommand(final CliftonCommand command) {
+        final boolean isQueued = this.cliftonCommands.offer(command,
+                                    this.clock.currentTimeMillis());
+        this.signalTransmitWorker();
+        return isQueued;
     }
 
     /**
      * This method sends a command to the clifton.
      *
      * @param command - the command to be sent
+     * @param priority - the priority of the command
+     * @param timeToLive - the time after which the unsent command is dropped-
+     *        in ms (CommandQueue.NO_DEADLINE if it never expires)
+     * @return boolean - true if the command was queued, false if the queue is full
+     */
+    public boolean sendCommand(final CliftonCommand command,
+            final CommandQueue.Priority priority, final long timeToLive) {
+        final long deadline = timeToLive == CommandQueue.NO_DEADLINE ? CommandQueue.NO_DEADLINE
+                              : this.clock.currentTimeMillis() + timeToLive;
+        final boolean isQueued = this.cliftonCommands.offer(command, priority, deadline);
+        this.signalTransmitWorker();
+        return isQueued;
+    }
+
+    /**
+     * This method sets the listener, that is called with every command, that-
+     * was rejected or replaced because the command queue was full.
+     *
+     * @param listener - the listener or null
+     */
+    public void setCommandOverflowListener(final Consumer<CliftonCommand> listener) {
+        this.overflowListener = listener;
+    }
+
+    /**
+     * This method sets the listener, that is called with every command, that-
+     * expired before it could be sent (e.g. while the link was lost).
+     *
+     * @param listener - the listener or null
+     */
+    public void setCommandExpiryListener(final Consumer<CliftonCommand> listener) {
+        this.expiryListener = listener;
+    }
+
+    /**
+     * This method adds a listener, that is called in the transmit worker-
+     * with every command right after it was written to the connection.
+     *
+     * @param listener - the listener
+     */
+    public void addCommandTransmitListener(final Consumer<CliftonCommand> listener) {
+        this.transmitListeners.add(listener);
+    }
+
+    /**
+     * This method removes a transmit listener.
+     *
+     * @param listener - the listener
      */
-    public void sendCommand(final CliftonCommand command) {
-        this.cliftonCommands.add(command);
+    public void removeCommandTransmitListener(final Consumer<CliftonCommand> listener) {
+        this.transmitListeners.remove(listener);
+    }
+
+    /**
+     * This method adds a listener, that is called with every command, that-
+     * was dropped unsent: rejected or replaced because the command queue was-
+     * full, expired or lost by a failed write.
+     *
+     * @param listener - the listener
+     */
+    public void addCommandDropListener(final Consumer<CliftonCommand> listener) {
+        this.dropListeners.add(listener);
+    }
+
+    /**
+     * This method removes a drop listener.
+     *
+     * @param listener - the listener
+     */
+    public void removeCommandDropListener(final Consumer<CliftonCommand> listener) {
+        this.dropListeners.remove(listener);
+    }
+
+    /**
+     * This method passes a dropped command to a listener and the drop listeners.
+     *
+     * @param listener - the listener of the cause or null
+     * @param command - the dropped command
+     */
+    private void informDropped(final Consumer<CliftonCommand> listener,
+            final CliftonCommand command) {
+        if (listener != null) {
+            listener.accept(command);
+        }
+        for (final var dropListener : this.dropListeners) {
+            dropListener.accept(command);
+        }
+    }
+
+    /**
+     * This method uploads a mission to the clifton.
+     * The waypoints are sent in chunks within a sliding window, lost chunks-
+     * are sent again. An active upload is cancelled.
+     *
+     * @param waypoints - the waypoints of the mission
+     * @return CompletableFuture<Boolean> - completed with true if the clifton-
+     *         received all waypoints, false if the upload failed or was cancelled
+     */
+    public CompletableFuture<Boolean> uploadMission(final List<Waypoint> waypoints) {
+        final var upload = new MissionUpload(
+                            this.missionId.incrementAndGet() & Constants.BYTE_MAX,
+                            waypoints);
+        final var previous = this.missionUpload.getAndSet(upload);
+        if (previous != null) {
+            previous.cancel();
+        }
+
+        LOGGER.info("Uploading mission {} ({} waypoints, {} chunks)",
+            upload.getMissionId(), waypoints.size(), upload.getChunkCount());
+        this.isMissionPending = true;
+        this.signalTransmitWorker();
+        return upload.getResult();
+    }
+
+    /**
+     * This method wakes up the transmit worker.
+     */
+    private void signalTransmitWorker() {
+        this.commandLock.lock();
+        try {
+            this.commandAdded.signalAll();
+        } finally {
+            this.commandLock.unlock();
+        }
     }
 
     /**
@@ -130,23 +751,59 @@ public class ConnectionHandler extends Observable {
      * @return boolean - true if the connection was successfully established,
      * false otherwise
      */
-    public boolean start() {
+    public synchronized boolean start() {
+        if (this.workerThreadsRunning.get()) {
+            return true;
+        }
+
         this.connection.create();
         if (!this.connection.isConnected()) {
             LOGGER.error("XBeeSerialConnection could not be established");
             return false;
         }
 
-        //Initialize and start both worker threads
+        if (this.initialBaudRate == 0) {
+            this.initialBaudRate = this.connection.getBaudRate();
+        }
+        if (this.baudRateNegotiator != null) {
+            LOGGER.info("Using baud rate {}",
+                this.baudRateNegotiator.negotiate(this.connection));
+        }
+
+        //The budget follows the (negotiated) baud rate of the link
+        this.linkBudget.setBaudRate(this.connection.getBaudRate(), this.clock.currentTimeMillis());
+
+        //Tell the clifton the telemetry layout, it answers with its own-
+        //and its loss timeout. Without budget it waits in the queue.
+        this.isLayoutMismatch = false;
+        this.heartbeatInterval = DEFAULT_HEARTBEAT_INTERVAL;
+        final long now = this.clock.currentTimeMillis();
+        if (!this.linkBudget.tryAcquire(TrafficClass.COMMAND, LAYOUT_FRAME.length, now)
+                || !this.connection.sendData(LAYOUT_FRAME)) {
+            LOGGER.warn("Failed to send the telemetry layout -> Queued");
+            this.cliftonCommands.offer(CliftonCommand.layout(TelemetryLayout.CHECKSUM), now);
+        }
+
+        //Initialize and start both worker threads of a new session
+        final int workerSession = ++this.session;
         this.workerThreadsRunning.set(true);
         this.isHeartbeatSuccess.set(true);
-        this.transmitWorkerThread = new Thread(this::transmitWorker);
-        this.receiveWorkerThread = new Thread(this::receiveWorker);
+        this.failureDetector.resume(this.clock.currentTimeMillis());
+        this.linkState.set(LinkState.CONNECTED);
+        this.transmitWorkerThread = this.clock.newThread(
+                                        () -> this.transmitWorker(workerSession),
+                                        "clifton-transmit");
+        this.receiveWorkerThread = this.clock.newThread(
+                                        () -> this.receiveWorker(workerSession),
+                                        "clifton-receive");
+        this.transmitWorkerThread.setDaemon(true);
+        this.receiveWorkerThread.setDaemon(true);
 
         try {
             this.transmitWorkerThread.start();
             this.receiveWorkerThread.start();
         } catch (Exception e) {
+            this.workerThreadsRunning.set(false);
             this.connection.close();
             LOGGER.error("Failed to start worker threads", e);
             return false;
@@ -156,62 +813,297 @@ public class ConnectionHandler extends Observable {
         return true;
     }
 
+    /**
+     * This method checks if the workers of a session should be running.
+     *
+     * @param workerSession - the session of the worker
+     * @return boolean - true if the session was not closed, false otherwise
+     */
+    private boolean isRunning(final int workerSession) {
+        return this.workerThreadsRunning.get() && this.session == workerSession;
+    }
+
     /**
      * Worker thread to publish commands to the clifton and handle heartbeat.
+     *
+     * @param workerSession - the session of the worker
      */
-    private void transmitWorker() {
+    private void transmitWorker(final int workerSession) {
+
+        long lastTransmissionTime = this.clock.currentTimeMillis();
+        final var frame = new CommandFrame();
 
-        long lastTransmissionTime = System.currentTimeMillis();
+        while (this.isRunning(workerSession)) {
+            //Pack the queued commands and the mission chunks into frames,-
+            //as far as the budget of their traffic class allows
+            long throttleDelay = 0;
+            long heartbeatDelay = 0;
+            while (this.isHeartbeatSuccess.get() && this.isRunning(workerSession)) {
+                final long now = this.clock.currentTimeMillis();
+                frame.clear();
+                this.cliftonCommands.pack(frame, this.linkBudget.getAvailable(
+                                            TrafficClass.COMMAND, now) - CommandFrame.OVERHEAD,
+                                          now);
+                final int commandBytes = frame.isEmpty() ? 0 : frame.getSize();
 
-        while (this.workerThreadsRunning.get()) {
-            //Process all commands in the queue (if any available)
-            while (!this.cliftonCommands.isEmpty() && this.isHeartbeatSuccess.get()) {
-                final var command = this.cliftonCommands.poll();
-                if (!this.connection
-                        .sendData(command.toByteArray())) {
+                //The commands take their bytes first, so the bulk budget does-
+                //not count the shared tokens a second time
+                if (commandBytes > 0
+                        && !this.linkBudget.tryAcquire(TrafficClass.COMMAND, commandBytes, now)) {
+                    this.cliftonCommands.restorePacked();
+                    throttleDelay = this.getThrottleDelay(now);
+                    break;
+                }
+
+                final var chunks = this.packMissionChunks(frame,
+                    this.linkBudget.getAvailable(TrafficClass.BULK, now)
+                    - (frame.isEmpty() ? CommandFrame.OVERHEAD : 0));
+                final int bulkBytes = chunks.stream().mapToInt(CliftonCommand::getEncodedSize)
+                                            .sum() + (frame.isEmpty() ? CommandFrame.OVERHEAD : 0);
+                if (!chunks.isEmpty()
+                        && this.linkBudget.tryAcquire(TrafficClass.BULK, bulkBytes, now)) {
+                    chunks.forEach(frame::add);
+                } else if (!chunks.isEmpty()) {
+                    //Retransmitted after the timeout of the upload
+                    LOGGER.warn("Budget refused {} mission chunks", chunks.size());
+                }
+                if (frame.isEmpty()) {
+                    throttleDelay = this.getThrottleDelay(now);
+                    break;
+                }
+
+                //Commands interrupted by close stay queued for the next session
+                final boolean sent = this.connection.sendData(frame.toByteArray());
+                if (!sent && !this.isRunning(workerSession)) {
+                    this.cliftonCommands.restorePacked();
+                    break;
+                }
+
+                for (final var command : this.cliftonCommands.commitPacked()) {
+                    if (sent) {
+                        this.commandsTransmitted.increment();
+                        for (final var listener : this.transmitListeners) {
+                            listener.accept(command);
+                        }
+                        LOGGER.info("Command transmitted: {}", command.toString());
+                    } else {
+                        this.informDropped(null, command);
+                    }
+                }
+
+                if (!sent) {
                     LOGGER.error("Failed to write to serial port"
-                        + " while sending command");
-                } else {
-                    LOGGER.info("Command transmitted: {}", command.toString());
+                        + " while sending command frame");
                 }
 
-                lastTransmissionTime = System.currentTimeMillis();
+                lastTransmissionTime = this.clock.currentTimeMillis();
             }
 
             /*
              * Check if heartbeat is required.
-             * This is the case when there are no commands to send for at least
-             * 1 second
+             * Every frame proves the liveness of the laptop, so a heartbeat is-
+             * only sent if nothing was sent within the heartbeat interval.
              */
-            if (System.currentTimeMillis()
-                    - lastTransmissionTime > HEARTBEAT_INTERVAL) {
-                if (!this.connection
-                        .sendData(HEARTBEAT_COMMAND.toByteArray())) {
-                    LOGGER.error("Failed to write to serial port "
-                        + "while sending Heartbeat");
-                }
+            if (this.clock.currentTimeMillis()
+                    - lastTransmissionTime > this.heartbeatInterval) {
+                //The heartbeats have a guaranteed share, that other traffic-
+                //cannot use up, it is only delayed by a burst of its own
+                final long now = this.clock.currentTimeMillis();
+                if (!this.linkBudget.tryAcquire(TrafficClass.HEARTBEAT, HEARTBEAT_FRAME.length,
+                                                now)) {
+                    heartbeatDelay = Math.max(1, this.linkBudget.getDelay(TrafficClass.HEARTBEAT,
+                                                     HEARTBEAT_FRAME.length, now));
+                } else {
+                    if (!this.connection.sendData(HEARTBEAT_FRAME)) {
+                        LOGGER.error("Failed to write to serial port "
+                            + "while sending Heartbeat");
+                    } else {
+                        this.heartbeatsTransmitted.increment();
+                    }
 
-                LOGGER.info("heartbeat transmitted");
-                lastTransmissionTime = System.currentTimeMillis();
+                    LOGGER.info("heartbeat transmitted");
+                    lastTransmissionTime = this.clock.currentTimeMillis();
+                }
             }
 
-            //Sleep for 1ms, to reduce CPU usage
-            try {
-                Thread.sleep(1);
-            } catch (InterruptedException ignored) { }
+            //Commands are not sent while the link is lost, drop stale ones
+            this.cliftonCommands.expire(this.clock.currentTimeMillis());
+            this.evaluateLinkState();
+
+            /*
+             * Wait for a command, the next heartbeat or the next evaluation.
+             * A lost link is only connected again by the receive worker,
+             * so it is not evaluated.
+             */
+            long untilHeartbeat = lastTransmissionTime + this.heartbeatInterval + 1
+                                  - this.clock.currentTimeMillis();
+            if (heartbeatDelay > 0) {
+                //Wake up as soon as the budget allows the heartbeat
+                untilHeartbeat = Math.max(untilHeartbeat, heartbeatDelay);
+            }
+            final var pendingUpload = this.missionUpload.get();
+            if (pendingUpload != null && this.isHeartbeatSuccess.get()) {
+                //Wake up for the retransmission of a chunk
+                untilHeartbeat = Math.min(untilHeartbeat, pendingUpload.getNextTimeout()
+                                                          - this.clock.currentTimeMillis());
+            }
+            if (throttleDelay > 0) {
+                //Wake up as soon as the budget allows the next frame
+                untilHeartbeat = Math.min(untilHeartbeat, throttleDelay);
+            }
+            this.awaitCommand(this.linkState.get() == LinkState.LOST
+                                ? untilHeartbeat
+                                : Math.min(LINK_EVALUATION_INTERVAL, untilHeartbeat),
+                              throttleDelay > 0);
         }
 
         LOGGER.info("transmitWorker exited");
     }
 
+    /**
+     * This method returns the time until the budget allows to send the-
+     * pending commands or mission chunks.
+     *
+     * @param now - the current time in ms
+     * @return long - the delay in ms, 0 if nothing is throttled
+     */
+    private long getThrottleDelay(final long now) {
+        final int frameSize = CommandFrame.OVERHEAD + CliftonCommand.MAX_CHUNK_SIZE;
+        long delay = Long.MAX_VALUE;
+        if (!this.cliftonCommands.isEmpty()) {
+            delay = this.linkBudget.getDelay(TrafficClass.COMMAND, frameSize, now);
+        }
+        if (this.isMissionPending && this.missionUpload.get() != null) {
+            delay = Math.min(delay, this.linkBudget.getDelay(TrafficClass.BULK, frameSize, now));
+        }
+        return delay == Long.MAX_VALUE ? 0 : Math.max(delay, 1);
+    }
+
+    /**
+     * This method takes the chunks of the mission upload, that the window,-
+     * the budget and the remaining space of a frame allow.
+     *
+     * @param frame - the frame to be filled
+     * @param budget - the maximum number of bytes to be packed
+     * @return List<CliftonCommand> - the chunks, not yet added to the frame
+     */
+    private List<CliftonCommand> packMissionChunks(final CommandFrame frame, final int budget) {
+        final List<CliftonCommand> chunks = new ArrayList<>();
+        final var upload = this.missionUpload.get();
+        if (upload == null) {
+            return chunks;
+        }
+
+        if (upload.getResult().isDone()) {
+            this.missionUpload.compareAndSet(upload, null);
+            return chunks;
+        }
+
+        //A chunk held back by the budget is sent, once the budget allows it
+        this.isMissionPending = budget < CliftonCommand.MAX_CHUNK_SIZE;
+        int remaining = budget;
+        int space = frame.getRemaining();
+        CliftonCommand chunk;
+        while (space >= CliftonCommand.MAX_CHUNK_SIZE
+                && remaining >= CliftonCommand.MAX_CHUNK_SIZE
+                && (chunk = upload.nextChunk(this.clock.currentTimeMillis())) != null) {
+            chunks.add(chunk);
+            space -= chunk.getEncodedSize();
+            remaining -= chunk.getEncodedSize();
+            this.isMissionPending = remaining < CliftonCommand.MAX_CHUNK_SIZE;
+        }
+        return chunks;
+    }
+
+    /**
+     * This method blocks the transmit worker until a command can be sent or-
+     * the timeout elapsed.
+     *
+     * @param timeout - the maximum time to wait in ms
+     * @param isThrottled - true if the pending commands wait for the budget
+     */
+    private void awaitCommand(final long timeout, final boolean isThrottled) {
+        this.commandLock.lock();
+        try {
+            if (this.workerThreadsRunning.get()
+                    && (isThrottled
+                        || (this.cliftonCommands.isEmpty() && !this.isMissionPending)
+                        || !this.isHeartbeatSuccess.get())) {
+                this.clock.awaitNanos(this.commandLock, this.commandAdded,
+                                      TimeUnit.MILLISECONDS.toNanos(timeout));
+            }
+        } catch (InterruptedException ignored) {
+        } finally {
+            this.commandLock.unlock();
+        }
+    }
+
+    /**
+     * This method updates the link state by the current suspicion level.
+     * Subscribers are notified, if the state changes.
+     */
+    private void evaluateLinkState() {
+        final double phi = this.getSuspicionLevel();
+        final LinkState newState;
+        if (phi >= this.lossThreshold) {
+            newState = LinkState.LOST;
+        } else if (phi >= this.suspicionThreshold) {
+            newState = LinkState.SUSPECTED;
+        } else {
+            newState = LinkState.CONNECTED;
+        }
+
+        //The link is only declared connected again by received telemetry data
+        final var oldState = this.linkState.get();
+        if (oldState == newState || oldState == LinkState.LOST
+                || !this.linkState.compareAndSet(oldState, newState)) {
+            return;
+        }
+
+        if (newState == LinkState.LOST) {
+            this.isHeartbeatSuccess.set(false);
+            LOGGER.error("Sail Agent lost (phi {})...Attempting to connect", phi);
+        } else if (newState == LinkState.SUSPECTED) {
+            LOGGER.warn("Sail Agent suspected (phi {})", phi);
+        }
+
+        this.announceChange();
+    }
+
     /**
      * Worker thread to receive telemetry data from the clifton.
+     *
+     * @param workerSession - the session of the worker
      */
-    private void receiveWorker() {
-        while (this.workerThreadsRunning.get()) {
+    private void receiveWorker(final int workerSession) {
+        while (this.isRunning(workerSession)) {
             final var byteData = this.connection
                                     .receiveData(TELEMETRY_SIZE);
 
+            //A read interrupted by close is not a lost connection
+            if (!this.isRunning(workerSession)) {
+                break;
+            }
+
+            //The clifton reports its layout in a frame of the same size
+            final var layoutReport = LayoutReport.fromByteArray(byteData.orElse(null));
+            if (layoutReport.isPresent()) {
+                this.checkLayout(layoutReport.get());
+                continue;
+            }
+
+            //The clifton acknowledges mission chunks in frames of the same size
+            final var missionAck = MissionAck.fromByteArray(byteData.orElse(null));
+            if (missionAck.isPresent()) {
+                this.acknowledgeMission(missionAck.get());
+                continue;
+            }
+
+            //A repeated acknowledgement of the negotiated baud rate
+            if (BaudRateAck.isBaudRateAck(byteData.orElse(null))) {
+                continue;
+            }
+
             //Convert the byte array to a structured telemetry data object
             final var telemetryData = TelemetryData
                                         .fromByteArray(byteData.orElseGet(
@@ -220,23 +1112,99 @@ public class ConnectionHandler extends Observable {
                 //No data or wrong data received -> connection lost
                 //or is not fully established yet
                 this.isHeartbeatSuccess.set(false);
+                this.linkState.set(LinkState.LOST);
                 this.announceChange();
                 LOGGER.error("Sail Agent disconnected...Attempting to connect");
+                this.fallBackBaudRate();
                 continue;
             }
 
             LOGGER.info("Telemetry Data: {}", telemetryData.toString());
+            this.telemetryReceived.increment();
+
+            //The gap of a lost link is not learned as inter-arrival time
+            final long now = this.clock.currentTimeMillis();
+            if (this.linkState.get() == LinkState.LOST) {
+                this.failureDetector.reset(now);
+            } else {
+                this.failureDetector.arrived(now);
+            }
 
             //Reconnect, if connection was lost
-            if (!this.isHeartbeatSuccess.get()) {
+            if (!this.isHeartbeatSuccess.get()
+                    || this.linkState.get() != LinkState.CONNECTED) {
                 LOGGER.info("Sail Agent connected");
                 this.isHeartbeatSuccess.set(true);
+                this.linkState.set(LinkState.CONNECTED);
+                this.signalTransmitWorker();
             }
 
-            this.currentTelemetryData = telemetryData.get();
+            this.publishTelemetry(telemetryData.get());
             this.announceChange();
         }
 
         LOGGER.info("receiveWorker exited");
     }
+
+    /**
+     * This method switches back to the baud rate, that the connection had-
+     * before the negotiation. The clifton returns to its default baud rate-
+     * after its loss timeout, so both sides meet there again.
+     */
+    private void fallBackBaudRate() {
+        final int baudRate = this.initialBaudRate;
+        if (this.baudRateNegotiator == null || this.connection.getBaudRate() == baudRate) {
+            return;
+        }
+
+        if (this.connection.setBaudRate(baudRate)) {
+            LOGGER.warn("Fell back to baud rate {}", baudRate);
+            this.linkBudget.setBaudRate(baudRate, this.clock.currentTimeMillis());
+        } else {
+            LOGGER.error("Failed to fall back to baud rate {}", baudRate);
+        }
+    }
+
+    /**
+     * This method compares the layout reported by the clifton with the own.
+     *
+     * @param report - the received layout report
+     */
+    private void checkLayout(final LayoutReport report) {
+        //Older clifton versions do not report their loss timeout
+        if (report.lossTimeout() > 0) {
+            this.heartbeatInterval = Math.max(MIN_HEARTBEAT_INTERVAL,
+                report.lossTimeout() / HEARTBEATS_PER_LOSS_TIMEOUT - HEARTBEAT_MARGIN);
+            LOGGER.info("Heartbeat interval {} ms (loss timeout {} ms)",
+                this.heartbeatInterval, report.lossTimeout());
+        }
+
+        this.isLayoutMismatch = !report.isCompatible();
+        if (this.isLayoutMismatch) {
+            LOGGER.error("Telemetry layout mismatch: laptop {}, clifton {}",
+                Integer.toHexString(TelemetryLayout.CHECKSUM),
+                Integer.toHexString(report.checksum()));
+        } else {
+            LOGGER.info("Telemetry layout {} confirmed",
+                Integer.toHexString(report.checksum()));
+        }
+        this.announceChange();
+    }
+
+    /**
+     * This method passes a received acknowledgement to the mission upload-
+     * and wakes up the transmit worker to send the next chunks.
+     *
+     * @param ack - the received acknowledgement
+     */
+    private void acknowledgeMission(final MissionAck ack) {
+        //Not learned by the failure detector, the acknowledgements would-
+        //shorten the expected interval of the telemetry data
+        final var upload = this.missionUpload.get();
+        if (upload != null) {
+            upload.acknowledge(ack, this.clock.currentTimeMillis());
+            this.isMissionPending = true;
+            this.signalTransmitWorker();
+        }
+    }
 }
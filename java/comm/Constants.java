@@ -1,5 +1,7 @@
 package comm;
 
+import comm.protocol.TelemetryLayout;
+
 /**
  * This class contains the constants used for the communication.
  */
@@ -11,9 +13,9 @@ public final class Constants {
     private Constants() { }
 
     /**
-     * The size of the telemetry data in bytes.
+     * The size of the telemetry data in bytes (see protocol/telemetry.schema).
      */
-    public static final int TELEMETRY_SIZE = 14;
+    public static final int TELEMETRY_SIZE = TelemetryLayout.SIZE;
     /**
      * The size of a byte in bits.
      */
@@ -0,0 +1,237 @@
+package comm;
+
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * This class represents a connection to the clifton, which finds its serial
+ * port on its own by using the PortDiscovery.
+ * If receiving fails repeatedly (e.g. because the usb dongle re-enumerated),
+ * the discovery is run again, at the last used and at the default baud rate.
+ * The discovery runs on the receiving thread, close cancels it.
+ * To use it, simply pass it to the ConnectionHandler instead of the
+ * XBeeSerialConnection.
+ */
+public final class DiscoveringConnection implements IConnection {
+    /**
+     * The discovery, that finds the port of the clifton.
+     */
+    private final PortDiscovery discovery;
+    /**
+     * The connection to the discovered port.
+     */
+    private volatile IConnection delegate;
+    /**
+     * Flag if the connection is opened (created and not closed).
+     */
+    private volatile boolean isOpen;
+    /**
+     * The number of failed receives in a row.
+     */
+    private int failedReceives;
+    /**
+     * The thread, that runs the discovery, null if none.
+     */
+    private final AtomicReference<Thread> discoveringThread;
+
+    /**
+     * The number of failed receives in a row, after which the port is-
+     * searched again.
+     */
+    private static final int REDISCOVERY_FAILURES = 3;
+
+    /**
+     * The logger.
+     */
+    private static final Logger LOGGER = LogManager.getLogger(DiscoveringConnection.class);
+
+    /**
+     * Constructor.
+     *
+     * @param portDiscovery - the discovery, that finds the port of the clifton
+     */
+    public DiscoveringConnection(final PortDiscovery portDiscovery) {
+        this.discovery = portDiscovery;
+        this.delegate = null;
+        this.isOpen = false;
+        this.failedReceives = 0;
+        this.discoveringThread = new AtomicReference<>();
+    }
+
+    /**
+     * This method creates the connection by discovering the port.
+     */
+    @Override
+    public void create() {
+        this.isOpen = true;
+        this.rediscover();
+    }
+
+    /**
+     * This method closes the connection.
+     */
+    @Override
+    public void close() {
+        this.isOpen = false;
+        final var discovering = this.discoveringThread.get();
+        if (discovering != null) {
+            discovering.interrupt();
+        }
+        final var current = this.delegate;
+        if (current != null) {
+            current.close();
+        }
+    }
+
+    /**
+     * This method sends data to the discovered port.
+     *
+     * @param data - the data to be sent
+     * @return boolean - true if the data was sent successfully, false otherwise
+     */
+    @Override
+    public boolean sendData(final byte[] data) {
+        final var current = this.delegate;
+        return current != null && current.isConnected() && current.sendData(data);
+    }
+
+    /**
+     * This method receives data from the discovered port.
+     * The port is searched again, if receiving fails repeatedly.
+     *
+     * @param length - the length of the data to be received
+     * @return Optional<byte[]> - the received data if available
+     */
+    @Override
+    public Optional<byte[]> receiveData(final int length) {
+        final var current = this.delegate;
+        final Optional<byte[]> data = current != null && current.isConnected()
+                                        ? current.receiveData(length)
+                                        : Optional.empty();
+        this.handleReceiveResult(data.isPresent());
+        return data;
+    }
+
+    /**
+     * This method receives data from the discovered port.
+     *
+     * @return Optional<byte[]> - the received data if available
+     */
+    @Override
+    public Optional<byte[]> receiveData() {
+        final var current = this.delegate;
+        final Optional<byte[]> data = current != null && current.isConnected()
+                                        ? current.receiveData()
+                                        : Optional.empty();
+        this.handleReceiveResult(data.isPresent());
+        return data;
+    }
+
+    /**
+     * This method checks if the connection is established.
+     * While the port is searched again, the connection stays established.
+     *
+     * @return boolean - true if the connection is established, false otherwise
+     */
+    @Override
+    public boolean isConnected() {
+        return this.isOpen && this.delegate != null;
+    }
+
+    /**
+     * This method returns the number of bytes, that can be received from the
+     * discovered port without blocking.
+     *
+     * @return int - the number of available bytes, or -1 if unknown
+     */
+    @Override
+    public int getAvailableBytes() {
+        final var current = this.delegate;
+        return current != null ? current.getAvailableBytes() : -1;
+    }
+
+    /**
+     * This method switches the baud rate of the discovered port.
+     *
+     * @param baudRate - the new baud rate
+     * @return boolean - true if the baud rate was switched, false otherwise
+     */
+    @Override
+    public boolean setBaudRate(final int baudRate) {
+        final var current = this.delegate;
+        return current != null && current.setBaudRate(baudRate);
+    }
+
+    /**
+     * This method returns the baud rate of the discovered port.
+     *
+     * @return int - the baud rate, or 0 if no port is discovered
+     */
+    @Override
+    public int getBaudRate() {
+        final var current = this.delegate;
+        return current != null ? current.getBaudRate() : 0;
+    }
+
+    /**
+     * This method counts failed receives and starts the discovery again,
+     * if too many failed in a row.
+     *
+     * @param success - true if the receive was successful
+     */
+    private void handleReceiveResult(final boolean success) {
+        if (success) {
+            this.failedReceives = 0;
+            return;
+        }
+
+        if (++this.failedReceives >= REDISCOVERY_FAILURES && this.isOpen) {
+            LOGGER.error("Receiving failed {} times, searching clifton again",
+                this.failedReceives);
+            this.rediscover();
+        }
+    }
+
+    /**
+     * This method closes the current port and discovers it again.
+     * Only one thread discovers at a time, a concurrent call returns at once.
+     */
+    private void rediscover() {
+        final var self = Thread.currentThread();
+        if (!this.discoveringThread.compareAndSet(null, self)) {
+            return;
+        }
+
+        try {
+            final var old = this.delegate;
+            final int lastBaudRate = old != null ? old.getBaudRate() : 0;
+            this.delegate = null;
+            if (old != null) {
+                old.close();
+            }
+
+            this.failedReceives = 0;
+            final var found = this.isOpen
+                              ? this.discovery.discover(lastBaudRate,
+                                    this.discovery.getBaudRate()).orElse(null)
+                              : null;
+
+            //The connection could have been closed meanwhile
+            if (!this.isOpen && found != null) {
+                found.close();
+            } else {
+                this.delegate = found;
+            }
+        } finally {
+            this.discoveringThread.set(null);
+            //The interrupt of close only cancels the discovery, the caller-
+            //(e.g. the thread, that creates the connection) keeps running
+            if (!this.isOpen) {
+                Thread.interrupted();
+            }
+        }
+    }
+}
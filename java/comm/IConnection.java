@@ -43,4 +43,32 @@ public interface IConnection {
      * @return boolean - true if the connection is established, false otherwise
      */
     boolean isConnected();
+    /**
+     * This method returns the number of bytes, that can be received without
+     * blocking.
+     *
+     * @return int - the number of available bytes, or -1 if unknown
+     */
+    default int getAvailableBytes() {
+        return -1;
+    }
+    /**
+     * This method switches the connection to another baud rate in place,
+     * without closing it. Data sent concurrently waits until the switch is-
+     * done. Connections without a baud rate do not support this.
+     *
+     * @param baudRate - the new baud rate
+     * @return boolean - true if the baud rate was switched, false otherwise
+     */
+    default boolean setBaudRate(int baudRate) {
+        return false;
+    }
+    /**
+     * This method returns the baud rate of the connection.
+     *
+     * @return int - the baud rate, or 0 if the connection has none
+     */
+    default int getBaudRate() {
+        return 0;
+    }
 }
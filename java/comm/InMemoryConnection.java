@@ -0,0 +1,303 @@
+package comm;
+
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * This class represents one end of an in-memory point to point connection.
+ * Both ends are created together by createLink and write into a bounded byte
+ * ring buffer of the other end. It behaves like a serial port: receiving
+ * blocks up to the read timeout, sending blocks while the buffer is full.
+ * It is used to test the communication without serial ports.
+ */
+public final class InMemoryConnection implements IConnection {
+    /**
+     * The pipe this end receives from.
+     */
+    private final Pipe inbound;
+    /**
+     * The pipe this end sends to.
+     */
+    private final Pipe outbound;
+    /**
+     * The connection status.
+     */
+    private volatile boolean isConnected;
+
+    /**
+     * The read and write timeout in ms.
+     */
+    private static final long READ_WRITE_TIMEOUT = 3000;
+
+    /**
+     * The default capacity of a pipe in bytes.
+     */
+    public static final int DEFAULT_CAPACITY = 4096;
+
+    /**
+     * This record holds both ends of an in-memory link.
+     *
+     * @param clifton - the end of the clifton
+     * @param laptop - the end of the laptop
+     */
+    public record Link(InMemoryConnection clifton, InMemoryConnection laptop) { }
+
+    /**
+     * Constructor.
+     *
+     * @param in - the pipe this end receives from
+     * @param out - the pipe this end sends to
+     */
+    private InMemoryConnection(final Pipe in, final Pipe out) {
+        this.inbound = in;
+        this.outbound = out;
+    }
+
+    /**
+     * This function creates both ends of an in-memory link.
+     *
+     * @param capacity - the capacity of each direction in bytes
+     * @return Link - both ends of the link
+     */
+    public static Link createLink(final int capacity) {
+        return createLink(capacity, Clock.system());
+    }
+
+    /**
+     * This function creates both ends of an in-memory link, whose timeouts-
+     * are measured by the given clock.
+     *
+     * @param capacity - the capacity of each direction in bytes
+     * @param clock - the clock of the timeouts
+     * @return Link - both ends of the link
+     */
+    public static Link createLink(final int capacity, final Clock clock) {
+        final var toLaptop = new Pipe(capacity, clock);
+        final var toClifton = new Pipe(capacity, clock);
+        return new Link(new InMemoryConnection(toClifton, toLaptop),
+                        new InMemoryConnection(toLaptop, toClifton));
+    }
+
+    /**
+     * This method creates the connection.
+     */
+    @Override
+    public void create() {
+        this.isConnected = true;
+    }
+
+    /**
+     * This method closes the connection.
+     * Blocked calls of this end return immediately.
+     */
+    @Override
+    public void close() {
+        this.isConnected = false;
+        this.inbound.wakeUp();
+        this.outbound.wakeUp();
+    }
+
+    /**
+     * This method sends data to the other end.
+     *
+     * @param data - the data to be sent
+     * @return boolean - true if the data was sent successfully, false otherwise
+     */
+    @Override
+    public boolean sendData(final byte[] data) {
+        return this.isConnected && this.outbound.write(data, this);
+    }
+
+    /**
+     * This method receives a known amount of data from the other end.
+     *
+     * @param length - the amount of data to be received
+     * @return Optional<byte[]> - the received data
+     */
+    @Override
+    public Optional<byte[]> receiveData(final int length) {
+        return this.isConnected ? this.inbound.read(length, this) : Optional.empty();
+    }
+
+    /**
+     * This method receives all currently available data from the other end.
+     *
+     * @return Optional<byte[]> - the received data
+     */
+    @Override
+    public Optional<byte[]> receiveData() {
+        return this.receiveData(Math.max(0, this.getAvailableBytes()));
+    }
+
+    /**
+     * This method checks if the connection is established.
+     *
+     * @return boolean - true if the connection is established, false otherwise
+     */
+    @Override
+    public boolean isConnected() {
+        return this.isConnected;
+    }
+
+    /**
+     * This method returns the number of bytes, that can be received without
+     * blocking.
+     *
+     * @return int - the number of available bytes
+     */
+    @Override
+    public int getAvailableBytes() {
+        return this.inbound.size();
+    }
+
+    /**
+     * This class represents a bounded byte ring buffer for one direction.
+     */
+    private static final class Pipe {
+        /**
+         * The buffer.
+         */
+        private final byte[] buffer;
+        /**
+         * The clock of the timeouts.
+         */
+        private final Clock clock;
+        /**
+         * The lock of the buffer.
+         */
+        private final ReentrantLock lock = new ReentrantLock();
+        /**
+         * Signaled if data was written or the pipe was woken up.
+         */
+        private final Condition notEmpty = lock.newCondition();
+        /**
+         * Signaled if data was read or the pipe was woken up.
+         */
+        private final Condition notFull = lock.newCondition();
+        /**
+         * The read index.
+         */
+        private int head;
+        /**
+         * The number of bytes in the buffer.
+         */
+        private int count;
+
+        /**
+         * Constructor.
+         *
+         * @param capacity - the capacity in bytes
+         * @param clk - the clock of the timeouts
+         */
+        Pipe(final int capacity, final Clock clk) {
+            this.buffer = new byte[capacity];
+            this.clock = clk;
+        }
+
+        /**
+         * This method returns the number of buffered bytes.
+         *
+         * @return int - the number of buffered bytes
+         */
+        int size() {
+            lock.lock();
+            try {
+                return this.count;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        /**
+         * This method wakes up all blocked readers and writers.
+         */
+        void wakeUp() {
+            lock.lock();
+            try {
+                this.notEmpty.signalAll();
+                this.notFull.signalAll();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        /**
+         * This method writes all data into the buffer.
+         *
+         * @param data - the data to be written
+         * @param owner - the writing end
+         * @return boolean - false on timeout or if the end was closed
+         */
+        boolean write(final byte[] data, final InMemoryConnection owner) {
+            long remaining = TimeUnit.MILLISECONDS.toNanos(READ_WRITE_TIMEOUT);
+            lock.lock();
+            try {
+                int written = 0;
+                while (written < data.length) {
+                    while (this.count == this.buffer.length) {
+                        if (remaining <= 0 || !owner.isConnected) {
+                            return false;
+                        }
+                        remaining = this.clock.awaitNanos(lock, this.notFull, remaining);
+                    }
+
+                    final int tail = (this.head + this.count) % this.buffer.length;
+                    final int chunk = Math.min(data.length - written,
+                            Math.min(this.buffer.length - this.count, this.buffer.length - tail));
+                    System.arraycopy(data, written, this.buffer, tail, chunk);
+                    this.count += chunk;
+                    written += chunk;
+                    this.notEmpty.signalAll();
+                }
+
+                return true;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        /**
+         * This method reads a known amount of data from the buffer.
+         *
+         * @param length - the amount of data to be read
+         * @param owner - the reading end
+         * @return Optional<byte[]> - the data, empty on timeout or if the end was closed
+         */
+        Optional<byte[]> read(final int length, final InMemoryConnection owner) {
+            final var data = new byte[length];
+            long remaining = TimeUnit.MILLISECONDS.toNanos(READ_WRITE_TIMEOUT);
+            lock.lock();
+            try {
+                int read = 0;
+                while (read < length) {
+                    while (this.count == 0) {
+                        if (remaining <= 0 || !owner.isConnected) {
+                            return Optional.empty();
+                        }
+                        remaining = this.clock.awaitNanos(lock, this.notEmpty, remaining);
+                    }
+
+                    final int chunk = Math.min(length - read,
+                            Math.min(this.count, this.buffer.length - this.head));
+                    System.arraycopy(this.buffer, this.head, data, read, chunk);
+                    this.head = (this.head + chunk) % this.buffer.length;
+                    this.count -= chunk;
+                    read += chunk;
+                    this.notFull.signalAll();
+                }
+
+                return Optional.of(data);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return Optional.empty();
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+}
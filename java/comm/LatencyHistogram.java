@@ -0,0 +1,121 @@
+package comm;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * This class records latencies in a lock-free histogram.
+ * The buckets grow by powers of two, so percentiles are approximated with
+ * a relative error below a factor of two, which is enough to see where the
+ * time goes. It can be updated by many threads concurrently.
+ */
+public final class LatencyHistogram {
+    /**
+     * The number of buckets, bucket i holds values below 2^i ns.
+     */
+    private static final int BUCKETS = Long.SIZE;
+    /**
+     * The counters of the buckets.
+     */
+    private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+    /**
+     * The number of recorded values.
+     */
+    private final LongAdder count = new LongAdder();
+    /**
+     * The sum of all recorded values in ns.
+     */
+    private final LongAdder sum = new LongAdder();
+    /**
+     * The maximum of all recorded values in ns.
+     */
+    private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+
+    /**
+     * This method records a latency.
+     *
+     * @param nanos - the latency in ns (negative values are recorded as 0)
+     */
+    public void record(final long nanos) {
+        final long value = Math.max(0, nanos);
+        this.buckets.incrementAndGet(BUCKETS - Long.numberOfLeadingZeros(value));
+        this.count.increment();
+        this.sum.add(value);
+        this.max.accumulate(value);
+    }
+
+    /**
+     * This method returns the number of recorded values.
+     *
+     * @return long - the number of recorded values
+     */
+    public long getCount() {
+        return this.count.sum();
+    }
+
+    /**
+     * This method returns the mean latency.
+     *
+     * @return double - the mean latency in ns, or 0 if nothing was recorded
+     */
+    public double getMean() {
+        final long n = this.count.sum();
+        return n == 0 ? 0 : (double) this.sum.sum() / n;
+    }
+
+    /**
+     * This method returns the maximum latency.
+     *
+     * @return long - the maximum latency in ns
+     */
+    public long getMax() {
+        return this.max.get();
+    }
+
+    /**
+     * This method approximates a percentile by the upper bound of its bucket.
+     *
+     * @param percentile - the percentile (0 up to 100)
+     * @return long - the approximated latency in ns
+     */
+    public long getPercentile(final double percentile) {
+        final long n = this.count.sum();
+        if (n == 0) {
+            return 0;
+        }
+
+        final long rank = (long) Math.ceil(percentile / 100.0 * n);
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += this.buckets.get(i);
+            if (seen >= rank) {
+                return Math.min(i == BUCKETS - 1 ? Long.MAX_VALUE : (1L << i), this.getMax());
+            }
+        }
+
+        return this.getMax();
+    }
+
+    /**
+     * This method removes all recorded values.
+     */
+    public void reset() {
+        for (int i = 0; i < BUCKETS; i++) {
+            this.buckets.set(i, 0);
+        }
+        this.count.reset();
+        this.sum.reset();
+        this.max.reset();
+    }
+
+    @Override
+    public String toString() {
+        return "LatencyHistogram [count=" + this.getCount()
+                + ", meanUs=" + Math.round(this.getMean() / 1000)
+                + ", p50Us=" + this.getPercentile(50) / 1000
+                + ", p99Us=" + this.getPercentile(99) / 1000
+                + ", maxUs=" + this.getMax() / 1000
+                + "]";
+    }
+}
@@ -0,0 +1,301 @@
+package comm;
+
+/**
+ * This class allocates the byte budget of the link to the traffic classes,-
+ * with token buckets. At 38400 baud 8N1 the link carries 3840 bytes/s.
+ *
+ * Every class has a bucket, that is refilled with its guaranteed share of-
+ * the link, so no other traffic can starve it (e.g. heartbeats behind a-
+ * mission upload). The share, that no class is guaranteed, and the refill-
+ * of full buckets go to a shared bucket, from which every class can borrow.
+ * This class is thread safe.
+ */
+public final class LinkBudget {
+
+    /**
+     * This enum represents the traffic classes sent by the laptop.
+     */
+    public enum TrafficClass {
+        /**
+         * The heartbeats, that keep the link alive.
+         */
+        HEARTBEAT(0.05),
+        /**
+         * The commands of the command queue.
+         */
+        COMMAND(0.35),
+        /**
+         * Bulk transfers (e.g. the chunks of a mission upload).
+         */
+        BULK(0.10);
+
+        /**
+         * The guaranteed share of the link.
+         */
+        private final double share;
+
+        /**
+         * Constructor.
+         * @param minimum - the guaranteed share of the link (0 to 1)
+         */
+        TrafficClass(final double minimum) {
+            this.share = minimum;
+        }
+
+        /**
+         * This method returns the guaranteed share of the link.
+         * @return double - the share (0 to 1)
+         */
+        public double getShare() {
+            return this.share;
+        }
+    }
+
+    /**
+     * The bits per byte on the wire (8N1: start bit, 8 data bits, stop bit).
+     */
+    public static final int BITS_PER_BYTE = 10;
+    /**
+     * The baud rate assumed for links without one (e.g. in-memory links).
+     */
+    public static final int DEFAULT_BAUD_RATE = 38400;
+    /**
+     * The time, for which a bucket may save its refill in ms.
+     */
+    private static final long BURST_TIME = 250;
+    /**
+     * The minimal capacity of a bucket in bytes (a full command frame).
+     */
+    private static final double MIN_BURST = 256;
+    /**
+     * The length of the window of the utilization in ms.
+     */
+    private static final long UTILIZATION_WINDOW = 1000;
+    /**
+     * The number of slots of the utilization window.
+     */
+    private static final int UTILIZATION_SLOTS = 10;
+    /**
+     * Milliseconds per second.
+     */
+    private static final double MS_PER_SECOND = 1000.0;
+
+    /**
+     * The capacity of the link in bytes/s.
+     */
+    private double bytesPerSecond;
+    /**
+     * The tokens of every class in bytes.
+     */
+    private final double[] tokens;
+    /**
+     * The tokens of the shared bucket in bytes.
+     */
+    private double sharedTokens;
+    /**
+     * The time of the last refill in ms.
+     */
+    private long lastRefill;
+    /**
+     * The bytes sent per class.
+     */
+    private final long[] bytesSent;
+    /**
+     * The bytes sent per slot of the utilization window.
+     */
+    private final long[] slotBytes;
+    /**
+     * The slot number of every entry of slotBytes.
+     */
+    private final long[] slotNumbers;
+
+    /**
+     * Constructor.
+     *
+     * @param baudRate - the baud rate of the link, DEFAULT_BAUD_RATE if 0
+     * @param now - the current time in ms
+     */
+    public LinkBudget(final int baudRate, final long now) {
+        this.tokens = new double[TrafficClass.values().length];
+        this.bytesSent = new long[TrafficClass.values().length];
+        this.slotBytes = new long[UTILIZATION_SLOTS];
+        this.slotNumbers = new long[UTILIZATION_SLOTS];
+        this.lastRefill = now;
+        this.setBaudRate(baudRate, now);
+    }
+
+    /**
+     * This method changes the capacity of the link (e.g. after a baud rate-
+     * negotiation) and fills all buckets.
+     *
+     * @param baudRate - the baud rate of the link, DEFAULT_BAUD_RATE if 0
+     * @param now - the current time in ms
+     */
+    public synchronized void setBaudRate(final int baudRate, final long now) {
+        this.bytesPerSecond = (double) (baudRate > 0 ? baudRate : DEFAULT_BAUD_RATE)
+                              / BITS_PER_BYTE;
+        for (final var trafficClass : TrafficClass.values()) {
+            this.tokens[trafficClass.ordinal()] = this.getCapacity(trafficClass);
+        }
+        this.sharedTokens = this.getSharedCapacity();
+        this.lastRefill = now;
+    }
+
+    /**
+     * This method returns the capacity of the link.
+     *
+     * @return double - the capacity in bytes/s
+     */
+    public synchronized double getBytesPerSecond() {
+        return this.bytesPerSecond;
+    }
+
+    /**
+     * This method returns the bytes a class may send now (its own and the-
+     * shared tokens).
+     *
+     * @param trafficClass - the traffic class
+     * @param now - the current time in ms
+     * @return int - the available bytes
+     */
+    public synchronized int getAvailable(final TrafficClass trafficClass, final long now) {
+        this.refill(now);
+        return (int) (this.tokens[trafficClass.ordinal()] + this.sharedTokens);
+    }
+
+    /**
+     * This method takes bytes from the budget of a class, if they are-
+     * available. The own tokens are used before the shared ones.
+     *
+     * @param trafficClass - the traffic class
+     * @param bytes - the number of bytes to be sent
+     * @param now - the current time in ms
+     * @return boolean - true if the bytes may be sent, false otherwise
+     */
+    public synchronized boolean tryAcquire(final TrafficClass trafficClass, final int bytes,
+            final long now) {
+        this.refill(now);
+        final int idx = trafficClass.ordinal();
+        if (this.tokens[idx] + this.sharedTokens < bytes) {
+            return false;
+        }
+
+        final double own = Math.min(this.tokens[idx], bytes);
+        this.tokens[idx] -= own;
+        this.sharedTokens -= bytes - own;
+        this.record(trafficClass, bytes, now);
+        return true;
+    }
+
+    /**
+     * This method returns the time until a class may send a number of bytes.
+     *
+     * @param trafficClass - the traffic class
+     * @param bytes - the number of bytes to be sent
+     * @param now - the current time in ms
+     * @return long - the delay in ms, 0 if the bytes are available
+     */
+    public synchronized long getDelay(final TrafficClass trafficClass, final int bytes,
+            final long now) {
+        this.refill(now);
+        final double missing = bytes - this.tokens[trafficClass.ordinal()] - this.sharedTokens;
+        if (missing <= 0) {
+            return 0;
+        }
+
+        //At least the guaranteed share is refilled
+        final double rate = trafficClass.getShare() * this.bytesPerSecond / MS_PER_SECOND;
+        return (long) Math.ceil(missing / rate);
+    }
+
+    /**
+     * This method returns the bytes sent by a class.
+     *
+     * @param trafficClass - the traffic class
+     * @return long - the sent bytes
+     */
+    public synchronized long getBytesSent(final TrafficClass trafficClass) {
+        return this.bytesSent[trafficClass.ordinal()];
+    }
+
+    /**
+     * This method returns the utilization of the link within the last second.
+     *
+     * @param now - the current time in ms
+     * @return double - the sent bytes relative to the capacity (0 to 1)
+     */
+    public synchronized double getUtilization(final long now) {
+        final long slot = now / (UTILIZATION_WINDOW / UTILIZATION_SLOTS);
+        long bytes = 0;
+        for (int i = 0; i < UTILIZATION_SLOTS; i++) {
+            if (slot - this.slotNumbers[i] < UTILIZATION_SLOTS) {
+                bytes += this.slotBytes[i];
+            }
+        }
+        return bytes / (this.bytesPerSecond * UTILIZATION_WINDOW / MS_PER_SECOND);
+    }
+
+    /**
+     * This method counts sent bytes for the statistics.
+     *
+     * @param trafficClass - the traffic class
+     * @param bytes - the sent bytes
+     * @param now - the current time in ms
+     */
+    private void record(final TrafficClass trafficClass, final int bytes, final long now) {
+        this.bytesSent[trafficClass.ordinal()] += bytes;
+
+        final long slot = now / (UTILIZATION_WINDOW / UTILIZATION_SLOTS);
+        final int idx = (int) (slot % UTILIZATION_SLOTS);
+        if (this.slotNumbers[idx] != slot) {
+            this.slotNumbers[idx] = slot;
+            this.slotBytes[idx] = 0;
+        }
+        this.slotBytes[idx] += bytes;
+    }
+
+    /**
+     * This method refills the buckets for the time since the last refill.
+     * The refill of a full bucket goes to the shared bucket.
+     *
+     * @param now - the current time in ms
+     */
+    private void refill(final long now) {
+        final long elapsed = now - this.lastRefill;
+        if (elapsed <= 0) {
+            return;
+        }
+        this.lastRefill = now;
+
+        final double refill = this.bytesPerSecond * elapsed / MS_PER_SECOND;
+        double shared = refill;
+        for (final var trafficClass : TrafficClass.values()) {
+            final int idx = trafficClass.ordinal();
+            final double own = Math.min(refill * trafficClass.getShare(),
+                                        this.getCapacity(trafficClass) - this.tokens[idx]);
+            this.tokens[idx] += own;
+            shared -= own;
+        }
+        this.sharedTokens = Math.min(this.sharedTokens + shared, this.getSharedCapacity());
+    }
+
+    /**
+     * This method returns the capacity of the bucket of a class.
+     *
+     * @param trafficClass - the traffic class
+     * @return double - the capacity in bytes
+     */
+    private double getCapacity(final TrafficClass trafficClass) {
+        return Math.max(MIN_BURST,
+                        trafficClass.getShare() * this.bytesPerSecond * BURST_TIME / MS_PER_SECOND);
+    }
+
+    /**
+     * This method returns the capacity of the shared bucket.
+     *
+     * @return double - the capacity in bytes
+     */
+    private double getSharedCapacity() {
+        return Math.max(MIN_BURST, this.bytesPerSecond * BURST_TIME / MS_PER_SECOND);
+    }
+}
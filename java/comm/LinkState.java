@@ -0,0 +1,20 @@
+package comm;
+
+/**
+ * This enum represents the state of the link between the laptop and the
+ * clifton as seen by the failure detector.
+ */
+public enum LinkState {
+    /**
+     * Telemetry data arrives as expected.
+     */
+    CONNECTED,
+    /**
+     * Telemetry data is overdue, but the link is not declared lost yet.
+     */
+    SUSPECTED,
+    /**
+     * The link is lost.
+     */
+    LOST
+}
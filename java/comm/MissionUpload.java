@@ -0,0 +1,278 @@
+package comm;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import comm.protocol.CliftonCommand;
+import comm.protocol.MissionAck;
+import comm.protocol.Waypoint;
+
+/**
+ * This class represents the sender side of a mission upload.
+ *
+ * The waypoints are split into chunks, up to WINDOW_SIZE chunks are in-
+ * flight without acknowledgement. The clifton acknowledges the chunks-
+ * cumulatively plus a bitmap of the chunks received after a gap. A missing-
+ * chunk is sent again once as soon as a later chunk was acknowledged-
+ * (selective retransmit), otherwise after the retransmission timeout, which-
+ * follows the measured round trip time.
+ *
+ * The transmit worker takes the chunks, the receive worker passes the-
+ * acknowledgements.
+ */
+public final class MissionUpload {
+    /**
+     * The id of the mission.
+     */
+    private final int missionId;
+    /**
+     * The chunks.
+     */
+    private final CliftonCommand[] chunks;
+    /**
+     * Flag per chunk, if it is acknowledged.
+     */
+    private final boolean[] isAcknowledged;
+    /**
+     * The time of the last transmission per chunk in ms, -1 if never sent.
+     */
+    private final long[] sentAt;
+    /**
+     * The number of transmissions per chunk.
+     */
+    private final int[] transmissions;
+    /**
+     * Flag per chunk, if it was already sent again because of a gap.
+     */
+    private final boolean[] isGapRetransmitted;
+    /**
+     * The first not acknowledged chunk.
+     */
+    private int base;
+    /**
+     * The highest acknowledged chunk, -1 if none.
+     */
+    private int highestAcknowledged;
+    /**
+     * The smoothed round trip time in ms, -1 if not measured yet.
+     */
+    private double smoothedRtt;
+    /**
+     * The retransmission timeout in ms.
+     */
+    private long retransmissionTimeout;
+    /**
+     * Completed with true if all chunks are acknowledged, false on failure.
+     */
+    private final CompletableFuture<Boolean> result;
+
+    /**
+     * The maximum number of unacknowledged chunks.
+     */
+    public static final int WINDOW_SIZE = 8;
+    /**
+     * The initial retransmission timeout in ms.
+     */
+    private static final long INITIAL_TIMEOUT = 1000;
+    /**
+     * The minimal retransmission timeout in ms.
+     */
+    private static final long MIN_TIMEOUT = 100;
+    /**
+     * The maximal number of transmissions of a chunk.
+     */
+    private static final int MAX_TRANSMISSIONS = 10;
+    /**
+     * The weight of a new round trip time sample.
+     */
+    private static final double RTT_GAIN = 0.125;
+
+    /**
+     * The logger.
+     */
+    private static final Logger LOGGER = LogManager.getLogger(MissionUpload.class);
+
+    /**
+     * Constructor.
+     *
+     * @param id - the id of the mission (0 up to 255)
+     * @param waypoints - the waypoints of the mission
+     */
+    public MissionUpload(final int id, final List<Waypoint> waypoints) {
+        final int count = Math.max(1, (waypoints.size() + CliftonCommand.CHUNK_WAYPOINTS - 1)
+                                      / CliftonCommand.CHUNK_WAYPOINTS);
+        if (count > CliftonCommand.MAX_MISSION_CHUNKS) {
+            throw new IllegalArgumentException("Too many waypoints: " + waypoints.size());
+        }
+
+        this.missionId = id;
+        this.chunks = new CliftonCommand[count];
+        for (int i = 0; i < count; i++) {
+            final int from = i * CliftonCommand.CHUNK_WAYPOINTS;
+            this.chunks[i] = CliftonCommand.missionChunk(id, i, count, waypoints.subList(
+                                Math.min(from, waypoints.size()),
+                                Math.min(from + CliftonCommand.CHUNK_WAYPOINTS, waypoints.size())));
+        }
+
+        this.isAcknowledged = new boolean[count];
+        this.sentAt = new long[count];
+        Arrays.fill(this.sentAt, -1);
+        this.transmissions = new int[count];
+        this.isGapRetransmitted = new boolean[count];
+        this.base = 0;
+        this.highestAcknowledged = -1;
+        this.smoothedRtt = -1;
+        this.retransmissionTimeout = INITIAL_TIMEOUT;
+        this.result = new CompletableFuture<>();
+    }
+
+    /**
+     * This method returns the id of the mission.
+     *
+     * @return int - the id of the mission
+     */
+    public int getMissionId() {
+        return this.missionId;
+    }
+
+    /**
+     * This method returns the number of chunks.
+     *
+     * @return int - the number of chunks
+     */
+    public int getChunkCount() {
+        return this.chunks.length;
+    }
+
+    /**
+     * This method returns the result of the upload.
+     *
+     * @return CompletableFuture<Boolean> - true if all chunks were acknowledged
+     */
+    public CompletableFuture<Boolean> getResult() {
+        return this.result;
+    }
+
+    /**
+     * This method returns the next chunk to send, if the window allows one.
+     * A chunk missing in front of an acknowledged chunk or a chunk, whose-
+     * timeout elapsed, is sent again before a new chunk.
+     *
+     * @param now - the current time in ms
+     * @return CliftonCommand - the chunk, null if nothing is to be sent now
+     */
+    public synchronized CliftonCommand nextChunk(final long now) {
+        if (this.result.isDone()) {
+            return null;
+        }
+
+        final int end = Math.min(this.base + WINDOW_SIZE, this.chunks.length);
+        int next = -1;
+        for (int i = this.base; i < end && next < 0; i++) {
+            if (this.isAcknowledged[i]) {
+                continue;
+            }
+
+            if (this.sentAt[i] < 0) {
+                next = i;
+            } else if (i < this.highestAcknowledged && !this.isGapRetransmitted[i]) {
+                this.isGapRetransmitted[i] = true;
+                next = i;
+            } else if (now - this.sentAt[i] >= this.retransmissionTimeout) {
+                //Back off, the link is probably congested or lost
+                this.retransmissionTimeout = Math.min(this.retransmissionTimeout * 2,
+                                                      INITIAL_TIMEOUT * MAX_TRANSMISSIONS);
+                next = i;
+            }
+        }
+
+        if (next < 0) {
+            return null;
+        }
+
+        if (this.transmissions[next] >= MAX_TRANSMISSIONS) {
+            LOGGER.error("Mission {} chunk {} not acknowledged...Giving up",
+                this.missionId, next);
+            this.result.complete(false);
+            return null;
+        }
+
+        this.transmissions[next]++;
+        this.sentAt[next] = now;
+        return this.chunks[next];
+    }
+
+    /**
+     * This method returns the time, when the next chunk has to be sent-
+     * again, if no acknowledgement arrives.
+     *
+     * @return long - the time in ms, Long.MAX_VALUE if nothing is in flight
+     */
+    public synchronized long getNextTimeout() {
+        long next = Long.MAX_VALUE;
+        final int end = Math.min(this.base + WINDOW_SIZE, this.chunks.length);
+        for (int i = this.base; i < end && !this.result.isDone(); i++) {
+            if (!this.isAcknowledged[i] && this.sentAt[i] >= 0) {
+                next = Math.min(next, this.sentAt[i] + this.retransmissionTimeout);
+            }
+        }
+        return next;
+    }
+
+    /**
+     * This method processes an acknowledgement of the clifton.
+     *
+     * @param ack - the received acknowledgement
+     * @param now - the current time in ms
+     */
+    public synchronized void acknowledge(final MissionAck ack, final long now) {
+        if (ack.missionId() != this.missionId || this.result.isDone()) {
+            return;
+        }
+
+        for (int i = this.base; i < this.chunks.length; i++) {
+            if (this.isAcknowledged[i] || !ack.isAcknowledged(i)) {
+                continue;
+            }
+
+            this.isAcknowledged[i] = true;
+            this.highestAcknowledged = Math.max(this.highestAcknowledged, i);
+
+            //Karn: only chunks sent once measure the round trip time
+            if (this.transmissions[i] == 1) {
+                this.updateRtt(now - this.sentAt[i]);
+            }
+        }
+
+        while (this.base < this.chunks.length && this.isAcknowledged[this.base]) {
+            this.base++;
+        }
+
+        if (this.base == this.chunks.length) {
+            LOGGER.info("Mission {} uploaded ({} chunks)", this.missionId, this.chunks.length);
+            this.result.complete(true);
+        }
+    }
+
+    /**
+     * This method cancels the upload.
+     */
+    public synchronized void cancel() {
+        this.result.complete(false);
+    }
+
+    /**
+     * This method updates the round trip time and the retransmission timeout.
+     *
+     * @param rtt - the measured round trip time in ms
+     */
+    private void updateRtt(final long rtt) {
+        this.smoothedRtt = this.smoothedRtt < 0 ? rtt
+                           : this.smoothedRtt + RTT_GAIN * (rtt - this.smoothedRtt);
+        this.retransmissionTimeout = Math.max(MIN_TIMEOUT, Math.round(2 * this.smoothedRtt));
+    }
+}
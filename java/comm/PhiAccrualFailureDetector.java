@@ -0,0 +1,218 @@
+package comm;
+
+/**
+ * This class implements a phi accrual failure detector for the link
+ * between the laptop and the clifton.
+ * Instead of a fixed timeout, it learns the inter-arrival times of the
+ * telemetry data and calculates a continuous suspicion level (phi).
+ * A phi of 1 means a chance of 10% that the link is still alive but the
+ * frame is late, a phi of 2 means 1%, a phi of 3 means 0.1% and so on.
+ *
+ * The methods are synchronized, because the arrivals are reported by the
+ * receive worker while the suspicion level is read by other threads.
+ */
+public final class PhiAccrualFailureDetector {
+    /**
+     * The number of inter-arrival times used for the estimation.
+     */
+    private final int windowSize;
+    /**
+     * The ring buffer of the last inter-arrival times in ms.
+     */
+    private final long[] intervals;
+    /**
+     * The lower bound of the standard deviation in ms.
+     * Prevents a too sensitive detector if the arrivals are very regular.
+     */
+    private final double minStdDeviation;
+    /**
+     * The expected interval in ms, which is used until enough arrivals
+     * are recorded.
+     */
+    private final long expectedInterval;
+    /**
+     * Next write index of the ring buffer.
+     */
+    private int nextIdx;
+    /**
+     * Number of valid entries in the ring buffer.
+     */
+    private int count;
+    /**
+     * Sum of the intervals in the ring buffer.
+     */
+    private double sum;
+    /**
+     * Sum of the squared intervals in the ring buffer.
+     */
+    private double squaredSum;
+    /**
+     * The time of the last arrival in ms (or the time of the reset).
+     */
+    private long lastArrival;
+
+    /**
+     * The default window size.
+     */
+    public static final int DEFAULT_WINDOW_SIZE = 100;
+    /**
+     * The default minimal standard deviation in ms.
+     */
+    public static final double DEFAULT_MIN_STD_DEVIATION = 100.0;
+    /**
+     * The minimal standard deviation relative to the mean interval.
+     * With a loss threshold of 8 a regular link is lost about 3.6 intervals-
+     * after its last frame, so a single missed frame only raises the suspicion.
+     */
+    public static final double MIN_STD_DEVIATION_RATIO = 0.5;
+    /**
+     * The maximal phi value, that is returned.
+     * The calculation saturates for very late arrivals.
+     */
+    public static final double MAX_PHI = 100.0;
+
+    /**
+     * Coefficients for the logistic approximation of the normal cdf.
+     */
+    private static final double CDF_FIRST_COEFFICIENT = 1.5976;
+    /**
+     * Coefficients for the logistic approximation of the normal cdf.
+     */
+    private static final double CDF_SECOND_COEFFICIENT = 0.070566;
+
+    /**
+     * Constructor.
+     *
+     * @param expInterval - the expected arrival interval in ms
+     * @param wSize - the number of intervals used for the estimation
+     * @param minStdDev - the lower bound of the standard deviation in ms
+     * @param now - the current time in ms
+     */
+    public PhiAccrualFailureDetector(final long expInterval, final int wSize,
+            final double minStdDev, final long now) {
+        if (expInterval <= 0 || wSize <= 0 || minStdDev <= 0) {
+            throw new IllegalArgumentException("Invalid failure detector parameter");
+        }
+
+        this.expectedInterval = expInterval;
+        this.windowSize = wSize;
+        this.intervals = new long[wSize];
+        this.minStdDeviation = minStdDev;
+        this.reset(now);
+    }
+
+    /**
+     * Constructor with the default window size and standard deviation.
+     *
+     * @param expInterval - the expected arrival interval in ms
+     * @param now - the current time in ms
+     */
+    public PhiAccrualFailureDetector(final long expInterval, final long now) {
+        this(expInterval, DEFAULT_WINDOW_SIZE, DEFAULT_MIN_STD_DEVIATION, now);
+    }
+
+    /**
+     * This method resets the learned distribution.
+     * The time until the next arrival is measured from now.
+     *
+     * @param now - the current time in ms
+     */
+    public synchronized void reset(final long now) {
+        this.nextIdx = 0;
+        this.count = 0;
+        this.sum = 0;
+        this.squaredSum = 0;
+        this.lastArrival = now;
+    }
+
+    /**
+     * This method keeps the learned distribution, but measures the time until-
+     * the next arrival from now (e.g. after the connection was restarted).
+     *
+     * @param now - the current time in ms
+     */
+    public synchronized void resume(final long now) {
+        this.lastArrival = now;
+    }
+
+    /**
+     * This method records the arrival of a frame (telemetry or heartbeat).
+     *
+     * @param now - the time of the arrival in ms
+     */
+    public synchronized void arrived(final long now) {
+        final long interval = Math.max(0, now - this.lastArrival);
+        this.lastArrival = now;
+
+        if (this.count == this.windowSize) {
+            final long oldest = this.intervals[this.nextIdx];
+            this.sum -= oldest;
+            this.squaredSum -= (double) oldest * oldest;
+        } else {
+            this.count++;
+        }
+
+        this.intervals[this.nextIdx] = interval;
+        this.sum += interval;
+        this.squaredSum += (double) interval * interval;
+        this.nextIdx = (this.nextIdx + 1) % this.windowSize;
+    }
+
+    /**
+     * This method calculates the current suspicion level.
+     *
+     * @param now - the current time in ms
+     * @return double - the suspicion level phi (0 up to MAX_PHI)
+     */
+    public synchronized double phi(final long now) {
+        final double elapsed = now - this.lastArrival;
+        final double mean = this.getMeanInterval();
+        final double stdDeviation = this.getStdDeviation();
+
+        final double y = (elapsed - mean) / stdDeviation;
+        final double e = Math.exp(-y * (CDF_FIRST_COEFFICIENT
+                                    + CDF_SECOND_COEFFICIENT * y * y));
+        final double phi = elapsed > mean
+                            ? -Math.log10(e / (1.0 + e))
+                            : -Math.log10(1.0 - 1.0 / (1.0 + e));
+
+        return Double.isFinite(phi) ? Math.min(Math.max(phi, 0.0), MAX_PHI) : MAX_PHI;
+    }
+
+    /**
+     * This method returns the mean inter-arrival time.
+     * If no arrival is recorded yet, the expected interval is returned.
+     *
+     * @return double - the mean inter-arrival time in ms
+     */
+    public synchronized double getMeanInterval() {
+        return this.count == 0 ? this.expectedInterval : this.sum / this.count;
+    }
+
+    /**
+     * This method returns the standard deviation of the inter-arrival times.
+     * The value is never lower than the configured minimum and the mean-
+     * interval times MIN_STD_DEVIATION_RATIO.
+     *
+     * @return double - the standard deviation in ms
+     */
+    public synchronized double getStdDeviation() {
+        final double mean = this.getMeanInterval();
+        final double lowerBound = Math.max(this.minStdDeviation, mean * MIN_STD_DEVIATION_RATIO);
+        if (this.count < 2) {
+            return lowerBound;
+        }
+
+        final double variance = Math.max(0, this.squaredSum / this.count - mean * mean);
+        return Math.max(lowerBound, Math.sqrt(variance));
+    }
+
+    /**
+     * This method returns the time of the last arrival.
+     *
+     * @return long - the time of the last arrival in ms
+     */
+    public synchronized long getLastArrival() {
+        return this.lastArrival;
+    }
+}
@@ -0,0 +1,238 @@
+package comm;
+
+import static comm.Constants.TELEMETRY_SIZE;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiFunction;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import com.fazecast.jSerialComm.SerialPort;
+
+import comm.protocol.CliftonCommand;
+import comm.protocol.CommandFrame;
+import comm.protocol.TelemetryData;
+
+/**
+ * This class searches the serial port, that is connected to the clifton.
+ * All candidate ports are probed concurrently: a heartbeat is sent and-
+ * the port is accepted, if plausible telemetry data is received. A port is-
+ * probed at every given baud rate in turn, so a clifton left at a-
+ * negotiated baud rate is found as well.
+ * The search takes at most the given timeout, it is cancelled by an-
+ * interrupt of the searching thread.
+ */
+public final class PortDiscovery {
+    /**
+     * Ports, that are probed in addition to the enumerated ones-
+     * (e.g. pseudo terminals, which are not enumerated).
+     */
+    private final List<String> extraPorts;
+    /**
+     * The baud rate to use.
+     */
+    private final int baudRate;
+    /**
+     * The maximum time of the discovery in ms.
+     */
+    private final long timeout;
+    /**
+     * Creates the connection to a port with a baud rate.
+     */
+    private final BiFunction<String, Integer, IConnection> connectionFactory;
+
+    /**
+     * The number of frames a probe reads, until it gives up.
+     */
+    private static final int PROBE_ATTEMPTS = 3;
+
+    /**
+     * The logger.
+     */
+    private static final Logger LOGGER = LogManager.getLogger(PortDiscovery.class);
+
+    /**
+     * Constructor.
+     *
+     * @param ports - ports, that are probed in addition to the enumerated ones
+     * @param bRate - the baud rate to use
+     * @param timeoutMs - the maximum time of the discovery in ms
+     */
+    public PortDiscovery(final List<String> ports, final int bRate, final long timeoutMs) {
+        this(ports, bRate, timeoutMs, XBeeSerialConnection::create);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param ports - ports, that are probed in addition to the enumerated ones
+     * @param bRate - the baud rate to use
+     * @param timeoutMs - the maximum time of the discovery in ms
+     * @param factory - creates the connection to a port with a baud rate
+     */
+    PortDiscovery(final List<String> ports, final int bRate, final long timeoutMs,
+            final BiFunction<String, Integer, IConnection> factory) {
+        this.extraPorts = List.copyOf(ports);
+        this.baudRate = bRate;
+        this.timeout = timeoutMs;
+        this.connectionFactory = factory;
+    }
+
+    /**
+     * This method returns the baud rate, that the discovery uses by default.
+     *
+     * @return int - the baud rate
+     */
+    public int getBaudRate() {
+        return this.baudRate;
+    }
+
+    /**
+     * This method returns the ports, that are probed.
+     *
+     * @return List<String> - the candidate ports
+     */
+    public List<String> getCandidates() {
+        final var candidates = new LinkedHashSet<>(this.extraPorts);
+        for (final var port : SerialPort.getCommPorts()) {
+            candidates.add(port.getSystemPortPath());
+        }
+
+        return new ArrayList<>(candidates);
+    }
+
+    /**
+     * This method probes all candidate ports concurrently at the default-
+     * baud rate.
+     * The connection of the first responding port stays open, all others-
+     * are closed.
+     *
+     * @return Optional<IConnection> - the open connection to the clifton
+     */
+    public Optional<IConnection> discover() {
+        return this.discover(this.baudRate);
+    }
+
+    /**
+     * This method probes all candidate ports concurrently, every port at-
+     * the given baud rates in turn.
+     * The connection of the first responding port stays open (at the baud-
+     * rate, the clifton responded to), all others are closed.
+     *
+     * @param baudRates - the baud rates to probe, in the order of probing
+     * @return Optional<IConnection> - the open connection to the clifton
+     */
+    public Optional<IConnection> discover(final int... baudRates) {
+        final int[] rates = Arrays.stream(baudRates).filter(rate -> rate > 0).distinct().toArray();
+        final var candidates = this.getCandidates();
+        if (rates.length == 0) {
+            LOGGER.error("No baud rate to probe");
+            return Optional.empty();
+        }
+        if (candidates.isEmpty()) {
+            LOGGER.error("No serial ports available");
+            return Optional.empty();
+        }
+
+        final long deadline = System.currentTimeMillis() + this.timeout;
+        final List<IConnection> probes = new ArrayList<>();
+        final ExecutorService executor = Executors.newFixedThreadPool(candidates.size(),
+            runnable -> {
+                final var thread = new Thread(runnable, "port-discovery");
+                thread.setDaemon(true);
+                return thread;
+            });
+        final var completionService = new ExecutorCompletionService<Optional<IConnection>>(executor);
+
+        for (final var port : candidates) {
+            final var probe = this.connectionFactory.apply(port, rates[0]);
+            probes.add(probe);
+            completionService.submit(() -> this.probe(port, probe, rates));
+        }
+
+        IConnection found = null;
+        try {
+            for (int i = 0; i < candidates.size() && found == null; i++) {
+                final long remaining = deadline - System.currentTimeMillis();
+                final Future<Optional<IConnection>> result = completionService
+                                                    .poll(Math.max(0, remaining), TimeUnit.MILLISECONDS);
+                if (result == null) {
+                    break;
+                }
+
+                //A failed probe does not end the search on the other ports
+                try {
+                    found = result.get().orElse(null);
+                } catch (ExecutionException e) {
+                    LOGGER.error("Port probe failed", e.getCause());
+                }
+            }
+        } catch (InterruptedException e) {
+            LOGGER.warn("Port discovery cancelled");
+            Thread.currentThread().interrupt();
+        } finally {
+            //Closing the ports also unblocks the probes, that are still reading
+            for (final var probe : probes) {
+                if (probe != found) {
+                    probe.close();
+                }
+            }
+            executor.shutdownNow();
+        }
+
+        if (found == null) {
+            LOGGER.error("No clifton found on {}", candidates);
+        }
+
+        return Optional.ofNullable(found);
+    }
+
+    /**
+     * This method probes a single port at the given baud rates in turn.
+     *
+     * @param port - the name of the port
+     * @param probe - the connection to the port, at the first baud rate
+     * @param baudRates - the baud rates to probe
+     * @return Optional<IConnection> - the connection, if the clifton responded
+     */
+    private Optional<IConnection> probe(final String port, final IConnection probe,
+            final int[] baudRates) {
+        probe.create();
+        if (!probe.isConnected()) {
+            return Optional.empty();
+        }
+
+        for (int r = 0; r < baudRates.length; r++) {
+            //The discovery is already over, so nobody else closes this port
+            if (Thread.currentThread().isInterrupted()
+                    || (r > 0 && !probe.setBaudRate(baudRates[r]))) {
+                break;
+            }
+
+            //The heartbeat lets the clifton start sending telemetry data
+            probe.sendData(CommandFrame.encode(CliftonCommand.heartbeat()));
+            for (int i = 0; i < PROBE_ATTEMPTS && probe.isConnected(); i++) {
+                final var telemetryData = probe.receiveData(TELEMETRY_SIZE)
+                                            .flatMap(TelemetryData::fromByteArray);
+                if (telemetryData.isPresent() && telemetryData.get().isPlausible()) {
+                    LOGGER.info("Clifton found on {} at baud rate {}", port, baudRates[r]);
+                    return Optional.of(probe);
+                }
+            }
+        }
+
+        probe.close();
+        return Optional.empty();
+    }
+}
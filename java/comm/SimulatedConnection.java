@@ -1,6 +1,12 @@
 package comm;
 
+import java.lang.reflect.InvocationTargetException;
 import java.util.Optional;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
 
 import javax.swing.BoxLayout;
 import javax.swing.JButton;
@@ -9,17 +15,20 @@ import javax.swing.JFrame;
 import javax.swing.JLabel;
 import javax.swing.JPanel;
 import javax.swing.JTextField;
+import javax.swing.SwingUtilities;
+import javax.swing.Timer;
 import javax.swing.plaf.DimensionUIResource;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
-import comm.protocol.CliftonCommand;
+import comm.protocol.CommandFrame;
 import comm.protocol.StatusInfo;
 import comm.protocol.TelemetryData;
 import comm.protocol.UnsignedShort;
+import comm.sim.Scenario;
 
-import static comm.protocol.CliftonCommand.COMMAND_IDX;
+import static comm.Constants.TELEMETRY_SIZE;
 
 /**
  * A simulated Connection, that opens a simple application to input the values
@@ -27,6 +36,10 @@ import static comm.protocol.CliftonCommand.COMMAND_IDX;
  * The simulated values are treated as if received by the communication module.
  * To use this SimulatedConnection, simply pass it to the ConnectionHandler
  * instead of the XBeeSerialConnection.
+ * The input values are read on the event dispatch thread and published as
+ * an immutable, already encoded snapshot.
+ * For automated runs, a Scenario can be passed instead, which is replayed
+ * headless at its scripted timing (or faster).
  *
  * @author Malte Fischer
  * @author Kilian Franke
@@ -120,13 +133,100 @@ public final class SimulatedConnection implements IConnection {
     private JCheckBox connectedCheckBox;
 
     /**
-     * If the receiveData method is allowed to read the input values. Used for the
-     * update button.
+     * The timer, that publishes the input values in high frequency mode.
      */
-    private boolean isAllowedToUpdate = true;
+    private Timer highFrequencyTimer;
+
+    /**
+     * This record holds the input values, encoded as telemetry frame.
+     *
+     * @param frame - the encoded telemetry data
+     * @param connected - if the agent should be simulated as 'connected'
+     */
+    private record Snapshot(byte[] frame, boolean connected) { }
+
+    /**
+     * The latest snapshot, published by the event dispatch thread.
+     */
+    private final AtomicReference<Snapshot> latestSnapshot =
+            new AtomicReference<>(new Snapshot(new byte[TELEMETRY_SIZE], true));
+
+    /**
+     * The snapshots published by the update button, which are not received yet.
+     */
+    private final BlockingQueue<Snapshot> publishedSnapshots = new LinkedBlockingQueue<>();
+
+    /**
+     * The scenario to replay headless, or null for the input application.
+     */
+    private final Scenario scenario;
+
+    /**
+     * The replay speed (2 = twice as fast), 0 replays as fast as possible.
+     */
+    private final double replaySpeed;
+
+    /**
+     * The start of the replay in ns.
+     */
+    private long replayStart;
+
+    /**
+     * The index of the next event of the scenario.
+     */
+    private volatile int nextEvent;
+
+    /**
+     * If the replayed agent is connected.
+     */
+    private boolean isReplayConnected;
+
+    /**
+     * If the connection is open (created and not closed).
+     */
+    private volatile boolean isOpen;
+
+    /**
+     * Constructor for the input application.
+     */
+    public SimulatedConnection() {
+        this(null, 0);
+    }
+
+    /**
+     * Constructor for the headless replay of a scenario.
+     *
+     * @param script - the scenario to replay
+     * @param speed - the replay speed (2 = twice as fast), 0 replays as fast as possible
+     */
+    public SimulatedConnection(final Scenario script, final double speed) {
+        this.scenario = script;
+        this.replaySpeed = speed;
+    }
 
     @Override
     public void create() {
+        this.isOpen = true;
+        if (this.scenario != null) {
+            this.replayStart = System.nanoTime();
+            this.nextEvent = 0;
+            this.isReplayConnected = true;
+            return;
+        }
+
+        try {
+            SwingUtilities.invokeAndWait(this::createWindow);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (InvocationTargetException e) {
+            LOGGER.error("Failed to create the input application", e);
+        }
+    }
+
+    /**
+     * Create the input application, must be called on the event dispatch thread.
+     */
+    private void createWindow() {
         this.jFrame = new JFrame("Testinput für des autonomen Seglers");
         this.jFrame.setSize(WIDTH_OF_APP, HEIGHT_OF_APP);
 
@@ -171,15 +271,49 @@ public final class SimulatedConnection implements IConnection {
 
         if (!SIMULATE_HIGH_FREQUENCY) {
             JButton updateButton = new JButton("Update");
-            updateButton.addActionListener((e) -> {
-                isAllowedToUpdate = true;
-            });
+            updateButton.addActionListener((e) -> publishSnapshot());
             mainContent.add(updateButton);
+        } else {
+            this.highFrequencyTimer = new Timer(SEND_TELEMETRY_INTERVAL, (e) -> publishSnapshot());
+            this.highFrequencyTimer.start();
         }
 
         jFrame.getContentPane().add(mainContent);
 
         this.jFrame.setVisible(true);
+
+        //The initial values are sent right away
+        publishSnapshot();
+    }
+
+    /**
+     * Read the input values and publish them as snapshot, must be called on the
+     * event dispatch thread.
+     */
+    private void publishSnapshot() {
+        byte statusInfo = autonomousCheckBox.isSelected() ? (byte) 1 : (byte) 0;
+
+        // Fill out telemetry data
+        final var telemetryData = new TelemetryData(
+                new UnsignedShort(getNumber(windDirectionInput)),
+                new UnsignedShort(getNumber(windSpeedInput)),
+                new UnsignedShort(getNumber(agentSpeedInput)),
+                (short) getNumber(agentPositionXInput),
+                (short) getNumber(agentPositionYInput),
+                (byte) getNumber(batteryInput),
+                new UnsignedShort(getNumber(
+                        agentDirectionInput)),
+                new StatusInfo(statusInfo));
+
+        final var snapshot = new Snapshot(telemetryData.toByteArray(),
+                                          connectedCheckBox.isSelected());
+        this.latestSnapshot.set(snapshot);
+        if (!SIMULATE_HIGH_FREQUENCY) {
+            this.publishedSnapshots.offer(snapshot);
+        }
+
+        LOGGER.info("Sending telemetry data: "
+                + telemetryData.toString());
     }
 
     /**
@@ -193,7 +327,7 @@ public final class SimulatedConnection implements IConnection {
         JPanel panel = new JPanel();
         JLabel label = new JLabel(labelText);
         textField.setPreferredSize(new DimensionUIResource(WIDTH_OF_MENU_TEXTFIELD, HEIGHT_OF_MENU_TEXTFIELD));
-        textField.addActionListener((e) -> isAllowedToUpdate = true);
+        textField.addActionListener((e) -> publishSnapshot());
         panel.add(label);
         panel.add(textField);
         return panel;
@@ -201,33 +335,57 @@ public final class SimulatedConnection implements IConnection {
 
     @Override
     public void close() {
-        jFrame.setVisible(false);
+        this.isOpen = false;
+        if (this.scenario != null) {
+            return;
+        }
+
+        SwingUtilities.invokeLater(() -> {
+            if (highFrequencyTimer != null) {
+                highFrequencyTimer.stop();
+            }
+            jFrame.setVisible(false);
+        });
     }
 
     @Override
     public boolean sendData(final byte[] data) {
-        switch (CliftonCommand.ID.fromByte(data[COMMAND_IDX])) {
-            case HEARTBEAT:
-                // Do nothing. As this class is not intended to test the communication part, we
-                // do not care if the heartbeat is successful.
-                break;
-
-            case START_ROUTE:
-                LOGGER.info("Sail agent received start route");
-                break;
-
-            case STOP_ROUTE:
-                LOGGER.info("Sail agent received stop route");
-                break;
-
-            case SET_COURSE:
-                final var course = new UnsignedShort(data[1], data[2]);
-                LOGGER.info("Sail agent received course: " + course.getAsInt());
-                break;
-
-            default:
-                LOGGER.info("Sail agent received unknown command");
-                break;
+        for (final var command : CommandFrame.decodeFrame(data)) {
+            switch (command.id()) {
+                case HEARTBEAT:
+                    // Do nothing. As this class is not intended to test the communication part, we
+                    // do not care if the heartbeat is successful.
+                    break;
+
+                case START_ROUTE:
+                    LOGGER.info("Sail agent received start route");
+                    break;
+
+                case STOP_ROUTE:
+                    LOGGER.info("Sail agent received stop route");
+                    break;
+
+                case SET_COURSE:
+                    final var course = new UnsignedShort(command.data()[0], command.data()[1]);
+                    LOGGER.info("Sail agent received course: " + course.getAsInt());
+                    break;
+
+                case SET_BAUD_RATE:
+                    // The simulated connection has no baud rate.
+                    break;
+
+                case MISSION_CHUNK:
+                    LOGGER.info("Sail agent received mission chunk");
+                    break;
+
+                case LAYOUT:
+                    // The simulated connection uses the layout of the laptop.
+                    break;
+
+                default:
+                    LOGGER.info("Sail agent received unknown command");
+                    break;
+            }
         }
 
         return true;
@@ -235,40 +393,89 @@ public final class SimulatedConnection implements IConnection {
 
     @Override
     public Optional<byte[]> receiveData(final int length) {
-        do {
+        if (this.scenario != null) {
+            return this.replayNext();
+        }
+
+        Snapshot snapshot = null;
+        if (SIMULATE_HIGH_FREQUENCY) {
+            sleepNanos(TimeUnit.MILLISECONDS.toNanos(SEND_TELEMETRY_INTERVAL));
+            snapshot = this.latestSnapshot.get();
+        } else {
             try {
-                Thread.sleep(SEND_TELEMETRY_INTERVAL);
+                while (snapshot == null && this.isOpen) {
+                    snapshot = this.publishedSnapshots.poll(SEND_TELEMETRY_INTERVAL,
+                                                            TimeUnit.MILLISECONDS);
+                }
             } catch (InterruptedException e) {
-                e.printStackTrace();
+                Thread.currentThread().interrupt();
             }
-        } while (!isAllowedToUpdate && !SIMULATE_HIGH_FREQUENCY);
-
-        if (!SIMULATE_HIGH_FREQUENCY) {
-            isAllowedToUpdate = false;
         }
 
-        if (!connectedCheckBox.isSelected()) {
+        if (snapshot == null || !snapshot.connected()) {
             return Optional.empty();
         }
 
-        byte statusInfo = autonomousCheckBox.isSelected() ? (byte) 1 : (byte) 0;
+        return Optional.of(snapshot.frame().clone());
+    }
 
-        // Fill out telemetry data
-        final var telemetryData = new TelemetryData(
-                new UnsignedShort(getNumber(windDirectionInput)),
-                new UnsignedShort(getNumber(windSpeedInput)),
-                new UnsignedShort(getNumber(agentSpeedInput)),
-                (short) getNumber(agentPositionXInput),
-                (short) getNumber(agentPositionYInput),
-                (byte) getNumber(batteryInput),
-                new UnsignedShort(getNumber(
-                        agentDirectionInput)),
-                new StatusInfo(statusInfo));
+    /**
+     * Replay the scenario up to the next telemetry frame.
+     * Connect and disconnect events are applied on the way. While the agent is
+     * disconnected, telemetry frames are not received.
+     *
+     * @return the next telemetry frame, empty if disconnected or finished
+     */
+    private Optional<byte[]> replayNext() {
+        while (this.isOpen && this.nextEvent < this.scenario.size()) {
+            final int idx = this.nextEvent++;
+            if (this.replaySpeed > 0) {
+                final long due = this.replayStart + (long) (TimeUnit.MILLISECONDS
+                                    .toNanos(this.scenario.getTime(idx)) / this.replaySpeed);
+                sleepNanos(due - System.nanoTime());
+            }
 
-        LOGGER.info("Sending telemetry data: "
-                + telemetryData.toString());
+            switch (this.scenario.getType(idx)) {
+                case CONNECT -> this.isReplayConnected = true;
+                case DISCONNECT -> this.isReplayConnected = false;
+                default -> {
+                    if (!this.isReplayConnected) {
+                        return Optional.empty();
+                    }
+
+                    final var frame = new byte[TELEMETRY_SIZE];
+                    this.scenario.copyFrame(idx, frame);
+                    return Optional.of(frame);
+                }
+            }
+        }
+
+        //The scenario is finished, behave like a silent connection
+        sleepNanos(TimeUnit.MILLISECONDS.toNanos(SEND_TELEMETRY_INTERVAL));
+        return Optional.empty();
+    }
 
-        return Optional.of(telemetryData.toByteArray());
+    /**
+     * Check if the scenario is replayed completely.
+     *
+     * @return true if all events of the scenario are replayed
+     */
+    public boolean isReplayFinished() {
+        return this.scenario != null && this.nextEvent >= this.scenario.size();
+    }
+
+    /**
+     * Sleep for the given time, if it is positive.
+     *
+     * @param nanos the time to sleep in ns
+     */
+    private static void sleepNanos(final long nanos) {
+        final long deadline = System.nanoTime() + nanos;
+        long remaining = nanos;
+        while (remaining > 0 && !Thread.currentThread().isInterrupted()) {
+            LockSupport.parkNanos(remaining);
+            remaining = deadline - System.nanoTime();
+        }
     }
 
     /**
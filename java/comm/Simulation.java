@@ -1,48 +1,17 @@
 package comm;
 
 import comm.protocol.CliftonCommand;
+import comm.protocol.CommandFrameReader;
 import comm.protocol.TelemetryData;
 import comm.protocol.UnsignedShort;
 import comm.protocol.StatusInfo;
+import comm.sim.WindModel;
 import java.util.Random;
 
-import static comm.protocol.CliftonCommand.MAX_COMMAND_SIZE;
-import static comm.protocol.CliftonCommand.COMMAND_IDX;
-
 public class Simulation {
 // +---------------------------------------------------+
 // |                    Config                         |
 // +---------------------------------------------------+
-    /**
-     * Initial Wind Direction.
-     */
-    private static final int INITIAL_DIRECTION = 0;
-
-    /**
-     * Maximal Change in Wind Direction.
-     */
-    private static final int MAX_CHANGE = 20;
-
-    /**
-     * initial Wind Speed.
-     */
-    private static final int INITIAL_SPEED = 0;
-
-    /**
-     * Maximal Change in Wind Speed.
-     */
-    private static final int MAX_CHANGE_SPEED = 200;
-
-    /**
-     * Minimal Wind Speed.
-     */
-    private static final int MIN_SPEED = 0;
-
-    /**
-     * Maximal Wind Speed.
-     */
-    private static final int MAX_SPEED = 3000;
-
     /**
      * The position of the agent in the x-axis.
      */
@@ -107,6 +76,11 @@ public class Simulation {
      */
     private IConnection cliftonClient;
 
+    /**
+     * The reader of the command frames received by the Clifton.
+     */
+    private final CommandFrameReader commandReader = new CommandFrameReader();
+
     /**
      * Flag to indicate if the simulation is running.
      */
@@ -123,39 +97,29 @@ public class Simulation {
     private Thread receiveCommandsThread;
 
     /**
-     * Current Wind Direction.
-     */
-    private int currentDirection = INITIAL_DIRECTION;
-
-    /**
-     * Random.
-     */
-    private Random random = new Random();
-
-    /**
-     * Max Generated Value.
+     * The wind model.
      */
-    private static final int MAX_RAND = 7;
+    private final WindModel windModel = new WindModel(new Random());
 
     /**
-     * Shift for Random value to Negatives.
+     * The source of time and the scheduler of the worker threads.
      */
-    private static final int SHIFT = MAX_RAND / 2;
+    private final Clock clock;
 
     /**
-     * Degrees in a Circle.
+     * Constructor, the simulation runs in real time.
      */
-    private static final int DEGREES = 360;
-
-    /**
-     * Current Wind Speed.
-     */
-    private int currentSpeed = INITIAL_SPEED;
+    public Simulation() {
+        this(Clock.system());
+    }
 
     /**
-     * Shift Wind Speed for negative values.
+     * Constructor.
+     * @param clk the source of time and the scheduler of the worker threads.
      */
-    private static final int SHIFT_SPEED = MAX_CHANGE_SPEED / 2;
+    public Simulation(final Clock clk) {
+        this.clock = clk;
+    }
 
     /**
      * Starts the simulation.
@@ -166,7 +130,7 @@ public class Simulation {
                                 .create(CLIFTON_PORT, BAUD_RATE);
         this.connectionHandler = new ConnectionHandler(
                                     XBeeSerialConnection
-                                        .create(GUI_PORT, BAUD_RATE));
+                                        .create(GUI_PORT, BAUD_RATE), this.clock);
         this.cliftonClient.create();
 
         if (!this.cliftonClient.isConnected()) {
@@ -214,8 +178,8 @@ public class Simulation {
 
             //Fill out telemetry data
             final var telemetryData = new TelemetryData(
-                new UnsignedShort(currentDirection),
-                new UnsignedShort(currentSpeed),
+                new UnsignedShort(windModel.getDirection()),
+                new UnsignedShort(windModel.getSpeed()),
                 new UnsignedShort(AGENT_SPEED),
                 AGENT_POS_X,
                 AGENT_POS_Y,
@@ -231,7 +195,7 @@ public class Simulation {
             this.cliftonClient.sendData(telemetryData.toByteArray());
 
             try {
-                Thread.sleep(SEND_TELEMETRY_INTERVAL);
+                this.clock.sleep(SEND_TELEMETRY_INTERVAL);
             } catch (InterruptedException ignored) { }
         }
     }
@@ -241,32 +205,38 @@ public class Simulation {
      */
     public void receiveCommandsWorker() {
         while (this.running) {
-            //Receive command id as byte first
-            final var command = this.cliftonClient
-                                    .receiveData(MAX_COMMAND_SIZE)
-                                    .orElse(new byte[] {Byte.MAX_VALUE, 0, 0});
-
-            switch (CliftonCommand.ID.fromByte(command[COMMAND_IDX])) {
-                case HEARTBEAT:
-                    System.out.println("Sail agent received heartbeat");
-                    break;
-
-                case START_ROUTE:
-                    System.out.println("Sail agent received start route");
-                    break;
-
-                case STOP_ROUTE:
-                    System.out.println("Sail agent received stop route");
-                    break;
-
-                case SET_COURSE:
-                    final var course = new UnsignedShort(command[1], command[2]);
-                    System.out.println("Sail agent received course: " + course.getAsInt());
-                    break;
-
-                default:
-                    System.out.println("Sail agent received unknown command");
-                    break;
+            for (final var command : this.commandReader.receive(this.cliftonClient)) {
+                switch (command.id()) {
+                    case HEARTBEAT:
+                        System.out.println("Sail agent received heartbeat");
+                        break;
+
+                    case START_ROUTE:
+                        System.out.println("Sail agent received start route");
+                        break;
+
+                    case STOP_ROUTE:
+                        System.out.println("Sail agent received stop route");
+                        break;
+
+                    case SET_COURSE:
+                        final var course = new UnsignedShort(command.data()[0], command.data()[1]);
+                        System.out.println("Sail agent received course: " + course.getAsInt());
+                        break;
+
+                    case SET_BAUD_RATE:
+                        System.out.println("Sail agent ignored baud rate switch");
+                        break;
+
+                    case MISSION_CHUNK:
+                        //The GUI simulation does not acknowledge missions
+                        System.out.println("Sail agent ignored mission chunk");
+                        break;
+
+                    default:
+                        System.out.println("Sail agent received unknown command");
+                        break;
+                }
             }
         }
     }
@@ -283,34 +253,14 @@ public class Simulation {
      * Generate new Wind Direction.
      */
     public void genNextDirection() {
-        int change = random.nextInt(MAX_RAND) - SHIFT;
-        int newDirection = currentDirection + change;
-
-        if (newDirection < (INITIAL_DIRECTION - MAX_CHANGE + DEGREES) % DEGREES
-                && !(newDirection <= (INITIAL_DIRECTION + MAX_CHANGE) % DEGREES)) {
-            newDirection = INITIAL_DIRECTION - MAX_CHANGE;
-        } else if (newDirection > (INITIAL_DIRECTION + MAX_CHANGE) % DEGREES
-                && !(newDirection >= (INITIAL_DIRECTION - MAX_CHANGE + DEGREES)
-                % DEGREES)) {
-            newDirection = INITIAL_DIRECTION + MAX_CHANGE;
-        }
-
-        currentDirection = (newDirection + DEGREES) % DEGREES;
+        windModel.nextDirection();
     }
 
     /**
      * Generate new Wind Speed.
      */
     public void getNextSpeed() {
-        int change = (random.nextInt(MAX_CHANGE_SPEED) - SHIFT_SPEED);
-        int newSpeed = currentSpeed + change;
-
-        if (newSpeed < MIN_SPEED) {
-            newSpeed = MIN_SPEED;
-        } else if (newSpeed > MAX_SPEED) {
-            newSpeed = MAX_SPEED;
-        }
-        currentSpeed = newSpeed;
+        windModel.nextSpeed();
     }
 /*
     public static void main(String[] args) {
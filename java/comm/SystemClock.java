@@ -0,0 +1,49 @@
+package comm;
+
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * This class represents the real time of the system.
+ */
+public final class SystemClock implements Clock {
+    /**
+     * The only instance.
+     */
+    public static final SystemClock INSTANCE = new SystemClock();
+
+    /**
+     * This class should only be instantiated once.
+     */
+    private SystemClock() { }
+
+    @Override
+    public long currentTimeMillis() {
+        return System.currentTimeMillis();
+    }
+
+    @Override
+    public long nanoTime() {
+        return System.nanoTime();
+    }
+
+    @Override
+    public void sleepNanos(final long nanos) throws InterruptedException {
+        final long deadline = System.nanoTime() + nanos;
+        long remaining = nanos;
+        while (remaining > 0) {
+            LockSupport.parkNanos(remaining);
+            if (Thread.interrupted()) {
+                throw new InterruptedException();
+            }
+            remaining = deadline - System.nanoTime();
+        }
+    }
+
+    @Override
+    public long awaitNanos(final Lock lock, final Condition condition, final long nanos)
+            throws InterruptedException {
+        return condition.awaitNanos(nanos);
+    }
+}
@@ -0,0 +1,52 @@
+package comm;
+
+import java.util.concurrent.TimeUnit;
+
+import comm.analytics.DerivedTelemetry;
+import comm.protocol.TelemetryData;
+
+/**
+ * This record represents a received telemetry frame together with the time-
+ * of its reception. Snapshots are immutable and published atomically by the-
+ * ConnectionHandler, so readers never see a half updated frame.
+ *
+ * @param sequence - the number of the frame, starting at 1 and increasing-
+ *        by one for every received frame (gaps mean missed updates)
+ * @param receiveNanos - the monotonic time of the reception in ns-
+ *        (Clock.nanoTime, only comparable within the same clock)
+ * @param sourceTimestamp - the time of the frame at the source in ms since-
+ *        the epoch; the frame carries no clock of the clifton yet, so it is-
+ *        the wall clock time of the reception
+ * @param data - the telemetry data
+ * @param derived - the values derived from the data (true wind, VMG, ...),-
+ *        computed once for all readers
+ */
+public record TelemetrySnapshot(
+    long sequence,
+    long receiveNanos,
+    long sourceTimestamp,
+    TelemetryData data,
+    DerivedTelemetry derived
+) {
+
+    /**
+     * This method returns the age of the snapshot.
+     *
+     * @param nowNanos - the current monotonic time in ns
+     * @return long - the age in ms
+     */
+    public long getAge(final long nowNanos) {
+        return TimeUnit.NANOSECONDS.toMillis(nowNanos - this.receiveNanos);
+    }
+
+    /**
+     * This method checks if the snapshot is older than a maximum age.
+     *
+     * @param maxAge - the maximum age in ms
+     * @param nowNanos - the current monotonic time in ns
+     * @return boolean - true if the snapshot is older than maxAge, false otherwise
+     */
+    public boolean isStale(final long maxAge, final long nowNanos) {
+        return nowNanos - this.receiveNanos > TimeUnit.MILLISECONDS.toNanos(maxAge);
+    }
+}
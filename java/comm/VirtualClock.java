@@ -0,0 +1,404 @@
+package comm;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * This class represents a simulated time, which only moves on by advance.
+ * Threads, that sleep or wait via. this clock, are woken up in the order of
+ * their deadlines, so heartbeat, reconnect and timeout behaviour can be
+ * tested without really waiting.
+ *
+ * Before the time moves on, advance waits (in real time) until every thread,
+ * that ever waited via. this clock, is blocked in this clock again. A thread
+ * waiting for a condition counts as blocked, as long as it is still queued
+ * on the condition; a signal of another thread makes it runnable at once.
+ * So the threads are settled deterministically, not after a quiet period.
+ * All waits of these threads need to go through this clock, threads blocked
+ * in anything else (e.g. a real serial port) are only waited for until the
+ * settle timeout.
+ */
+public final class VirtualClock implements Clock {
+    /**
+     * Guards the time and the waiters.
+     */
+    private final ReentrantLock lock = new ReentrantLock();
+    /**
+     * Signaled if the time or the number of blocked threads changes.
+     */
+    private final Condition changed = lock.newCondition();
+    /**
+     * The threads, that wait for a deadline, ordered by the deadline.
+     */
+    private final PriorityQueue<Waiter> waiters =
+            new PriorityQueue<>(Comparator.comparingLong(Waiter::getDeadline));
+    /**
+     * The wall clock time of the virtual time 0 in ms.
+     */
+    private final long epochMillis;
+    /**
+     * The virtual time in ns.
+     */
+    private long now;
+    /**
+     * The threads, that ever waited via. this clock, with their current-
+     * waiter (null while runnable).
+     */
+    private final Map<Thread, Waiter> participants = new HashMap<>();
+
+    /**
+     * The maximum real time advance waits for runnable threads in ns.
+     */
+    private static final long SETTLE_TIMEOUT = TimeUnit.MILLISECONDS.toNanos(200);
+    /**
+     * The real time between two checks of the signaled conditions in ns.
+     */
+    private static final long POLL_INTERVAL = TimeUnit.MICROSECONDS.toNanos(20);
+
+    /**
+     * This class represents a thread, that waits for a deadline.
+     */
+    private static final class Waiter {
+        /**
+         * The deadline in virtual ns.
+         */
+        private final long deadline;
+        /**
+         * The lock of the condition, null for sleeping threads.
+         */
+        private final Lock conditionLock;
+        /**
+         * The condition, null for sleeping threads.
+         */
+        private final Condition condition;
+        /**
+         * The waiting thread.
+         */
+        private final Thread thread;
+        /**
+         * Set by advance, if the deadline is reached.
+         */
+        private boolean released;
+
+        /**
+         * Constructor.
+         *
+         * @param time - the deadline in virtual ns
+         * @param cLock - the lock of the condition, null for sleeping threads
+         * @param cond - the condition, null for sleeping threads
+         */
+        Waiter(final long time, final Lock cLock, final Condition cond) {
+            this.deadline = time;
+            this.conditionLock = cLock;
+            this.condition = cond;
+            this.thread = Thread.currentThread();
+        }
+
+        /**
+         * This method returns the deadline.
+         *
+         * @return long - the deadline in virtual ns
+         */
+        long getDeadline() {
+            return this.deadline;
+        }
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param startMillis - the wall clock time of the virtual time 0 in ms
+     */
+    public VirtualClock(final long startMillis) {
+        this.epochMillis = startMillis;
+    }
+
+    @Override
+    public long currentTimeMillis() {
+        return this.epochMillis + TimeUnit.NANOSECONDS.toMillis(this.nanoTime());
+    }
+
+    @Override
+    public long nanoTime() {
+        lock.lock();
+        try {
+            return this.now;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void sleepNanos(final long nanos) throws InterruptedException {
+        if (nanos <= 0) {
+            if (Thread.interrupted()) {
+                throw new InterruptedException();
+            }
+            return;
+        }
+
+        lock.lock();
+        try {
+            final var waiter = this.register(new Waiter(this.now + nanos, null, null));
+            try {
+                while (!waiter.released) {
+                    this.changed.await();
+                }
+            } catch (InterruptedException e) {
+                this.unregister(waiter);
+                throw e;
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public long awaitNanos(final Lock conditionLock, final Condition condition,
+            final long nanos) throws InterruptedException {
+        if (nanos <= 0) {
+            return nanos;
+        }
+
+        final Waiter waiter;
+        lock.lock();
+        try {
+            waiter = this.register(new Waiter(this.now + nanos, conditionLock, condition));
+        } finally {
+            lock.unlock();
+        }
+
+        //advance can only signal, after the lock of the condition is released
+        try {
+            condition.await();
+        } finally {
+            lock.lock();
+            try {
+                this.unregister(waiter);
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        return this.nanoTime() < waiter.deadline ? waiter.deadline - this.nanoTime() : 0;
+    }
+
+    @Override
+    public Thread newThread(final Runnable task, final String name) {
+        final var thread = new Thread(task, name);
+        lock.lock();
+        try {
+            this.participants.put(thread, null);
+        } finally {
+            lock.unlock();
+        }
+        return thread;
+    }
+
+    /**
+     * This method moves the time on and wakes up all threads, whose deadlines
+     * are reached, in the order of their deadlines.
+     *
+     * @param millis - the time to advance in ms
+     */
+    public void advance(final long millis) {
+        final long target = this.nanoTime() + TimeUnit.MILLISECONDS.toNanos(millis);
+
+        //Threads woken by anything else than the clock (e.g. received data)-
+        //finish, before the time moves on
+        this.settle();
+        while (true) {
+            final List<Waiter> dueConditions = new ArrayList<>();
+
+            lock.lock();
+            try {
+                final var next = this.waiters.peek();
+                if (this.now >= target && (next == null || next.deadline > target)) {
+                    return;
+                }
+
+                this.now = next != null && next.deadline <= target
+                            ? Math.max(this.now, next.deadline) : target;
+
+                while (!this.waiters.isEmpty() && this.waiters.peek().deadline <= this.now) {
+                    final var waiter = this.waiters.poll();
+                    this.release(waiter);
+                    if (waiter.condition != null) {
+                        dueConditions.add(waiter);
+                    }
+                }
+
+                this.changed.signalAll();
+            } finally {
+                lock.unlock();
+            }
+
+            for (final var waiter : dueConditions) {
+                waiter.conditionLock.lock();
+                try {
+                    waiter.condition.signalAll();
+                } finally {
+                    waiter.conditionLock.unlock();
+                }
+            }
+
+            this.settle();
+        }
+    }
+
+    /**
+     * This method registers a waiting thread, the lock must be held.
+     *
+     * @param waiter - the waiting thread
+     * @return Waiter - the registered waiter
+     */
+    private Waiter register(final Waiter waiter) {
+        this.waiters.add(waiter);
+        this.participants.put(waiter.thread, waiter);
+        this.changed.signalAll();
+        return waiter;
+    }
+
+    /**
+     * This method unregisters a waiting thread, that was not released by-
+     * advance (signaled or interrupted), the lock must be held.
+     *
+     * @param waiter - the waiting thread
+     */
+    private void unregister(final Waiter waiter) {
+        if (!waiter.released) {
+            this.waiters.remove(waiter);
+            this.release(waiter);
+            this.changed.signalAll();
+        }
+    }
+
+    /**
+     * This method marks a waiting thread as runnable, the lock must be held.
+     *
+     * @param waiter - the waiting thread
+     */
+    private void release(final Waiter waiter) {
+        waiter.released = true;
+        this.participants.replace(waiter.thread, waiter, null);
+    }
+
+    /**
+     * This method waits until every participating thread (except the-
+     * calling one) is blocked in this clock, or the timeout elapsed.
+     */
+    private void settle() {
+        final long timeout = System.nanoTime() + SETTLE_TIMEOUT;
+
+        try {
+            while (System.nanoTime() < timeout) {
+                final List<Waiter> conditionWaiters = new ArrayList<>();
+                lock.lock();
+                try {
+                    if (!this.collectBlocked(conditionWaiters)) {
+                        this.changed.awaitNanos(POLL_INTERVAL);
+                        continue;
+                    }
+                } finally {
+                    lock.unlock();
+                }
+
+                if (this.isQueued(conditionWaiters)) {
+                    return;
+                }
+
+                lock.lock();
+                try {
+                    this.changed.awaitNanos(POLL_INTERVAL);
+                } finally {
+                    lock.unlock();
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * This method checks if every participating thread (except the calling-
+     * one) has a waiter and collects the waiters of conditions, the lock-
+     * must be held. Terminated threads are removed, created but not yet-
+     * started threads count as runnable.
+     *
+     * @param conditionWaiters - the list to be filled with the waiters of conditions
+     * @return boolean - true if no thread is runnable, false otherwise
+     */
+    private boolean collectBlocked(final List<Waiter> conditionWaiters) {
+        final var self = Thread.currentThread();
+        final var iterator = this.participants.entrySet().iterator();
+        while (iterator.hasNext()) {
+            final var entry = iterator.next();
+            if (entry.getKey().getState() == Thread.State.TERMINATED) {
+                iterator.remove();
+            } else if (entry.getKey() != self) {
+                if (entry.getValue() == null) {
+                    return false;
+                }
+                if (entry.getValue().condition != null) {
+                    conditionWaiters.add(entry.getValue());
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * This method checks if the waiters of conditions are still queued on-
+     * their conditions, so no signal made them runnable meanwhile.
+     * Conditions of other locks than ReentrantLock cannot be inspected and-
+     * count as queued.
+     *
+     * @param conditionWaiters - the waiters of conditions
+     * @return boolean - true if all waiters are queued, false otherwise
+     */
+    private boolean isQueued(final List<Waiter> conditionWaiters) {
+        final Map<Condition, Integer> expected = new HashMap<>();
+        final Map<Condition, Lock> locks = new HashMap<>();
+        for (final var waiter : conditionWaiters) {
+            expected.merge(waiter.condition, 1, Integer::sum);
+            locks.put(waiter.condition, waiter.conditionLock);
+        }
+
+        for (final var entry : expected.entrySet()) {
+            if (!(locks.get(entry.getKey()) instanceof ReentrantLock conditionLock)) {
+                continue;
+            }
+
+            //The waiter holds the lock until it is queued on the condition
+            conditionLock.lock();
+            try {
+                if (conditionLock.getWaitQueueLength(entry.getKey()) < entry.getValue()) {
+                    return false;
+                }
+            } finally {
+                conditionLock.unlock();
+            }
+        }
+
+        //A waiter, that was signaled meanwhile, unregistered itself
+        lock.lock();
+        try {
+            for (final var waiter : conditionWaiters) {
+                if (waiter.released) {
+                    return false;
+                }
+            }
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+}
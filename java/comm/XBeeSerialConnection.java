@@ -9,6 +9,8 @@ import com.fazecast.jSerialComm.SerialPort;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
 
 /**
  * This class represents a point to point connection between the
@@ -22,7 +24,7 @@ public final class XBeeSerialConnection implements IConnection {
     /**
      * The baud rate to use.
      */
-    private final int baudRate;
+    private volatile int baudRate;
     /**
      * The serial port.
      */
@@ -48,6 +50,25 @@ public final class XBeeSerialConnection implements IConnection {
      * The data bits.
      */
     private static final int DATA_BITS = 8;
+    /**
+     * The baud rates supported by the XBee, the index is the value of the-
+     * AT command BD.
+     */
+    public static final int[] XBEE_BAUD_RATES = {
+        1200, 2400, 4800, 9600, 19200, 38400, 57600, 115200, 230400
+    };
+    /**
+     * The silence before and after the escape sequence of the XBee in ms.
+     */
+    private static final long COMMAND_MODE_GUARD_TIME = 1100;
+    /**
+     * The escape sequence to enter the command mode of the XBee.
+     */
+    private static final String COMMAND_MODE_SEQUENCE = "+++";
+    /**
+     * The response of the XBee for a successful AT command.
+     */
+    private static final byte[] AT_OK = "OK\r".getBytes(StandardCharsets.US_ASCII);
 
     /**
      * The logger.
@@ -119,6 +140,8 @@ public final class XBeeSerialConnection implements IConnection {
 
     /**
      * This method sends data to the output stream.
+     * It waits for a running baud rate switch, so no data breaks the guard-
+     * time of the command mode or is sent to the XBee as AT command.
      *
      * @param data - the data to be sent
      * @return boolean - true if the data was successfully sent,
@@ -126,7 +149,7 @@ public final class XBeeSerialConnection implements IConnection {
      * @throws IOException
      */
     @Override
-    public boolean sendData(final byte[] data) {
+    public synchronized boolean sendData(final byte[] data) {
         try {
             this.outputStream.write(data);
             //this.outputStream.flush();
@@ -152,8 +175,9 @@ public final class XBeeSerialConnection implements IConnection {
                 final var bytesRead = this.inputStream
                     .read(data, totalBytesRead, length - totalBytesRead);
                 if (bytesRead == -1) {
-                    // End of stream reached prematurely
+                    // End of stream reached prematurely (e.g. port closed)
                     LOGGER.error("End of stream reached prematurely");
+                    return Optional.empty();
                 }
                 totalBytesRead += bytesRead;
             }
@@ -187,4 +211,113 @@ public final class XBeeSerialConnection implements IConnection {
     public boolean isConnected() {
         return this.isConnected;
     }
+
+    /**
+     * This method returns the number of bytes, that can be received without
+     * blocking.
+     *
+     * @return int - the number of available bytes, or -1 if unknown
+     */
+    @Override
+    public int getAvailableBytes() {
+        return this.isConnected ? this.serialPort.bytesAvailable() : -1;
+    }
+
+    /**
+     * This method switches the baud rate without closing the port.
+     * First the local XBee is reconfigured via. its command mode (the new-
+     * baud rate is not written to the non volatile memory, so a power cycle-
+     * restores the default), afterwards the serial port is reconfigured.
+     * sendData waits meanwhile, so the switch is not disturbed by frames.
+     *
+     * @param newBaudRate - the new baud rate (one of XBEE_BAUD_RATES)
+     * @return boolean - true if the baud rate was switched, false otherwise
+     */
+    @Override
+    public synchronized boolean setBaudRate(final int newBaudRate) {
+        final int code = Arrays.stream(XBEE_BAUD_RATES).boxed()
+                            .toList().indexOf(newBaudRate);
+        if (!this.isConnected || code < 0) {
+            return false;
+        }
+
+        if (newBaudRate == this.baudRate) {
+            return true;
+        }
+
+        //The XBee only accepts the escape sequence after some silence
+        if (!this.sleep(COMMAND_MODE_GUARD_TIME)
+                || !this.sendAtCommand(COMMAND_MODE_SEQUENCE, false)
+                || !this.sendAtCommand("ATBD" + code, true)
+                || !this.sendAtCommand("ATCN", true)) {
+            LOGGER.error("Failed to configure XBee for baud rate {}", newBaudRate);
+            this.serialPort.flushIOBuffers();
+            return false;
+        }
+
+        if (!this.serialPort.setComPortParameters(newBaudRate,
+                                                  DATA_BITS,
+                                                  SerialPort.ONE_STOP_BIT,
+                                                  SerialPort.NO_PARITY)) {
+            LOGGER.error("Failed to set baud rate of serial port: {}",
+                this.serialPort.getLastErrorCode());
+            return false;
+        }
+
+        this.serialPort.flushIOBuffers();
+        this.baudRate = newBaudRate;
+        LOGGER.info("Switched to baud rate {}", newBaudRate);
+        return true;
+    }
+
+    /**
+     * This method returns the current baud rate.
+     *
+     * @return int - the baud rate
+     */
+    @Override
+    public int getBaudRate() {
+        return this.baudRate;
+    }
+
+    /**
+     * This method sends an AT command to the local XBee and waits for the OK.
+     *
+     * @param command - the command without the carriage return
+     * @param isCommand - true for an AT command, false for the escape sequence
+     * @return boolean - true if the XBee responded with OK, false otherwise
+     */
+    private boolean sendAtCommand(final String command, final boolean isCommand) {
+        final var raw = (isCommand ? command + "\r" : command)
+                            .getBytes(StandardCharsets.US_ASCII);
+        this.serialPort.flushIOBuffers();
+        if (!this.sendData(raw)) {
+            return false;
+        }
+
+        //After the escape sequence the XBee needs silence again
+        if (!isCommand && !this.sleep(COMMAND_MODE_GUARD_TIME)) {
+            return false;
+        }
+
+        return this.receiveData(AT_OK.length)
+                    .map(response -> Arrays.equals(response, AT_OK))
+                    .orElse(false);
+    }
+
+    /**
+     * This method sleeps for the given time.
+     *
+     * @param millis - the time to sleep in ms
+     * @return boolean - false if interrupted, true otherwise
+     */
+    private boolean sleep(final long millis) {
+        try {
+            Thread.sleep(millis);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
 }
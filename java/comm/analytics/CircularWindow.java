@@ -0,0 +1,165 @@
+package comm.analytics;
+
+/**
+ * This class calculates the rolling circular mean and variance of the last
+ * directions in O(1) per sample.
+ * Directions are averaged as unit vectors, so 350 and 10 degrees average to
+ * 0 degrees instead of 180. The circular variance is 1 - R, where R is the
+ * length of the mean vector (0 = constant direction, 1 = no direction).
+ * This class is not thread safe.
+ */
+public final class CircularWindow {
+    /**
+     * The sine of every direction in the window.
+     */
+    private final double[] sines;
+    /**
+     * The cosine of every direction in the window.
+     */
+    private final double[] cosines;
+    /**
+     * The index of the next sample.
+     */
+    private int nextIdx;
+    /**
+     * The number of samples in the window.
+     */
+    private int count;
+    /**
+     * The sum of the sines.
+     */
+    private double sineSum;
+    /**
+     * The sum of the cosines.
+     */
+    private double cosineSum;
+
+    /**
+     * Degrees in a Circle.
+     */
+    private static final double DEGREES = 360.0;
+    /**
+     * The length of the mean vector, below which the directions cancel out.
+     */
+    private static final double CANCELED_OUT = 1e-9;
+
+    /**
+     * Constructor.
+     *
+     * @param size - the number of samples in the window
+     */
+    public CircularWindow(final int size) {
+        if (size <= 0) {
+            throw new IllegalArgumentException("Invalid window size: " + size);
+        }
+
+        this.sines = new double[size];
+        this.cosines = new double[size];
+    }
+
+    /**
+     * This method adds a direction and removes the oldest one, if the window-
+     * is full.
+     *
+     * @param direction - the direction in degrees
+     */
+    public void add(final double direction) {
+        final double radians = Math.toRadians(direction);
+        final double sine = Math.sin(radians);
+        final double cosine = Math.cos(radians);
+
+        if (this.count == this.sines.length) {
+            this.sineSum -= this.sines[this.nextIdx];
+            this.cosineSum -= this.cosines[this.nextIdx];
+        } else {
+            this.count++;
+        }
+
+        this.sines[this.nextIdx] = sine;
+        this.cosines[this.nextIdx] = cosine;
+        this.sineSum += sine;
+        this.cosineSum += cosine;
+        this.nextIdx = (this.nextIdx + 1) % this.sines.length;
+
+        //Sum up again once per window, so rounding errors do not accumulate
+        if (this.nextIdx == 0) {
+            this.resum();
+        }
+    }
+
+    /**
+     * This method returns the number of samples in the window.
+     *
+     * @return int - the number of samples
+     */
+    public int getCount() {
+        return this.count;
+    }
+
+    /**
+     * This method returns the size of the window.
+     *
+     * @return int - the maximum number of samples
+     */
+    public int getSize() {
+        return this.sines.length;
+    }
+
+    /**
+     * This method returns the circular mean of the directions.
+     *
+     * @return double - the mean in degrees (0 to 360), NaN if the window is empty-
+     *         or the directions cancel out
+     */
+    public double getMean() {
+        if (this.count == 0 || this.getResultantLength() < CANCELED_OUT) {
+            return Double.NaN;
+        }
+
+        final double mean = Math.toDegrees(Math.atan2(this.sineSum, this.cosineSum));
+        return mean < 0 ? mean + DEGREES : mean;
+    }
+
+    /**
+     * This method returns the circular variance of the directions.
+     *
+     * @return double - the variance (0 to 1), NaN if the window is empty
+     */
+    public double getVariance() {
+        return this.count == 0 ? Double.NaN : 1 - this.getResultantLength();
+    }
+
+    /**
+     * This method removes all samples.
+     */
+    public void reset() {
+        this.nextIdx = 0;
+        this.count = 0;
+        this.sineSum = 0;
+        this.cosineSum = 0;
+    }
+
+    /**
+     * This method returns the length of the mean vector.
+     *
+     * @return double - the length (0 to 1)
+     */
+    private double getResultantLength() {
+        return Math.min(1, Math.hypot(this.sineSum, this.cosineSum) / this.count);
+    }
+
+    /**
+     * This method calculates the sums of the window again.
+     */
+    private void resum() {
+        double sineTotal = 0;
+        double cosineTotal = 0;
+        for (int i = 0; i < this.count; i++) {
+            sineTotal += this.sines[i];
+            cosineTotal += this.cosines[i];
+        }
+
+        this.sineSum = sineTotal;
+        this.cosineSum = cosineTotal;
+    }
+}
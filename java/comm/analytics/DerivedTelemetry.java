@@ -0,0 +1,42 @@
+package comm.analytics;
+
+import java.util.List;
+
+/**
+ * This record holds the values derived from a telemetry frame.
+ * Values, that can not be derived (e.g. no wind sensor data yet), are NaN.
+ *
+ * @param trueWindDirection - the estimated direction the true wind comes from-
+ *        in degrees (0 to 360)
+ * @param trueWindSpeed - the estimated true wind speed in cm/s
+ * @param upwindVmg - the velocity made good towards the true wind in cm/s-
+ *        (negative when running downwind)
+ * @param targetVmg - the velocity made good towards the target in cm/s,-
+ *        NaN if no target is set
+ * @param windStatistics - the circular statistics of the true wind direction,-
+ *        one entry per configured window
+ */
+public record DerivedTelemetry(
+    double trueWindDirection,
+    double trueWindSpeed,
+    double upwindVmg,
+    double targetVmg,
+    List<WindStatistics> windStatistics
+) {
+
+    /**
+     * This record holds the circular statistics of the wind direction over-
+     * a window.
+     *
+     * @param window - the size of the window in samples
+     * @param samples - the number of samples in the window
+     * @param meanDirection - the circular mean in degrees (0 to 360)
+     * @param variance - the circular variance (0 = steady, 1 = no direction)
+     */
+    public record WindStatistics(
+        int window,
+        int samples,
+        double meanDirection,
+        double variance
+    ) { }
+}
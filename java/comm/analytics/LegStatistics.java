@@ -0,0 +1,34 @@
+package comm.analytics;
+
+/**
+ * This record holds the statistics of a leg, the track of a recorded session.
+ *
+ * @param session - the index of the session in the analyzed list
+ * @param start - the first timestamp in ms
+ * @param end - the last timestamp in ms
+ * @param records - the number of records
+ * @param distance - the sailed distance in m
+ * @param meanSpeed - the mean speed in cm/s
+ * @param maxSpeed - the maximum speed in cm/s
+ * @param batteryUsed - the battery status at the start minus the one at the end
+ */
+public record LegStatistics(
+    int session,
+    long start,
+    long end,
+    long records,
+    double distance,
+    double meanSpeed,
+    int maxSpeed,
+    int batteryUsed
+) {
+
+    /**
+     * This method returns the duration of the leg.
+     *
+     * @return long - the duration in ms
+     */
+    public long getDuration() {
+        return this.end - this.start;
+    }
+}
@@ -0,0 +1,335 @@
+package comm.analytics;
+
+import static comm.analytics.MissionReport.CURVE_STEP;
+import static comm.analytics.MissionReport.DIRECTION_BIN;
+import static comm.analytics.MissionReport.SPEED_BIN;
+import static comm.analytics.MissionReport.SPEED_BINS;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import comm.store.TelemetryColumns;
+import comm.store.TelemetryField;
+
+/**
+ * This class holds the aggregates of a part of the recorded sessions.
+ * The parts are aggregated independently and merged in the order of the-
+ * records, the legs are stitched together where a session spans both parts.
+ * This class is not thread safe.
+ */
+final class MissionAggregates {
+    /**
+     * This class holds the aggregates of a leg.
+     */
+    private static final class Leg {
+        /**
+         * The index of the session.
+         */
+        private final int session;
+        /**
+         * The first timestamp in ms.
+         */
+        private long start;
+        /**
+         * The last timestamp in ms.
+         */
+        private long end;
+        /**
+         * The number of records.
+         */
+        private long records;
+        /**
+         * The sailed distance in m.
+         */
+        private double distance;
+        /**
+         * The sum of the speeds in cm/s.
+         */
+        private long speedSum;
+        /**
+         * The maximum speed in cm/s.
+         */
+        private int maxSpeed;
+        /**
+         * The first position north in m.
+         */
+        private int firstX;
+        /**
+         * The first position east in m.
+         */
+        private int firstY;
+        /**
+         * The last position north in m.
+         */
+        private int lastX;
+        /**
+         * The last position east in m.
+         */
+        private int lastY;
+        /**
+         * The first battery status.
+         */
+        private int firstBattery;
+        /**
+         * The last battery status.
+         */
+        private int lastBattery;
+
+        /**
+         * Constructor.
+         *
+         * @param sessionIdx - the index of the session
+         */
+        Leg(final int sessionIdx) {
+            this.session = sessionIdx;
+        }
+
+        /**
+         * This method appends a leg, that follows this one in the same session.
+         *
+         * @param next - the following leg
+         */
+        void append(final Leg next) {
+            this.distance += Math.hypot(next.firstX - this.lastX, next.firstY - this.lastY)
+                             + next.distance;
+            this.end = next.end;
+            this.records += next.records;
+            this.speedSum += next.speedSum;
+            this.maxSpeed = Math.max(this.maxSpeed, next.maxSpeed);
+            this.lastX = next.lastX;
+            this.lastY = next.lastY;
+            this.lastBattery = next.lastBattery;
+        }
+
+        /**
+         * This method returns the statistics of the leg.
+         *
+         * @return LegStatistics - the statistics
+         */
+        LegStatistics toStatistics() {
+            return new LegStatistics(this.session, this.start, this.end, this.records,
+                                     this.distance, (double) this.speedSum / this.records,
+                                     this.maxSpeed, this.firstBattery - this.lastBattery);
+        }
+    }
+
+    /**
+     * The number of wind direction bins.
+     */
+    private static final int DIRECTION_BINS = 360 / DIRECTION_BIN;
+    /**
+     * The number of wind angle bins (0 to 180 degrees).
+     */
+    private static final int ANGLE_BINS = 180 / DIRECTION_BIN + 1;
+    /**
+     * The initial number of steps of the battery curve.
+     */
+    private static final int INITIAL_CURVE_STEPS = 60;
+    /**
+     * The marker for an invalid (not yet available) value.
+     */
+    private static final int INVALID_VALUE = 0xFFFF;
+    /**
+     * Degrees in a Circle.
+     */
+    private static final int DEGREES = 360;
+    /**
+     * Half Circle in degrees.
+     */
+    private static final int HALF_CIRCLE = 180;
+
+    /**
+     * The legs, in the order of the sessions.
+     */
+    private final List<Leg> legs;
+    /**
+     * The number of records per wind direction bin.
+     */
+    private final long[] windDirections;
+    /**
+     * The number of records per wind speed bin.
+     */
+    private final long[] windSpeeds;
+    /**
+     * The sum of the speed ratios per wind angle bin.
+     */
+    private final double[] polarSums;
+    /**
+     * The number of speed ratios per wind angle bin.
+     */
+    private final long[] polarCounts;
+    /**
+     * The sum of the battery status per step.
+     */
+    private long[] batterySums;
+    /**
+     * The number of battery status per step.
+     */
+    private long[] batteryCounts;
+    /**
+     * The number of records.
+     */
+    private long records;
+
+    /**
+     * Constructor, creates empty aggregates.
+     */
+    MissionAggregates() {
+        this.legs = new ArrayList<>();
+        this.windDirections = new long[DIRECTION_BINS];
+        this.windSpeeds = new long[SPEED_BINS];
+        this.polarSums = new double[ANGLE_BINS];
+        this.polarCounts = new long[ANGLE_BINS];
+        this.batterySums = new long[INITIAL_CURVE_STEPS];
+        this.batteryCounts = new long[INITIAL_CURVE_STEPS];
+        this.records = 0;
+    }
+
+    /**
+     * This method aggregates consecutive records of a session, that follow-
+     * the ones aggregated before.
+     *
+     * @param columns - the records
+     * @param session - the index of the session
+     * @param sessionStart - the first timestamp of the session in ms
+     */
+    void add(final TelemetryColumns columns, final int session, final long sessionStart) {
+        final int size = columns.size();
+        if (size == 0) {
+            return;
+        }
+
+        final long[] timestamps = columns.getTimestamps();
+        final int[] windDirection = columns.getColumn(TelemetryField.WIND_DIRECTION);
+        final int[] windSpeed = columns.getColumn(TelemetryField.WIND_SPEED);
+        final int[] speed = columns.getColumn(TelemetryField.AGENT_SPEED);
+        final int[] posX = columns.getColumn(TelemetryField.AGENT_POS_X);
+        final int[] posY = columns.getColumn(TelemetryField.AGENT_POS_Y);
+        final int[] battery = columns.getColumn(TelemetryField.BATTERY_STATUS);
+        final int[] heading = columns.getColumn(TelemetryField.AGENT_DIRECTION);
+
+        final var leg = new Leg(session);
+        leg.start = timestamps[0];
+        leg.end = timestamps[size - 1];
+        leg.records = size;
+        leg.firstX = posX[0];
+        leg.firstY = posY[0];
+        leg.lastX = posX[size - 1];
+        leg.lastY = posY[size - 1];
+        leg.firstBattery = battery[0];
+        leg.lastBattery = battery[size - 1];
+        this.ensureCurveSteps((int) ((leg.end - sessionStart) / CURVE_STEP) + 1);
+
+        for (int i = 0; i < size; i++) {
+            if (i > 0) {
+                leg.distance += Math.hypot(posX[i] - posX[i - 1], posY[i] - posY[i - 1]);
+            }
+            leg.speedSum += speed[i];
+            leg.maxSpeed = Math.max(leg.maxSpeed, speed[i]);
+
+            final int step = (int) ((timestamps[i] - sessionStart) / CURVE_STEP);
+            this.batterySums[step] += battery[i];
+            this.batteryCounts[step]++;
+
+            if (windDirection[i] == INVALID_VALUE || windSpeed[i] == INVALID_VALUE) {
+                continue;
+            }
+            this.windDirections[windDirection[i] % DEGREES / DIRECTION_BIN]++;
+            this.windSpeeds[Math.min(windSpeed[i] / SPEED_BIN, SPEED_BINS - 1)]++;
+
+            if (heading[i] != INVALID_VALUE && windSpeed[i] > 0) {
+                final int angle = Math.abs(Math.floorMod(windDirection[i] - heading[i]
+                                                         + HALF_CIRCLE, DEGREES) - HALF_CIRCLE);
+                this.polarSums[angle / DIRECTION_BIN] += (double) speed[i] / windSpeed[i];
+                this.polarCounts[angle / DIRECTION_BIN]++;
+            }
+        }
+
+        this.records += size;
+        this.appendLeg(leg);
+    }
+
+    /**
+     * This method merges the aggregates of the records, that follow the ones-
+     * of this aggregates.
+     *
+     * @param next - the following aggregates
+     */
+    void merge(final MissionAggregates next) {
+        this.records += next.records;
+        for (int i = 0; i < this.windDirections.length; i++) {
+            this.windDirections[i] += next.windDirections[i];
+        }
+        for (int i = 0; i < this.windSpeeds.length; i++) {
+            this.windSpeeds[i] += next.windSpeeds[i];
+        }
+        for (int i = 0; i < this.polarSums.length; i++) {
+            this.polarSums[i] += next.polarSums[i];
+            this.polarCounts[i] += next.polarCounts[i];
+        }
+        this.ensureCurveSteps(next.batterySums.length);
+        for (int i = 0; i < next.batterySums.length; i++) {
+            this.batterySums[i] += next.batterySums[i];
+            this.batteryCounts[i] += next.batteryCounts[i];
+        }
+        for (final var leg : next.legs) {
+            this.appendLeg(leg);
+        }
+    }
+
+    /**
+     * This method creates the report of the aggregates.
+     *
+     * @return MissionReport - the report
+     */
+    MissionReport toReport() {
+        final double[] polar = new double[this.polarSums.length];
+        for (int i = 0; i < polar.length; i++) {
+            polar[i] = this.polarCounts[i] == 0 ? Double.NaN
+                       : this.polarSums[i] / this.polarCounts[i];
+        }
+
+        int steps = this.batteryCounts.length;
+        while (steps > 0 && this.batteryCounts[steps - 1] == 0) {
+            steps--;
+        }
+        final double[] curve = new double[steps];
+        for (int i = 0; i < steps; i++) {
+            curve[i] = this.batteryCounts[i] == 0 ? Double.NaN
+                       : (double) this.batterySums[i] / this.batteryCounts[i];
+        }
+
+        return new MissionReport(this.records,
+                                 this.legs.stream().map(Leg::toStatistics).toList(),
+                                 this.windDirections.clone(), this.windSpeeds.clone(),
+                                 polar, curve);
+    }
+
+    /**
+     * This method appends a leg, it continues the last leg of the same session.
+     *
+     * @param leg - the leg
+     */
+    private void appendLeg(final Leg leg) {
+        final var last = this.legs.isEmpty() ? null : this.legs.get(this.legs.size() - 1);
+        if (last != null && last.session == leg.session) {
+            last.append(leg);
+        } else {
+            this.legs.add(leg);
+        }
+    }
+
+    /**
+     * This method grows the battery curve.
+     *
+     * @param steps - the required number of steps
+     */
+    private void ensureCurveSteps(final int steps) {
+        if (steps > this.batterySums.length) {
+            final int capacity = Math.max(steps, this.batterySums.length * 2);
+            this.batterySums = Arrays.copyOf(this.batterySums, capacity);
+            this.batteryCounts = Arrays.copyOf(this.batteryCounts, capacity);
+        }
+    }
+}
@@ -0,0 +1,179 @@
+package comm.analytics;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import comm.store.TelemetryBlock;
+import comm.store.TelemetryColumns;
+import comm.store.TelemetryStore;
+
+/**
+ * This class analyzes recorded sessions (directories of a TelemetryStore)-
+ * after the mission, on all cores.
+ *
+ * The block files of the sessions are split into chunks of CHUNK_BLOCKS-
+ * blocks. The chunks are decoded into primitive columns and aggregated by-
+ * fork/join tasks, the partial aggregates are merged in the order of the-
+ * records, so the legs, the wind histograms, the speed polar and the battery-
+ * curve are the same as of a sequential analysis.
+ */
+public final class MissionLogAnalyzer {
+    /**
+     * This record represents a chunk of a session.
+     *
+     * @param session - the index of the session
+     * @param blocks - the block file of the session
+     * @param sessionStart - the first timestamp of the session in ms
+     * @param first - the index of the first block
+     * @param count - the number of blocks
+     */
+    private record Chunk(int session, FileChannel blocks, long sessionStart, int first,
+            int count) { }
+
+    /**
+     * This class aggregates a range of chunks, it splits the range until a-
+     * single chunk is left.
+     */
+    private static final class AnalyzeTask extends RecursiveTask<MissionAggregates> {
+        /**
+         * The serial version.
+         */
+        private static final long serialVersionUID = 1L;
+        /**
+         * All chunks.
+         */
+        private final transient List<Chunk> chunks;
+        /**
+         * The index of the first chunk of the range.
+         */
+        private final int from;
+        /**
+         * The index after the last chunk of the range.
+         */
+        private final int to;
+
+        /**
+         * Constructor.
+         *
+         * @param allChunks - all chunks
+         * @param fromIdx - the index of the first chunk of the range
+         * @param toIdx - the index after the last chunk of the range
+         */
+        AnalyzeTask(final List<Chunk> allChunks, final int fromIdx, final int toIdx) {
+            this.chunks = allChunks;
+            this.from = fromIdx;
+            this.to = toIdx;
+        }
+
+        @Override
+        protected MissionAggregates compute() {
+            if (this.to - this.from <= 1) {
+                final var aggregates = new MissionAggregates();
+                if (this.to > this.from) {
+                    final var chunk = this.chunks.get(this.from);
+                    try {
+                        aggregates.add(TelemetryColumns.read(chunk.blocks(), chunk.first(),
+                                       chunk.count()), chunk.session(), chunk.sessionStart());
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                }
+                return aggregates;
+            }
+
+            final int mid = (this.from + this.to) >>> 1;
+            final var left = new AnalyzeTask(this.chunks, this.from, mid);
+            left.fork();
+            final var right = new AnalyzeTask(this.chunks, mid, this.to).compute();
+            final var result = left.join();
+            result.merge(right);
+            return result;
+        }
+    }
+
+    /**
+     * The number of blocks of a chunk.
+     */
+    public static final int CHUNK_BLOCKS = 16;
+
+    /**
+     * The pool of the tasks.
+     */
+    private final ForkJoinPool pool;
+
+    /**
+     * The logger.
+     */
+    private static final Logger LOGGER = LogManager.getLogger(MissionLogAnalyzer.class);
+
+    /**
+     * Constructor, uses the common pool (all cores).
+     */
+    public MissionLogAnalyzer() {
+        this(ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param forkJoinPool - the pool of the tasks
+     */
+    public MissionLogAnalyzer(final ForkJoinPool forkJoinPool) {
+        this.pool = forkJoinPool;
+    }
+
+    /**
+     * This method analyzes recorded sessions.
+     *
+     * @param sessions - the directories of the sessions
+     * @return Optional<MissionReport> - the report, empty if a session could-
+     *         not be read
+     */
+    public Optional<MissionReport> analyze(final List<Path> sessions) {
+        final List<FileChannel> channels = new ArrayList<>();
+        try {
+            final List<Chunk> chunks = new ArrayList<>();
+            for (int session = 0; session < sessions.size(); session++) {
+                final var channel = FileChannel.open(
+                    sessions.get(session).resolve(TelemetryStore.BLOCKS_FILE),
+                    StandardOpenOption.READ);
+                channels.add(channel);
+
+                final int blocks = (int) (channel.size() / TelemetryBlock.BLOCK_SIZE);
+                if (blocks == 0) {
+                    continue;
+                }
+                final long start = TelemetryColumns.read(channel, 0, 1).getTimestamps()[0];
+                for (int first = 0; first < blocks; first += CHUNK_BLOCKS) {
+                    chunks.add(new Chunk(session, channel, start, first,
+                                         Math.min(CHUNK_BLOCKS, blocks - first)));
+                }
+            }
+
+            return Optional.of(this.pool.invoke(new AnalyzeTask(chunks, 0, chunks.size()))
+                                        .toReport());
+        } catch (IOException | UncheckedIOException e) {
+            LOGGER.error("Failed to analyze the sessions {}", sessions, e);
+            return Optional.empty();
+        } finally {
+            for (final var channel : channels) {
+                try {
+                    channel.close();
+                } catch (IOException e) {
+                    LOGGER.warn("Failed to close a session", e);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package comm.analytics;
+
+import java.util.List;
+
+/**
+ * This record holds the result of the analysis of recorded sessions.
+ *
+ * @param records - the number of analyzed records
+ * @param legs - the statistics of every session, in the order of the sessions
+ * @param windDirections - the number of records per wind direction bin of-
+ *        DIRECTION_BIN degrees
+ * @param windSpeeds - the number of records per wind speed bin of-
+ *        SPEED_BIN cm/s, the last bin holds all faster ones
+ * @param speedPolar - the mean boat speed as fraction of the wind speed per-
+ *        wind angle bin of DIRECTION_BIN degrees (0 to 180),-
+ *        NaN if there is no record
+ * @param batteryCurve - the mean battery status per CURVE_STEP since the-
+ *        start of the session, NaN if there is no record
+ */
+public record MissionReport(
+    long records,
+    List<LegStatistics> legs,
+    long[] windDirections,
+    long[] windSpeeds,
+    double[] speedPolar,
+    double[] batteryCurve
+) {
+
+    /**
+     * The width of a wind direction and wind angle bin in degrees.
+     */
+    public static final int DIRECTION_BIN = 10;
+    /**
+     * The width of a wind speed bin in cm/s.
+     */
+    public static final int SPEED_BIN = 50;
+    /**
+     * The number of wind speed bins.
+     */
+    public static final int SPEED_BINS = 40;
+    /**
+     * The length of a step of the battery curve in ms.
+     */
+    public static final long CURVE_STEP = 60_000;
+}
@@ -0,0 +1,174 @@
+package comm.analytics;
+
+import java.util.Arrays;
+import java.util.List;
+
+import comm.protocol.TelemetryData;
+
+/**
+ * This class derives the sailing values from the telemetry stream in O(1)
+ * per frame: the true wind, the velocity made good (towards the wind and
+ * towards a target) and the rolling circular statistics of the wind direction.
+ *
+ * The wind is measured on the moving boat, so the sensor sees the apparent
+ * wind. The true wind is estimated by adding the velocity of the boat to the
+ * apparent wind vector. All directions are the direction the wind comes from
+ * respectively the heading in degrees, positions are NED (x north, y east) in m.
+ *
+ * Frames must be passed by a single thread, the target can be set by any thread.
+ */
+public final class SailingMetrics {
+    /**
+     * This record holds the target position.
+     *
+     * @param posX - the position north in m
+     * @param posY - the position east in m
+     */
+    private record Target(double posX, double posY) { }
+
+    /**
+     * The rolling statistics of the true wind direction, one per window.
+     */
+    private final CircularWindow[] windWindows;
+    /**
+     * The target of the velocity made good, null if not set.
+     */
+    private volatile Target target;
+
+    /**
+     * The default window sizes in samples (10 s and 1 min at 1 Hz telemetry).
+     */
+    private static final int[] DEFAULT_WINDOWS = {10, 60};
+    /**
+     * The marker for an invalid (not yet available) value.
+     */
+    private static final int INVALID_VALUE = 0xFFFF;
+    /**
+     * Degrees in a Circle.
+     */
+    private static final double DEGREES = 360.0;
+
+    /**
+     * Constructor with the default windows.
+     */
+    public SailingMetrics() {
+        this(DEFAULT_WINDOWS);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param windows - the sizes of the windows of the wind statistics in samples
+     */
+    public SailingMetrics(final int... windows) {
+        this.windWindows = Arrays.stream(windows)
+                                 .mapToObj(CircularWindow::new)
+                                 .toArray(CircularWindow[]::new);
+        this.target = null;
+    }
+
+    /**
+     * This method sets the target of the velocity made good.
+     *
+     * @param posX - the position north in m
+     * @param posY - the position east in m
+     */
+    public void setTarget(final double posX, final double posY) {
+        this.target = new Target(posX, posY);
+    }
+
+    /**
+     * This method removes the target of the velocity made good.
+     */
+    public void clearTarget() {
+        this.target = null;
+    }
+
+    /**
+     * This method removes all samples of the wind statistics.
+     */
+    public void reset() {
+        for (final var window : this.windWindows) {
+            window.reset();
+        }
+    }
+
+    /**
+     * This method derives the values of a frame and adds it to the statistics.
+     *
+     * @param telemetryData - the received telemetry data
+     * @return DerivedTelemetry - the derived values
+     */
+    public DerivedTelemetry update(final TelemetryData telemetryData) {
+        final int windDirection = telemetryData.windDirection().getAsInt();
+        final int windSpeed = telemetryData.windSpeed().getAsInt();
+        final int heading = telemetryData.agentDirection().getAsInt();
+        final double speed = telemetryData.agentSpeed().getAsInt();
+
+        double trueDirection = Double.NaN;
+        double trueSpeed = Double.NaN;
+        if (windDirection != INVALID_VALUE && windSpeed != INVALID_VALUE
+                && heading != INVALID_VALUE) {
+            //The wind vectors point where the wind blows to, so the velocity-
+            //of the boat is added to get the true wind
+            final double apparent = Math.toRadians(windDirection);
+            final double course = Math.toRadians(heading);
+            final double north = -windSpeed * Math.cos(apparent) + speed * Math.cos(course);
+            final double east = -windSpeed * Math.sin(apparent) + speed * Math.sin(course);
+
+            trueSpeed = Math.hypot(north, east);
+            trueDirection = trueSpeed == 0 ? windDirection
+                            : wrap(Math.toDegrees(Math.atan2(-east, -north)));
+            for (final var window : this.windWindows) {
+                window.add(trueDirection);
+            }
+        }
+
+        double upwindVmg = Double.NaN;
+        double targetVmg = Double.NaN;
+        if (heading != INVALID_VALUE) {
+            upwindVmg = velocityMadeGood(speed, heading, trueDirection);
+
+            final var currentTarget = this.target;
+            if (currentTarget != null) {
+                final double bearing = Math.toDegrees(Math.atan2(
+                                        currentTarget.posY() - telemetryData.agentPosY(),
+                                        currentTarget.posX() - telemetryData.agentPosX()));
+                targetVmg = velocityMadeGood(speed, heading, bearing);
+            }
+        }
+
+        final var statistics = new DerivedTelemetry.WindStatistics[this.windWindows.length];
+        for (int i = 0; i < statistics.length; i++) {
+            final var window = this.windWindows[i];
+            statistics[i] = new DerivedTelemetry.WindStatistics(window.getSize(),
+                            window.getCount(), window.getMean(), window.getVariance());
+        }
+
+        return new DerivedTelemetry(trueDirection, trueSpeed, upwindVmg, targetVmg,
+                                    List.of(statistics));
+    }
+
+    /**
+     * This function calculates the component of the velocity in a direction.
+     *
+     * @param speed - the speed in cm/s
+     * @param heading - the heading in degrees
+     * @param direction - the direction in degrees
+     * @return double - the velocity made good in cm/s (NaN if direction is NaN)
+     */
+    public static double velocityMadeGood(final double speed, final double heading,
+            final double direction) {
+        return speed * Math.cos(Math.toRadians(direction - heading));
+    }
+
+    /**
+     * This function wraps an angle into the range 0 up to 360 degrees.
+     *
+     * @param angle - the angle in degrees
+     * @return double - the wrapped angle
+     */
+    public static double wrap(final double angle) {
+        return ((angle % DEGREES) + DEGREES) % DEGREES;
+    }
+}
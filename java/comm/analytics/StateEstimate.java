@@ -0,0 +1,36 @@
+package comm.analytics;
+
+/**
+ * This record holds the estimated state of the sail agent at an instant.
+ * Positions are NED (x north, y east) in m.
+ *
+ * @param timeNanos - the instant of the estimate (Clock.nanoTime)
+ * @param posX - the position north in m
+ * @param posY - the position east in m
+ * @param velocityX - the velocity north in m/s
+ * @param velocityY - the velocity east in m/s
+ * @param heading - the heading in degrees (0 to 360)
+ * @param turnRate - the turn rate in degrees per second (positive = clockwise)
+ * @param positionStdDeviation - the standard deviation of the position in m,-
+ *        it grows while no telemetry data is received
+ */
+public record StateEstimate(
+    long timeNanos,
+    double posX,
+    double posY,
+    double velocityX,
+    double velocityY,
+    double heading,
+    double turnRate,
+    double positionStdDeviation
+) {
+
+    /**
+     * This method returns the speed over ground.
+     *
+     * @return double - the speed in m/s
+     */
+    public double getSpeed() {
+        return Math.hypot(this.velocityX, this.velocityY);
+    }
+}
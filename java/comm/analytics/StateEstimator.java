@@ -0,0 +1,323 @@
+package comm.analytics;
+
+import java.util.concurrent.TimeUnit;
+
+import comm.protocol.TelemetryData;
+
+/**
+ * This class estimates the position and heading of the sail agent between
+ * the telemetry frames.
+ *
+ * Each axis (north, east and the heading) is a Kalman filter with a
+ * constant velocity model: the frames correct the state, between the frames
+ * the state is dead-reckoned. The north and east axes are corrected by the
+ * position and by the velocity from speed and heading, the heading axis by
+ * the heading only, its velocity is the turn rate. The measurements of an
+ * axis are independent, so they are applied one after another, which keeps
+ * every update at a few multiplications.
+ *
+ * Frames are passed by the receive worker, estimates can be queried by any
+ * thread for any instant.
+ */
+public final class StateEstimator {
+    /**
+     * This class represents the Kalman filter of a single axis with the state-
+     * (value, rate) and its covariance.
+     */
+    private static final class Axis {
+        /**
+         * The variance of the (white) acceleration noise.
+         */
+        private final double processNoise;
+        /**
+         * The value (position in m or heading in degrees).
+         */
+        private double value;
+        /**
+         * The rate of the value per second.
+         */
+        private double rate;
+        /**
+         * The variance of the value.
+         */
+        private double varValue;
+        /**
+         * The covariance of the value and the rate.
+         */
+        private double covariance;
+        /**
+         * The variance of the rate.
+         */
+        private double varRate;
+
+        /**
+         * Constructor.
+         *
+         * @param noise - the variance of the acceleration noise
+         */
+        Axis(final double noise) {
+            this.processNoise = noise;
+        }
+
+        /**
+         * This method initializes the state with a measured value.
+         *
+         * @param measured - the measured value
+         * @param variance - the variance of the measurement
+         * @param rateVariance - the variance of the unknown rate
+         */
+        void init(final double measured, final double variance, final double rateVariance) {
+            this.value = measured;
+            this.rate = 0;
+            this.varValue = variance;
+            this.covariance = 0;
+            this.varRate = rateVariance;
+        }
+
+        /**
+         * This method moves the state on by dt (dead-reckoning).
+         *
+         * @param dt - the elapsed time in seconds
+         */
+        void predict(final double dt) {
+            final double dt2 = dt * dt;
+            this.value += this.rate * dt;
+            this.varValue += 2 * this.covariance * dt + this.varRate * dt2
+                             + this.processNoise * dt2 * dt / 3;
+            this.covariance += this.varRate * dt + this.processNoise * dt2 / 2;
+            this.varRate += this.processNoise * dt;
+        }
+
+        /**
+         * This method corrects the state by a measured value.
+         *
+         * @param innovation - the measured minus the estimated value
+         * @param variance - the variance of the measurement
+         */
+        void correctValue(final double innovation, final double variance) {
+            final double s = this.varValue + variance;
+            final double gainValue = this.varValue / s;
+            final double gainRate = this.covariance / s;
+
+            this.value += gainValue * innovation;
+            this.rate += gainRate * innovation;
+            this.varRate -= gainRate * this.covariance;
+            this.covariance -= gainRate * this.varValue;
+            this.varValue -= gainValue * this.varValue;
+        }
+
+        /**
+         * This method corrects the state by a measured rate.
+         *
+         * @param measured - the measured rate
+         * @param variance - the variance of the measurement
+         */
+        void correctRate(final double measured, final double variance) {
+            final double s = this.varRate + variance;
+            final double gainValue = this.covariance / s;
+            final double gainRate = this.varRate / s;
+            final double innovation = measured - this.rate;
+
+            this.value += gainValue * innovation;
+            this.rate += gainRate * innovation;
+            this.varValue -= gainValue * this.covariance;
+            this.covariance -= gainValue * this.varRate;
+            this.varRate -= gainRate * this.varRate;
+        }
+
+        /**
+         * This method copies the state.
+         *
+         * @return Axis - the copy
+         */
+        Axis copy() {
+            final var axis = new Axis(this.processNoise);
+            axis.value = this.value;
+            axis.rate = this.rate;
+            axis.varValue = this.varValue;
+            axis.covariance = this.covariance;
+            axis.varRate = this.varRate;
+            return axis;
+        }
+    }
+
+    /**
+     * The filter of the position north.
+     */
+    private final Axis north;
+    /**
+     * The filter of the position east.
+     */
+    private final Axis east;
+    /**
+     * The filter of the heading.
+     */
+    private final Axis heading;
+    /**
+     * The time of the last frame in ns, guarded by this.
+     */
+    private long lastUpdate;
+    /**
+     * Flag if the filters are initialized, guarded by this.
+     */
+    private boolean isInitialized;
+    /**
+     * Flag if the heading filter is initialized, guarded by this.
+     */
+    private boolean isHeadingInitialized;
+
+    /**
+     * The variance of the acceleration of the boat in (m/s^2)^2.
+     */
+    private static final double ACCELERATION_NOISE = 0.05;
+    /**
+     * The variance of the angular acceleration in (degrees/s^2)^2.
+     */
+    private static final double TURN_NOISE = 25;
+    /**
+     * The variance of the position measurement in m^2.
+     */
+    private static final double POSITION_VARIANCE = 4;
+    /**
+     * The variance of the velocity measurement in (m/s)^2.
+     */
+    private static final double VELOCITY_VARIANCE = 0.04;
+    /**
+     * The variance of the heading measurement in degrees^2.
+     */
+    private static final double HEADING_VARIANCE = 4;
+    /**
+     * The variance of an unknown velocity in (m/s)^2.
+     */
+    private static final double INITIAL_VELOCITY_VARIANCE = 4;
+    /**
+     * The variance of an unknown turn rate in (degrees/s)^2.
+     */
+    private static final double INITIAL_TURN_VARIANCE = 100;
+    /**
+     * The gap without frames after which the filters start again in ns.
+     */
+    private static final long RESTART_GAP = TimeUnit.SECONDS.toNanos(30);
+    /**
+     * The marker for an invalid (not yet available) value.
+     */
+    private static final int INVALID_VALUE = 0xFFFF;
+    /**
+     * Centimeters per meter.
+     */
+    private static final double CM_PER_M = 100.0;
+    /**
+     * Nanoseconds per second.
+     */
+    private static final double NANOS_PER_SECOND = TimeUnit.SECONDS.toNanos(1);
+    /**
+     * Half Circle in degrees.
+     */
+    private static final double HALF_CIRCLE = 180.0;
+
+    /**
+     * Constructor.
+     */
+    public StateEstimator() {
+        this.north = new Axis(ACCELERATION_NOISE);
+        this.east = new Axis(ACCELERATION_NOISE);
+        this.heading = new Axis(TURN_NOISE);
+    }
+
+    /**
+     * This method corrects the estimate by a received frame.
+     *
+     * @param telemetryData - the received telemetry data
+     * @param timeNanos - the time of the reception (Clock.nanoTime)
+     */
+    public synchronized void update(final TelemetryData telemetryData, final long timeNanos) {
+        final int measuredHeading = telemetryData.agentDirection().getAsInt();
+        final boolean hasHeading = measuredHeading != INVALID_VALUE;
+
+        if (!this.isInitialized || timeNanos - this.lastUpdate > RESTART_GAP) {
+            this.north.init(telemetryData.agentPosX(), POSITION_VARIANCE,
+                            INITIAL_VELOCITY_VARIANCE);
+            this.east.init(telemetryData.agentPosY(), POSITION_VARIANCE,
+                           INITIAL_VELOCITY_VARIANCE);
+            this.isInitialized = true;
+            this.isHeadingInitialized = false;
+        } else {
+            final double dt = Math.max(0, timeNanos - this.lastUpdate) / NANOS_PER_SECOND;
+            this.north.predict(dt);
+            this.east.predict(dt);
+            this.heading.predict(dt);
+            this.north.correctValue(telemetryData.agentPosX() - this.north.value,
+                                    POSITION_VARIANCE);
+            this.east.correctValue(telemetryData.agentPosY() - this.east.value,
+                                   POSITION_VARIANCE);
+        }
+        this.lastUpdate = timeNanos;
+
+        if (!hasHeading) {
+            return;
+        }
+
+        //The velocity over ground is approximated by the speed and heading
+        final double speed = telemetryData.agentSpeed().getAsInt() / CM_PER_M;
+        final double radians = Math.toRadians(measuredHeading);
+        this.north.correctRate(speed * Math.cos(radians), VELOCITY_VARIANCE);
+        this.east.correctRate(speed * Math.sin(radians), VELOCITY_VARIANCE);
+
+        if (!this.isHeadingInitialized) {
+            this.heading.init(measuredHeading, HEADING_VARIANCE, INITIAL_TURN_VARIANCE);
+            this.isHeadingInitialized = true;
+        } else {
+            this.heading.correctValue(angleDifference(measuredHeading, this.heading.value),
+                                      HEADING_VARIANCE);
+            this.heading.value = SailingMetrics.wrap(this.heading.value);
+        }
+    }
+
+    /**
+     * This method predicts the state at an instant, without changing the filters.
+     *
+     * @param timeNanos - the instant (Clock.nanoTime), usually now
+     * @return StateEstimate - the predicted state, null if no frame was received
+     */
+    public synchronized StateEstimate estimate(final long timeNanos) {
+        if (!this.isInitialized) {
+            return null;
+        }
+
+        final double dt = Math.max(0, timeNanos - this.lastUpdate) / NANOS_PER_SECOND;
+        final var predictedNorth = this.north.copy();
+        final var predictedEast = this.east.copy();
+        final var predictedHeading = this.heading.copy();
+        predictedNorth.predict(dt);
+        predictedEast.predict(dt);
+        predictedHeading.predict(dt);
+
+        return new StateEstimate(timeNanos,
+                                 predictedNorth.value, predictedEast.value,
+                                 predictedNorth.rate, predictedEast.rate,
+                                 this.isHeadingInitialized
+                                    ? SailingMetrics.wrap(predictedHeading.value) : Double.NaN,
+                                 this.isHeadingInitialized ? predictedHeading.rate : Double.NaN,
+                                 Math.sqrt(predictedNorth.varValue + predictedEast.varValue));
+    }
+
+    /**
+     * This method removes the state, the next frame initializes the filters.
+     */
+    public synchronized void reset() {
+        this.isInitialized = false;
+        this.isHeadingInitialized = false;
+    }
+
+    /**
+     * This function calculates the shortest difference of two angles.
+     *
+     * @param target - the target angle in degrees
+     * @param current - the current angle in degrees
+     * @return double - the difference in degrees (-180 up to 180)
+     */
+    private static double angleDifference(final double target, final double current) {
+        final double difference = SailingMetrics.wrap(target - current);
+        return difference > HALF_CIRCLE ? difference - 2 * HALF_CIRCLE : difference;
+    }
+}
@@ -0,0 +1,6 @@
+/**
+ * The analytics package contains the stages, that derive values from the
+ * telemetry stream (e.g. true wind and velocity made good) once for all
+ * consumers, and the parallel analysis of recorded sessions.
+ */
+package comm.analytics;
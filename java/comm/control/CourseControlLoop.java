@@ -0,0 +1,309 @@
+package comm.control;
+
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import comm.Clock;
+import comm.ConnectionHandler;
+import comm.LatencyHistogram;
+import comm.protocol.CliftonCommand;
+import comm.protocol.Waypoint;
+
+import utils.observer_pattern.Observer;
+
+/**
+ * This class closes the control loop on the telemetry stream: every frame-
+ * is passed to a WaypointFollower in the receive worker of the handler, so-
+ * a course correction is queued within the frame, that caused it.
+ *
+ * At most one SET_COURSE is in flight (queued, but not yet written to the-
+ * connection). A newer course replaces the deferred one and is queued as-
+ * soon as the course in flight is transmitted, so the link always carries-
+ * the newest course instead of a backlog of outdated ones. A course in-
+ * flight, that is dropped unsent (queue overflow, expiry or a failed-
+ * write), no longer blocks the loop, the deferred course is queued instead.
+ *
+ * The latency of every stage from the received frame to the transmitted-
+ * command is measured (see Stage), to show where the time of the loop goes.
+ * The loop adds a transmit and a drop listener to the handler.
+ */
+public final class CourseControlLoop implements Observer {
+    /**
+     * This enum represents the measured stages of the loop.
+     */
+    public enum Stage {
+        /**
+         * From the reception of a frame to the loop (decoding, estimation-
+         * and the observers before the loop).
+         */
+        DISPATCH,
+        /**
+         * The calculation of the course.
+         */
+        DECISION,
+        /**
+         * From the queued command to its transmission (the transmit worker-
+         * and the link budget).
+         */
+        TRANSMIT,
+        /**
+         * From the reception of the frame to the transmission of the-
+         * command, including the wait for the course in flight.
+         */
+        TOTAL
+    }
+
+    /**
+     * The handler, whose telemetry data closes the loop.
+     */
+    private final ConnectionHandler handler;
+    /**
+     * The clock of the handler.
+     */
+    private final Clock clock;
+    /**
+     * The latency of every stage.
+     */
+    private final Map<Stage, LatencyHistogram> latencies;
+    /**
+     * The number of queued SET_COURSE commands.
+     */
+    private final LongAdder commandsIssued;
+    /**
+     * The number of courses, that were replaced by a newer one before they-
+     * were queued.
+     */
+    private final LongAdder commandsCoalesced;
+    /**
+     * The controller, guarded by this.
+     */
+    private WaypointFollower follower;
+    /**
+     * The sequence number of the last handled frame, guarded by this.
+     */
+    private long lastSequence;
+    /**
+     * The command in flight, null if none, guarded by this.
+     */
+    private CliftonCommand inFlight;
+    /**
+     * The receive time of the frame of the command in flight in ns.
+     */
+    private long inFlightReceived;
+    /**
+     * The queue time of the command in flight in ns.
+     */
+    private long inFlightQueued;
+    /**
+     * The newest course, that waits for the command in flight, null if none.
+     */
+    private CliftonCommand deferred;
+    /**
+     * The receive time of the frame of the deferred command in ns.
+     */
+    private long deferredReceived;
+
+    /**
+     * The logger.
+     */
+    private static final Logger LOGGER = LogManager.getLogger(CourseControlLoop.class);
+
+    /**
+     * Constructor.
+     *
+     * @param connectionHandler - the handler, whose telemetry data closes the loop
+     * @param waypoints - the waypoints of the route
+     * @param clk - the clock of the handler
+     */
+    private CourseControlLoop(final ConnectionHandler connectionHandler,
+            final List<Waypoint> waypoints, final Clock clk) {
+        this.handler = connectionHandler;
+        this.clock = clk;
+        this.latencies = new EnumMap<>(Stage.class);
+        for (final var stage : Stage.values()) {
+            this.latencies.put(stage, new LatencyHistogram());
+        }
+        this.commandsIssued = new LongAdder();
+        this.commandsCoalesced = new LongAdder();
+        this.follower = new WaypointFollower(waypoints);
+        this.lastSequence = 0;
+        this.inFlight = null;
+        this.deferred = null;
+    }
+
+    /**
+     * This function creates a loop and attaches it to a handler with the-
+     * system clock.
+     *
+     * @param connectionHandler - the handler, whose telemetry data closes the loop
+     * @param waypoints - the waypoints of the route
+     * @return CourseControlLoop - the attached loop
+     */
+    public static CourseControlLoop attach(final ConnectionHandler connectionHandler,
+            final List<Waypoint> waypoints) {
+        return attach(connectionHandler, waypoints, Clock.system());
+    }
+
+    /**
+     * This function creates a loop and attaches it to a handler.
+     *
+     * @param connectionHandler - the handler, whose telemetry data closes the loop
+     * @param waypoints - the waypoints of the route
+     * @param clk - the clock of the handler
+     * @return CourseControlLoop - the attached loop
+     */
+    public static CourseControlLoop attach(final ConnectionHandler connectionHandler,
+            final List<Waypoint> waypoints, final Clock clk) {
+        final var loop = new CourseControlLoop(connectionHandler, waypoints, clk);
+        connectionHandler.addCommandTransmitListener(loop::transmitted);
+        connectionHandler.addCommandDropListener(loop::dropped);
+        connectionHandler.attach(loop);
+        return loop;
+    }
+
+    /**
+     * This method replaces the route, it is followed from the next frame on.
+     *
+     * @param waypoints - the waypoints of the route
+     */
+    public synchronized void setRoute(final List<Waypoint> waypoints) {
+        this.follower = new WaypointFollower(waypoints);
+        this.deferred = null;
+    }
+
+    /**
+     * This method checks if all waypoints of the route are reached.
+     *
+     * @return boolean - true if the route is finished, false otherwise
+     */
+    public synchronized boolean isFinished() {
+        return this.follower.isFinished();
+    }
+
+    /**
+     * This method returns the latency of a stage.
+     *
+     * @param stage - the stage
+     * @return LatencyHistogram - the latency in ns
+     */
+    public LatencyHistogram getLatency(final Stage stage) {
+        return this.latencies.get(stage);
+    }
+
+    /**
+     * This method returns the number of queued SET_COURSE commands.
+     *
+     * @return long - the number of commands
+     */
+    public long getCommandsIssued() {
+        return this.commandsIssued.sum();
+    }
+
+    /**
+     * This method returns the number of courses, that were replaced by a-
+     * newer one before they were queued.
+     *
+     * @return long - the number of courses
+     */
+    public long getCommandsCoalesced() {
+        return this.commandsCoalesced.sum();
+    }
+
+    /**
+     * This method is called by the handler for every received frame and-
+     * every change of the link state.
+     */
+    @Override
+    public synchronized void update() {
+        final var snapshot = this.handler.getTelemetrySnapshot();
+        if (snapshot == null || snapshot.sequence() == this.lastSequence) {
+            return;
+        }
+        this.lastSequence = snapshot.sequence();
+
+        final long dispatched = this.clock.nanoTime();
+        this.latencies.get(Stage.DISPATCH).record(dispatched - snapshot.receiveNanos());
+        final var command = this.follower.update(snapshot.data());
+        final long decided = this.clock.nanoTime();
+        this.latencies.get(Stage.DECISION).record(decided - dispatched);
+        if (command.isEmpty()) {
+            return;
+        }
+
+        if (this.inFlight != null) {
+            if (this.deferred != null) {
+                this.commandsCoalesced.increment();
+            }
+            this.deferred = command.get();
+            this.deferredReceived = snapshot.receiveNanos();
+            return;
+        }
+        this.queue(command.get(), snapshot.receiveNanos());
+    }
+
+    /**
+     * This method is called by the transmit worker with every transmitted-
+     * command.
+     *
+     * @param command - the transmitted command
+     */
+    private synchronized void transmitted(final CliftonCommand command) {
+        if (command != this.inFlight) {
+            return;
+        }
+
+        final long now = this.clock.nanoTime();
+        this.latencies.get(Stage.TRANSMIT).record(now - this.inFlightQueued);
+        this.latencies.get(Stage.TOTAL).record(now - this.inFlightReceived);
+        this.inFlight = null;
+        this.queueDeferred();
+    }
+
+    /**
+     * This method is called by the handler with every command, that was-
+     * dropped unsent.
+     *
+     * @param command - the dropped command
+     */
+    private synchronized void dropped(final CliftonCommand command) {
+        if (command != this.inFlight) {
+            return;
+        }
+
+        LOGGER.warn("Course command dropped unsent: {}", command);
+        this.inFlight = null;
+        this.queueDeferred();
+    }
+
+    /**
+     * This method queues the deferred command, if there is one.
+     */
+    private void queueDeferred() {
+        if (this.deferred != null) {
+            final var next = this.deferred;
+            this.deferred = null;
+            this.queue(next, this.deferredReceived);
+        }
+    }
+
+    /**
+     * This method queues a command as the command in flight.
+     *
+     * @param command - the SET_COURSE command
+     * @param received - the receive time of its frame in ns
+     */
+    private void queue(final CliftonCommand command, final long received) {
+        this.inFlight = command;
+        this.inFlightReceived = received;
+        this.inFlightQueued = this.clock.nanoTime();
+        //A rejected command is passed to the drop listener, which clears it
+        if (this.handler.sendCommand(command)) {
+            this.commandsIssued.increment();
+        }
+    }
+}
@@ -0,0 +1,184 @@
+package comm.control;
+
+import java.util.List;
+import java.util.Optional;
+
+import comm.protocol.CliftonCommand;
+import comm.protocol.TelemetryData;
+import comm.protocol.Waypoint;
+
+/**
+ * This class steers the agent along a route of waypoints from its telemetry.
+ *
+ * The course points to the current waypoint, which is passed as soon as the-
+ * agent is within ARRIVAL_RADIUS. If the waypoint lies upwind (closer than-
+ * TACK_ANGLE to the direction the wind comes from), the agent beats on a-
+ * tack TACK_ANGLE off the wind. It keeps its tack until the other one points-
+ * TACK_HYSTERESIS degrees closer to the waypoint, so it does not tack on-
+ * every frame. A SET_COURSE is only issued, if the course differs by at-
+ * least COURSE_DEADBAND from the last commanded one, so small corrections-
+ * are coalesced instead of flooding the link.
+ * This class is not thread safe.
+ */
+public final class WaypointFollower {
+    /**
+     * The distance to a waypoint, that counts as reached, in m.
+     */
+    public static final double ARRIVAL_RADIUS = 5.0;
+    /**
+     * The angle of a tack to the wind in degrees.
+     */
+    public static final int TACK_ANGLE = 50;
+    /**
+     * The minimal change of the course, that is commanded, in degrees.
+     */
+    public static final int COURSE_DEADBAND = 5;
+    /**
+     * The advantage of the other tack, that makes the agent tack, in degrees.
+     */
+    private static final int TACK_HYSTERESIS = 20;
+    /**
+     * The marker for an invalid (not yet available) value.
+     */
+    private static final int INVALID_VALUE = 0xFFFF;
+    /**
+     * Degrees in a Circle.
+     */
+    private static final int DEGREES = 360;
+    /**
+     * Half Circle in degrees.
+     */
+    private static final int HALF_CIRCLE = 180;
+
+    /**
+     * The waypoints of the route.
+     */
+    private final List<Waypoint> route;
+    /**
+     * The index of the current waypoint.
+     */
+    private int waypointIdx;
+    /**
+     * The last commanded course in degrees, -1 if none.
+     */
+    private int commandedCourse;
+    /**
+     * The current tack (1 = port tack, the course is clockwise of the wind,-
+     * -1 = starboard tack), 0 if the agent is not beating.
+     */
+    private int tack;
+
+    /**
+     * Constructor.
+     *
+     * @param waypoints - the waypoints of the route
+     */
+    public WaypointFollower(final List<Waypoint> waypoints) {
+        this.route = List.copyOf(waypoints);
+        this.waypointIdx = 0;
+        this.commandedCourse = -1;
+        this.tack = 0;
+    }
+
+    /**
+     * This method calculates the course from a telemetry frame.
+     *
+     * @param telemetryData - the received telemetry data
+     * @return Optional<CliftonCommand> - the SET_COURSE command, empty if the-
+     *         course did not change enough or the route is finished
+     */
+    public Optional<CliftonCommand> update(final TelemetryData telemetryData) {
+        final int posX = telemetryData.agentPosX();
+        final int posY = telemetryData.agentPosY();
+        while (!this.isFinished()) {
+            final var waypoint = this.route.get(this.waypointIdx);
+            if (Math.hypot(waypoint.posX() - posX, waypoint.posY() - posY) > ARRIVAL_RADIUS) {
+                break;
+            }
+            this.waypointIdx++;
+        }
+        if (this.isFinished()) {
+            return Optional.empty();
+        }
+
+        final var waypoint = this.route.get(this.waypointIdx);
+        final int bearing = Math.floorMod((int) Math.round(Math.toDegrees(
+                                Math.atan2(waypoint.posY() - posY, waypoint.posX() - posX))),
+                                DEGREES);
+        final int course = this.getCourse(bearing, telemetryData.windDirection().getAsInt());
+
+        if (this.commandedCourse >= 0
+                && Math.abs(angleDifference(course, this.commandedCourse)) < COURSE_DEADBAND) {
+            return Optional.empty();
+        }
+        this.commandedCourse = course;
+        return Optional.of(CliftonCommand.setCourse(course));
+    }
+
+    /**
+     * This method checks if all waypoints are reached.
+     *
+     * @return boolean - true if the route is finished, false otherwise
+     */
+    public boolean isFinished() {
+        return this.waypointIdx >= this.route.size();
+    }
+
+    /**
+     * This method returns the index of the current waypoint.
+     *
+     * @return int - the index, the number of waypoints if the route is finished
+     */
+    public int getWaypointIndex() {
+        return this.waypointIdx;
+    }
+
+    /**
+     * This method returns the last commanded course.
+     *
+     * @return int - the course in degrees, -1 if none was commanded
+     */
+    public int getCommandedCourse() {
+        return this.commandedCourse;
+    }
+
+    /**
+     * This method calculates the course towards a bearing, beating if the-
+     * bearing lies upwind.
+     *
+     * @param bearing - the bearing of the waypoint in degrees
+     * @param windDirection - the direction the wind comes from in degrees
+     * @return int - the course in degrees
+     */
+    private int getCourse(final int bearing, final int windDirection) {
+        if (windDirection == INVALID_VALUE
+                || Math.abs(angleDifference(bearing, windDirection)) >= TACK_ANGLE) {
+            this.tack = 0;
+            return bearing;
+        }
+
+        final int portTack = Math.floorMod(windDirection + TACK_ANGLE, DEGREES);
+        final int starboardTack = Math.floorMod(windDirection - TACK_ANGLE, DEGREES);
+        final int toPortTack = Math.abs(angleDifference(bearing, portTack));
+        final int toStarboardTack = Math.abs(angleDifference(bearing, starboardTack));
+        if (this.tack == 0) {
+            this.tack = toPortTack <= toStarboardTack ? 1 : -1;
+        } else if (this.tack > 0 && toPortTack - toStarboardTack > TACK_HYSTERESIS) {
+            this.tack = -1;
+        } else if (this.tack < 0 && toStarboardTack - toPortTack > TACK_HYSTERESIS) {
+            this.tack = 1;
+        }
+        return this.tack > 0 ? portTack : starboardTack;
+    }
+
+    /**
+     * This function calculates the shortest signed difference of two angles.
+     *
+     * @param target - the target angle in degrees
+     * @param current - the current angle in degrees
+     * @return int - the difference in degrees (-180 up to 180)
+     */
+    private static int angleDifference(final int target, final int current) {
+        return Math.floorMod(target - current + HALF_CIRCLE, DEGREES) - HALF_CIRCLE;
+    }
+}
@@ -0,0 +1,5 @@
+/**
+ * The control package contains the laptop side controllers, that steer the
+ * agent from its telemetry via. commands.
+ */
+package comm.control;
@@ -0,0 +1,68 @@
+package comm.protocol;
+
+import static comm.Constants.TELEMETRY_SIZE;
+import static comm.protocol.CliftonCommand.BAUD_RATE_UNIT;
+
+import java.util.Optional;
+
+/**
+ * This record represents the acknowledgement of a baud rate switch, sent by-
+ * the clifton as answer to the confirming SET_BAUD_RATE at the new baud rate.
+ * Like the MissionAck it has the size of a telemetry frame and holds a-
+ * marker instead of a (valid) wind direction.
+ * @param baudRate - the confirmed baud rate
+ */
+public record BaudRateAck(int baudRate) {
+
+    /**
+     * The marker of a baud rate acknowledgement (an invalid wind direction).
+     */
+    public static final int MARKER = 0xFFFC;
+
+    /**
+     * The index of the baud rate (2 bytes, in BAUD_RATE_UNIT).
+     */
+    private static final int BAUD_RATE_IDX = 2;
+
+    /**
+     * This function checks if a received frame is a baud rate acknowledgement.
+     *
+     * @param data - the received frame
+     * @return boolean - true if the frame is an acknowledgement, false otherwise
+     */
+    public static boolean isBaudRateAck(final byte[] data) {
+        return data != null && data.length == TELEMETRY_SIZE
+                && new UnsignedShort(data[0], data[1]).getAsInt() == MARKER;
+    }
+
+    /**
+     * This function creates a new BaudRateAck object from a byte array.
+     *
+     * @param data - the received frame
+     * @return Optional<BaudRateAck> - the acknowledgement if the frame is one,-
+     *         empty otherwise
+     */
+    public static Optional<BaudRateAck> fromByteArray(final byte[] data) {
+        if (!isBaudRateAck(data)) {
+            return Optional.empty();
+        }
+
+        return Optional.of(new BaudRateAck(
+            new UnsignedShort(data[BAUD_RATE_IDX], data[BAUD_RATE_IDX + 1]).getAsInt()
+            * BAUD_RATE_UNIT));
+    }
+
+    /**
+     * This method converts the acknowledgement to a frame.
+     * It is used by the simulation of the clifton.
+     *
+     * @return byte[] - the frame (TELEMETRY_SIZE bytes)
+     */
+    public byte[] toByteArray() {
+        final byte[] data = new byte[TELEMETRY_SIZE];
+        System.arraycopy(new UnsignedShort(MARKER).value(), 0, data, 0, 2);
+        System.arraycopy(new UnsignedShort(baudRate / BAUD_RATE_UNIT).value(), 0,
+                         data, BAUD_RATE_IDX, 2);
+        return data;
+    }
+}
@@ -3,9 +3,15 @@ package comm.protocol;
 import static comm.Constants.BYTE_MAX;
 import static comm.Constants.BYTE_SIZE_BITS;
 
+import java.util.List;
+import java.util.Optional;
+
 /*
  * This class represents a command sent by the laptop to the clifton
  * A command consists of an ID and optional data.
+ * It is encoded as type-length-value (id, length of the data, data), so a
+ * receiver skips commands it does not know. Commands are sent in a
+ * CommandFrame.
  */
 public record CliftonCommand(ID id, byte[] data) {
 
@@ -29,6 +35,27 @@ public record CliftonCommand(ID id, byte[] data) {
      */
     private static final int CMD_SET_COURSE = 3;
 
+    /**
+     * The command ID for the set baud rate command.
+     */
+    private static final int CMD_SET_BAUD_RATE = 4;
+
+    /**
+     * The command ID for the mission chunk command.
+     */
+    private static final int CMD_MISSION_CHUNK = 5;
+
+    /**
+     * The command ID for the layout command.
+     */
+    private static final int CMD_LAYOUT = 6;
+
+    /**
+     * The unit of the baud rate in the set baud rate command.
+     * The baud rate is transmitted in hundreds, so it fits into two bytes.
+     */
+    public static final int BAUD_RATE_UNIT = 100;
+
     /**
      * This enum represents the different types of commands.
      */
@@ -36,68 +63,171 @@ public record CliftonCommand(ID id, byte[] data) {
         /**
          * This command is used to check if the connection is still alive.
          */
-        HEARTBEAT,
+        HEARTBEAT(0),
         /**
          * This command is used to start the route.
          */
-        START_ROUTE,
+        START_ROUTE(0),
         /**
          * This command is used to stop the route.
          */
-        STOP_ROUTE,
+        STOP_ROUTE(0),
         /**
          * This command is used to set the course.
          */
-        SET_COURSE;
+        SET_COURSE(2),
+        /**
+         * This command is used to switch to another baud rate.
+         */
+        SET_BAUD_RATE(2),
+        /**
+         * This command carries a part of the waypoints of a mission.
+         */
+        MISSION_CHUNK(CHUNK_HEADER_SIZE),
+        /**
+         * This command carries the telemetry layout checksum of the laptop.
+         */
+        LAYOUT(LAYOUT_SIZE);
+
+        /**
+         * The minimal length of the data, a newer sender may append fields.
+         */
+        private final int minLength;
+
+        /**
+         * Constructor.
+         * @param length - the minimal length of the data
+         */
+        ID(final int length) {
+            this.minLength = length;
+        }
+
+        /**
+         * This method returns the minimal length of the data.
+         * @return int - the minimal length in bytes
+         */
+        public int getMinLength() {
+            return this.minLength;
+        }
 
         /**
          * This function converts the byte to the command ID.
          * @param b - the byte to be converted
-         * @return ID - the command ID
+         * @return Optional<ID> - the command ID, empty if the ID is unknown-
+         *         (e.g. sent by a newer version)
          */
-        public static ID fromByte(final byte b) {
+        public static Optional<ID> fromByte(final byte b) {
             return switch (b) {
-                case CMD_HEARTBEAT -> HEARTBEAT;
-                case CMD_START_ROUTE -> START_ROUTE;
-                case CMD_STOP_ROUTE -> STOP_ROUTE;
-                case CMD_SET_COURSE -> SET_COURSE;
-                default -> throw new IllegalArgumentException("Invalid command ID");
+                case CMD_HEARTBEAT -> Optional.of(HEARTBEAT);
+                case CMD_START_ROUTE -> Optional.of(START_ROUTE);
+                case CMD_STOP_ROUTE -> Optional.of(STOP_ROUTE);
+                case CMD_SET_COURSE -> Optional.of(SET_COURSE);
+                case CMD_SET_BAUD_RATE -> Optional.of(SET_BAUD_RATE);
+                case CMD_MISSION_CHUNK -> Optional.of(MISSION_CHUNK);
+                case CMD_LAYOUT -> Optional.of(LAYOUT);
+                default -> Optional.empty();
             };
         }
     }
 
     /**
-     * The maximum size of a command in bytes.
+     * The size of the type and the length of an encoded command in bytes.
      */
-    public static final int MAX_COMMAND_SIZE = 3;
+    public static final int TLV_HEADER_SIZE = 2;
 
     /**
-     * The index of the command ID in the byte array.
+     * The index of the command ID in the encoded command.
      */
     public static final int COMMAND_IDX = 0;
 
     /**
-     * This method converts the command to a byte array.
+     * The index of the length of the data in the encoded command.
+     */
+    public static final int LENGTH_IDX = 1;
+
+    /**
+     * The maximum length of the data of a command.
+     */
+    public static final int MAX_DATA_LENGTH = BYTE_MAX;
+
+    /**
+     * The maximum number of waypoints in a mission chunk.
+     */
+    public static final int CHUNK_WAYPOINTS = 8;
+
+    /**
+     * The maximum number of chunks of a mission (the size of the receive-
+     * bitmap of the clifton).
+     */
+    public static final int MAX_MISSION_CHUNKS = 64;
+
+    /**
+     * The index of the sequence number in the data of a mission chunk.
+     */
+    public static final int CHUNK_SEQUENCE_IDX = 0;
+
+    /**
+     * The index of the mission id in the data of a mission chunk.
+     */
+    public static final int CHUNK_MISSION_IDX = 1;
+
+    /**
+     * The index of the number of chunks in the data of a mission chunk.
+     */
+    public static final int CHUNK_COUNT_IDX = 2;
+
+    /**
+     * The size of the data of a mission chunk before the waypoints.
+     */
+    public static final int CHUNK_HEADER_SIZE = 3;
+
+    /**
+     * The maximum size of an encoded mission chunk in bytes.
+     */
+    public static final int MAX_CHUNK_SIZE = TLV_HEADER_SIZE + CHUNK_HEADER_SIZE
+                                             + CHUNK_WAYPOINTS * Waypoint.SIZE;
+
+    /**
+     * The size of the data of a layout command (the checksum).
+     */
+    public static final int LAYOUT_SIZE = 4;
+
+    /**
+     * This method returns the size of the encoded command.
+     * @return int - the size in bytes
+     */
+    public int getEncodedSize() {
+        return TLV_HEADER_SIZE + data.length;
+    }
+
+    /**
+     * This method converts the command to a byte array (type, length, data).
      * @return byte[] - the command as a byte array
      */
     public byte[] toByteArray() {
-        if (data.length <= 0) {
-            return new byte[] {(byte) id.ordinal() };
-        }
-
-        byte[] result = new byte[data.length + 1];
-        result[0] = (byte) id.ordinal();
-        System.arraycopy(data, 0, result, 1, data.length);
+        final byte[] result = new byte[this.getEncodedSize()];
+        this.write(result, 0);
         return result;
     }
 
+    /**
+     * This method writes the encoded command into a byte array.
+     * @param target - the target array
+     * @param offset - the offset of the command in the target
+     */
+    public void write(final byte[] target, final int offset) {
+        target[offset + COMMAND_IDX] = (byte) id.ordinal();
+        target[offset + LENGTH_IDX] = (byte) data.length;
+        System.arraycopy(data, 0, target, offset + TLV_HEADER_SIZE, data.length);
+    }
+
     /**
      * This function creates the command to signal-
      * the clifton to start the route.
      * @return CliftonCommand - the command to start the route
      */
     public static CliftonCommand startRoute() {
-        return new CliftonCommand(ID.START_ROUTE, new byte[] {0, 0});
+        return new CliftonCommand(ID.START_ROUTE, new byte[0]);
     }
 
     /**
@@ -106,7 +236,7 @@ public record CliftonCommand(ID id, byte[] data) {
      * @return CliftonCommand - the command to stop the route
      */
     public static CliftonCommand stopRoute() {
-        return new CliftonCommand(ID.STOP_ROUTE, new byte[] {0, 0});
+        return new CliftonCommand(ID.STOP_ROUTE, new byte[0]);
     }
 
     /**
@@ -121,12 +251,70 @@ public record CliftonCommand(ID id, byte[] data) {
         });
     }
 
+    /**
+     * This function creates the command to switch to another baud rate.
+     * The clifton switches after receiving it and falls back to the old-
+     * baud rate, if it is not confirmed by the same command in time. The-
+     * confirmation is answered with a BaudRateAck.
+     * @param baudRate - the new baud rate (multiple of BAUD_RATE_UNIT)
+     * @return CliftonCommand - the command to switch the baud rate
+     */
+    public static CliftonCommand setBaudRate(final int baudRate) {
+        final int value = baudRate / BAUD_RATE_UNIT;
+        return new CliftonCommand(ID.SET_BAUD_RATE, new byte[] {
+            (byte) (value & BYTE_MAX),
+            (byte) ((value >> BYTE_SIZE_BITS) & BYTE_MAX)
+        });
+    }
+
+    /**
+     * This function creates a chunk of a mission upload.
+     * The data holds the sequence number, the mission id, the number of-
+     * chunks and the waypoints.
+     * @param missionId - the id of the mission (changes with every upload)
+     * @param sequence - the number of the chunk
+     * @param chunks - the number of chunks of the mission
+     * @param waypoints - the waypoints of the chunk (up to CHUNK_WAYPOINTS)
+     * @return CliftonCommand - the mission chunk
+     */
+    public static CliftonCommand missionChunk(final int missionId, final int sequence,
+            final int chunks, final List<Waypoint> waypoints) {
+        if (waypoints.size() > CHUNK_WAYPOINTS || chunks > MAX_MISSION_CHUNKS
+                || sequence >= chunks) {
+            throw new IllegalArgumentException("Invalid mission chunk " + sequence);
+        }
+
+        final byte[] data = new byte[CHUNK_HEADER_SIZE + waypoints.size() * Waypoint.SIZE];
+        data[CHUNK_SEQUENCE_IDX] = (byte) sequence;
+        data[CHUNK_MISSION_IDX] = (byte) missionId;
+        data[CHUNK_COUNT_IDX] = (byte) chunks;
+        for (int i = 0; i < waypoints.size(); i++) {
+            waypoints.get(i).write(data, CHUNK_HEADER_SIZE + i * Waypoint.SIZE);
+        }
+
+        return new CliftonCommand(ID.MISSION_CHUNK, data);
+    }
+
+    /**
+     * This function creates the command, that tells the clifton the-
+     * telemetry layout of the laptop. The clifton answers with a LayoutReport.
+     * @param checksum - the layout checksum (TelemetryLayout.CHECKSUM)
+     * @return CliftonCommand - the layout command
+     */
+    public static CliftonCommand layout(final int checksum) {
+        final byte[] data = new byte[LAYOUT_SIZE];
+        for (int i = 0; i < LAYOUT_SIZE; i++) {
+            data[i] = (byte) (checksum >>> (i * BYTE_SIZE_BITS));
+        }
+        return new CliftonCommand(ID.LAYOUT, data);
+    }
+
     /**
      * This function creates the heartbeat command.
      * @return CliftonCommand - the heartbeat command
      */
     public static CliftonCommand heartbeat() {
-        return new CliftonCommand(ID.HEARTBEAT, new byte[] {0, 0});
+        return new CliftonCommand(ID.HEARTBEAT, new byte[0]);
     }
 
     /**
@@ -151,6 +339,19 @@ public record CliftonCommand(ID id, byte[] data) {
                 return "SET_COURSE (" + new UnsignedShort(data[0], data[1]).getAsInt() + ")";
             }
 
+            case SET_BAUD_RATE -> {
+                return "SET_BAUD_RATE (" + new UnsignedShort(data[0], data[1]).getAsInt()
+                        * BAUD_RATE_UNIT + ")";
+            }
+
+            case MISSION_CHUNK -> {
+                return "MISSION_CHUNK (" + (data[CHUNK_SEQUENCE_IDX] & BYTE_MAX) + ")";
+            }
+
+            case LAYOUT -> {
+                return "LAYOUT";
+            }
+
             default -> {
                 return "UNKNOWN";
             }
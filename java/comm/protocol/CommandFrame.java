@@ -0,0 +1,238 @@
+package comm.protocol;
+
+import static comm.Constants.BYTE_MAX;
+import static comm.protocol.CliftonCommand.COMMAND_IDX;
+import static comm.protocol.CliftonCommand.LENGTH_IDX;
+import static comm.protocol.CliftonCommand.TLV_HEADER_SIZE;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * This class represents a frame of commands sent by the laptop to the clifton.
+ * A frame starts with the sync byte SYNC and the length of its body, the-
+ * body holds one or more commands encoded as type-length-value and ends-
+ * with the CRC-16 (CCITT, little endian) of the length and the body.-
+ * Unknown types are skipped by the receiver, so new commands do not break-
+ * older receivers. A receiver resynchronizes on the next sync byte, if the-
+ * CRC does not match (see CommandFrameReader).
+ */
+public final class CommandFrame {
+    /**
+     * The buffer of the frame (length and body).
+     */
+    private final byte[] buffer;
+    /**
+     * The current length of the body.
+     */
+    private int bodyLength;
+
+    /**
+     * The sync byte, that starts a frame.
+     */
+    public static final byte SYNC = (byte) 0xA5;
+    /**
+     * The size of the sync byte in bytes.
+     */
+    public static final int SYNC_SIZE = 1;
+    /**
+     * The size of the length of a frame in bytes.
+     */
+    public static final int LENGTH_SIZE = 1;
+    /**
+     * The size of the CRC of a frame in bytes.
+     */
+    public static final int CRC_SIZE = 2;
+    /**
+     * The size of the header (sync byte and length) in bytes.
+     */
+    public static final int HEADER_SIZE = SYNC_SIZE + LENGTH_SIZE;
+    /**
+     * The size of a frame without its body in bytes.
+     */
+    public static final int OVERHEAD = HEADER_SIZE + CRC_SIZE;
+
+    /**
+     * The maximum length of the body of a frame.
+     */
+    public static final int MAX_BODY_LENGTH = BYTE_MAX;
+    /**
+     * The maximum size of a frame in bytes.
+     */
+    public static final int MAX_FRAME_SIZE = OVERHEAD + MAX_BODY_LENGTH;
+    /**
+     * The generator polynomial of the CRC.
+     */
+    private static final int CRC_POLYNOMIAL = 0x1021;
+    /**
+     * The initial value of the CRC.
+     */
+    private static final int CRC_INITIAL = 0xFFFF;
+    /**
+     * The mask of the CRC.
+     */
+    private static final int CRC_MASK = 0xFFFF;
+    /**
+     * The top bit of the CRC.
+     */
+    private static final int CRC_TOP_BIT = 0x8000;
+
+    /**
+     * Constructor.
+     */
+    public CommandFrame() {
+        this.buffer = new byte[MAX_FRAME_SIZE];
+        this.bodyLength = 0;
+    }
+
+    /**
+     * This method adds a command to the frame, if it fits.
+     *
+     * @param command - the command to be added
+     * @return boolean - true if the command was added, false if the frame is full
+     */
+    public boolean add(final CliftonCommand command) {
+        if (command.getEncodedSize() > this.getRemaining()) {
+            return false;
+        }
+
+        command.write(this.buffer, HEADER_SIZE + this.bodyLength);
+        this.bodyLength += command.getEncodedSize();
+        return true;
+    }
+
+    /**
+     * This method returns the number of bytes, that still fit into the frame.
+     *
+     * @return int - the remaining bytes
+     */
+    public int getRemaining() {
+        return MAX_BODY_LENGTH - this.bodyLength;
+    }
+
+    /**
+     * This method returns the current length of the body.
+     *
+     * @return int - the length of the body in bytes
+     */
+    public int getBodyLength() {
+        return this.bodyLength;
+    }
+
+    /**
+     * This method checks if the frame holds no command.
+     *
+     * @return boolean - true if the frame is empty, false otherwise
+     */
+    public boolean isEmpty() {
+        return this.bodyLength == 0;
+    }
+
+    /**
+     * This method removes all commands from the frame.
+     */
+    public void clear() {
+        this.bodyLength = 0;
+    }
+
+    /**
+     * This method returns the size of the frame.
+     *
+     * @return int - the size of the encoded frame in bytes
+     */
+    public int getSize() {
+        return OVERHEAD + this.bodyLength;
+    }
+
+    /**
+     * This method converts the frame to a byte array.
+     *
+     * @return byte[] - the sync byte, the length, the body and the CRC
+     */
+    public byte[] toByteArray() {
+        this.buffer[0] = SYNC;
+        this.buffer[SYNC_SIZE] = (byte) this.bodyLength;
+        final int crc = crc(this.buffer, SYNC_SIZE, LENGTH_SIZE + this.bodyLength);
+        final int crcIdx = HEADER_SIZE + this.bodyLength;
+        this.buffer[crcIdx] = (byte) crc;
+        this.buffer[crcIdx + 1] = (byte) (crc >>> Byte.SIZE);
+        return Arrays.copyOf(this.buffer, this.getSize());
+    }
+
+    /**
+     * This function calculates the CRC-16 (CCITT) of a range of bytes.
+     *
+     * @param data - the data
+     * @param offset - the index of the first byte
+     * @param length - the number of bytes
+     * @return int - the CRC (16 bits)
+     */
+    public static int crc(final byte[] data, final int offset, final int length) {
+        int crc = CRC_INITIAL;
+        for (int i = offset; i < offset + length; i++) {
+            crc ^= (data[i] & BYTE_MAX) << Byte.SIZE;
+            for (int bit = 0; bit < Byte.SIZE; bit++) {
+                crc = (crc & CRC_TOP_BIT) != 0 ? (crc << 1) ^ CRC_POLYNOMIAL : crc << 1;
+            }
+        }
+        return crc & CRC_MASK;
+    }
+
+    /**
+     * This function encodes commands into a single frame.
+     *
+     * @param commands - the commands to be encoded
+     * @return byte[] - the frame
+     * @throws IllegalArgumentException if the commands do not fit into a frame
+     */
+    public static byte[] encode(final CliftonCommand... commands) {
+        final var frame = new CommandFrame();
+        for (final var command : commands) {
+            if (!frame.add(command)) {
+                throw new IllegalArgumentException("Commands exceed a frame");
+            }
+        }
+        return frame.toByteArray();
+    }
+
+    /**
+     * This function decodes a complete frame.
+     *
+     * @param frame - the frame (sync byte, length, body and CRC)
+     * @return List<CliftonCommand> - the known commands of the frame, empty-
+     *         if the frame is invalid
+     */
+    public static List<CliftonCommand> decodeFrame(final byte[] frame) {
+        final var reader = new CommandFrameReader();
+        final var commands = reader.read(frame);
+        return reader.getBufferedBytes() == 0 ? commands : List.of();
+    }
+
+    /**
+     * This function decodes the body of a frame.
+     * Commands of an unknown type or shorter than their minimal length are-
+     * skipped, a truncated command ends the body.
+     *
+     * @param body - the body of the frame (without the header and the CRC)
+     * @return List<CliftonCommand> - the known commands of the frame
+     */
+    public static List<CliftonCommand> decode(final byte[] body) {
+        final List<CliftonCommand> commands = new ArrayList<>();
+        int offset = 0;
+        while (offset + TLV_HEADER_SIZE <= body.length) {
+            final int length = body[offset + LENGTH_IDX] & BYTE_MAX;
+            final int dataOffset = offset + TLV_HEADER_SIZE;
+            if (dataOffset + length > body.length) {
+                break;
+            }
+
+            CliftonCommand.ID.fromByte(body[offset + COMMAND_IDX])
+                .filter(id -> length >= id.getMinLength())
+                .ifPresent(id -> commands.add(new CliftonCommand(id,
+                                    Arrays.copyOfRange(body, dataOffset, dataOffset + length))));
+            offset = dataOffset + length;
+        }
+        return commands;
+    }
+}
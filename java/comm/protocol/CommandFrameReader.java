@@ -0,0 +1,159 @@
+package comm.protocol;
+
+import static comm.Constants.BYTE_MAX;
+import static comm.protocol.CommandFrame.CRC_SIZE;
+import static comm.protocol.CommandFrame.HEADER_SIZE;
+import static comm.protocol.CommandFrame.MAX_FRAME_SIZE;
+import static comm.protocol.CommandFrame.OVERHEAD;
+import static comm.protocol.CommandFrame.SYNC;
+import static comm.protocol.CommandFrame.SYNC_SIZE;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import comm.IConnection;
+
+/**
+ * This class extracts the command frames from a stream of received bytes.
+ * Bytes before a sync byte are skipped. If the CRC of a frame does not match,-
+ * only its sync byte is dropped and the search continues behind it, so a-
+ * corrupted length does not swallow the following frames.
+ * Not thread safe, every stream has its own reader.
+ */
+public final class CommandFrameReader {
+    /**
+     * The received bytes, that are not processed yet.
+     */
+    private final byte[] buffer;
+    /**
+     * The number of bytes in the buffer.
+     */
+    private int count;
+    /**
+     * The number of skipped bytes.
+     */
+    private long skipped;
+
+    /**
+     * The logger.
+     */
+    private static final Logger LOGGER = LogManager.getLogger(CommandFrameReader.class);
+
+    /**
+     * Constructor.
+     */
+    public CommandFrameReader() {
+        this.buffer = new byte[MAX_FRAME_SIZE];
+        this.count = 0;
+        this.skipped = 0;
+    }
+
+    /**
+     * This method appends received bytes and returns the commands of the-
+     * frames, that are complete.
+     *
+     * @param data - the received bytes
+     * @return List<CliftonCommand> - the known commands of the complete frames
+     */
+    public List<CliftonCommand> read(final byte[] data) {
+        final List<CliftonCommand> commands = new ArrayList<>();
+        int offset = 0;
+        while (offset < data.length) {
+            final int chunk = Math.min(data.length - offset, this.buffer.length - this.count);
+            System.arraycopy(data, offset, this.buffer, this.count, chunk);
+            this.count += chunk;
+            offset += chunk;
+
+            //A full buffer holds a complete frame or bytes to be skipped
+            this.extract(commands);
+        }
+        return commands;
+    }
+
+    /**
+     * This method waits for received bytes (up to the read timeout of the-
+     * connection), reads all available bytes and returns the commands of the-
+     * frames, that are complete.
+     *
+     * @param connection - the connection
+     * @return List<CliftonCommand> - the known commands of the complete frames
+     */
+    public List<CliftonCommand> receive(final IConnection connection) {
+        final var first = connection.receiveData(1);
+        if (first.isEmpty()) {
+            return List.of();
+        }
+
+        final List<CliftonCommand> commands = new ArrayList<>(this.read(first.get()));
+        final int available = connection.getAvailableBytes();
+        if (available > 0) {
+            connection.receiveData(available).ifPresent(data -> commands.addAll(this.read(data)));
+        }
+        return commands;
+    }
+
+    /**
+     * This method returns the number of bytes, that wait for the rest of-
+     * their frame.
+     *
+     * @return int - the number of bytes
+     */
+    public int getBufferedBytes() {
+        return this.count;
+    }
+
+    /**
+     * This method returns the number of bytes, that were skipped to find a-
+     * valid frame.
+     *
+     * @return long - the number of bytes
+     */
+    public long getSkippedBytes() {
+        return this.skipped;
+    }
+
+    /**
+     * This method extracts the complete frames of the buffer.
+     *
+     * @param commands - receives the commands of the frames
+     */
+    private void extract(final List<CliftonCommand> commands) {
+        int start = 0;
+        while (true) {
+            while (start < this.count && this.buffer[start] != SYNC) {
+                start++;
+                this.skipped++;
+            }
+            if (this.count - start < HEADER_SIZE) {
+                break;
+            }
+
+            final int length = this.buffer[start + SYNC_SIZE] & BYTE_MAX;
+            if (this.count - start < OVERHEAD + length) {
+                break;
+            }
+
+            final int crcIdx = start + HEADER_SIZE + length;
+            final int crc = (this.buffer[crcIdx] & BYTE_MAX)
+                            | (this.buffer[crcIdx + 1] & BYTE_MAX) << Byte.SIZE;
+            if (crc != CommandFrame.crc(this.buffer, start + SYNC_SIZE,
+                                        HEADER_SIZE - SYNC_SIZE + length)) {
+                LOGGER.warn("Command frame with an invalid CRC -> Resynchronizing");
+                start++;
+                this.skipped++;
+                continue;
+            }
+
+            commands.addAll(CommandFrame.decode(Arrays.copyOfRange(this.buffer,
+                                start + HEADER_SIZE, start + HEADER_SIZE + length)));
+            start = crcIdx + CRC_SIZE;
+        }
+
+        System.arraycopy(this.buffer, start, this.buffer, 0, this.count - start);
+        this.count -= start;
+    }
+}
@@ -0,0 +1,97 @@
+package comm.protocol;
+
+import static comm.Constants.BYTE_MAX;
+import static comm.Constants.BYTE_SIZE_BITS;
+import static comm.Constants.TELEMETRY_SIZE;
+
+import java.util.Optional;
+
+/**
+ * This record represents the telemetry layout reported by the clifton, as-
+ * answer to the LAYOUT command. Like the MissionAck it has the size of a-
+ * telemetry frame and holds a marker instead of a (valid) wind direction.
+ * @param checksum - the layout checksum of the clifton (TelemetryLayout.CHECKSUM)
+ * @param lossTimeout - the time without commands, after which the clifton-
+ *        declares the link lost in ms (0 if not reported)
+ */
+public record LayoutReport(int checksum, int lossTimeout) {
+
+    /**
+     * The marker of a layout report (an invalid wind direction).
+     */
+    public static final int MARKER = 0xFFFD;
+
+    /**
+     * The loss timeout of the clifton in ms (CONNECTION_LOST_TIMEOUT in-
+     * px4/Constants.hpp), reported by the simulations.
+     */
+    public static final int DEFAULT_LOSS_TIMEOUT = 3000;
+
+    /**
+     * The index of the checksum (4 bytes).
+     */
+    private static final int CHECKSUM_IDX = 2;
+    /**
+     * The index of the loss timeout (2 bytes).
+     */
+    private static final int LOSS_TIMEOUT_IDX = 6;
+    /**
+     * The number of bytes of the checksum.
+     */
+    private static final int CHECKSUM_BYTES = 4;
+
+    /**
+     * This function checks if a received frame is a layout report.
+     *
+     * @param data - the received frame
+     * @return boolean - true if the frame is a layout report, false otherwise
+     */
+    public static boolean isLayoutReport(final byte[] data) {
+        return data != null && data.length == TELEMETRY_SIZE
+                && new UnsignedShort(data[0], data[1]).getAsInt() == MARKER;
+    }
+
+    /**
+     * This function creates a new LayoutReport object from a byte array.
+     *
+     * @param data - the received frame
+     * @return Optional<LayoutReport> - the report if the frame is one, empty otherwise
+     */
+    public static Optional<LayoutReport> fromByteArray(final byte[] data) {
+        if (!isLayoutReport(data)) {
+            return Optional.empty();
+        }
+
+        int checksum = 0;
+        for (int i = CHECKSUM_BYTES - 1; i >= 0; i--) {
+            checksum = (checksum << BYTE_SIZE_BITS) | (data[CHECKSUM_IDX + i] & BYTE_MAX);
+        }
+        return Optional.of(new LayoutReport(checksum,
+            new UnsignedShort(data[LOSS_TIMEOUT_IDX], data[LOSS_TIMEOUT_IDX + 1]).getAsInt()));
+    }
+
+    /**
+     * This method converts the report to a frame.
+     * It is used by the simulation of the clifton.
+     *
+     * @return byte[] - the frame (TELEMETRY_SIZE bytes)
+     */
+    public byte[] toByteArray() {
+        final byte[] data = new byte[TELEMETRY_SIZE];
+        System.arraycopy(new UnsignedShort(MARKER).value(), 0, data, 0, 2);
+        for (int i = 0; i < CHECKSUM_BYTES; i++) {
+            data[CHECKSUM_IDX + i] = (byte) (checksum >>> (i * BYTE_SIZE_BITS));
+        }
+        System.arraycopy(new UnsignedShort(lossTimeout).value(), 0, data, LOSS_TIMEOUT_IDX, 2);
+        return data;
+    }
+
+    /**
+     * This method checks if the clifton uses the layout of this side.
+     *
+     * @return boolean - true if the checksums match, false otherwise
+     */
+    public boolean isCompatible() {
+        return checksum == TelemetryLayout.CHECKSUM;
+    }
+}
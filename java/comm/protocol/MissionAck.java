@@ -0,0 +1,115 @@
+package comm.protocol;
+
+import static comm.Constants.BYTE_MAX;
+import static comm.Constants.BYTE_SIZE_BITS;
+import static comm.Constants.TELEMETRY_SIZE;
+
+import java.util.Optional;
+
+/**
+ * This record represents the acknowledgement of a mission upload, sent by
+ * the clifton. It has the size of a telemetry frame, so the laptop keeps
+ * reading fixed size frames; the first two bytes hold a marker instead of
+ * a (valid) wind direction.
+ * @param missionId - the id of the acknowledged mission
+ * @param chunks - the number of chunks of the mission
+ * @param cumulative - the number of chunks received without a gap (the-
+ *        next expected chunk)
+ * @param selective - the chunks received after the gap, bit i stands for-
+ *        the chunk cumulative + 1 + i
+ */
+public record MissionAck(int missionId, int chunks, int cumulative, int selective) {
+
+    /**
+     * The marker of a mission acknowledgement (an invalid wind direction).
+     */
+    public static final int MARKER = 0xFFFE;
+
+    /**
+     * The index of the mission id.
+     */
+    private static final int MISSION_ID_IDX = 2;
+    /**
+     * The index of the number of chunks.
+     */
+    private static final int CHUNKS_IDX = 3;
+    /**
+     * The index of the cumulative acknowledgement.
+     */
+    private static final int CUMULATIVE_IDX = 4;
+    /**
+     * The index of the selective acknowledgement (4 bytes).
+     */
+    private static final int SELECTIVE_IDX = 5;
+    /**
+     * The number of bytes of the selective acknowledgement.
+     */
+    private static final int SELECTIVE_BYTES = 4;
+
+    /**
+     * This function checks if a received frame is a mission acknowledgement.
+     *
+     * @param data - the received frame
+     * @return boolean - true if the frame is an acknowledgement, false otherwise
+     */
+    public static boolean isMissionAck(final byte[] data) {
+        return data != null && data.length == TELEMETRY_SIZE
+                && new UnsignedShort(data[0], data[1]).getAsInt() == MARKER;
+    }
+
+    /**
+     * This function creates a new MissionAck object from a byte array.
+     *
+     * @param data - the received frame
+     * @return Optional<MissionAck> - the acknowledgement if the frame is one,-
+     *         empty otherwise
+     */
+    public static Optional<MissionAck> fromByteArray(final byte[] data) {
+        if (!isMissionAck(data)) {
+            return Optional.empty();
+        }
+
+        int selective = 0;
+        for (int i = SELECTIVE_BYTES - 1; i >= 0; i--) {
+            selective = (selective << BYTE_SIZE_BITS) | (data[SELECTIVE_IDX + i] & BYTE_MAX);
+        }
+
+        return Optional.of(new MissionAck(data[MISSION_ID_IDX] & BYTE_MAX,
+                                          data[CHUNKS_IDX] & BYTE_MAX,
+                                          data[CUMULATIVE_IDX] & BYTE_MAX,
+                                          selective));
+    }
+
+    /**
+     * This method converts the acknowledgement to a frame.
+     * It is used by the simulation of the clifton.
+     *
+     * @return byte[] - the frame (TELEMETRY_SIZE bytes)
+     */
+    public byte[] toByteArray() {
+        final byte[] data = new byte[TELEMETRY_SIZE];
+        System.arraycopy(new UnsignedShort(MARKER).value(), 0, data, 0, 2);
+        data[MISSION_ID_IDX] = (byte) missionId;
+        data[CHUNKS_IDX] = (byte) chunks;
+        data[CUMULATIVE_IDX] = (byte) cumulative;
+        for (int i = 0; i < SELECTIVE_BYTES; i++) {
+            data[SELECTIVE_IDX + i] = (byte) (selective >>> (i * BYTE_SIZE_BITS));
+        }
+        return data;
+    }
+
+    /**
+     * This method checks if a chunk was received.
+     *
+     * @param sequence - the number of the chunk
+     * @return boolean - true if the chunk was acknowledged, false otherwise
+     */
+    public boolean isAcknowledged(final int sequence) {
+        if (sequence < cumulative) {
+            return true;
+        }
+
+        final int bit = sequence - cumulative - 1;
+        return bit >= 0 && bit < Integer.SIZE && (selective >>> bit & 1) == 1;
+    }
+}
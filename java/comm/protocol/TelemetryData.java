@@ -1,13 +1,11 @@
 package comm.protocol;
 
 import static comm.Constants.BYTE_MAX;
-import static comm.Constants.BYTE_SIZE_BITS;
 import static comm.Constants.TELEMETRY_SIZE;
 
+import java.nio.ByteBuffer;
 import java.util.Optional;
 
-import comm.Constants.Place;
-
 /**
  * This class represents the telemetry data sent by the clifton.
  * @param windDirection - the direction of the wind
@@ -41,20 +39,14 @@ public record TelemetryData(
         return data == null || data.length != TELEMETRY_SIZE ? Optional.empty()
         : Optional.of(
         new TelemetryData(
-            new UnsignedShort(data[Place.FIRST.ordinal()],
-                    data[Place.SECOND.ordinal()]),
-            new UnsignedShort(data[Place.THIRD.ordinal()],
-                    data[Place.FOURTH.ordinal()]),
-            new UnsignedShort(data[Place.FIFTH.ordinal()],
-                    data[Place.SIXTH.ordinal()]),
-            (short) (((data[Place.EIGHTH.ordinal()] & BYTE_MAX) << BYTE_SIZE_BITS)
-                    | (data[Place.SEVENTH.ordinal()] & BYTE_MAX)),
-            (short) (((data[Place.TENTH.ordinal()] & BYTE_MAX) << BYTE_SIZE_BITS)
-                    | (data[Place.NINTH.ordinal()] & BYTE_MAX)),
-            data[Place.ELEVENTH.ordinal()],
-            new UnsignedShort(data[Place.TWELFTH.ordinal()],
-                    data[Place.THIRTEENTH.ordinal()]),
-            new StatusInfo(data[Place.FOURTEENTH.ordinal()])
+            new UnsignedShort(TelemetryLayout.getWindDirection(data)),
+            new UnsignedShort(TelemetryLayout.getWindSpeed(data)),
+            new UnsignedShort(TelemetryLayout.getAgentSpeed(data)),
+            (short) TelemetryLayout.getAgentPosX(data),
+            (short) TelemetryLayout.getAgentPosY(data),
+            (byte) TelemetryLayout.getBatteryStatus(data),
+            new UnsignedShort(TelemetryLayout.getAgentDirection(data)),
+            new StatusInfo((byte) TelemetryLayout.getStatusInfo(data))
         ));
     }
 
@@ -66,31 +58,66 @@ public record TelemetryData(
      */
     public byte[] toByteArray() {
         byte[] data = new byte[TELEMETRY_SIZE];
-        data[Place.FIRST.ordinal()] = windDirection.value()
-                                        [Place.FIRST.ordinal()];
-        data[Place.SECOND.ordinal()] = windDirection.value()
-                                        [Place.SECOND.ordinal()];
-        data[Place.THIRD.ordinal()] = windSpeed.value()
-                                        [Place.FIRST.ordinal()];
-        data[Place.FOURTH.ordinal()] = windSpeed.value()
-                                        [Place.SECOND.ordinal()];
-        data[Place.FIFTH.ordinal()] = agentSpeed.value()
-                                        [Place.FIRST.ordinal()];
-        data[Place.SIXTH.ordinal()] = agentSpeed.value()
-                                        [Place.SECOND.ordinal()];
-        data[Place.SEVENTH.ordinal()] = (byte) (agentPosX & BYTE_MAX);
-        data[Place.EIGHTH.ordinal()] = (byte) (agentPosX >> BYTE_SIZE_BITS);
-        data[Place.NINTH.ordinal()] = (byte) (agentPosY & BYTE_MAX);
-        data[Place.TENTH.ordinal()] = (byte) (agentPosY >> BYTE_SIZE_BITS);
-        data[Place.ELEVENTH.ordinal()] = batteryStatus;
-        data[Place.TWELFTH.ordinal()] = agentDirection.value()
-                                        [Place.FIRST.ordinal()];
-        data[Place.THIRTEENTH.ordinal()] = agentDirection.value()
-                                            [Place.SECOND.ordinal()];
-        data[Place.FOURTEENTH.ordinal()] = statusInfo.value();
+        TelemetryLayout.putWindDirection(data, windDirection.getAsInt());
+        TelemetryLayout.putWindSpeed(data, windSpeed.getAsInt());
+        TelemetryLayout.putAgentSpeed(data, agentSpeed.getAsInt());
+        TelemetryLayout.putAgentPosX(data, agentPosX);
+        TelemetryLayout.putAgentPosY(data, agentPosY);
+        TelemetryLayout.putBatteryStatus(data, batteryStatus);
+        TelemetryLayout.putAgentDirection(data, agentDirection.getAsInt());
+        TelemetryLayout.putStatusInfo(data, statusInfo.value());
         return data;
     }
 
+    /**
+     * This method writes the telemetry data into a buffer without allocating,-
+     * e.g. into a shared direct or mapped buffer on every frame.
+     *
+     * @param buffer - the buffer
+     * @param offset - the index of the frame in the buffer
+     */
+    public void writeTo(final ByteBuffer buffer, final int offset) {
+        TelemetryLayout.putWindDirection(buffer, offset, windDirection.getAsInt());
+        TelemetryLayout.putWindSpeed(buffer, offset, windSpeed.getAsInt());
+        TelemetryLayout.putAgentSpeed(buffer, offset, agentSpeed.getAsInt());
+        TelemetryLayout.putAgentPosX(buffer, offset, agentPosX);
+        TelemetryLayout.putAgentPosY(buffer, offset, agentPosY);
+        TelemetryLayout.putBatteryStatus(buffer, offset, batteryStatus);
+        TelemetryLayout.putAgentDirection(buffer, offset, agentDirection.getAsInt());
+        TelemetryLayout.putStatusInfo(buffer, offset, statusInfo.value());
+    }
+
+    /**
+     * The maximum direction in degrees.
+     */
+    private static final int MAX_DIRECTION = 359;
+    /**
+     * The maximum battery status in percent.
+     */
+    private static final int MAX_BATTERY_STATUS = 100;
+    /**
+     * The marker for an invalid (not yet available) value.
+     */
+    private static final int INVALID_VALUE = 0xFFFF;
+
+    /**
+     * This method checks if the values are in their valid ranges.
+     * It is used to detect frames, that were received at a wrong baud rate-
+     * or with a wrong alignment.
+     *
+     * @return boolean - true if the telemetry data is plausible, false otherwise
+     */
+    public boolean isPlausible() {
+        final int battery = batteryStatus & BYTE_MAX;
+        final int status = statusInfo.value() & BYTE_MAX;
+        return (windDirection.getAsInt() <= MAX_DIRECTION
+                    || windDirection.getAsInt() == INVALID_VALUE)
+                && (agentDirection.getAsInt() <= MAX_DIRECTION
+                    || agentDirection.getAsInt() == INVALID_VALUE)
+                && (battery <= MAX_BATTERY_STATUS || battery == BYTE_MAX)
+                && (status <= 1 || status == BYTE_MAX);
+    }
+
     @Override
     public String toString() {
         return "TelemetryData [windDirection=" + windDirection.getAsInt()
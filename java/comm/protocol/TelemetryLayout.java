@@ -0,0 +1,342 @@
+package comm.protocol;
+
+import java.nio.ByteBuffer;
+
+/**
+ * This class describes the layout of TELEMETRY_DATA (little endian, packed).
+ * The accessors neither branch nor allocate, so they can be used on every-
+ * received frame.
+ *
+ * Generated by LayoutGenerator from protocol/telemetry.schema, do not edit.
+ */
+public final class TelemetryLayout {
+
+    /**
+     * The offset of windDirection (uint16).
+     */
+    public static final int WIND_DIRECTION_OFFSET = 0;
+
+    /**
+     * The offset of windSpeed (uint16).
+     */
+    public static final int WIND_SPEED_OFFSET = 2;
+
+    /**
+     * The offset of agentSpeed (uint16).
+     */
+    public static final int AGENT_SPEED_OFFSET = 4;
+
+    /**
+     * The offset of agentPosX (int16).
+     */
+    public static final int AGENT_POS_X_OFFSET = 6;
+
+    /**
+     * The offset of agentPosY (int16).
+     */
+    public static final int AGENT_POS_Y_OFFSET = 8;
+
+    /**
+     * The offset of batteryStatus (uint8).
+     */
+    public static final int BATTERY_STATUS_OFFSET = 10;
+
+    /**
+     * The offset of agentDirection (uint16).
+     */
+    public static final int AGENT_DIRECTION_OFFSET = 11;
+
+    /**
+     * The offset of statusInfo (uint8).
+     */
+    public static final int STATUS_INFO_OFFSET = 13;
+
+    /**
+     * The size of the layout in bytes.
+     */
+    public static final int SIZE = 14;
+
+    /**
+     * The checksum of the layout, exchanged at connect time.
+     */
+    public static final int CHECKSUM = 0x3BC5BB56;
+
+    /**
+     * This class should not be instantiated.
+     */
+    private TelemetryLayout() { }
+
+    /**
+     * This function reads windDirection.
+     *
+     * @param frame - the frame
+     * @return int - the value
+     */
+    public static int getWindDirection(final byte[] frame) {
+        return (frame[WIND_DIRECTION_OFFSET] & 0xFF)
+                | (frame[WIND_DIRECTION_OFFSET + 1] & 0xFF) << 8;
+    }
+
+    /**
+     * This function writes windDirection.
+     *
+     * @param frame - the frame
+     * @param value - the value
+     */
+    public static void putWindDirection(final byte[] frame, final int value) {
+        frame[WIND_DIRECTION_OFFSET] = (byte) value;
+        frame[WIND_DIRECTION_OFFSET + 1] = (byte) (value >> 8);
+    }
+
+    /**
+     * This function writes windDirection into a frame within a buffer.
+     *
+     * @param buffer - the buffer
+     * @param offset - the index of the frame in the buffer
+     * @param value - the value
+     */
+    public static void putWindDirection(final ByteBuffer buffer, final int offset,
+            final int value) {
+        buffer.put(offset + WIND_DIRECTION_OFFSET, (byte) value);
+        buffer.put(offset + WIND_DIRECTION_OFFSET + 1, (byte) (value >> 8));
+    }
+
+    /**
+     * This function reads windSpeed.
+     *
+     * @param frame - the frame
+     * @return int - the value
+     */
+    public static int getWindSpeed(final byte[] frame) {
+        return (frame[WIND_SPEED_OFFSET] & 0xFF)
+                | (frame[WIND_SPEED_OFFSET + 1] & 0xFF) << 8;
+    }
+
+    /**
+     * This function writes windSpeed.
+     *
+     * @param frame - the frame
+     * @param value - the value
+     */
+    public static void putWindSpeed(final byte[] frame, final int value) {
+        frame[WIND_SPEED_OFFSET] = (byte) value;
+        frame[WIND_SPEED_OFFSET + 1] = (byte) (value >> 8);
+    }
+
+    /**
+     * This function writes windSpeed into a frame within a buffer.
+     *
+     * @param buffer - the buffer
+     * @param offset - the index of the frame in the buffer
+     * @param value - the value
+     */
+    public static void putWindSpeed(final ByteBuffer buffer, final int offset,
+            final int value) {
+        buffer.put(offset + WIND_SPEED_OFFSET, (byte) value);
+        buffer.put(offset + WIND_SPEED_OFFSET + 1, (byte) (value >> 8));
+    }
+
+    /**
+     * This function reads agentSpeed.
+     *
+     * @param frame - the frame
+     * @return int - the value
+     */
+    public static int getAgentSpeed(final byte[] frame) {
+        return (frame[AGENT_SPEED_OFFSET] & 0xFF)
+                | (frame[AGENT_SPEED_OFFSET + 1] & 0xFF) << 8;
+    }
+
+    /**
+     * This function writes agentSpeed.
+     *
+     * @param frame - the frame
+     * @param value - the value
+     */
+    public static void putAgentSpeed(final byte[] frame, final int value) {
+        frame[AGENT_SPEED_OFFSET] = (byte) value;
+        frame[AGENT_SPEED_OFFSET + 1] = (byte) (value >> 8);
+    }
+
+    /**
+     * This function writes agentSpeed into a frame within a buffer.
+     *
+     * @param buffer - the buffer
+     * @param offset - the index of the frame in the buffer
+     * @param value - the value
+     */
+    public static void putAgentSpeed(final ByteBuffer buffer, final int offset,
+            final int value) {
+        buffer.put(offset + AGENT_SPEED_OFFSET, (byte) value);
+        buffer.put(offset + AGENT_SPEED_OFFSET + 1, (byte) (value >> 8));
+    }
+
+    /**
+     * This function reads agentPosX.
+     *
+     * @param frame - the frame
+     * @return int - the value
+     */
+    public static int getAgentPosX(final byte[] frame) {
+        return (frame[AGENT_POS_X_OFFSET] & 0xFF)
+                | frame[AGENT_POS_X_OFFSET + 1] << 8;
+    }
+
+    /**
+     * This function writes agentPosX.
+     *
+     * @param frame - the frame
+     * @param value - the value
+     */
+    public static void putAgentPosX(final byte[] frame, final int value) {
+        frame[AGENT_POS_X_OFFSET] = (byte) value;
+        frame[AGENT_POS_X_OFFSET + 1] = (byte) (value >> 8);
+    }
+
+    /**
+     * This function writes agentPosX into a frame within a buffer.
+     *
+     * @param buffer - the buffer
+     * @param offset - the index of the frame in the buffer
+     * @param value - the value
+     */
+    public static void putAgentPosX(final ByteBuffer buffer, final int offset,
+            final int value) {
+        buffer.put(offset + AGENT_POS_X_OFFSET, (byte) value);
+        buffer.put(offset + AGENT_POS_X_OFFSET + 1, (byte) (value >> 8));
+    }
+
+    /**
+     * This function reads agentPosY.
+     *
+     * @param frame - the frame
+     * @return int - the value
+     */
+    public static int getAgentPosY(final byte[] frame) {
+        return (frame[AGENT_POS_Y_OFFSET] & 0xFF)
+                | frame[AGENT_POS_Y_OFFSET + 1] << 8;
+    }
+
+    /**
+     * This function writes agentPosY.
+     *
+     * @param frame - the frame
+     * @param value - the value
+     */
+    public static void putAgentPosY(final byte[] frame, final int value) {
+        frame[AGENT_POS_Y_OFFSET] = (byte) value;
+        frame[AGENT_POS_Y_OFFSET + 1] = (byte) (value >> 8);
+    }
+
+    /**
+     * This function writes agentPosY into a frame within a buffer.
+     *
+     * @param buffer - the buffer
+     * @param offset - the index of the frame in the buffer
+     * @param value - the value
+     */
+    public static void putAgentPosY(final ByteBuffer buffer, final int offset,
+            final int value) {
+        buffer.put(offset + AGENT_POS_Y_OFFSET, (byte) value);
+        buffer.put(offset + AGENT_POS_Y_OFFSET + 1, (byte) (value >> 8));
+    }
+
+    /**
+     * This function reads batteryStatus.
+     *
+     * @param frame - the frame
+     * @return int - the value
+     */
+    public static int getBatteryStatus(final byte[] frame) {
+        return (frame[BATTERY_STATUS_OFFSET] & 0xFF);
+    }
+
+    /**
+     * This function writes batteryStatus.
+     *
+     * @param frame - the frame
+     * @param value - the value
+     */
+    public static void putBatteryStatus(final byte[] frame, final int value) {
+        frame[BATTERY_STATUS_OFFSET] = (byte) value;
+    }
+
+    /**
+     * This function writes batteryStatus into a frame within a buffer.
+     *
+     * @param buffer - the buffer
+     * @param offset - the index of the frame in the buffer
+     * @param value - the value
+     */
+    public static void putBatteryStatus(final ByteBuffer buffer, final int offset,
+            final int value) {
+        buffer.put(offset + BATTERY_STATUS_OFFSET, (byte) value);
+    }
+
+    /**
+     * This function reads agentDirection.
+     *
+     * @param frame - the frame
+     * @return int - the value
+     */
+    public static int getAgentDirection(final byte[] frame) {
+        return (frame[AGENT_DIRECTION_OFFSET] & 0xFF)
+                | (frame[AGENT_DIRECTION_OFFSET + 1] & 0xFF) << 8;
+    }
+
+    /**
+     * This function writes agentDirection.
+     *
+     * @param frame - the frame
+     * @param value - the value
+     */
+    public static void putAgentDirection(final byte[] frame, final int value) {
+        frame[AGENT_DIRECTION_OFFSET] = (byte) value;
+        frame[AGENT_DIRECTION_OFFSET + 1] = (byte) (value >> 8);
+    }
+
+    /**
+     * This function writes agentDirection into a frame within a buffer.
+     *
+     * @param buffer - the buffer
+     * @param offset - the index of the frame in the buffer
+     * @param value - the value
+     */
+    public static void putAgentDirection(final ByteBuffer buffer, final int offset,
+            final int value) {
+        buffer.put(offset + AGENT_DIRECTION_OFFSET, (byte) value);
+        buffer.put(offset + AGENT_DIRECTION_OFFSET + 1, (byte) (value >> 8));
+    }
+
+    /**
+     * This function reads statusInfo.
+     *
+     * @param frame - the frame
+     * @return int - the value
+     */
+    public static int getStatusInfo(final byte[] frame) {
+        return (frame[STATUS_INFO_OFFSET] & 0xFF);
+    }
+
+    /**
+     * This function writes statusInfo.
+     *
+     * @param frame - the frame
+     * @param value - the value
+     */
+    public static void putStatusInfo(final byte[] frame, final int value) {
+        frame[STATUS_INFO_OFFSET] = (byte) value;
+    }
+
+    /**
+     * This function writes statusInfo into a frame within a buffer.
+     *
+     * @param buffer - the buffer
+     * @param offset - the index of the frame in the buffer
+     * @param value - the value
+     */
+    public static void putStatusInfo(final ByteBuffer buffer, final int offset,
+            final int value) {
+        buffer.put(offset + STATUS_INFO_OFFSET, (byte) value);
+    }
+}
@@ -0,0 +1,45 @@
+package comm.protocol;
+
+import static comm.Constants.BYTE_MAX;
+import static comm.Constants.BYTE_SIZE_BITS;
+
+/**
+ * This record represents a waypoint of a mission in NED coordinates.
+ * @param posX - the position north in m
+ * @param posY - the position east in m
+ */
+public record Waypoint(short posX, short posY) {
+
+    /**
+     * The size of an encoded waypoint in bytes.
+     */
+    public static final int SIZE = 4;
+
+    /**
+     * This method writes the waypoint little endian into a byte array.
+     *
+     * @param target - the target array
+     * @param offset - the offset of the waypoint in the target
+     */
+    public void write(final byte[] target, final int offset) {
+        target[offset] = (byte) (posX & BYTE_MAX);
+        target[offset + 1] = (byte) (posX >> BYTE_SIZE_BITS);
+        target[offset + 2] = (byte) (posY & BYTE_MAX);
+        target[offset + 3] = (byte) (posY >> BYTE_SIZE_BITS);
+    }
+
+    /**
+     * This function reads a little endian waypoint from a byte array.
+     *
+     * @param source - the source array
+     * @param offset - the offset of the waypoint in the source
+     * @return Waypoint - the waypoint
+     */
+    public static Waypoint read(final byte[] source, final int offset) {
+        return new Waypoint(
+            (short) (((source[offset + 1] & BYTE_MAX) << BYTE_SIZE_BITS)
+                    | (source[offset] & BYTE_MAX)),
+            (short) (((source[offset + 3] & BYTE_MAX) << BYTE_SIZE_BITS)
+                    | (source[offset + 2] & BYTE_MAX)));
+    }
+}
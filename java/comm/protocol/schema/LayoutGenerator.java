@@ -0,0 +1,396 @@
+package comm.protocol.schema;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+/**
+ * This class generates the telemetry codecs of both sides from a schema file-
+ * (protocol/telemetry.schema): the Java class with the field offsets and-
+ * branch-free, allocation-free accessors and the packed px4 struct with its-
+ * encoder. Both contain the same layout checksum.
+ *
+ * Usage: LayoutGenerator <schema> <java output directory> <px4 output directory>
+ */
+public final class LayoutGenerator {
+    /**
+     * This record represents a type of the schema.
+     * @param size - the size in bytes
+     * @param isSigned - true if the type is signed
+     * @param cType - the type in C++
+     * @param rawCType - the unsigned type in C++ with the same size
+     */
+    private record Type(int size, boolean isSigned, String cType, String rawCType) { }
+
+    /**
+     * This record represents a field of the layout.
+     * @param type - the name of the type (e.g. uint16)
+     * @param name - the name of the field
+     * @param cType - the type of the field in the C++ struct
+     * @param offset - the offset of the field in bytes
+     */
+    public record Field(String type, String name, String cType, int offset) {
+        /**
+         * This method returns the size of the field.
+         *
+         * @return int - the size in bytes
+         */
+        public int size() {
+            return TYPES.get(type).size();
+        }
+    }
+
+    /**
+     * This record represents a layout of the schema.
+     * @param javaName - the name of the generated Java class
+     * @param cName - the name of the generated C++ struct
+     * @param fields - the fields in wire order
+     */
+    public record Layout(String javaName, String cName, List<Field> fields) {
+        /**
+         * This method returns the size of the layout.
+         *
+         * @return int - the size in bytes
+         */
+        public int size() {
+            return fields.isEmpty() ? 0
+                   : fields.get(fields.size() - 1).offset() + fields.get(fields.size() - 1).size();
+        }
+
+        /**
+         * This method returns the checksum of the layout (CRC-32 over the-
+         * type, name and offset of every field).
+         *
+         * @return int - the checksum
+         */
+        public int checksum() {
+            final var canonical = new StringBuilder();
+            for (final var field : fields) {
+                canonical.append(field.type()).append(' ').append(field.name())
+                         .append(' ').append(field.offset()).append('\n');
+            }
+
+            final var crc = new CRC32();
+            crc.update(canonical.toString().getBytes(StandardCharsets.US_ASCII));
+            return (int) crc.getValue();
+        }
+    }
+
+    /**
+     * The supported types.
+     */
+    private static final Map<String, Type> TYPES = Map.of(
+        "int8", new Type(1, true, "int8_t", "uint8_t"),
+        "uint8", new Type(1, false, "uint8_t", "uint8_t"),
+        "int16", new Type(2, true, "int16_t", "uint16_t"),
+        "uint16", new Type(2, false, "uint16_t", "uint16_t"),
+        "int32", new Type(4, true, "int32_t", "uint32_t"),
+        "uint32", new Type(4, false, "uint32_t", "uint32_t"));
+
+    /**
+     * The name of the schema file in the generated comments.
+     */
+    private static final String SCHEMA_NAME = "protocol/telemetry.schema";
+
+    /**
+     * This class should not be instantiated.
+     */
+    private LayoutGenerator() { }
+
+    /**
+     * This function parses a schema.
+     *
+     * @param lines - the lines of the schema
+     * @return Layout - the layout
+     * @throws IllegalArgumentException if the schema is invalid
+     */
+    public static Layout parse(final List<String> lines) {
+        String javaName = null;
+        String cName = null;
+        final List<Field> fields = new ArrayList<>();
+        int offset = 0;
+
+        for (int i = 0; i < lines.size(); i++) {
+            final String line = lines.get(i).strip();
+            if (line.isEmpty() || line.startsWith("#")) {
+                continue;
+            }
+
+            final String[] tokens = line.split("\\s+");
+            if (tokens[0].equals("layout") && tokens.length == 3 && javaName == null) {
+                javaName = tokens[1];
+                cName = tokens[2];
+            } else if (tokens[0].equals("field") && (tokens.length == 3 || tokens.length == 4)
+                        && TYPES.containsKey(tokens[1])
+                        && tokens[2].matches("[a-z][A-Za-z0-9]*")
+                        && fields.stream().noneMatch(f -> f.name().equals(tokens[2]))) {
+                final var type = TYPES.get(tokens[1]);
+                fields.add(new Field(tokens[1], tokens[2],
+                                     tokens.length == 4 ? tokens[3] : type.cType(), offset));
+                offset += type.size();
+            } else {
+                throw new IllegalArgumentException("Invalid schema line " + (i + 1) + ": " + line);
+            }
+        }
+
+        if (javaName == null || fields.isEmpty()) {
+            throw new IllegalArgumentException("Schema without layout or fields");
+        }
+
+        return new Layout(javaName, cName, List.copyOf(fields));
+    }
+
+    /**
+     * This function generates the Java codec.
+     *
+     * @param layout - the layout
+     * @param packageName - the package of the generated class
+     * @return String - the source of the class
+     */
+    public static String generateJava(final Layout layout, final String packageName) {
+        final var out = new StringBuilder();
+        out.append("package ").append(packageName).append(";\n\n");
+        out.append("import java.nio.ByteBuffer;\n\n");
+        out.append("/**\n");
+        out.append(" * This class describes the layout of ").append(layout.cName())
+           .append(" (little endian, packed).\n");
+        out.append(" * The accessors neither branch nor allocate, so they can be used on every-\n");
+        out.append(" * received frame.\n");
+        out.append(" *\n");
+        out.append(" * Generated by LayoutGenerator from ").append(SCHEMA_NAME)
+           .append(", do not edit.\n");
+        out.append(" */\n");
+        out.append("public final class ").append(layout.javaName()).append(" {\n\n");
+
+        for (final var field : layout.fields()) {
+            out.append("    /**\n");
+            out.append("     * The offset of ").append(field.name()).append(" (")
+               .append(field.type()).append(").\n");
+            out.append("     */\n");
+            out.append("    public static final int ").append(constantName(field))
+               .append(" = ").append(field.offset()).append(";\n\n");
+        }
+
+        out.append("    /**\n");
+        out.append("     * The size of the layout in bytes.\n");
+        out.append("     */\n");
+        out.append("    public static final int SIZE = ").append(layout.size()).append(";\n\n");
+        out.append("    /**\n");
+        out.append("     * The checksum of the layout, exchanged at connect time.\n");
+        out.append("     */\n");
+        out.append("    public static final int CHECKSUM = ")
+           .append(String.format("0x%08X", layout.checksum())).append(";\n\n");
+        out.append("    /**\n");
+        out.append("     * This class should not be instantiated.\n");
+        out.append("     */\n");
+        out.append("    private ").append(layout.javaName()).append("() { }\n");
+
+        for (final var field : layout.fields()) {
+            final var type = TYPES.get(field.type());
+            final String javaType = type.size() == 4 && !type.isSigned() ? "long" : "int";
+
+            out.append("\n    /**\n");
+            out.append("     * This function reads ").append(field.name()).append(".\n");
+            out.append("     *\n");
+            out.append("     * @param frame - the frame\n");
+            out.append("     * @return ").append(javaType).append(" - the value\n");
+            out.append("     */\n");
+            out.append("    public static ").append(javaType).append(" get")
+               .append(capitalize(field.name())).append("(final byte[] frame) {\n");
+            out.append("        return ").append(readExpression(field, type)).append(";\n");
+            out.append("    }\n");
+
+            out.append("\n    /**\n");
+            out.append("     * This function writes ").append(field.name()).append(".\n");
+            out.append("     *\n");
+            out.append("     * @param frame - the frame\n");
+            out.append("     * @param value - the value\n");
+            out.append("     */\n");
+            out.append("    public static void put").append(capitalize(field.name()))
+               .append("(final byte[] frame, final ").append(javaType).append(" value) {\n");
+            for (int i = 0; i < type.size(); i++) {
+                out.append("        frame[").append(index(field, i)).append("] = (byte) ")
+                   .append(i == 0 ? "value" : "(value >> " + (i * Byte.SIZE) + ")")
+                   .append(";\n");
+            }
+            out.append("    }\n");
+
+            out.append("\n    /**\n");
+            out.append("     * This function writes ").append(field.name())
+               .append(" into a frame within a buffer.\n");
+            out.append("     *\n");
+            out.append("     * @param buffer - the buffer\n");
+            out.append("     * @param offset - the index of the frame in the buffer\n");
+            out.append("     * @param value - the value\n");
+            out.append("     */\n");
+            out.append("    public static void put").append(capitalize(field.name()))
+               .append("(final ByteBuffer buffer, final int offset,\n")
+               .append("            final ").append(javaType).append(" value) {\n");
+            for (int i = 0; i < type.size(); i++) {
+                out.append("        buffer.put(offset + ").append(index(field, i))
+                   .append(", (byte) ")
+                   .append(i == 0 ? "value" : "(value >> " + (i * Byte.SIZE) + ")")
+                   .append(");\n");
+            }
+            out.append("    }\n");
+        }
+
+        out.append("}\n");
+        return out.toString();
+    }
+
+    /**
+     * This function generates the px4 header with the packed struct, the-
+     * offsets and the encoder.
+     *
+     * @param layout - the layout
+     * @return String - the source of the header
+     */
+    public static String generateCpp(final Layout layout) {
+        final var out = new StringBuilder();
+        final String namespace = layout.javaName();
+        out.append("#pragma once\n\n");
+        out.append("#include <stddef.h>\n");
+        out.append("#include <stdint.h>\n");
+        out.append("#include <string.h>\n\n");
+        out.append("/*\n");
+        out.append(" * Generated by LayoutGenerator from ").append(SCHEMA_NAME)
+           .append(", do not edit.\n");
+        out.append(" */\n\n");
+        out.append("/**\n");
+        out.append(" * Struct that holds the telemetry data, that gets transmited to the laptop.\n");
+        out.append("*/\n");
+        out.append("#pragma pack(push, 1)\n");
+        out.append("typedef struct {\n");
+        for (final var field : layout.fields()) {
+            out.append('\t').append(field.cType()).append(' ').append(field.name()).append(";\n");
+        }
+        out.append("} ").append(layout.cName()).append(";\n");
+        out.append("#pragma pack(pop)\n\n");
+
+        out.append("namespace ").append(namespace).append(" {\n");
+        for (final var field : layout.fields()) {
+            out.append("\tstatic constexpr size_t ").append(constantName(field))
+               .append(" = ").append(field.offset()).append(";\n");
+        }
+        out.append("\n\t/**\n");
+        out.append("\t * The size of the layout in bytes\n");
+        out.append("\t*/\n");
+        out.append("\tstatic constexpr size_t SIZE = ").append(layout.size()).append(";\n\n");
+        out.append("\t/**\n");
+        out.append("\t * The checksum of the layout, exchanged at connect time\n");
+        out.append("\t*/\n");
+        out.append("\tstatic constexpr uint32_t CHECKSUM = ")
+           .append(String.format("0x%08X", layout.checksum())).append(";\n\n");
+        out.append("\t/**\n");
+        out.append("\t * Encodes the data little endian into a frame of SIZE bytes\n");
+        out.append("\t*/\n");
+        out.append("\tinline void encode(const ").append(layout.cName())
+           .append("& data, uint8_t* frame) {\n");
+        for (final var field : layout.fields()) {
+            final var type = TYPES.get(field.type());
+            out.append("\t\t{\n");
+            out.append("\t\t\t").append(type.rawCType()).append(" value;\n");
+            out.append("\t\t\tmemcpy(&value, &data.").append(field.name())
+               .append(", sizeof(value));\n");
+            for (int i = 0; i < type.size(); i++) {
+                out.append("\t\t\tframe[").append(index(field, i)).append("] = (uint8_t)")
+                   .append(i == 0 ? "value" : "(value >> " + (i * Byte.SIZE) + ")")
+                   .append(";\n");
+            }
+            out.append("\t\t}\n");
+        }
+        out.append("\t}\n");
+        out.append("}\n\n");
+
+        out.append("static_assert(sizeof(").append(layout.cName()).append(") == ")
+           .append(namespace).append("::SIZE, \"").append(layout.cName())
+           .append(" does not match the schema\");\n");
+        for (final var field : layout.fields()) {
+            out.append("static_assert(offsetof(").append(layout.cName()).append(", ")
+               .append(field.name()).append(") == ").append(namespace).append("::")
+               .append(constantName(field)).append(", \"").append(field.name())
+               .append(" does not match the schema\");\n");
+        }
+        return out.toString();
+    }
+
+    /**
+     * This function creates the expression, that reads a field.
+     *
+     * @param field - the field
+     * @param type - the type of the field
+     * @return String - the expression
+     */
+    private static String readExpression(final Field field, final Type type) {
+        final var terms = new ArrayList<String>();
+        for (int i = 0; i < type.size(); i++) {
+            //The most significant byte of a signed type keeps its sign
+            final boolean isSignByte = type.isSigned() && i == type.size() - 1;
+            final String value = "frame[" + index(field, i) + "]";
+            final String term = isSignByte ? value : "(" + value + " & 0xFF)";
+            terms.add(i == 0 ? term : term + " << " + (i * Byte.SIZE));
+        }
+
+        final String expression = String.join("\n                | ", terms);
+        return type.size() == 4 && !type.isSigned()
+               ? "(" + expression + ") & 0xFFFFFFFFL" : expression;
+    }
+
+    /**
+     * This function returns the index of a byte of a field.
+     *
+     * @param field - the field
+     * @param i - the number of the byte
+     * @return String - the index expression
+     */
+    private static String index(final Field field, final int i) {
+        return i == 0 ? constantName(field) : constantName(field) + " + " + i;
+    }
+
+    /**
+     * This function returns the name of the offset constant of a field.
+     *
+     * @param field - the field
+     * @return String - the name (e.g. AGENT_POS_X_OFFSET)
+     */
+    private static String constantName(final Field field) {
+        return field.name().replaceAll("([a-z0-9])([A-Z])", "$1_$2").toUpperCase() + "_OFFSET";
+    }
+
+    /**
+     * This function capitalizes a name.
+     *
+     * @param name - the name
+     * @return String - the capitalized name
+     */
+    private static String capitalize(final String name) {
+        return Character.toUpperCase(name.charAt(0)) + name.substring(1);
+    }
+
+    /**
+     * This function generates both codecs.
+     *
+     * @param args - the schema, the Java output directory and the px4 output directory
+     * @throws IOException if a file could not be read or written
+     */
+    public static void main(final String[] args) throws IOException {
+        if (args.length != 3) {
+            System.err.println("Usage: LayoutGenerator <schema> <java directory> <px4 directory>");
+            System.exit(1);
+        }
+
+        final var layout = parse(Files.readAllLines(Path.of(args[0]), StandardCharsets.UTF_8));
+        Files.writeString(Path.of(args[1], layout.javaName() + ".java"),
+                          generateJava(layout, "comm.protocol"), StandardCharsets.UTF_8);
+        Files.writeString(Path.of(args[2], layout.javaName() + ".hpp"),
+                          generateCpp(layout), StandardCharsets.UTF_8);
+        System.out.println("Generated " + layout.javaName() + " (" + layout.size()
+                           + " bytes, checksum " + String.format("0x%08X", layout.checksum()) + ")");
+    }
+}
@@ -0,0 +1,6 @@
+/**
+ * The schema package contains the generator of the telemetry codecs, the-
+ * Java codec (comm.protocol.TelemetryLayout) and the px4 struct are-
+ * generated from protocol/telemetry.schema.
+ */
+package comm.protocol.schema;
@@ -0,0 +1,297 @@
+package comm.server;
+
+import java.util.function.Predicate;
+
+import comm.protocol.CliftonCommand;
+
+/**
+ * This class merges the commands of several controllers (e.g. an autopilot-
+ * process and an operator console) into the command queue of one handler.
+ *
+ * Every controller is rate limited by its own token bucket. The course is-
+ * controlled by one controller at a time: the controller, that sent the-
+ * last START_ROUTE or SET_COURSE, holds the control for CONTROL_LEASE ms.-
+ * Meanwhile only a controller with a higher authority (lower rank) takes-
+ * it over. STOP_ROUTE is a safety command, it is accepted from every-
+ * controller without the rate limit. A STOP_ROUTE within STOP_INTERVAL ms-
+ * of the last queued one is coalesced into it, so a flood of stops does-
+ * not fill the command queue. A queued START_ROUTE or SET_COURSE ends the-
+ * coalescing, so the next stop is always queued.
+ * The ranks are assigned by the server of the controllers (e.g. by the-
+ * port they connect to), not by the controllers themselves.
+ * This class is thread safe.
+ */
+public final class CommandArbiter {
+
+    /**
+     * This enum represents the outcomes of a submitted command.
+     */
+    public enum Verdict {
+        /**
+         * The command was passed to the command queue.
+         */
+        QUEUED,
+        /**
+         * The controller exceeded its rate.
+         */
+        RATE_LIMITED,
+        /**
+         * Another controller with the same or a higher authority controls-
+         * the course.
+         */
+        OVERRULED,
+        /**
+         * The command is not allowed for controllers or the queue is full.
+         */
+        REJECTED,
+        /**
+         * The same safety command was queued within STOP_INTERVAL ms, the-
+         * command was merged into it.
+         */
+        COALESCED
+    }
+
+    /**
+     * This class represents a registered controller.
+     */
+    public static final class Controller {
+        /**
+         * The name of the controller (e.g. its address).
+         */
+        private final String name;
+        /**
+         * The rank of the controller, lower ranks have a higher authority.
+         */
+        private final int rank;
+        /**
+         * The tokens of the rate limit.
+         */
+        private double tokens;
+        /**
+         * The time of the last refill in ms.
+         */
+        private long lastRefill;
+
+        /**
+         * Constructor.
+         *
+         * @param controllerName - the name of the controller
+         * @param controllerRank - the rank of the controller
+         * @param tokenCount - the initial tokens
+         * @param now - the current time in ms
+         */
+        private Controller(final String controllerName, final int controllerRank,
+                final double tokenCount, final long now) {
+            this.name = controllerName;
+            this.rank = controllerRank;
+            this.tokens = tokenCount;
+            this.lastRefill = now;
+        }
+
+        /**
+         * This method returns the name of the controller.
+         *
+         * @return String - the name
+         */
+        public String getName() {
+            return this.name;
+        }
+
+        /**
+         * This method returns the rank of the controller.
+         *
+         * @return int - the rank, lower ranks have a higher authority
+         */
+        public int getRank() {
+            return this.rank;
+        }
+
+        @Override
+        public String toString() {
+            return this.name + " (rank " + this.rank + ")";
+        }
+    }
+
+    /**
+     * The rank of an operator console.
+     */
+    public static final int OPERATOR_RANK = 0;
+    /**
+     * The rank of an autopilot.
+     */
+    public static final int AUTOPILOT_RANK = 1;
+    /**
+     * The default rate of a controller in commands/s.
+     */
+    public static final double DEFAULT_RATE = 10;
+    /**
+     * The default number of commands a controller may send at once.
+     */
+    public static final int DEFAULT_BURST = 5;
+    /**
+     * The time a controller keeps the control after its last command in ms.
+     */
+    public static final long CONTROL_LEASE = 2000;
+    /**
+     * The time, a queued STOP_ROUTE covers further ones, in ms.
+     */
+    public static final long STOP_INTERVAL = 1000;
+    /**
+     * Milliseconds per second.
+     */
+    private static final double MS_PER_SECOND = 1000.0;
+
+    /**
+     * The queue of the handler, returns false if the command was not queued.
+     */
+    private final Predicate<CliftonCommand> sink;
+    /**
+     * The rate of every controller in commands/s.
+     */
+    private final double rate;
+    /**
+     * The number of commands a controller may send at once.
+     */
+    private final int burst;
+    /**
+     * The controller, that controls the course, null if none.
+     */
+    private Controller owner;
+    /**
+     * The time until the owner keeps the control in ms.
+     */
+    private long leaseUntil;
+    /**
+     * The time until a further STOP_ROUTE is coalesced in ms.
+     */
+    private long stopUntil;
+
+    /**
+     * Constructor.
+     *
+     * @param commandSink - the queue of the handler (e.g.-
+     *        ConnectionHandler::sendCommand)
+     * @param commandRate - the rate of every controller in commands/s
+     * @param commandBurst - the number of commands a controller may send at once
+     */
+    public CommandArbiter(final Predicate<CliftonCommand> commandSink,
+            final double commandRate, final int commandBurst) {
+        this.sink = commandSink;
+        this.rate = commandRate;
+        this.burst = commandBurst;
+        this.owner = null;
+        this.leaseUntil = 0;
+        this.stopUntil = 0;
+    }
+
+    /**
+     * This method registers a controller.
+     *
+     * @param name - the name of the controller
+     * @param rank - the rank of the controller, lower ranks have a higher-
+     *        authority (e.g. OPERATOR_RANK)
+     * @param now - the current time in ms
+     * @return Controller - the controller
+     */
+    public Controller register(final String name, final int rank, final long now) {
+        return new Controller(name, rank, this.burst, now);
+    }
+
+    /**
+     * This method unregisters a controller, it gives up the control.
+     *
+     * @param controller - the controller
+     */
+    public synchronized void unregister(final Controller controller) {
+        if (this.owner == controller) {
+            this.owner = null;
+        }
+    }
+
+    /**
+     * This method returns the controller, that controls the course.
+     *
+     * @param now - the current time in ms
+     * @return Controller - the controller, null if none
+     */
+    public synchronized Controller getOwner(final long now) {
+        return now < this.leaseUntil ? this.owner : null;
+    }
+
+    /**
+     * This method arbitrates a command and passes it to the queue.
+     *
+     * @param controller - the sending controller
+     * @param command - the command
+     * @param now - the current time in ms
+     * @return Verdict - the outcome
+     */
+    public synchronized Verdict submit(final Controller controller, final CliftonCommand command,
+            final long now) {
+        switch (command.id()) {
+            case STOP_ROUTE:
+                return this.stop(command, now);
+            case START_ROUTE:
+            case SET_COURSE:
+                break;
+            default:
+                //The link itself (baud rate, layout, missions) belongs to the handler
+                return Verdict.REJECTED;
+        }
+
+        final var current = this.getOwner(now);
+        if (current != null && current != controller && controller.rank >= current.rank) {
+            return Verdict.OVERRULED;
+        }
+
+        this.refill(controller, now);
+        if (controller.tokens < 1) {
+            return Verdict.RATE_LIMITED;
+        }
+        controller.tokens--;
+
+        this.owner = controller;
+        this.leaseUntil = now + CONTROL_LEASE;
+        if (!this.sink.test(command)) {
+            return Verdict.REJECTED;
+        }
+
+        //The next stop undoes this command, so it must not be coalesced
+        this.stopUntil = 0;
+        return Verdict.QUEUED;
+    }
+
+    /**
+     * This method passes a STOP_ROUTE to the queue, unless one was queued-
+     * within STOP_INTERVAL ms and no route or course command was queued since.
+     *
+     * @param command - the STOP_ROUTE command
+     * @param now - the current time in ms
+     * @return Verdict - the outcome
+     */
+    private Verdict stop(final CliftonCommand command, final long now) {
+        if (now < this.stopUntil) {
+            return Verdict.COALESCED;
+        }
+        if (!this.sink.test(command)) {
+            return Verdict.REJECTED;
+        }
+        this.stopUntil = now + STOP_INTERVAL;
+        return Verdict.QUEUED;
+    }
+
+    /**
+     * This method refills the tokens of a controller.
+     *
+     * @param controller - the controller
+     * @param now - the current time in ms
+     */
+    private void refill(final Controller controller, final long now) {
+        final long elapsed = now - controller.lastRefill;
+        if (elapsed > 0) {
+            controller.tokens = Math.min(this.burst,
+                                         controller.tokens + this.rate * elapsed / MS_PER_SECOND);
+            controller.lastRefill = now;
+        }
+    }
+}
@@ -0,0 +1,460 @@
+package comm.server;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import comm.Clock;
+import comm.ConnectionHandler;
+import comm.protocol.CliftonCommand;
+import comm.protocol.CommandFrame;
+import comm.protocol.CommandFrameReader;
+
+/**
+ * This class accepts commands of local controller processes via. TCP and-
+ * merges them into the command queue of a handler, so controllers can run-
+ * in their own processes without a second owner of the serial port.
+ *
+ * A client sends command frames in the format of the radio link-
+ * (CommandFrame). The server answers every decoded command with its verdict-
+ * (1 byte, the ordinal of CommandArbiter.Verdict). A client, that does not-
+ * read the verdicts, is dropped.
+ * Every client of a server gets the rank of the server, a client cannot-
+ * claim a higher authority. Controllers of different ranks connect to-
+ * different servers (ports), that share an arbiter (see getArbiter).
+ */
+public final class CommandServer {
+    /**
+     * This class holds the state of a connected client.
+     */
+    private static final class Client {
+        /**
+         * The received bytes, that are not processed yet.
+         */
+        private final ByteBuffer input;
+        /**
+         * The reader of the command frames of the client.
+         */
+        private final CommandFrameReader reader;
+        /**
+         * The verdicts, that are not sent yet.
+         */
+        private final ByteBuffer output;
+        /**
+         * The controller of the client.
+         */
+        private final CommandArbiter.Controller controller;
+
+        /**
+         * Constructor.
+         *
+         * @param clientController - the controller of the client
+         */
+        Client(final CommandArbiter.Controller clientController) {
+            this.input = ByteBuffer.allocate(CommandFrame.MAX_FRAME_SIZE);
+            this.reader = new CommandFrameReader();
+            this.output = ByteBuffer.allocate(OUTPUT_BUFFER_SIZE);
+            this.controller = clientController;
+        }
+    }
+
+    /**
+     * The default TCP port of the server.
+     */
+    public static final int DEFAULT_PORT = 5771;
+    /**
+     * The number of verdicts buffered for a client.
+     */
+    private static final int OUTPUT_BUFFER_SIZE = 1024;
+    /**
+     * The maximum number of verdicts of a single read: the commands of the-
+     * read bytes and of the incomplete frame before them.
+     */
+    private static final int MAX_VERDICTS_PER_READ
+        = 2 * CommandFrame.MAX_FRAME_SIZE / CliftonCommand.TLV_HEADER_SIZE;
+    /**
+     * The maximum time to wait for the selector thread on close in ms.
+     */
+    private static final long SHUTDOWN_TIMEOUT = 1000;
+
+    /**
+     * The arbiter, that merges the commands into the queue of the handler.
+     */
+    private final CommandArbiter arbiter;
+    /**
+     * The source of time of the rate limits.
+     */
+    private final Clock clock;
+    /**
+     * The requested port, 0 for any free port.
+     */
+    private final int port;
+    /**
+     * The rank of the clients.
+     */
+    private final int rank;
+    /**
+     * Flag if the server is running.
+     */
+    private final AtomicBoolean isRunning;
+    /**
+     * The number of received commands.
+     */
+    private final LongAdder commandsReceived;
+    /**
+     * The number of connected clients.
+     */
+    private volatile int clientCount;
+    /**
+     * The selector of the server, null if not started.
+     */
+    private volatile Selector selector;
+    /**
+     * The listening channel, null if not started.
+     */
+    private volatile ServerSocketChannel serverChannel;
+    /**
+     * The selector thread, null if not started.
+     */
+    private Thread serverThread;
+
+    /**
+     * The logger.
+     */
+    private static final Logger LOGGER = LogManager.getLogger(CommandServer.class);
+
+    /**
+     * Constructor, the clients are limited to CommandArbiter.DEFAULT_RATE.
+     *
+     * @param connectionHandler - the handler, that sends the commands
+     * @param serverPort - the TCP port on the loopback interface, 0 for any-
+     *        free port
+     * @param clientRank - the rank of the clients (e.g.-
+     *        CommandArbiter.AUTOPILOT_RANK)
+     */
+    public CommandServer(final ConnectionHandler connectionHandler, final int serverPort,
+            final int clientRank) {
+        this(new CommandArbiter(connectionHandler::sendCommand, CommandArbiter.DEFAULT_RATE,
+                                CommandArbiter.DEFAULT_BURST),
+             Clock.system(), serverPort, clientRank);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param commandArbiter - the arbiter, that merges the commands into the-
+     *        queue of the handler, it may be shared with servers of other ranks
+     * @param clk - the source of time of the rate limits
+     * @param serverPort - the TCP port on the loopback interface, 0 for any-
+     *        free port
+     * @param clientRank - the rank of the clients (e.g.-
+     *        CommandArbiter.AUTOPILOT_RANK)
+     */
+    public CommandServer(final CommandArbiter commandArbiter, final Clock clk,
+            final int serverPort, final int clientRank) {
+        this.arbiter = commandArbiter;
+        this.clock = clk;
+        this.port = serverPort;
+        this.rank = clientRank;
+        this.isRunning = new AtomicBoolean(false);
+        this.commandsReceived = new LongAdder();
+        this.clientCount = 0;
+    }
+
+    /**
+     * This method opens the port and starts the selector thread.
+     *
+     * @return boolean - true if the server is running, false otherwise
+     */
+    public synchronized boolean start() {
+        if (this.isRunning.get()) {
+            return true;
+        }
+
+        try {
+            this.selector = Selector.open();
+            this.serverChannel = ServerSocketChannel.open();
+            this.serverChannel.bind(new InetSocketAddress(InetAddress.getLoopbackAddress(),
+                                                          this.port));
+            this.serverChannel.configureBlocking(false);
+            this.serverChannel.register(this.selector, SelectionKey.OP_ACCEPT);
+        } catch (IOException e) {
+            LOGGER.error("Failed to open the command server on port {}", this.port, e);
+            this.closeChannels();
+            return false;
+        }
+
+        this.isRunning.set(true);
+        this.serverThread = new Thread(this::serve, "command-server");
+        this.serverThread.setDaemon(true);
+        this.serverThread.start();
+
+        LOGGER.info("Command server listening on port {}", this.getPort());
+        return true;
+    }
+
+    /**
+     * This method disconnects all clients and closes the port.
+     * The server can be started again.
+     */
+    public synchronized void close() {
+        if (!this.isRunning.getAndSet(false)) {
+            return;
+        }
+
+        this.selector.wakeup();
+        try {
+            this.serverThread.join(SHUTDOWN_TIMEOUT);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (this.serverThread.isAlive()) {
+            LOGGER.warn("{} did not stop within {} ms", this.serverThread.getName(),
+                SHUTDOWN_TIMEOUT);
+        }
+        this.serverThread = null;
+    }
+
+    /**
+     * This method returns the port, the server listens on.
+     *
+     * @return int - the port, the requested port if not started
+     */
+    public int getPort() {
+        final var channel = this.serverChannel;
+        try {
+            if (channel != null && channel.getLocalAddress() instanceof InetSocketAddress address) {
+                return address.getPort();
+            }
+        } catch (IOException ignored) {
+        }
+        return this.port;
+    }
+
+    /**
+     * This method returns the arbiter of the server.
+     *
+     * @return CommandArbiter - the arbiter
+     */
+    public CommandArbiter getArbiter() {
+        return this.arbiter;
+    }
+
+    /**
+     * This method returns the number of connected clients.
+     *
+     * @return int - the number of clients
+     */
+    public int getClientCount() {
+        return this.clientCount;
+    }
+
+    /**
+     * This method returns the number of received commands.
+     *
+     * @return long - the number of commands of all clients
+     */
+    public long getCommandsReceived() {
+        return this.commandsReceived.sum();
+    }
+
+    /**
+     * The selector thread, it accepts clients and processes their frames.
+     */
+    private void serve() {
+        while (this.isRunning.get()) {
+            try {
+                this.selector.select();
+            } catch (IOException e) {
+                LOGGER.error("Command server failed", e);
+                break;
+            }
+
+            for (final var key : this.selector.selectedKeys()) {
+                if (!key.isValid()) {
+                    continue;
+                }
+
+                if (key.isAcceptable()) {
+                    this.accept();
+                    continue;
+                }
+                if (key.isReadable()) {
+                    this.read(key);
+                }
+                if (key.isValid() && key.isWritable()) {
+                    this.flush(key);
+                }
+            }
+            this.selector.selectedKeys().clear();
+        }
+
+        this.isRunning.set(false);
+        this.closeChannels();
+        LOGGER.info("Command server stopped");
+    }
+
+    /**
+     * This method accepts a client.
+     */
+    private void accept() {
+        try {
+            final SocketChannel channel = this.serverChannel.accept();
+            if (channel == null) {
+                return;
+            }
+
+            channel.configureBlocking(false);
+            channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+            final var controller = this.arbiter.register(channel.getRemoteAddress().toString(),
+                                        this.rank, this.clock.currentTimeMillis());
+            channel.register(this.selector, SelectionKey.OP_READ, new Client(controller));
+            this.clientCount++;
+            LOGGER.info("Command client {} connected", controller);
+        } catch (IOException e) {
+            LOGGER.error("Failed to accept a command client", e);
+        }
+    }
+
+    /**
+     * This method reads the data of a client and processes the complete-
+     * frames. The verdicts are flushed in between. If the client does not-
+     * read its verdicts, its data is not read any more until they are-
+     * written, so TCP slows the client down.
+     *
+     * @param key - the key of the client
+     */
+    private void read(final SelectionKey key) {
+        final var channel = (SocketChannel) key.channel();
+        final var client = (Client) key.attachment();
+        try {
+            int read;
+            do {
+                read = channel.read(client.input);
+                this.process(client);
+                this.flush(key);
+            } while (read > 0 && key.isValid() && hasRoom(client));
+
+            if (read < 0) {
+                this.disconnect(key);
+            }
+        } catch (IOException e) {
+            this.disconnect(key);
+        }
+    }
+
+    /**
+     * This method arbitrates the complete frames of the input of a client.
+     *
+     * @param client - the client
+     */
+    private void process(final Client client) {
+        final var input = client.input.flip();
+        final byte[] data = new byte[input.remaining()];
+        input.get(data);
+        input.clear();
+        for (final var command : client.reader.read(data)) {
+            this.commandsReceived.increment();
+            final var verdict = this.arbiter.submit(client.controller, command,
+                                                    this.clock.currentTimeMillis());
+            if (verdict != CommandArbiter.Verdict.QUEUED
+                    && verdict != CommandArbiter.Verdict.COALESCED) {
+                LOGGER.warn("Command {} of {}: {}", command, client.controller, verdict);
+            }
+            if (client.output.hasRemaining()) {
+                client.output.put((byte) verdict.ordinal());
+            }
+        }
+    }
+
+    /**
+     * This method writes the pending verdicts of a client.
+     *
+     * @param key - the key of the client
+     */
+    private void flush(final SelectionKey key) {
+        final var client = (Client) key.attachment();
+        try {
+            client.output.flip();
+            ((SocketChannel) key.channel()).write(client.output);
+            final boolean isPending = client.output.hasRemaining();
+            client.output.compact();
+            final int readOps = hasRoom(client) ? SelectionKey.OP_READ : 0;
+            key.interestOps(isPending ? readOps | SelectionKey.OP_WRITE : readOps);
+        } catch (IOException e) {
+            this.disconnect(key);
+        }
+    }
+
+    /**
+     * This function checks if the output of a client holds the verdicts of-
+     * another read.
+     *
+     * @param client - the client
+     * @return boolean - true if another read is allowed, false otherwise
+     */
+    private static boolean hasRoom(final Client client) {
+        return client.output.remaining() >= MAX_VERDICTS_PER_READ;
+    }
+
+    /**
+     * This method closes the channel of a client, it gives up the control.
+     *
+     * @param key - the key of the client
+     */
+    private void disconnect(final SelectionKey key) {
+        if (!key.isValid()) {
+            return;
+        }
+
+        final var client = (Client) key.attachment();
+        this.arbiter.unregister(client.controller);
+
+        key.cancel();
+        try {
+            key.channel().close();
+        } catch (IOException ignored) {
+        }
+        this.clientCount--;
+        LOGGER.info("Command client {} disconnected", client.controller);
+    }
+
+    /**
+     * This method closes all clients, the port and the selector.
+     */
+    private void closeChannels() {
+        if (this.selector != null) {
+            for (final var key : this.selector.keys()) {
+                try {
+                    key.channel().close();
+                } catch (IOException ignored) {
+                }
+            }
+            try {
+                this.selector.close();
+            } catch (IOException ignored) {
+            }
+        }
+        if (this.serverChannel != null) {
+            try {
+                this.serverChannel.close();
+            } catch (IOException ignored) {
+            }
+        }
+
+        this.clientCount = 0;
+        this.selector = null;
+        this.serverChannel = null;
+    }
+}
@@ -0,0 +1,460 @@
+package comm.server;
+
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Optional;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import comm.ConnectionHandler;
+import comm.TelemetrySnapshot;
+import comm.protocol.TelemetryData;
+import comm.protocol.TelemetryLayout;
+
+/**
+ * This class publishes the telemetry data of a handler into a memory-mapped-
+ * file, so other processes (JVM or native) read fresh frames without a-
+ * socket and without copying them through the kernel.
+ *
+ * The file starts with a header of HEADER_SIZE bytes (little endian):
+ * magic (4 bytes), version (4 bytes), TelemetryLayout.CHECKSUM (4 bytes),-
+ * slot size (4 bytes), number of slots (4 bytes), 4 bytes padding and the-
+ * sequence number of the last published frame (8 bytes, 0 for none).
+ * The history ring of slots follows, the frame with the sequence number s-
+ * is in slot s modulo the number of slots. A slot holds its version-
+ * (8 bytes), the sequence number (8 bytes), the source timestamp in ms-
+ * (8 bytes) and the telemetry data in the layout of the radio link.
+ *
+ * There is a single writer. It makes the version of a slot odd, writes the-
+ * frame, makes the version even again and then publishes the sequence-
+ * number (seqlock). A reader copies a slot and retries, if the version was-
+ * odd or changed meanwhile.
+ *
+ * A new writer never truncates the file, that readers may have mapped: it-
+ * initializes a new file and renames it over the old one, after the magic-
+ * of the old one was cleared. Readers of the old file keep a valid mapping-
+ * and see by isStale, that they have to open the file again.
+ */
+public final class SharedTelemetry {
+
+    /**
+     * This record represents a frame read from the file.
+     *
+     * @param sequence - the sequence number of the frame
+     * @param sourceTimestamp - the time of the frame in ms since the epoch
+     * @param data - the telemetry data
+     */
+    public record Frame(long sequence, long sourceTimestamp, TelemetryData data) { }
+
+    /**
+     * The magic of the file ("CTLM").
+     */
+    public static final int MAGIC = 0x4D4C5443;
+    /**
+     * The version of the file layout.
+     */
+    public static final int VERSION = 1;
+    /**
+     * The size of the header in bytes.
+     */
+    public static final int HEADER_SIZE = 32;
+    /**
+     * The size of a slot in bytes (a multiple of 8, so the versions are aligned).
+     */
+    public static final int SLOT_SIZE = 40;
+    /**
+     * The default number of slots of the history ring.
+     */
+    public static final int DEFAULT_HISTORY = 1024;
+    /**
+     * The index of the magic in the header (4 bytes).
+     */
+    private static final int MAGIC_IDX = 0;
+    /**
+     * The index of the version in the header (4 bytes).
+     */
+    private static final int VERSION_IDX = 4;
+    /**
+     * The index of the layout checksum in the header (4 bytes).
+     */
+    private static final int CHECKSUM_IDX = 8;
+    /**
+     * The index of the slot size in the header (4 bytes).
+     */
+    private static final int SLOT_SIZE_IDX = 12;
+    /**
+     * The index of the number of slots in the header (4 bytes).
+     */
+    private static final int SLOTS_IDX = 16;
+    /**
+     * The index of the last published sequence number in the header (8 bytes).
+     */
+    private static final int PUBLISHED_IDX = 24;
+    /**
+     * The index of the version in a slot (8 bytes).
+     */
+    private static final int SLOT_VERSION_IDX = 0;
+    /**
+     * The index of the sequence number in a slot (8 bytes).
+     */
+    private static final int SLOT_SEQUENCE_IDX = 8;
+    /**
+     * The index of the source timestamp in a slot (8 bytes).
+     */
+    private static final int SLOT_TIMESTAMP_IDX = 16;
+    /**
+     * The index of the telemetry data in a slot (TelemetryLayout.SIZE bytes).
+     */
+    private static final int SLOT_TELEMETRY_IDX = 24;
+    /**
+     * The maximum number of attempts to read a slot, that is written.
+     */
+    private static final int MAX_READ_ATTEMPTS = 64;
+
+    /**
+     * Accesses the versions and the published sequence number with memory-
+     * ordering.
+     */
+    private static final VarHandle LONG = MethodHandles.byteBufferViewVarHandle(
+                                            long[].class, ByteOrder.LITTLE_ENDIAN);
+    /**
+     * Accesses the magic with memory ordering.
+     */
+    private static final VarHandle INT = MethodHandles.byteBufferViewVarHandle(
+                                            int[].class, ByteOrder.LITTLE_ENDIAN);
+
+    /**
+     * The mapped file.
+     */
+    private final MappedByteBuffer buffer;
+    /**
+     * The channel of the file.
+     */
+    private final FileChannel channel;
+    /**
+     * The path of the file.
+     */
+    private final Path path;
+    /**
+     * The number of slots of the history ring.
+     */
+    private final int slots;
+    /**
+     * Flag if this instance is the writer.
+     */
+    private final boolean isWriter;
+    /**
+     * The telemetry data of a slot being read.
+     */
+    private final byte[] telemetry;
+    /**
+     * The sequence number of the last published frame, guarded by this.
+     */
+    private long published;
+
+    /**
+     * The logger.
+     */
+    private static final Logger LOGGER = LogManager.getLogger(SharedTelemetry.class);
+
+    /**
+     * Constructor.
+     *
+     * @param filePath - the path of the file
+     * @param fileChannel - the channel of the file
+     * @param mapped - the mapped file
+     * @param slotCount - the number of slots of the history ring
+     * @param writer - true if this instance is the writer
+     */
+    private SharedTelemetry(final Path filePath, final FileChannel fileChannel,
+            final MappedByteBuffer mapped, final int slotCount, final boolean writer) {
+        this.path = filePath;
+        this.channel = fileChannel;
+        this.buffer = mapped;
+        this.slots = slotCount;
+        this.isWriter = writer;
+        this.telemetry = new byte[TelemetryLayout.SIZE];
+        this.published = 0;
+        this.buffer.order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    /**
+     * This function creates (or replaces) the file and returns its writer.
+     *
+     * @param path - the path of the file
+     * @param history - the number of slots of the history ring
+     * @return Optional<SharedTelemetry> - the writer, empty if the file could-
+     *         not be created
+     */
+    public static Optional<SharedTelemetry> create(final Path path, final int history) {
+        if (history <= 0) {
+            throw new IllegalArgumentException("History must be positive");
+        }
+
+        final long size = HEADER_SIZE + (long) history * SLOT_SIZE;
+        final var directory = path.toAbsolutePath().getParent();
+        Path temporary = null;
+        FileChannel fileChannel = null;
+        try {
+            temporary = Files.createTempFile(directory, path.getFileName().toString(), ".tmp");
+            fileChannel = FileChannel.open(temporary, StandardOpenOption.READ,
+                                           StandardOpenOption.WRITE);
+            final var mapped = fileChannel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+            final var shared = new SharedTelemetry(path, fileChannel, mapped, history, true);
+
+            //Readers accept the file not before the magic is written
+            mapped.putInt(VERSION_IDX, VERSION);
+            mapped.putInt(CHECKSUM_IDX, TelemetryLayout.CHECKSUM);
+            mapped.putInt(SLOT_SIZE_IDX, SLOT_SIZE);
+            mapped.putInt(SLOTS_IDX, history);
+            LONG.setRelease(mapped, PUBLISHED_IDX, 0L);
+            INT.setRelease(mapped, MAGIC_IDX, MAGIC);
+
+            retire(path);
+            Files.move(temporary, path, StandardCopyOption.ATOMIC_MOVE,
+                       StandardCopyOption.REPLACE_EXISTING);
+            return Optional.of(shared);
+        } catch (IOException e) {
+            LOGGER.error("Failed to create the shared telemetry file {}", path, e);
+            try {
+                if (fileChannel != null) {
+                    fileChannel.close();
+                }
+                if (temporary != null) {
+                    Files.deleteIfExists(temporary);
+                }
+            } catch (IOException ignored) {
+            }
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * This function clears the magic of a file, that is replaced, so its-
+     * readers see, that it is stale. The file is not truncated, the-
+     * mappings of the readers stay valid.
+     *
+     * @param path - the path of the file
+     * @throws IOException if the file could not be written
+     */
+    private static void retire(final Path path) throws IOException {
+        if (!Files.exists(path)) {
+            return;
+        }
+
+        try (var fileChannel = FileChannel.open(path, StandardOpenOption.READ,
+                                                StandardOpenOption.WRITE)) {
+            if (fileChannel.size() < HEADER_SIZE) {
+                return;
+            }
+            final var mapped = fileChannel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_SIZE);
+            if ((int) INT.getAcquire(mapped, MAGIC_IDX) == MAGIC) {
+                INT.setRelease(mapped, MAGIC_IDX, 0);
+            }
+        }
+    }
+
+    /**
+     * This function opens the file of a writer for reading.
+     *
+     * @param path - the path of the file
+     * @return Optional<SharedTelemetry> - the reader, empty if the file does-
+     *         not exist, is not initialized or has another telemetry layout
+     */
+    public static Optional<SharedTelemetry> open(final Path path) {
+        try {
+            final var fileChannel = FileChannel.open(path, StandardOpenOption.READ);
+            if (fileChannel.size() < HEADER_SIZE) {
+                fileChannel.close();
+                return Optional.empty();
+            }
+
+            final var mapped = fileChannel.map(FileChannel.MapMode.READ_ONLY, 0,
+                                               fileChannel.size());
+            mapped.order(ByteOrder.LITTLE_ENDIAN);
+            final int history = mapped.getInt(SLOTS_IDX);
+            if ((int) INT.getAcquire(mapped, MAGIC_IDX) != MAGIC
+                    || mapped.getInt(VERSION_IDX) != VERSION
+                    || mapped.getInt(SLOT_SIZE_IDX) != SLOT_SIZE || history <= 0
+                    || fileChannel.size() < HEADER_SIZE + (long) history * SLOT_SIZE) {
+                LOGGER.error("{} is no shared telemetry file", path);
+                fileChannel.close();
+                return Optional.empty();
+            }
+            if (mapped.getInt(CHECKSUM_IDX) != TelemetryLayout.CHECKSUM) {
+                LOGGER.error("Telemetry layout mismatch: reader {}, {} {}",
+                    Integer.toHexString(TelemetryLayout.CHECKSUM), path,
+                    Integer.toHexString(mapped.getInt(CHECKSUM_IDX)));
+                fileChannel.close();
+                return Optional.empty();
+            }
+
+            return Optional.of(new SharedTelemetry(path, fileChannel, mapped, history, false));
+        } catch (IOException e) {
+            LOGGER.error("Failed to open the shared telemetry file {}", path, e);
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * This method publishes every new frame of a handler.
+     *
+     * @param handler - the handler, whose telemetry data is published
+     */
+    public void attach(final ConnectionHandler handler) {
+        handler.attach(() -> this.publish(handler.getTelemetrySnapshot()));
+    }
+
+    /**
+     * This method writes a snapshot into its slot and publishes it.
+     * Snapshots, that are not newer than the last one, are ignored.
+     *
+     * @param snapshot - the snapshot, null is ignored
+     */
+    public synchronized void publish(final TelemetrySnapshot snapshot) {
+        if (!this.isWriter) {
+            throw new IllegalStateException("Opened for reading");
+        }
+        if (snapshot == null || snapshot.sequence() <= this.published) {
+            return;
+        }
+
+        final long sequence = snapshot.sequence();
+        final int slot = this.getSlot(sequence);
+        final long version = (long) LONG.get(this.buffer, slot + SLOT_VERSION_IDX);
+
+        LONG.setOpaque(this.buffer, slot + SLOT_VERSION_IDX, version + 1);
+        VarHandle.storeStoreFence();
+        this.buffer.putLong(slot + SLOT_SEQUENCE_IDX, sequence);
+        this.buffer.putLong(slot + SLOT_TIMESTAMP_IDX, snapshot.sourceTimestamp());
+        snapshot.data().writeTo(this.buffer, slot + SLOT_TELEMETRY_IDX);
+        LONG.setRelease(this.buffer, slot + SLOT_VERSION_IDX, version + 2);
+
+        LONG.setRelease(this.buffer, PUBLISHED_IDX, sequence);
+        this.published = sequence;
+    }
+
+    /**
+     * This method returns the sequence number of the last published frame.
+     *
+     * @return long - the sequence number, 0 if nothing was published
+     */
+    public long getPublishedSequence() {
+        return (long) LONG.getAcquire(this.buffer, PUBLISHED_IDX);
+    }
+
+    /**
+     * This method reads the last published frame.
+     *
+     * @return Optional<Frame> - the frame, empty if nothing was published
+     */
+    public Optional<Frame> readLatest() {
+        for (int i = 0; i < MAX_READ_ATTEMPTS; i++) {
+            final long sequence = this.getPublishedSequence();
+            if (sequence == 0) {
+                return Optional.empty();
+            }
+
+            //The slot can be overwritten after the sequence number was read
+            final var frame = this.read(sequence);
+            if (frame.isPresent()) {
+                return frame;
+            }
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * This method reads a frame from the history ring.
+     *
+     * @param sequence - the sequence number of the frame
+     * @return Optional<Frame> - the frame, empty if it was not published yet-
+     *         or is already overwritten
+     */
+    public synchronized Optional<Frame> read(final long sequence) {
+        if (sequence <= 0) {
+            return Optional.empty();
+        }
+
+        final int slot = this.getSlot(sequence);
+        for (int i = 0; i < MAX_READ_ATTEMPTS; i++) {
+            final long version = (long) LONG.getAcquire(this.buffer, slot + SLOT_VERSION_IDX);
+            if ((version & 1) != 0) {
+                Thread.onSpinWait();
+                continue;
+            }
+
+            final long slotSequence = this.buffer.getLong(slot + SLOT_SEQUENCE_IDX);
+            final long timestamp = this.buffer.getLong(slot + SLOT_TIMESTAMP_IDX);
+            this.buffer.get(slot + SLOT_TELEMETRY_IDX, this.telemetry);
+            VarHandle.loadLoadFence();
+            if ((long) LONG.getOpaque(this.buffer, slot + SLOT_VERSION_IDX) != version) {
+                continue;
+            }
+
+            return slotSequence != sequence ? Optional.empty()
+                : TelemetryData.fromByteArray(this.telemetry)
+                    .map(data -> new Frame(slotSequence, timestamp, data));
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * This method checks if a writer replaced the file, the file has to be-
+     * opened again to read its frames.
+     *
+     * @return boolean - true if the file is stale, false otherwise
+     */
+    public boolean isStale() {
+        return (int) INT.getAcquire(this.buffer, MAGIC_IDX) != MAGIC;
+    }
+
+    /**
+     * This method returns the number of slots of the history ring.
+     *
+     * @return int - the number of slots
+     */
+    public int getHistory() {
+        return this.slots;
+    }
+
+    /**
+     * This method returns the path of the file.
+     *
+     * @return Path - the path
+     */
+    public Path getPath() {
+        return this.path;
+    }
+
+    /**
+     * This method closes the file. The mapping stays valid until it is-
+     * garbage collected, so concurrent readers do not crash.
+     */
+    public void close() {
+        try {
+            this.channel.close();
+        } catch (IOException e) {
+            LOGGER.warn("Failed to close the shared telemetry file {}", this.path, e);
+        }
+    }
+
+    /**
+     * This method returns the offset of the slot of a frame.
+     *
+     * @param sequence - the sequence number of the frame
+     * @return int - the offset in the file
+     */
+    private int getSlot(final long sequence) {
+        return HEADER_SIZE + (int) (sequence % this.slots) * SLOT_SIZE;
+    }
+}
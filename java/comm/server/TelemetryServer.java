@@ -0,0 +1,541 @@
+package comm.server;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import comm.ConnectionHandler;
+import comm.TelemetrySnapshot;
+import comm.protocol.TelemetryLayout;
+
+import utils.observer_pattern.Observer;
+
+/**
+ * This class serves the telemetry data of a handler to local tools (e.g. a
+ * plotter or a logger) via. TCP, so one radio link feeds many consumers.
+ * A single selector thread encodes every frame once into a shared direct
+ * buffer and writes views of it to all clients without blocking.
+ *
+ * Every frame has FRAME_SIZE bytes (little endian): the sequence number
+ * (8 bytes), the source timestamp in ms (8 bytes) and the telemetry data
+ * in the layout of the radio link (TelemetryLayout).
+ *
+ * A client, that is still busy with a frame when newer ones arrive, only
+ * gets the newest frame afterwards (conflation, the gap of the sequence
+ * numbers shows the skipped frames). A client, that did not take a frame
+ * within SLOTS frames, is dropped.
+ */
+public final class TelemetryServer implements Observer {
+    /**
+     * This class holds the state of a connected client.
+     */
+    private static final class Client {
+        /**
+         * The rest of the frame being written, null if the client is idle.
+         */
+        private ByteBuffer pending;
+        /**
+         * The number of the frame being written.
+         */
+        private long pendingFrame;
+        /**
+         * The number of the last frame written completely (0 for none).
+         */
+        private long sentFrame;
+    }
+
+    /**
+     * The default TCP port of the server.
+     */
+    public static final int DEFAULT_PORT = 5770;
+    /**
+     * The size of a frame in bytes.
+     */
+    public static final int FRAME_SIZE = Long.BYTES + Long.BYTES + TelemetryLayout.SIZE;
+    /**
+     * The index of the sequence number (8 bytes).
+     */
+    public static final int SEQUENCE_IDX = 0;
+    /**
+     * The index of the source timestamp (8 bytes).
+     */
+    public static final int TIMESTAMP_IDX = Long.BYTES;
+    /**
+     * The index of the telemetry data (TelemetryLayout.SIZE bytes).
+     */
+    public static final int TELEMETRY_IDX = Long.BYTES + Long.BYTES;
+    /**
+     * The number of encoded frames kept for slow clients.
+     */
+    private static final int SLOTS = 8;
+    /**
+     * The size of the buffer for the (ignored) data sent by clients.
+     */
+    private static final int READ_BUFFER_SIZE = 256;
+    /**
+     * The maximum time to wait for the selector thread on close in ms.
+     */
+    private static final long SHUTDOWN_TIMEOUT = 1000;
+
+    /**
+     * The handler, whose telemetry data is served.
+     */
+    private final ConnectionHandler handler;
+    /**
+     * The requested port, 0 for any free port.
+     */
+    private final int port;
+    /**
+     * The encoded frames, slot i holds the frame i modulo SLOTS.
+     */
+    private final ByteBuffer frames;
+    /**
+     * The buffer for the data sent by clients.
+     */
+    private final ByteBuffer readBuffer;
+    /**
+     * Flag if the server is running.
+     */
+    private final AtomicBoolean isRunning;
+    /**
+     * The number of frames encoded.
+     */
+    private final LongAdder framesEncoded;
+    /**
+     * The number of frames skipped for slow clients.
+     */
+    private final LongAdder framesConflated;
+    /**
+     * The number of clients dropped, because they were too slow.
+     */
+    private final LongAdder clientsDropped;
+    /**
+     * The number of connected clients.
+     */
+    private volatile int clientCount;
+    /**
+     * The number of the last encoded frame, only used by the selector thread.
+     */
+    private long encodedFrame;
+    /**
+     * The sequence number of the last encoded snapshot.
+     */
+    private long encodedSequence;
+    /**
+     * Flag if the server is attached to the handler.
+     */
+    private boolean isAttached;
+    /**
+     * The selector of the server, null if not started.
+     */
+    private volatile Selector selector;
+    /**
+     * The listening channel, null if not started.
+     */
+    private volatile ServerSocketChannel serverChannel;
+    /**
+     * The selector thread, null if not started.
+     */
+    private Thread serverThread;
+
+    /**
+     * The logger.
+     */
+    private static final Logger LOGGER = LogManager.getLogger(TelemetryServer.class);
+
+    /**
+     * Constructor.
+     *
+     * @param connectionHandler - the handler, whose telemetry data is served
+     * @param serverPort - the TCP port on the loopback interface, 0 for any-
+     *        free port
+     */
+    public TelemetryServer(final ConnectionHandler connectionHandler, final int serverPort) {
+        this.handler = connectionHandler;
+        this.port = serverPort;
+        this.frames = ByteBuffer.allocateDirect(SLOTS * FRAME_SIZE)
+                                .order(ByteOrder.LITTLE_ENDIAN);
+        this.readBuffer = ByteBuffer.allocate(READ_BUFFER_SIZE);
+        this.isRunning = new AtomicBoolean(false);
+        this.framesEncoded = new LongAdder();
+        this.framesConflated = new LongAdder();
+        this.clientsDropped = new LongAdder();
+        this.clientCount = 0;
+        this.encodedFrame = 0;
+        this.encodedSequence = 0;
+        this.isAttached = false;
+    }
+
+    /**
+     * This method opens the port and starts the selector thread.
+     *
+     * @return boolean - true if the server is running, false otherwise
+     */
+    public synchronized boolean start() {
+        if (this.isRunning.get()) {
+            return true;
+        }
+
+        try {
+            this.selector = Selector.open();
+            this.serverChannel = ServerSocketChannel.open();
+            this.serverChannel.bind(new InetSocketAddress(InetAddress.getLoopbackAddress(),
+                                                          this.port));
+            this.serverChannel.configureBlocking(false);
+            this.serverChannel.register(this.selector, SelectionKey.OP_ACCEPT);
+        } catch (IOException e) {
+            LOGGER.error("Failed to open the telemetry server on port {}", this.port, e);
+            this.closeChannels();
+            return false;
+        }
+
+        this.isRunning.set(true);
+        this.serverThread = new Thread(this::serve, "telemetry-server");
+        this.serverThread.setDaemon(true);
+        this.serverThread.start();
+
+        if (!this.isAttached) {
+            this.handler.attach(this);
+            this.isAttached = true;
+        }
+
+        LOGGER.info("Telemetry server listening on port {}", this.getPort());
+        return true;
+    }
+
+    /**
+     * This method disconnects all clients and closes the port.
+     * The server can be started again.
+     */
+    public synchronized void close() {
+        if (!this.isRunning.getAndSet(false)) {
+            return;
+        }
+
+        this.selector.wakeup();
+        try {
+            this.serverThread.join(SHUTDOWN_TIMEOUT);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (this.serverThread.isAlive()) {
+            LOGGER.warn("{} did not stop within {} ms", this.serverThread.getName(),
+                SHUTDOWN_TIMEOUT);
+        }
+        this.serverThread = null;
+    }
+
+    /**
+     * This method returns the port, the server listens on.
+     *
+     * @return int - the port, the requested port if not started
+     */
+    public int getPort() {
+        final var channel = this.serverChannel;
+        try {
+            if (channel != null && channel.getLocalAddress() instanceof InetSocketAddress address) {
+                return address.getPort();
+            }
+        } catch (IOException ignored) {
+        }
+        return this.port;
+    }
+
+    /**
+     * This method returns the number of connected clients.
+     *
+     * @return int - the number of clients
+     */
+    public int getClientCount() {
+        return this.clientCount;
+    }
+
+    /**
+     * This method returns the number of encoded frames.
+     *
+     * @return long - the number of frames
+     */
+    public long getFramesEncoded() {
+        return this.framesEncoded.sum();
+    }
+
+    /**
+     * This method returns the number of frames skipped for slow clients.
+     *
+     * @return long - the number of frames, summed over all clients
+     */
+    public long getFramesConflated() {
+        return this.framesConflated.sum();
+    }
+
+    /**
+     * This method returns the number of clients dropped for being too slow.
+     *
+     * @return long - the number of clients
+     */
+    public long getClientsDropped() {
+        return this.clientsDropped.sum();
+    }
+
+    /**
+     * This method is called by the handler for every received frame and-
+     * every change of the link state. It only wakes up the selector thread,-
+     * so the receive worker is never blocked by a client.
+     */
+    @Override
+    public void update() {
+        final var sel = this.selector;
+        if (this.isRunning.get() && sel != null) {
+            sel.wakeup();
+        }
+    }
+
+    /**
+     * The selector thread, it accepts clients and writes the frames.
+     */
+    private void serve() {
+        while (this.isRunning.get()) {
+            try {
+                this.selector.select();
+            } catch (IOException e) {
+                LOGGER.error("Telemetry server failed", e);
+                break;
+            }
+
+            for (final var key : this.selector.selectedKeys()) {
+                if (!key.isValid()) {
+                    continue;
+                }
+
+                if (key.isAcceptable()) {
+                    this.accept();
+                    continue;
+                }
+                if (key.isReadable()) {
+                    this.read(key);
+                }
+                if (key.isValid() && key.isWritable()) {
+                    this.write(key);
+                }
+            }
+            this.selector.selectedKeys().clear();
+
+            this.broadcast();
+        }
+
+        this.isRunning.set(false);
+        this.closeChannels();
+        LOGGER.info("Telemetry server stopped");
+    }
+
+    /**
+     * This method accepts a client, it gets the last frame right away.
+     */
+    private void accept() {
+        try {
+            final SocketChannel channel = this.serverChannel.accept();
+            if (channel == null) {
+                return;
+            }
+
+            channel.configureBlocking(false);
+            channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+            channel.register(this.selector, SelectionKey.OP_READ, new Client());
+            this.clientCount++;
+            LOGGER.info("Telemetry client connected: {}", channel.getRemoteAddress());
+        } catch (IOException e) {
+            LOGGER.error("Failed to accept a telemetry client", e);
+        }
+    }
+
+    /**
+     * This method discards the data sent by a client and detects its-
+     * disconnection.
+     *
+     * @param key - the key of the client
+     */
+    private void read(final SelectionKey key) {
+        try {
+            int read;
+            do {
+                this.readBuffer.clear();
+                read = ((SocketChannel) key.channel()).read(this.readBuffer);
+            } while (read > 0);
+
+            if (read < 0) {
+                this.disconnect(key);
+            }
+        } catch (IOException e) {
+            this.disconnect(key);
+        }
+    }
+
+    /**
+     * This method continues the frame of a client, whose socket has space again.
+     *
+     * @param key - the key of the client
+     */
+    private void write(final SelectionKey key) {
+        final var client = (Client) key.attachment();
+        if (client.pending == null || this.flush(key, client)) {
+            key.interestOps(SelectionKey.OP_READ);
+        }
+    }
+
+    /**
+     * This method encodes the newest snapshot and passes it to all idle-
+     * clients. Busy clients get it, when they are idle again.
+     */
+    private void broadcast() {
+        final TelemetrySnapshot snapshot = this.handler.getTelemetrySnapshot();
+        if (snapshot != null && snapshot.sequence() > this.encodedSequence) {
+            this.dropSlowClients();
+            this.encode(snapshot);
+        }
+
+        if (this.encodedFrame == 0) {
+            return;
+        }
+
+        for (final var key : this.selector.keys()) {
+            if (key.isValid() && key.attachment() instanceof Client client
+                    && client.pending == null && client.sentFrame < this.encodedFrame) {
+                this.send(key, client);
+            }
+        }
+    }
+
+    /**
+     * This method drops the clients, whose pending frame is overwritten by-
+     * the next frame.
+     */
+    private void dropSlowClients() {
+        for (final var key : this.selector.keys()) {
+            if (key.isValid() && key.attachment() instanceof Client client
+                    && client.pending != null
+                    && this.encodedFrame + 1 - client.pendingFrame >= SLOTS) {
+                LOGGER.warn("Telemetry client too slow -> Dropped");
+                this.clientsDropped.increment();
+                this.disconnect(key);
+            }
+        }
+    }
+
+    /**
+     * This method encodes a snapshot into the next slot of the shared buffer.
+     *
+     * @param snapshot - the snapshot
+     */
+    private void encode(final TelemetrySnapshot snapshot) {
+        this.encodedFrame++;
+        this.encodedSequence = snapshot.sequence();
+
+        final int base = (int) (this.encodedFrame % SLOTS) * FRAME_SIZE;
+        this.frames.putLong(base + SEQUENCE_IDX, snapshot.sequence());
+        this.frames.putLong(base + TIMESTAMP_IDX, snapshot.sourceTimestamp());
+        snapshot.data().writeTo(this.frames, base + TELEMETRY_IDX);
+        this.framesEncoded.increment();
+    }
+
+    /**
+     * This method starts writing the newest frame to an idle client.
+     *
+     * @param key - the key of the client
+     * @param client - the client
+     */
+    private void send(final SelectionKey key, final Client client) {
+        if (client.sentFrame > 0) {
+            this.framesConflated.add(this.encodedFrame - 1 - client.sentFrame);
+        }
+
+        final int base = (int) (this.encodedFrame % SLOTS) * FRAME_SIZE;
+        client.pending = this.frames.duplicate().limit(base + FRAME_SIZE).position(base);
+        client.pendingFrame = this.encodedFrame;
+        if (!this.flush(key, client) && key.isValid()) {
+            key.interestOps(SelectionKey.OP_READ | SelectionKey.OP_WRITE);
+        }
+    }
+
+    /**
+     * This method writes as much of the pending frame as the socket takes.
+     *
+     * @param key - the key of the client
+     * @param client - the client
+     * @return boolean - true if the frame is written completely, false otherwise
+     */
+    private boolean flush(final SelectionKey key, final Client client) {
+        try {
+            ((SocketChannel) key.channel()).write(client.pending);
+        } catch (IOException e) {
+            this.disconnect(key);
+            return false;
+        }
+
+        if (client.pending.hasRemaining()) {
+            return false;
+        }
+
+        client.sentFrame = client.pendingFrame;
+        client.pending = null;
+        return true;
+    }
+
+    /**
+     * This method closes the channel of a client.
+     *
+     * @param key - the key of the client
+     */
+    private void disconnect(final SelectionKey key) {
+        if (!key.isValid()) {
+            return;
+        }
+
+        key.cancel();
+        try {
+            key.channel().close();
+        } catch (IOException ignored) {
+        }
+        this.clientCount--;
+        LOGGER.info("Telemetry client disconnected");
+    }
+
+    /**
+     * This method closes all clients, the port and the selector.
+     */
+    private void closeChannels() {
+        if (this.selector != null) {
+            for (final var key : this.selector.keys()) {
+                try {
+                    key.channel().close();
+                } catch (IOException ignored) {
+                }
+            }
+            try {
+                this.selector.close();
+            } catch (IOException ignored) {
+            }
+        }
+        if (this.serverChannel != null) {
+            try {
+                this.serverChannel.close();
+            } catch (IOException ignored) {
+            }
+        }
+
+        this.clientCount = 0;
+        this.selector = null;
+        this.serverChannel = null;
+    }
+}
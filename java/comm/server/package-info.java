@@ -0,0 +1,5 @@
+/**
+ * The server package contains the local services (sockets and shared memory),
+ * that share the single radio link with other tools on the laptop.
+ */
+package comm.server;
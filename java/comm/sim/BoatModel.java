@@ -0,0 +1,225 @@
+package comm.sim;
+
+/**
+ * This class represents the simple physical model of the sail agent.
+ * The heading turns towards the commanded course with a limited turn rate,
+ * the speed follows the polar diagram with a time lag, the position is
+ * integrated in NED coordinates and the battery drains over time.
+ * This class is not thread safe.
+ */
+public final class BoatModel {
+    /**
+     * The polar diagram of the boat.
+     */
+    private final PolarDiagram polarDiagram;
+    /**
+     * The position north in m.
+     */
+    private double posX;
+    /**
+     * The position east in m.
+     */
+    private double posY;
+    /**
+     * The heading in degrees.
+     */
+    private double heading;
+    /**
+     * The commanded course in degrees.
+     */
+    private double course;
+    /**
+     * The speed in cm/s.
+     */
+    private double speed;
+    /**
+     * The battery status in percent.
+     */
+    private double battery;
+    /**
+     * Flag if the route is running (START_ROUTE received).
+     */
+    private boolean isRouteRunning;
+
+    /**
+     * The maximal turn rate in degrees per second.
+     */
+    private static final double TURN_RATE = 15.0;
+    /**
+     * The time constant of the speed response in seconds.
+     */
+    private static final double SPEED_TIME_CONSTANT = 4.0;
+    /**
+     * The base battery drain in percent per second.
+     */
+    private static final double BASE_DRAIN = 0.002;
+    /**
+     * The additional battery drain while turning (rudder and sail servos)-
+     * in percent per second.
+     */
+    private static final double TURN_DRAIN = 0.01;
+    /**
+     * The full battery in percent.
+     */
+    private static final double FULL_BATTERY = 100.0;
+    /**
+     * Centimeters per meter.
+     */
+    private static final double CM_PER_M = 100.0;
+    /**
+     * Degrees in a Circle.
+     */
+    private static final double DEGREES = 360.0;
+    /**
+     * Half Circle in degrees.
+     */
+    private static final double HALF_CIRCLE = 180.0;
+
+    /**
+     * Constructor.
+     *
+     * @param polar - the polar diagram of the boat
+     * @param initialHeading - the initial heading in degrees
+     */
+    public BoatModel(final PolarDiagram polar, final double initialHeading) {
+        this.polarDiagram = polar;
+        this.heading = initialHeading;
+        this.course = initialHeading;
+        this.battery = FULL_BATTERY;
+    }
+
+    /**
+     * This method advances the model.
+     *
+     * @param dt - the elapsed time in seconds
+     * @param windDirection - the direction the wind comes from in degrees
+     * @param windSpeed - the wind speed in cm/s
+     */
+    public void step(final double dt, final double windDirection, final double windSpeed) {
+        if (dt <= 0) {
+            return;
+        }
+
+        //Turn towards the course on the shortest way
+        final double error = angleDifference(this.course, this.heading);
+        final double maxTurn = TURN_RATE * dt;
+        final double turn = Math.max(-maxTurn, Math.min(maxTurn, error));
+        this.heading = wrap(this.heading + turn);
+
+        //Without a running route, the sails are released
+        final double targetSpeed = this.isRouteRunning
+            ? this.polarDiagram.getBoatSpeed(windDirection - this.heading, windSpeed)
+            : 0;
+        this.speed += (targetSpeed - this.speed) * (1 - Math.exp(-dt / SPEED_TIME_CONSTANT));
+
+        final double distance = this.speed / CM_PER_M * dt;
+        this.posX += distance * Math.cos(Math.toRadians(this.heading));
+        this.posY += distance * Math.sin(Math.toRadians(this.heading));
+
+        final double drain = BASE_DRAIN + (turn != 0 ? TURN_DRAIN : 0);
+        this.battery = Math.max(0, this.battery - drain * dt);
+    }
+
+    /**
+     * This method sets the commanded course.
+     *
+     * @param newCourse - the course in degrees
+     */
+    public void setCourse(final double newCourse) {
+        this.course = wrap(newCourse);
+    }
+
+    /**
+     * This method starts or stops the route.
+     *
+     * @param running - true to start the route, false to stop it
+     */
+    public void setRouteRunning(final boolean running) {
+        this.isRouteRunning = running;
+    }
+
+    /**
+     * This method checks if the route is running.
+     *
+     * @return boolean - true if the route is running
+     */
+    public boolean isRouteRunning() {
+        return this.isRouteRunning;
+    }
+
+    /**
+     * This method returns the position north.
+     *
+     * @return double - the position north in m
+     */
+    public double getPosX() {
+        return this.posX;
+    }
+
+    /**
+     * This method returns the position east.
+     *
+     * @return double - the position east in m
+     */
+    public double getPosY() {
+        return this.posY;
+    }
+
+    /**
+     * This method returns the heading.
+     *
+     * @return double - the heading in degrees
+     */
+    public double getHeading() {
+        return this.heading;
+    }
+
+    /**
+     * This method returns the commanded course.
+     *
+     * @return double - the course in degrees
+     */
+    public double getCourse() {
+        return this.course;
+    }
+
+    /**
+     * This method returns the speed.
+     *
+     * @return double - the speed in cm/s
+     */
+    public double getSpeed() {
+        return this.speed;
+    }
+
+    /**
+     * This method returns the battery status.
+     *
+     * @return double - the battery status in percent
+     */
+    public double getBattery() {
+        return this.battery;
+    }
+
+    /**
+     * This function wraps an angle to 0 up to 360 degrees.
+     *
+     * @param angle - the angle in degrees
+     * @return double - the wrapped angle
+     */
+    public static double wrap(final double angle) {
+        return ((angle % DEGREES) + DEGREES) % DEGREES;
+    }
+
+    /**
+     * This function calculates the signed shortest difference of two angles.
+     *
+     * @param target - the target angle in degrees
+     * @param current - the current angle in degrees
+     * @return double - the difference in degrees (-180 up to 180)
+     */
+    public static double angleDifference(final double target, final double current) {
+        final double difference = wrap(target - current);
+        return difference > HALF_CIRCLE ? difference - DEGREES : difference;
+    }
+}
@@ -0,0 +1,127 @@
+package comm.sim;
+
+import static comm.Constants.BYTE_MAX;
+import static comm.protocol.CliftonCommand.CHUNK_COUNT_IDX;
+import static comm.protocol.CliftonCommand.CHUNK_HEADER_SIZE;
+import static comm.protocol.CliftonCommand.CHUNK_MISSION_IDX;
+import static comm.protocol.CliftonCommand.CHUNK_SEQUENCE_IDX;
+import static comm.protocol.CliftonCommand.CHUNK_WAYPOINTS;
+import static comm.protocol.CliftonCommand.MAX_MISSION_CHUNKS;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import comm.protocol.CliftonCommand;
+import comm.protocol.MissionAck;
+import comm.protocol.Waypoint;
+
+/**
+ * This class reassembles a mission upload on the clifton side, like-
+ * px4/Communication.cpp does. The received chunks are tracked in a bitmap,-
+ * every chunk is answered with the cumulative and selective acknowledgement.
+ */
+public final class MissionReceiver {
+    /**
+     * The id of the current mission, -1 if none was received.
+     */
+    private int missionId;
+    /**
+     * The number of chunks of the current mission.
+     */
+    private int chunks;
+    /**
+     * Bit i is set if chunk i was received.
+     */
+    private long received;
+    /**
+     * The waypoints of every chunk.
+     */
+    private final Waypoint[][] waypoints;
+
+    /**
+     * Constructor.
+     */
+    public MissionReceiver() {
+        this.missionId = -1;
+        this.chunks = 0;
+        this.received = 0;
+        this.waypoints = new Waypoint[MAX_MISSION_CHUNKS][];
+    }
+
+    /**
+     * This method stores a received chunk.
+     * A chunk of another mission discards the current one.
+     *
+     * @param command - the MISSION_CHUNK command
+     * @return Optional<MissionAck> - the acknowledgement to send, empty if-
+     *         the chunk is invalid
+     */
+    public synchronized Optional<MissionAck> receive(final CliftonCommand command) {
+        final byte[] data = command.data();
+        final int length = data.length - CHUNK_HEADER_SIZE;
+        if (command.id() != CliftonCommand.ID.MISSION_CHUNK || length < 0
+                || length % Waypoint.SIZE != 0 || length / Waypoint.SIZE > CHUNK_WAYPOINTS) {
+            return Optional.empty();
+        }
+
+        final int sequence = data[CHUNK_SEQUENCE_IDX] & BYTE_MAX;
+        final int id = data[CHUNK_MISSION_IDX] & BYTE_MAX;
+        final int count = data[CHUNK_COUNT_IDX] & BYTE_MAX;
+        if (count == 0 || count > MAX_MISSION_CHUNKS || sequence >= count) {
+            return Optional.empty();
+        }
+
+        if (id != this.missionId || count != this.chunks) {
+            this.missionId = id;
+            this.chunks = count;
+            this.received = 0;
+        }
+
+        final var chunk = new Waypoint[length / Waypoint.SIZE];
+        for (int i = 0; i < chunk.length; i++) {
+            chunk[i] = Waypoint.read(data, CHUNK_HEADER_SIZE + i * Waypoint.SIZE);
+        }
+        this.waypoints[sequence] = chunk;
+        this.received |= 1L << sequence;
+
+        return Optional.of(this.getAck());
+    }
+
+    /**
+     * This method creates the acknowledgement of the current mission.
+     *
+     * @return MissionAck - the acknowledgement
+     */
+    public synchronized MissionAck getAck() {
+        final int cumulative = Math.min(Long.numberOfTrailingZeros(~this.received), this.chunks);
+        final int selective = cumulative + 1 >= Long.SIZE ? 0
+                              : (int) (this.received >>> (cumulative + 1));
+        return new MissionAck(Math.max(this.missionId, 0), this.chunks, cumulative, selective);
+    }
+
+    /**
+     * This method checks if all chunks of the current mission were received.
+     *
+     * @return boolean - true if the mission is complete, false otherwise
+     */
+    public synchronized boolean isComplete() {
+        return this.chunks > 0
+                && Long.numberOfTrailingZeros(~this.received) >= this.chunks;
+    }
+
+    /**
+     * This method returns the waypoints of the complete mission.
+     *
+     * @return List<Waypoint> - the waypoints, empty if the mission is not complete
+     */
+    public synchronized List<Waypoint> getWaypoints() {
+        final List<Waypoint> result = new ArrayList<>();
+        if (this.isComplete()) {
+            for (int i = 0; i < this.chunks; i++) {
+                result.addAll(List.of(this.waypoints[i]));
+            }
+        }
+        return result;
+    }
+}
@@ -0,0 +1,267 @@
+package comm.sim;
+
+import static comm.Constants.BYTE_MAX;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+import comm.control.WaypointFollower;
+import comm.protocol.CliftonCommand;
+import comm.protocol.Waypoint;
+
+/**
+ * This class runs many independent missions of a route faster than real-
+ * time on all cores, to evaluate routing strategies by the distributions of-
+ * the completion time and the battery use.
+ *
+ * Every mission steps its own SailingSimulator (wind model and boat model)-
+ * in telemetry intervals of STEP seconds. A WaypointFollower steers it via.-
+ * SET_COURSE commands from the telemetry, like the laptop would do.
+ * The missions are split into fork/join tasks, every task splits its own-
+ * SplittableRandom for its subtasks and missions, so a run only depends on-
+ * the seed and not on the number of threads.
+ */
+public final class MonteCarloSimulation {
+    /**
+     * This record holds the result of a mission.
+     *
+     * @param completed - true if all waypoints were reached before the timeout
+     * @param duration - the duration in s (the timeout if not completed)
+     * @param batteryUsed - the used battery in percent
+     * @param courseCommands - the number of SET_COURSE commands
+     */
+    public record MissionResult(boolean completed, double duration, int batteryUsed,
+                                int courseCommands) { }
+
+    /**
+     * This record holds the distributions of a run.
+     *
+     * @param missions - the number of missions
+     * @param completed - the number of completed missions
+     * @param completionTimes - the durations of the completed missions in s,-
+     *        ascending
+     * @param batteryUse - the used battery of the completed missions in-
+     *        percent, ascending
+     * @param courseCommands - the number of SET_COURSE commands of all missions
+     */
+    public record Report(int missions, int completed, double[] completionTimes,
+                         int[] batteryUse, long courseCommands) {
+
+        /**
+         * This method returns the fraction of the completed missions.
+         *
+         * @return double - the fraction (0 up to 1)
+         */
+        public double getCompletionRate() {
+            return this.missions == 0 ? 0 : (double) this.completed / this.missions;
+        }
+
+        /**
+         * This method returns a percentile of the completion time.
+         *
+         * @param percentile - the percentile (0 up to 100)
+         * @return double - the completion time in s, NaN if no mission completed
+         */
+        public double getCompletionTimePercentile(final double percentile) {
+            return this.completed == 0 ? Double.NaN
+                   : this.completionTimes[getRank(percentile, this.completed)];
+        }
+
+        /**
+         * This method returns a percentile of the battery use.
+         *
+         * @param percentile - the percentile (0 up to 100)
+         * @return int - the battery use in percent, -1 if no mission completed
+         */
+        public int getBatteryUsePercentile(final double percentile) {
+            return this.completed == 0 ? -1 : this.batteryUse[getRank(percentile, this.completed)];
+        }
+
+        /**
+         * This function returns the index of a percentile in a sorted array.
+         *
+         * @param percentile - the percentile (0 up to 100)
+         * @param count - the number of values
+         * @return int - the index
+         */
+        private static int getRank(final double percentile, final int count) {
+            final int rank = (int) Math.ceil(percentile / PERCENT * count) - 1;
+            return Math.max(0, Math.min(count - 1, rank));
+        }
+    }
+
+    /**
+     * This class simulates a range of missions, it splits the range until-
+     * MISSIONS_PER_TASK missions are left.
+     */
+    private final class SimulateTask extends RecursiveAction {
+        /**
+         * The serial version.
+         */
+        private static final long serialVersionUID = 1L;
+        /**
+         * The results of all missions.
+         */
+        private final MissionResult[] results;
+        /**
+         * The index of the first mission of the range.
+         */
+        private final int from;
+        /**
+         * The index after the last mission of the range.
+         */
+        private final int to;
+        /**
+         * The random generator of the range.
+         */
+        private final SplittableRandom random;
+
+        /**
+         * Constructor.
+         *
+         * @param allResults - the results of all missions
+         * @param fromIdx - the index of the first mission of the range
+         * @param toIdx - the index after the last mission of the range
+         * @param rand - the random generator of the range
+         */
+        SimulateTask(final MissionResult[] allResults, final int fromIdx, final int toIdx,
+                final SplittableRandom rand) {
+            this.results = allResults;
+            this.from = fromIdx;
+            this.to = toIdx;
+            this.random = rand;
+        }
+
+        @Override
+        protected void compute() {
+            if (this.to - this.from <= MISSIONS_PER_TASK) {
+                for (int i = this.from; i < this.to; i++) {
+                    this.results[i] = simulate(this.random.split());
+                }
+                return;
+            }
+
+            final int mid = (this.from + this.to) >>> 1;
+            invokeAll(new SimulateTask(this.results, this.from, mid, this.random.split()),
+                      new SimulateTask(this.results, mid, this.to, this.random));
+        }
+    }
+
+    /**
+     * The telemetry interval of a mission in s.
+     */
+    public static final double STEP = 1.0;
+    /**
+     * The default timeout of a mission in s (4 h).
+     */
+    public static final double DEFAULT_TIMEOUT = 4 * 3600.0;
+    /**
+     * The number of missions, that a task simulates without splitting.
+     */
+    private static final int MISSIONS_PER_TASK = 8;
+    /**
+     * Percent of the whole.
+     */
+    private static final double PERCENT = 100.0;
+
+    /**
+     * The waypoints of the route.
+     */
+    private final List<Waypoint> route;
+    /**
+     * The timeout of a mission in s.
+     */
+    private final double timeout;
+    /**
+     * The pool of the tasks.
+     */
+    private final ForkJoinPool pool;
+
+    /**
+     * Constructor, uses the common pool (all cores).
+     *
+     * @param waypoints - the waypoints of the route
+     * @param missionTimeout - the timeout of a mission in s
+     */
+    public MonteCarloSimulation(final List<Waypoint> waypoints, final double missionTimeout) {
+        this(waypoints, missionTimeout, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param waypoints - the waypoints of the route
+     * @param missionTimeout - the timeout of a mission in s
+     * @param forkJoinPool - the pool of the tasks
+     */
+    public MonteCarloSimulation(final List<Waypoint> waypoints, final double missionTimeout,
+            final ForkJoinPool forkJoinPool) {
+        if (missionTimeout <= 0) {
+            throw new IllegalArgumentException("Invalid mission timeout: " + missionTimeout);
+        }
+
+        this.route = List.copyOf(waypoints);
+        this.timeout = missionTimeout;
+        this.pool = forkJoinPool;
+    }
+
+    /**
+     * This method runs missions.
+     *
+     * @param missions - the number of missions
+     * @param seed - the seed of the run
+     * @return Report - the distributions of the completed missions
+     */
+    public Report run(final int missions, final long seed) {
+        final var results = new MissionResult[missions];
+        if (missions > 0) {
+            this.pool.invoke(new SimulateTask(results, 0, missions, new SplittableRandom(seed)));
+        }
+
+        final double[] times = Arrays.stream(results).filter(MissionResult::completed)
+                                     .mapToDouble(MissionResult::duration).sorted().toArray();
+        final int[] battery = Arrays.stream(results).filter(MissionResult::completed)
+                                    .mapToInt(MissionResult::batteryUsed).sorted().toArray();
+        final long commands = Arrays.stream(results)
+                                    .mapToLong(MissionResult::courseCommands).sum();
+        return new Report(missions, times.length, times, battery, commands);
+    }
+
+    /**
+     * This method simulates a mission.
+     *
+     * @param random - the random generator of the mission
+     * @return MissionResult - the result of the mission
+     */
+    public MissionResult simulate(final SplittableRandom random) {
+        final var simulator = new SailingSimulator(random);
+        final var follower = new WaypointFollower(this.route);
+        simulator.execute(CliftonCommand.startRoute());
+
+        var telemetryData = simulator.getTelemetryData();
+        final int initialBattery = telemetryData.batteryStatus() & BYTE_MAX;
+        double time = 0;
+        int commands = 0;
+        while (time < this.timeout) {
+            final var command = follower.update(telemetryData);
+            if (follower.isFinished()) {
+                break;
+            }
+            if (command.isPresent()) {
+                simulator.execute(command.get());
+                commands++;
+            }
+
+            telemetryData = simulator.step(STEP);
+            time += STEP;
+        }
+        simulator.execute(CliftonCommand.stopRoute());
+
+        return new MissionResult(follower.isFinished(), time,
+                                 initialBattery - (telemetryData.batteryStatus() & BYTE_MAX),
+                                 commands);
+    }
+}
@@ -0,0 +1,101 @@
+package comm.sim;
+
+/**
+ * This class represents the polar diagram of the sail agent.
+ * It describes the reachable boat speed as fraction of the wind speed,
+ * depending on the true wind angle (0 degrees = head to wind).
+ * Values between the table entries are interpolated linearly.
+ */
+public final class PolarDiagram {
+    /**
+     * The true wind angles of the table in degrees (ascending, 0 to 180).
+     */
+    private final double[] angles;
+    /**
+     * The boat speed as fraction of the wind speed for every angle.
+     */
+    private final double[] speedRatios;
+
+    /**
+     * Degrees in a Circle.
+     */
+    private static final double DEGREES = 360.0;
+
+    /**
+     * Half Circle in degrees.
+     */
+    private static final double HALF_CIRCLE = 180.0;
+
+    /**
+     * Constructor.
+     *
+     * @param twAngles - the true wind angles in degrees (ascending, 0 to 180)
+     * @param ratios - the boat speed as fraction of the wind speed
+     */
+    public PolarDiagram(final double[] twAngles, final double[] ratios) {
+        if (twAngles.length != ratios.length || twAngles.length < 2
+                || twAngles[0] != 0 || twAngles[twAngles.length - 1] != HALF_CIRCLE) {
+            throw new IllegalArgumentException("Invalid polar diagram");
+        }
+
+        this.angles = twAngles.clone();
+        this.speedRatios = ratios.clone();
+    }
+
+    /**
+     * This function creates the default polar diagram of a small sail boat.
+     * Up to 30 degrees to the wind, the boat can not sail (no-go zone).
+     *
+     * @return PolarDiagram - the default polar diagram
+     */
+    public static PolarDiagram createDefault() {
+        return new PolarDiagram(
+            new double[] {0, 30, 45, 60, 90, 120, 150, 180},
+            new double[] {0, 0, 0.40, 0.50, 0.55, 0.50, 0.42, 0.35}
+        );
+    }
+
+    /**
+     * This method calculates the reachable boat speed.
+     *
+     * @param trueWindAngle - the angle between the course and the direction-
+     * the wind comes from in degrees (any value, it is normalized)
+     * @param windSpeed - the wind speed
+     * @return double - the boat speed (in the unit of the wind speed)
+     */
+    public double getBoatSpeed(final double trueWindAngle, final double windSpeed) {
+        return this.getSpeedRatio(trueWindAngle) * windSpeed;
+    }
+
+    /**
+     * This method returns the boat speed as fraction of the wind speed.
+     *
+     * @param trueWindAngle - the true wind angle in degrees
+     * @return double - the boat speed as fraction of the wind speed
+     */
+    public double getSpeedRatio(final double trueWindAngle) {
+        final double angle = normalize(trueWindAngle);
+
+        int idx = 1;
+        while (idx < this.angles.length - 1 && this.angles[idx] < angle) {
+            idx++;
+        }
+
+        final double fraction = (angle - this.angles[idx - 1])
+                                    / (this.angles[idx] - this.angles[idx - 1]);
+        return this.speedRatios[idx - 1]
+                + fraction * (this.speedRatios[idx] - this.speedRatios[idx - 1]);
+    }
+
+    /**
+     * This function normalizes an angle to 0 up to 180 degrees,-
+     * because the polar diagram is symmetric.
+     *
+     * @param angle - the angle in degrees
+     * @return double - the normalized angle
+     */
+    public static double normalize(final double angle) {
+        final double wrapped = ((angle % DEGREES) + DEGREES) % DEGREES;
+        return wrapped > HALF_CIRCLE ? DEGREES - wrapped : wrapped;
+    }
+}
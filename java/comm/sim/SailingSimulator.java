@@ -0,0 +1,356 @@
+package comm.sim;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.random.RandomGenerator;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import comm.Clock;
+import comm.IConnection;
+import comm.protocol.CliftonCommand;
+import comm.protocol.CommandFrameReader;
+import comm.protocol.LayoutReport;
+import comm.protocol.StatusInfo;
+import comm.protocol.TelemetryData;
+import comm.protocol.TelemetryLayout;
+import comm.protocol.UnsignedShort;
+
+/**
+ * This class simulates the sail agent without any user interface.
+ * It acts as the clifton side of a connection: it executes the received
+ * commands on a BoatModel and sends telemetry data at a configurable rate-
+ * (1 Hz up to some kHz) via. any IConnection.
+ */
+public final class SailingSimulator {
+    /**
+     * The connection to the laptop (the clifton side).
+     */
+    private final IConnection connection;
+    /**
+     * The reader of the received command frames.
+     */
+    private final CommandFrameReader reader = new CommandFrameReader();
+    /**
+     * The source of time and the scheduler of the worker threads.
+     */
+    private final Clock clock;
+    /**
+     * The interval of the telemetry data in ns.
+     */
+    private final long telemetryInterval;
+    /**
+     * The model of the boat, guarded by this.
+     */
+    private final BoatModel boat;
+    /**
+     * The model of the wind, guarded by this.
+     */
+    private final WindModel wind;
+    /**
+     * The simulated time since the last wind update in seconds, guarded by this.
+     */
+    private double timeSinceWindUpdate;
+    /**
+     * The number of sent telemetry frames.
+     */
+    private final AtomicLong framesSent;
+    /**
+     * The number of received commands.
+     */
+    private final AtomicLong commandsReceived;
+    /**
+     * Reassembles the uploaded missions.
+     */
+    private final MissionReceiver missionReceiver;
+    /**
+     * Guards the sending of frames, so telemetry data and acknowledgements-
+     * do not interleave.
+     */
+    private final Object sendLock;
+    /**
+     * Flag to indicate if the simulation is running.
+     */
+    private volatile boolean running;
+    /**
+     * The worker thread for sending the telemetry data.
+     */
+    private Thread telemetryThread;
+    /**
+     * The worker thread for receiving the commands.
+     */
+    private Thread commandThread;
+
+    /**
+     * The interval of the wind updates in seconds.
+     */
+    private static final double WIND_UPDATE_INTERVAL = 1.0;
+    /**
+     * The initial wind speed in cm/s, so the boat can sail right away.
+     */
+    private static final int INITIAL_WIND_SPEED = 500;
+    /**
+     * The maximum telemetry rate in Hz.
+     */
+    public static final double MAX_RATE = 10_000;
+    /**
+     * Nanoseconds per second.
+     */
+    private static final double NANOS_PER_SECOND = TimeUnit.SECONDS.toNanos(1);
+    /**
+     * The logger.
+     */
+    private static final Logger LOGGER = LogManager.getLogger(SailingSimulator.class);
+
+    /**
+     * Constructor.
+     *
+     * @param conn - the clifton side of the connection
+     * @param rate - the telemetry rate in Hz (1 up to MAX_RATE)
+     * @param seed - the seed of the wind model
+     */
+    public SailingSimulator(final IConnection conn, final double rate, final long seed) {
+        this(conn, rate, seed, Clock.system());
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param conn - the clifton side of the connection
+     * @param rate - the telemetry rate in Hz (1 up to MAX_RATE)
+     * @param seed - the seed of the wind model
+     * @param clk - the source of time and the scheduler of the worker threads
+     */
+    public SailingSimulator(final IConnection conn, final double rate, final long seed,
+            final Clock clk) {
+        this(conn, rate, new SplittableRandom(seed), clk);
+    }
+
+    /**
+     * Constructor of a simulator without connection, that is stepped by the-
+     * caller (e.g. a batch simulation). Only step, execute and-
+     * getTelemetryData may be used.
+     *
+     * @param random - the random generator of the wind model
+     */
+    public SailingSimulator(final RandomGenerator random) {
+        this(null, 1, random, Clock.system());
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param conn - the clifton side of the connection
+     * @param rate - the telemetry rate in Hz (1 up to MAX_RATE)
+     * @param random - the random generator of the wind model
+     * @param clk - the source of time and the scheduler of the worker threads
+     */
+    private SailingSimulator(final IConnection conn, final double rate,
+            final RandomGenerator random, final Clock clk) {
+        if (rate <= 0 || rate > MAX_RATE) {
+            throw new IllegalArgumentException("Invalid telemetry rate: " + rate);
+        }
+
+        this.connection = conn;
+        this.clock = clk;
+        this.telemetryInterval = (long) (NANOS_PER_SECOND / rate);
+        this.boat = new BoatModel(PolarDiagram.createDefault(), 0);
+        this.wind = new WindModel(random, WindModel.INITIAL_DIRECTION, INITIAL_WIND_SPEED);
+        this.framesSent = new AtomicLong();
+        this.commandsReceived = new AtomicLong();
+        this.missionReceiver = new MissionReceiver();
+        this.sendLock = new Object();
+    }
+
+    /**
+     * Starts the simulation.
+     * @return true if the simulation started successfully, false otherwise.
+     */
+    public boolean start() {
+        this.connection.create();
+        if (!this.connection.isConnected()) {
+            LOGGER.error("Simulator connection could not be established");
+            return false;
+        }
+
+        this.running = true;
+        this.telemetryThread = this.clock.newThread(this::telemetryWorker, "sim-telemetry");
+        this.commandThread = this.clock.newThread(this::commandWorker, "sim-commands");
+        this.telemetryThread.start();
+        this.commandThread.start();
+        return true;
+    }
+
+    /**
+     * Stops the simulation and closes the connection.
+     */
+    public void stop() {
+        this.running = false;
+        this.connection.close();
+
+        try {
+            if (this.telemetryThread != null) {
+                this.telemetryThread.join();
+            }
+            if (this.commandThread != null) {
+                this.commandThread.join();
+            }
+        } catch (InterruptedException ignored) { }
+    }
+
+    /**
+     * This method advances the simulation and creates the telemetry data.
+     *
+     * @param dt - the elapsed time in seconds
+     * @return TelemetryData - the current telemetry data
+     */
+    public synchronized TelemetryData step(final double dt) {
+        this.timeSinceWindUpdate += dt;
+        while (this.timeSinceWindUpdate >= WIND_UPDATE_INTERVAL) {
+            this.wind.next();
+            this.timeSinceWindUpdate -= WIND_UPDATE_INTERVAL;
+        }
+
+        this.boat.step(dt, this.wind.getDirection(), this.wind.getSpeed());
+        return this.getTelemetryData();
+    }
+
+    /**
+     * This method executes a received command on the boat.
+     *
+     * @param command - the decoded command
+     */
+    public synchronized void execute(final CliftonCommand command) {
+        this.commandsReceived.incrementAndGet();
+        switch (command.id()) {
+            case START_ROUTE -> this.boat.setRouteRunning(true);
+            case STOP_ROUTE -> this.boat.setRouteRunning(false);
+            case SET_COURSE -> this.boat.setCourse(
+                                new UnsignedShort(command.data()[0], command.data()[1]).getAsInt());
+            default -> { }
+        }
+
+        LOGGER.debug("Simulator received {}", command.id());
+    }
+
+    /**
+     * This method creates the telemetry data of the current state.
+     *
+     * @return TelemetryData - the current telemetry data
+     */
+    public synchronized TelemetryData getTelemetryData() {
+        return new TelemetryData(
+            new UnsignedShort(this.wind.getDirection()),
+            new UnsignedShort(this.wind.getSpeed()),
+            new UnsignedShort((int) Math.round(this.boat.getSpeed())),
+            clampToShort(this.boat.getPosX()),
+            clampToShort(this.boat.getPosY()),
+            (byte) Math.ceil(this.boat.getBattery()),
+            new UnsignedShort((int) Math.round(this.boat.getHeading()) % 360),
+            new StatusInfo(this.boat.isRouteRunning() ? (byte) 1 : (byte) 0)
+        );
+    }
+
+    /**
+     * This method returns the number of sent telemetry frames.
+     *
+     * @return long - the number of sent frames
+     */
+    public long getFramesSent() {
+        return this.framesSent.get();
+    }
+
+    /**
+     * This method returns the number of received commands.
+     *
+     * @return long - the number of received commands
+     */
+    public long getCommandsReceived() {
+        return this.commandsReceived.get();
+    }
+
+    /**
+     * This method returns the receiver of the uploaded missions.
+     *
+     * @return MissionReceiver - the mission receiver
+     */
+    public MissionReceiver getMissionReceiver() {
+        return this.missionReceiver;
+    }
+
+    /**
+     * This method sends a frame to the laptop.
+     *
+     * @param frame - the frame to be sent
+     * @return boolean - true if the frame was sent, false otherwise
+     */
+    private boolean send(final byte[] frame) {
+        synchronized (this.sendLock) {
+            return this.connection.sendData(frame);
+        }
+    }
+
+    /**
+     * Worker thread for sending the telemetry data at a fixed rate.
+     * The next deadline is calculated from the previous one, so the rate-
+     * does not drift. If the worker falls behind, it skips the missed frames-
+     * instead of sending a burst.
+     */
+    private void telemetryWorker() {
+        long last = this.clock.nanoTime();
+        long next = last + this.telemetryInterval;
+
+        while (this.running) {
+            final long wait = next - this.clock.nanoTime();
+            if (wait > 0) {
+                try {
+                    this.clock.sleepNanos(wait);
+                } catch (InterruptedException ignored) { }
+                continue;
+            }
+
+            final long now = this.clock.nanoTime();
+            final var telemetryData = this.step((now - last) / NANOS_PER_SECOND);
+            last = now;
+
+            if (this.send(telemetryData.toByteArray())) {
+                this.framesSent.incrementAndGet();
+            }
+
+            next += this.telemetryInterval;
+            if (now - next > this.telemetryInterval) {
+                next = now + this.telemetryInterval;
+            }
+        }
+    }
+
+    /**
+     * Worker thread for receiving the commands from the laptop.
+     */
+    private void commandWorker() {
+        while (this.running) {
+            for (final var command : this.reader.receive(this.connection)) {
+                switch (command.id()) {
+                    case MISSION_CHUNK -> this.missionReceiver.receive(command)
+                                            .ifPresent(ack -> this.send(ack.toByteArray()));
+                    case LAYOUT -> this.send(
+                                    new LayoutReport(TelemetryLayout.CHECKSUM,
+                                            LayoutReport.DEFAULT_LOSS_TIMEOUT).toByteArray());
+                    default -> this.execute(command);
+                }
+            }
+        }
+    }
+
+    /**
+     * This function rounds and clamps a position to the range of a short.
+     *
+     * @param value - the position in m
+     * @return short - the clamped position
+     */
+    private static short clampToShort(final double value) {
+        return (short) Math.max(Short.MIN_VALUE, Math.min(Short.MAX_VALUE, Math.round(value)));
+    }
+}
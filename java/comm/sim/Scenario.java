@@ -0,0 +1,219 @@
+package comm.sim;
+
+import static comm.Constants.TELEMETRY_SIZE;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import comm.protocol.StatusInfo;
+import comm.protocol.TelemetryData;
+import comm.protocol.UnsignedShort;
+
+/**
+ * This class represents a timed script of telemetry data and connect and
+ * disconnect events, which is replayed by the headless SimulatedConnection.
+ * All telemetry frames are encoded once while parsing into a single buffer.
+ *
+ * The script has one event per line, empty lines and lines starting with #
+ * are ignored. The time is in ms since the start of the replay:
+ * <pre>
+ * # time telemetry windDir windSpeed agentSpeed posX posY battery agentDir status
+ * 0 telemetry 10 500 270 0 0 100 90 1
+ * 1000 disconnect
+ * 4000 connect
+ * </pre>
+ */
+public final class Scenario {
+    /**
+     * This enum represents the type of an event.
+     */
+    public enum EventType {
+        /**
+         * A telemetry frame is received.
+         */
+        TELEMETRY,
+        /**
+         * The connection is lost.
+         */
+        DISCONNECT,
+        /**
+         * The connection is established again.
+         */
+        CONNECT
+    }
+
+    /**
+     * The time of every event in ms.
+     */
+    private final long[] times;
+    /**
+     * The type of every event.
+     */
+    private final EventType[] types;
+    /**
+     * The offset of the telemetry frame of every event in the frame buffer.
+     */
+    private final int[] offsets;
+    /**
+     * All encoded telemetry frames.
+     */
+    private final byte[] frames;
+
+    /**
+     * The number of values of a telemetry event.
+     */
+    private static final int TELEMETRY_VALUES = 8;
+
+    /**
+     * Constructor.
+     *
+     * @param eventTimes - the time of every event in ms
+     * @param eventTypes - the type of every event
+     * @param frameOffsets - the offset of the telemetry frame of every event
+     * @param encodedFrames - all encoded telemetry frames
+     */
+    private Scenario(final long[] eventTimes, final EventType[] eventTypes,
+            final int[] frameOffsets, final byte[] encodedFrames) {
+        this.times = eventTimes;
+        this.types = eventTypes;
+        this.offsets = frameOffsets;
+        this.frames = encodedFrames;
+    }
+
+    /**
+     * This function loads a scenario from a file.
+     *
+     * @param file - the script file
+     * @return Scenario - the parsed scenario
+     * @throws IOException if the file can not be read
+     */
+    public static Scenario load(final Path file) throws IOException {
+        return parse(Files.readAllLines(file));
+    }
+
+    /**
+     * This function parses a scenario.
+     *
+     * @param lines - the lines of the script
+     * @return Scenario - the parsed scenario
+     * @throws IllegalArgumentException if a line is invalid or the times decrease
+     */
+    public static Scenario parse(final List<String> lines) {
+        final List<Long> eventTimes = new ArrayList<>();
+        final List<EventType> eventTypes = new ArrayList<>();
+        final List<TelemetryData> telemetry = new ArrayList<>();
+
+        for (int i = 0; i < lines.size(); i++) {
+            final var line = lines.get(i).strip();
+            if (line.isEmpty() || line.startsWith("#")) {
+                continue;
+            }
+
+            final var parts = line.split("\\s+");
+            try {
+                final long time = Long.parseLong(parts[0]);
+                if (!eventTimes.isEmpty() && time < eventTimes.get(eventTimes.size() - 1)) {
+                    throw new IllegalArgumentException("Time decreases in line " + (i + 1));
+                }
+
+                final var type = EventType.valueOf(parts[1].toUpperCase());
+                if (type == EventType.TELEMETRY) {
+                    telemetry.add(parseTelemetry(parts));
+                } else if (parts.length != 2) {
+                    throw new IllegalArgumentException("Invalid event in line " + (i + 1));
+                }
+
+                eventTimes.add(time);
+                eventTypes.add(type);
+            } catch (NumberFormatException | ArrayIndexOutOfBoundsException e) {
+                throw new IllegalArgumentException("Invalid line " + (i + 1) + ": " + line, e);
+            }
+        }
+
+        final int count = eventTimes.size();
+        final long[] timeArray = new long[count];
+        final int[] offsetArray = new int[count];
+        final byte[] frameBuffer = new byte[telemetry.size() * TELEMETRY_SIZE];
+
+        int frame = 0;
+        for (int i = 0; i < count; i++) {
+            timeArray[i] = eventTimes.get(i);
+            offsetArray[i] = -1;
+            if (eventTypes.get(i) == EventType.TELEMETRY) {
+                offsetArray[i] = frame * TELEMETRY_SIZE;
+                System.arraycopy(telemetry.get(frame).toByteArray(), 0,
+                                 frameBuffer, offsetArray[i], TELEMETRY_SIZE);
+                frame++;
+            }
+        }
+
+        return new Scenario(timeArray, eventTypes.toArray(new EventType[0]),
+                            offsetArray, frameBuffer);
+    }
+
+    /**
+     * This function parses the values of a telemetry event.
+     *
+     * @param parts - the parts of the line
+     * @return TelemetryData - the telemetry data
+     */
+    private static TelemetryData parseTelemetry(final String[] parts) {
+        if (parts.length != TELEMETRY_VALUES + 2) {
+            throw new IllegalArgumentException("Telemetry needs " + TELEMETRY_VALUES + " values");
+        }
+
+        int idx = 2;
+        return new TelemetryData(
+            new UnsignedShort(Integer.parseInt(parts[idx++])),
+            new UnsignedShort(Integer.parseInt(parts[idx++])),
+            new UnsignedShort(Integer.parseInt(parts[idx++])),
+            Short.parseShort(parts[idx++]),
+            Short.parseShort(parts[idx++]),
+            (byte) Integer.parseInt(parts[idx++]),
+            new UnsignedShort(Integer.parseInt(parts[idx++])),
+            new StatusInfo((byte) Integer.parseInt(parts[idx]))
+        );
+    }
+
+    /**
+     * This method returns the number of events.
+     *
+     * @return int - the number of events
+     */
+    public int size() {
+        return this.times.length;
+    }
+
+    /**
+     * This method returns the time of an event.
+     *
+     * @param idx - the index of the event
+     * @return long - the time in ms since the start of the replay
+     */
+    public long getTime(final int idx) {
+        return this.times[idx];
+    }
+
+    /**
+     * This method returns the type of an event.
+     *
+     * @param idx - the index of the event
+     * @return EventType - the type of the event
+     */
+    public EventType getType(final int idx) {
+        return this.types[idx];
+    }
+
+    /**
+     * This method copies the encoded telemetry frame of an event.
+     *
+     * @param idx - the index of a telemetry event
+     * @param target - the target array (at least TELEMETRY_SIZE bytes)
+     */
+    public void copyFrame(final int idx, final byte[] target) {
+        System.arraycopy(this.frames, this.offsets[idx], target, 0, TELEMETRY_SIZE);
+    }
+}
@@ -0,0 +1,365 @@
+package comm.sim;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import comm.ConnectionHandler;
+import comm.IConnection;
+import comm.InMemoryConnection;
+import comm.LatencyHistogram;
+import comm.protocol.CliftonCommand;
+import comm.protocol.CommandFrameReader;
+import comm.protocol.LayoutReport;
+import comm.protocol.TelemetryLayout;
+import comm.protocol.UnsignedShort;
+
+/**
+ * This class simulates a swarm of sail agents to test, how far the laptop
+ * side scales. Every agent has its own wind model and boat model and is
+ * connected to its own ConnectionHandler.
+ * In contrast to the SailingSimulator, the agents do not own threads: all
+ * of them are stepped by a small scheduled thread pool, which polls the
+ * received commands without blocking.
+ */
+public final class SwarmSimulation {
+    /**
+     * This interface creates the link of an agent.
+     */
+    @FunctionalInterface
+    public interface LinkFactory {
+        /**
+         * This method creates both ends of the link of an agent.
+         *
+         * @param agent - the index of the agent
+         * @return IConnection[] - the clifton end and the laptop end
+         */
+        IConnection[] create(int agent);
+    }
+
+    /**
+     * This record holds the aggregated results of a swarm run.
+     *
+     * @param agents - the number of agents
+     * @param seconds - the measured duration in seconds
+     * @param telemetryFrames - the telemetry frames received by all handlers
+     * @param telemetryRate - the received telemetry frames per second
+     * @param commandsSent - the commands passed to the handlers
+     * @param commandsReceived - the commands received by the agents
+     * @param commandLatency - the latency from sendCommand to the agent
+     */
+    public record Report(int agents, double seconds, long telemetryFrames,
+                         double telemetryRate, long commandsSent,
+                         long commandsReceived, LatencyHistogram commandLatency) { }
+
+    /**
+     * The number of agents.
+     */
+    private final int agentCount;
+    /**
+     * The telemetry rate of each agent in Hz.
+     */
+    private final double rate;
+    /**
+     * The interval of the course commands per agent in ms.
+     */
+    private final long commandInterval;
+    /**
+     * The creator of the links.
+     */
+    private final LinkFactory linkFactory;
+    /**
+     * The simulated agents.
+     */
+    private final List<Agent> agents;
+    /**
+     * The pool, that steps the agents and sends the commands.
+     */
+    private final ScheduledExecutorService scheduler;
+    /**
+     * The telemetry frames received by all handlers.
+     */
+    private final LongAdder telemetryFrames;
+    /**
+     * The commands passed to the handlers.
+     */
+    private final LongAdder commandsSent;
+    /**
+     * The commands received by the agents.
+     */
+    private final LongAdder commandsReceived;
+    /**
+     * The latency from sendCommand to the agent.
+     */
+    private final LatencyHistogram commandLatency;
+    /**
+     * The start of the measurement in ns.
+     */
+    private long startTime;
+
+    /**
+     * Degrees in a Circle.
+     */
+    private static final int DEGREES = 360;
+    /**
+     * The logger.
+     */
+    private static final Logger LOGGER = LogManager.getLogger(SwarmSimulation.class);
+
+    /**
+     * This class holds the state of a single agent.
+     */
+    private final class Agent {
+        /**
+         * The simulated boat and wind of the agent.
+         */
+        private final SailingSimulator simulator;
+        /**
+         * The clifton end of the link.
+         */
+        private final IConnection clifton;
+        /**
+         * The reader of the command frames received by the clifton end.
+         */
+        private final CommandFrameReader reader = new CommandFrameReader();
+        /**
+         * The handler of the laptop end.
+         */
+        private final ConnectionHandler handler;
+        /**
+         * The send time (ns) of the pending courses.
+         */
+        private final Map<Integer, Long> pendingCourses = new ConcurrentHashMap<>();
+        /**
+         * The sequence number of the last telemetry data seen by the observer.
+         */
+        private volatile long lastSequence;
+        /**
+         * The time of the last step in ns.
+         */
+        private long lastStep;
+        /**
+         * The next course to command.
+         */
+        private int nextCourse;
+
+        /**
+         * Constructor.
+         *
+         * @param index - the index of the agent, used as seed
+         */
+        Agent(final int index) {
+            final var link = linkFactory.create(index);
+            this.clifton = link[0];
+            this.handler = new ConnectionHandler(link[1]);
+            this.simulator = new SailingSimulator(this.clifton, rate, index);
+            this.nextCourse = index % DEGREES;
+        }
+
+        /**
+         * This method counts the telemetry data received by the handler.
+         * The handler also announces changes of the link state, they are-
+         * not counted.
+         */
+        void telemetryReceived() {
+            final var snapshot = this.handler.getTelemetrySnapshot();
+            if (snapshot != null && snapshot.sequence() != this.lastSequence) {
+                this.lastSequence = snapshot.sequence();
+                telemetryFrames.increment();
+            }
+        }
+
+        /**
+         * This method executes the received commands, advances the-
+         * simulation and sends the telemetry data.
+         */
+        void tick() {
+            final int available = this.clifton.getAvailableBytes();
+            final var received = available > 0 ? this.clifton.receiveData(available)
+                                                    .map(this.reader::read).orElse(List.of())
+                                               : List.<CliftonCommand>of();
+            for (final var command : received) {
+                switch (command.id()) {
+                    //Mission chunks are not simulated
+                    case MISSION_CHUNK -> { }
+                    case LAYOUT -> this.clifton.sendData(
+                                    new LayoutReport(TelemetryLayout.CHECKSUM,
+                                        LayoutReport.DEFAULT_LOSS_TIMEOUT).toByteArray());
+                    default -> this.received(command);
+                }
+            }
+
+            final long now = System.nanoTime();
+            final var telemetryData = this.simulator.step((now - this.lastStep) / 1e9);
+            this.lastStep = now;
+            this.clifton.sendData(telemetryData.toByteArray());
+        }
+
+        /**
+         * This method handles a received command.
+         *
+         * @param command - the decoded command
+         */
+        void received(final CliftonCommand command) {
+            this.simulator.execute(command);
+            if (command.id() == CliftonCommand.ID.SET_COURSE) {
+                final var sentAt = this.pendingCourses
+                                    .remove(new UnsignedShort(command.data()[0],
+                                                              command.data()[1]).getAsInt());
+                if (sentAt != null) {
+                    commandLatency.record(System.nanoTime() - sentAt);
+                }
+                commandsReceived.increment();
+            }
+        }
+
+        /**
+         * This method commands a new course, the course is used as the id-
+         * to measure the latency.
+         */
+        void commandCourse() {
+            final int course = this.nextCourse;
+            this.nextCourse = (this.nextCourse + 1) % DEGREES;
+            this.pendingCourses.put(course, System.nanoTime());
+            this.handler.sendCommand(CliftonCommand.setCourse(course));
+            commandsSent.increment();
+        }
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param count - the number of agents
+     * @param telemetryRate - the telemetry rate of each agent in Hz
+     * @param cmdInterval - the interval of the course commands per agent in ms
+     * @param threads - the number of threads, that step the agents
+     * @param factory - the creator of the links
+     */
+    public SwarmSimulation(final int count, final double telemetryRate,
+            final long cmdInterval, final int threads, final LinkFactory factory) {
+        this.agentCount = count;
+        this.rate = telemetryRate;
+        this.commandInterval = cmdInterval;
+        this.linkFactory = factory;
+        this.agents = new ArrayList<>(count);
+        this.scheduler = Executors.newScheduledThreadPool(threads, runnable -> {
+            final var thread = new Thread(runnable, "swarm");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.telemetryFrames = new LongAdder();
+        this.commandsSent = new LongAdder();
+        this.commandsReceived = new LongAdder();
+        this.commandLatency = new LatencyHistogram();
+    }
+
+    /**
+     * This function creates a swarm, which is connected via. in-memory links.
+     *
+     * @param count - the number of agents
+     * @param telemetryRate - the telemetry rate of each agent in Hz
+     * @param cmdInterval - the interval of the course commands per agent in ms
+     * @param threads - the number of threads, that step the agents
+     * @return SwarmSimulation - the swarm
+     */
+    public static SwarmSimulation inMemory(final int count, final double telemetryRate,
+            final long cmdInterval, final int threads) {
+        return new SwarmSimulation(count, telemetryRate, cmdInterval, threads, agent -> {
+            final var link = InMemoryConnection.createLink(InMemoryConnection.DEFAULT_CAPACITY);
+            return new IConnection[] {link.clifton(), link.laptop()};
+        });
+    }
+
+    /**
+     * Starts the swarm.
+     * @return true if all agents started successfully, false otherwise.
+     */
+    public boolean start() {
+        final long tickInterval = (long) (TimeUnit.SECONDS.toNanos(1) / this.rate);
+
+        for (int i = 0; i < this.agentCount; i++) {
+            final var agent = new Agent(i);
+            this.agents.add(agent);
+
+            agent.clifton.create();
+            agent.handler.attach(agent::telemetryReceived);
+            if (!agent.clifton.isConnected() || !agent.handler.start()) {
+                LOGGER.error("Failed to start agent {}", i);
+                this.stop();
+                return false;
+            }
+        }
+
+        this.startTime = System.nanoTime();
+        for (int i = 0; i < this.agents.size(); i++) {
+            final var agent = this.agents.get(i);
+            agent.lastStep = this.startTime;
+
+            //Spread the agents over the interval to avoid bursts
+            this.scheduler.scheduleAtFixedRate(logFailures(agent::tick, "Tick", i),
+                tickInterval * i / this.agents.size(), tickInterval, TimeUnit.NANOSECONDS);
+            this.scheduler.scheduleAtFixedRate(logFailures(agent::commandCourse, "Command", i),
+                this.commandInterval * i / this.agents.size(), this.commandInterval,
+                TimeUnit.MILLISECONDS);
+        }
+
+        LOGGER.info("Swarm of {} agents started", this.agentCount);
+        return true;
+    }
+
+    /**
+     * This function wraps a periodic task of an agent, so a failure is-
+     * logged instead of silently cancelling all further runs.
+     *
+     * @param task - the task
+     * @param name - the name of the task
+     * @param agent - the index of the agent
+     * @return Runnable - the wrapped task
+     */
+    private static Runnable logFailures(final Runnable task, final String name,
+            final int agent) {
+        return () -> {
+            try {
+                task.run();
+            } catch (RuntimeException e) {
+                LOGGER.error("{} of agent {} failed", name, agent, e);
+            }
+        };
+    }
+
+    /**
+     * Stops the swarm and closes all connections.
+     */
+    public void stop() {
+        this.scheduler.shutdownNow();
+        try {
+            this.scheduler.awaitTermination(1, TimeUnit.SECONDS);
+        } catch (InterruptedException ignored) { }
+
+        for (final var agent : this.agents) {
+            agent.clifton.close();
+            agent.handler.close();
+        }
+    }
+
+    /**
+     * This method returns the aggregated results since the start.
+     *
+     * @return Report - the aggregated results
+     */
+    public Report getReport() {
+        final double seconds = (System.nanoTime() - this.startTime) / 1e9;
+        final long frames = this.telemetryFrames.sum();
+        return new Report(this.agentCount, seconds, frames, frames / seconds,
+                          this.commandsSent.sum(), this.commandsReceived.sum(),
+                          this.commandLatency);
+    }
+}
@@ -0,0 +1,160 @@
+package comm.sim;
+
+import java.util.random.RandomGenerator;
+
+/**
+ * This class represents the wind model of the simulation.
+ * The wind direction and the wind speed change by a random walk, the-
+ * direction stays within MAX_CHANGE degrees around the initial direction.
+ * The random generator is passed in, so every simulated agent can use its
+ * own (seeded) generator.
+ */
+public final class WindModel {
+    /**
+     * Initial Wind Direction.
+     */
+    public static final int INITIAL_DIRECTION = 0;
+
+    /**
+     * Maximal Change in Wind Direction.
+     */
+    private static final int MAX_CHANGE = 20;
+
+    /**
+     * initial Wind Speed.
+     */
+    public static final int INITIAL_SPEED = 0;
+
+    /**
+     * Maximal Change in Wind Speed.
+     */
+    private static final int MAX_CHANGE_SPEED = 200;
+
+    /**
+     * Minimal Wind Speed.
+     */
+    private static final int MIN_SPEED = 0;
+
+    /**
+     * Maximal Wind Speed.
+     */
+    private static final int MAX_SPEED = 3000;
+
+    /**
+     * Max Generated Value.
+     */
+    private static final int MAX_RAND = 7;
+
+    /**
+     * Shift for Random value to Negatives.
+     */
+    private static final int SHIFT = MAX_RAND / 2;
+
+    /**
+     * Degrees in a Circle.
+     */
+    private static final int DEGREES = 360;
+
+    /**
+     * Shift Wind Speed for negative values.
+     */
+    private static final int SHIFT_SPEED = MAX_CHANGE_SPEED / 2;
+
+    /**
+     * The random generator.
+     */
+    private final RandomGenerator random;
+
+    /**
+     * Current Wind Direction in degrees.
+     */
+    private int direction;
+
+    /**
+     * Current Wind Speed in cm/s.
+     */
+    private int speed;
+
+    /**
+     * Constructor.
+     *
+     * @param rand - the random generator to use
+     */
+    public WindModel(final RandomGenerator rand) {
+        this(rand, INITIAL_DIRECTION, INITIAL_SPEED);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param rand - the random generator to use
+     * @param initialDirection - the initial wind direction in degrees
+     * @param initialSpeed - the initial wind speed in cm/s
+     */
+    public WindModel(final RandomGenerator rand, final int initialDirection,
+            final int initialSpeed) {
+        this.random = rand;
+        this.direction = initialDirection;
+        this.speed = initialSpeed;
+    }
+
+    /**
+     * Generate new Wind Direction.
+     */
+    public void nextDirection() {
+        int change = random.nextInt(MAX_RAND) - SHIFT;
+        int newDirection = direction + change;
+
+        if (newDirection < (INITIAL_DIRECTION - MAX_CHANGE + DEGREES) % DEGREES
+                && !(newDirection <= (INITIAL_DIRECTION + MAX_CHANGE) % DEGREES)) {
+            newDirection = INITIAL_DIRECTION - MAX_CHANGE;
+        } else if (newDirection > (INITIAL_DIRECTION + MAX_CHANGE) % DEGREES
+                && !(newDirection >= (INITIAL_DIRECTION - MAX_CHANGE + DEGREES)
+                % DEGREES)) {
+            newDirection = INITIAL_DIRECTION + MAX_CHANGE;
+        }
+
+        direction = (newDirection + DEGREES) % DEGREES;
+    }
+
+    /**
+     * Generate new Wind Speed.
+     */
+    public void nextSpeed() {
+        int change = (random.nextInt(MAX_CHANGE_SPEED) - SHIFT_SPEED);
+        int newSpeed = speed + change;
+
+        if (newSpeed < MIN_SPEED) {
+            newSpeed = MIN_SPEED;
+        } else if (newSpeed > MAX_SPEED) {
+            newSpeed = MAX_SPEED;
+        }
+        speed = newSpeed;
+    }
+
+    /**
+     * Generate new Wind Direction and Wind Speed.
+     */
+    public void next() {
+        this.nextDirection();
+        this.nextSpeed();
+    }
+
+    /**
+     * This method returns the current wind direction.
+     *
+     * @return int - the wind direction in degrees
+     */
+    public int getDirection() {
+        return direction;
+    }
+
+    /**
+     * This method returns the current wind speed.
+     *
+     * @return int - the wind speed in cm/s
+     */
+    public int getSpeed() {
+        return speed;
+    }
+}
@@ -0,0 +1,6 @@
+/**
+ * The sim package contains the headless simulation of the sail agent,
+ * which is used for load and latency testing of the communication and for
+ * the evaluation of routes by Monte Carlo runs.
+ */
+package comm.sim;
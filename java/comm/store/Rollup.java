@@ -0,0 +1,89 @@
+package comm.store;
+
+/**
+ * This record represents the downsampled telemetry of a time bucket.
+ *
+ * @param start - the start of the bucket in ms since the epoch
+ * @param resolution - the length of the bucket
+ * @param count - the number of records in the bucket
+ * @param min - the minimum of every field, indexed by the ordinal of the-
+ *        TelemetryField
+ * @param max - the maximum of every field
+ * @param sum - the sum of every field
+ */
+public record Rollup(long start, Resolution resolution, int count, int[] min, int[] max,
+        long[] sum) {
+
+    /**
+     * This enum represents the lengths of the buckets.
+     * There are no buckets of a second, at the telemetry rate (1 Hz) an-
+     * entry would take ten times the size of the record, the records are-
+     * queried instead.
+     */
+    public enum Resolution {
+        /**
+         * Buckets of a minute.
+         */
+        MINUTE(60_000);
+
+        /**
+         * The length of a bucket in ms.
+         */
+        private final long duration;
+
+        /**
+         * Constructor.
+         * @param millis - the length of a bucket in ms
+         */
+        Resolution(final long millis) {
+            this.duration = millis;
+        }
+
+        /**
+         * This method returns the length of a bucket.
+         * @return long - the length in ms
+         */
+        public long getDuration() {
+            return this.duration;
+        }
+
+        /**
+         * This method returns the start of the bucket of a timestamp.
+         * @param timestamp - the timestamp in ms
+         * @return long - the start of the bucket in ms
+         */
+        public long getStart(final long timestamp) {
+            return timestamp - Math.floorMod(timestamp, this.duration);
+        }
+    }
+
+    /**
+     * This method returns the minimum of a field.
+     *
+     * @param field - the field
+     * @return int - the minimum
+     */
+    public int getMin(final TelemetryField field) {
+        return this.min[field.ordinal()];
+    }
+
+    /**
+     * This method returns the maximum of a field.
+     *
+     * @param field - the field
+     * @return int - the maximum
+     */
+    public int getMax(final TelemetryField field) {
+        return this.max[field.ordinal()];
+    }
+
+    /**
+     * This method returns the mean of a field.
+     *
+     * @param field - the field
+     * @return double - the mean
+     */
+    public double getMean(final TelemetryField field) {
+        return (double) this.sum[field.ordinal()] / this.count;
+    }
+}
@@ -0,0 +1,294 @@
+package comm.store;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * This class maintains the rollups of one resolution while the records-
+ * arrive and stores them in a file of fixed-size entries, ordered by time.
+ * The entry of the current bucket is rewritten on every flush, so it-
+ * survives a restart. The entries from a bucket on can be dropped, so the-
+ * TelemetryStore rebuilds them from its records after a crash.
+ * Not thread safe, the TelemetryStore synchronizes.
+ */
+final class RollupSeries {
+    /**
+     * The size of an entry: start (8 bytes), count (4 bytes), padding-
+     * (4 bytes) and min (4 bytes), max (4 bytes), sum (8 bytes) per field.
+     */
+    static final int ENTRY_SIZE = Long.BYTES + Integer.BYTES + Integer.BYTES
+                                  + TelemetryField.COUNT * (Integer.BYTES + Integer.BYTES
+                                                            + Long.BYTES);
+    /**
+     * The index of the start in an entry.
+     */
+    private static final int START_IDX = 0;
+    /**
+     * The index of the count in an entry.
+     */
+    private static final int COUNT_IDX = 8;
+    /**
+     * The index of the fields in an entry.
+     */
+    private static final int FIELDS_IDX = 16;
+    /**
+     * The size of the aggregates of a field in an entry.
+     */
+    private static final int FIELD_SIZE = Integer.BYTES + Integer.BYTES + Long.BYTES;
+
+    /**
+     * The resolution of the rollups.
+     */
+    private final Rollup.Resolution resolution;
+    /**
+     * The file of the entries.
+     */
+    private final FileChannel channel;
+    /**
+     * The buffer of an entry.
+     */
+    private final ByteBuffer entry;
+    /**
+     * The minimum of every field in the current bucket.
+     */
+    private final int[] min;
+    /**
+     * The maximum of every field in the current bucket.
+     */
+    private final int[] max;
+    /**
+     * The sum of every field in the current bucket.
+     */
+    private final long[] sum;
+    /**
+     * The number of completed buckets in the file.
+     */
+    private long completed;
+    /**
+     * The start of the current bucket in ms.
+     */
+    private long start;
+    /**
+     * The number of records in the current bucket, 0 if there is none.
+     */
+    private int count;
+
+    /**
+     * Constructor, continues the current bucket of the file.
+     *
+     * @param path - the path of the file
+     * @param rollupResolution - the resolution of the rollups
+     * @throws IOException if the file could not be opened
+     */
+    RollupSeries(final Path path, final Rollup.Resolution rollupResolution) throws IOException {
+        this.resolution = rollupResolution;
+        this.channel = FileChannel.open(path, StandardOpenOption.CREATE,
+                                        StandardOpenOption.READ, StandardOpenOption.WRITE);
+        this.entry = ByteBuffer.allocate(ENTRY_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        this.min = new int[TelemetryField.COUNT];
+        this.max = new int[TelemetryField.COUNT];
+        this.sum = new long[TelemetryField.COUNT];
+        this.load(this.channel.size() / ENTRY_SIZE);
+    }
+
+    /**
+     * This method adds a record to its bucket, a completed bucket is stored.
+     *
+     * @param timestamp - the timestamp in ms, not before the last one
+     * @param values - the values, indexed by the ordinal of the TelemetryField
+     * @throws IOException if a completed bucket could not be stored
+     */
+    void add(final long timestamp, final int[] values) throws IOException {
+        final long bucket = this.resolution.getStart(timestamp);
+        if (this.count > 0 && bucket != this.start) {
+            this.writeEntry(this.completed++);
+            this.count = 0;
+        }
+
+        if (this.count == 0) {
+            this.start = bucket;
+            System.arraycopy(values, 0, this.min, 0, TelemetryField.COUNT);
+            System.arraycopy(values, 0, this.max, 0, TelemetryField.COUNT);
+            Arrays.fill(this.sum, 0);
+        }
+        for (int i = 0; i < TelemetryField.COUNT; i++) {
+            this.min[i] = Math.min(this.min[i], values[i]);
+            this.max[i] = Math.max(this.max[i], values[i]);
+            this.sum[i] += values[i];
+        }
+        this.count++;
+    }
+
+    /**
+     * This method stores the current bucket.
+     *
+     * @throws IOException if the bucket could not be stored
+     */
+    void flush() throws IOException {
+        if (this.count > 0) {
+            this.writeEntry(this.completed);
+        }
+    }
+
+    /**
+     * This method writes the stored entries to the disk.
+     *
+     * @throws IOException if the file could not be written
+     */
+    void force() throws IOException {
+        this.channel.force(false);
+    }
+
+    /**
+     * This method returns the start of the current bucket.
+     *
+     * @return long - the start in ms, Long.MIN_VALUE if there is none
+     */
+    long getStart() {
+        return this.count > 0 ? this.start : Long.MIN_VALUE;
+    }
+
+    /**
+     * This method drops the buckets, that start at or after a timestamp. The-
+     * last remaining bucket becomes the current one.
+     *
+     * @param from - the timestamp in ms
+     * @throws IOException if the file could not be truncated
+     */
+    void truncate(final long from) throws IOException {
+        if (this.count > 0 && this.start < from) {
+            return;
+        }
+
+        final long entries = this.find(from);
+        this.channel.truncate(entries * ENTRY_SIZE);
+        this.load(entries);
+    }
+
+    /**
+     * This method returns the rollups, whose buckets overlap a time range.
+     *
+     * @param from - the start of the range in ms (inclusive)
+     * @param to - the end of the range in ms (inclusive)
+     * @return List<Rollup> - the rollups ordered by time
+     * @throws IOException if the file could not be read
+     */
+    List<Rollup> query(final long from, final long to) throws IOException {
+        final List<Rollup> result = new ArrayList<>();
+
+        final long first = this.resolution.getStart(from);
+        for (long i = this.find(first); i < this.completed; i++) {
+            final var rollup = this.readEntry(i);
+            if (rollup.start() > to) {
+                return result;
+            }
+            result.add(rollup);
+        }
+        if (this.count > 0 && this.start >= first && this.start <= to) {
+            result.add(new Rollup(this.start, this.resolution, this.count, this.min.clone(),
+                                  this.max.clone(), this.sum.clone()));
+        }
+        return result;
+    }
+
+    /**
+     * This method closes the file.
+     *
+     * @throws IOException if the file could not be closed
+     */
+    void close() throws IOException {
+        this.channel.close();
+    }
+
+    /**
+     * This method returns the index of the first completed entry, that-
+     * starts at or after a timestamp.
+     *
+     * @param from - the timestamp in ms
+     * @return long - the index, the number of completed entries if there is none
+     * @throws IOException if the file could not be read
+     */
+    private long find(final long from) throws IOException {
+        //The entries are ordered by their start, find the first one by binary search
+        long low = 0;
+        long high = this.completed;
+        while (low < high) {
+            final long mid = (low + high) >>> 1;
+            if (this.readEntry(mid).start() < from) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * This method continues the last of the stored entries as current bucket.
+     *
+     * @param entries - the number of stored entries
+     * @throws IOException if the file could not be read
+     */
+    private void load(final long entries) throws IOException {
+        this.completed = Math.max(0, entries - 1);
+        this.count = 0;
+        if (entries > 0) {
+            final var last = this.readEntry(entries - 1);
+            this.start = last.start();
+            this.count = last.count();
+            System.arraycopy(last.min(), 0, this.min, 0, TelemetryField.COUNT);
+            System.arraycopy(last.max(), 0, this.max, 0, TelemetryField.COUNT);
+            System.arraycopy(last.sum(), 0, this.sum, 0, TelemetryField.COUNT);
+        }
+    }
+
+    /**
+     * This method writes the current bucket into an entry.
+     *
+     * @param index - the index of the entry
+     * @throws IOException if the entry could not be written
+     */
+    private void writeEntry(final long index) throws IOException {
+        this.entry.clear();
+        this.entry.putLong(START_IDX, this.start);
+        this.entry.putInt(COUNT_IDX, this.count);
+        for (int i = 0; i < TelemetryField.COUNT; i++) {
+            final int offset = FIELDS_IDX + i * FIELD_SIZE;
+            this.entry.putInt(offset, this.min[i]);
+            this.entry.putInt(offset + Integer.BYTES, this.max[i]);
+            this.entry.putLong(offset + Integer.BYTES + Integer.BYTES, this.sum[i]);
+        }
+        this.channel.write(this.entry, index * ENTRY_SIZE);
+    }
+
+    /**
+     * This method reads an entry.
+     *
+     * @param index - the index of the entry
+     * @return Rollup - the rollup of the entry
+     * @throws IOException if the entry could not be read
+     */
+    private Rollup readEntry(final long index) throws IOException {
+        this.entry.clear();
+        TelemetryStore.readFully(this.channel, this.entry, index * ENTRY_SIZE);
+
+        final int[] entryMin = new int[TelemetryField.COUNT];
+        final int[] entryMax = new int[TelemetryField.COUNT];
+        final long[] entrySum = new long[TelemetryField.COUNT];
+        for (int i = 0; i < TelemetryField.COUNT; i++) {
+            final int offset = FIELDS_IDX + i * FIELD_SIZE;
+            entryMin[i] = this.entry.getInt(offset);
+            entryMax[i] = this.entry.getInt(offset + Integer.BYTES);
+            entrySum[i] = this.entry.getLong(offset + Integer.BYTES + Integer.BYTES);
+        }
+        return new Rollup(this.entry.getLong(START_IDX), this.resolution,
+                          this.entry.getInt(COUNT_IDX), entryMin, entryMax, entrySum);
+    }
+}
@@ -0,0 +1,11 @@
+package comm.store;
+
+import comm.protocol.TelemetryData;
+
+/**
+ * This record represents a record read from the TelemetryStore.
+ *
+ * @param timestamp - the time of the record in ms since the epoch
+ * @param data - the telemetry data
+ */
+public record StoredTelemetry(long timestamp, TelemetryData data) { }
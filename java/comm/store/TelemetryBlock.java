@@ -0,0 +1,321 @@
+package comm.store;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+
+/**
+ * This class compresses telemetry records into a block of BLOCK_SIZE bytes.
+ *
+ * A block starts with a header (little endian): the number of records-
+ * (4 bytes), the length of the payload (4 bytes), the first and the last-
+ * timestamp in ms (8 bytes each). In the payload the timestamp of a record-
+ * is stored as delta of its delta to the previous record (0 for a steady-
+ * telemetry interval), every field as delta to the previous value. Both are-
+ * zigzag encoded varints, so the usual small changes take a single byte.
+ * The first record of a block only needs its field values, its timestamp-
+ * is in the header, so every block is decoded on its own.
+ */
+public final class TelemetryBlock {
+
+    /**
+     * This interface receives the decoded records.
+     */
+    @FunctionalInterface
+    public interface RecordConsumer {
+        /**
+         * This method is called for every record.
+         *
+         * @param timestamp - the timestamp in ms
+         * @param values - the values, indexed by the ordinal of the-
+         *        TelemetryField (only valid during the call)
+         */
+        void accept(long timestamp, int[] values);
+    }
+
+    /**
+     * The size of a block in bytes.
+     */
+    public static final int BLOCK_SIZE = 4096;
+    /**
+     * The size of the header in bytes.
+     */
+    public static final int HEADER_SIZE = 24;
+    /**
+     * The index of the number of records in the header (4 bytes).
+     */
+    private static final int COUNT_IDX = 0;
+    /**
+     * The index of the length of the payload in the header (4 bytes).
+     */
+    private static final int LENGTH_IDX = 4;
+    /**
+     * The index of the first timestamp in the header (8 bytes).
+     */
+    private static final int FIRST_IDX = 8;
+    /**
+     * The index of the last timestamp in the header (8 bytes).
+     */
+    private static final int LAST_IDX = 16;
+    /**
+     * The maximum size of a varint of a long in bytes.
+     */
+    private static final int MAX_LONG_VARINT = 10;
+    /**
+     * The maximum size of a varint of an int in bytes.
+     */
+    private static final int MAX_INT_VARINT = 5;
+    /**
+     * The maximum size of an encoded record in bytes.
+     */
+    private static final int MAX_RECORD_SIZE = MAX_LONG_VARINT
+                                               + TelemetryField.COUNT * MAX_INT_VARINT;
+    /**
+     * The bits of a varint byte, that carry data.
+     */
+    private static final int VARINT_BITS = 7;
+    /**
+     * The mask of the data of a varint byte.
+     */
+    private static final int VARINT_MASK = 0x7F;
+    /**
+     * The flag of a varint byte, that another byte follows.
+     */
+    private static final int VARINT_MORE = 0x80;
+
+    /**
+     * The encoded block.
+     */
+    private final ByteBuffer buffer;
+    /**
+     * The values of the last record.
+     */
+    private final int[] lastValues;
+    /**
+     * The number of records.
+     */
+    private int count;
+    /**
+     * The timestamp of the first record in ms.
+     */
+    private long firstTimestamp;
+    /**
+     * The timestamp of the last record in ms.
+     */
+    private long lastTimestamp;
+    /**
+     * The delta of the last two timestamps in ms.
+     */
+    private long lastDelta;
+
+    /**
+     * Constructor, creates an empty block.
+     */
+    public TelemetryBlock() {
+        this.buffer = ByteBuffer.allocate(BLOCK_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        this.lastValues = new int[TelemetryField.COUNT];
+        this.clear();
+    }
+
+    /**
+     * This method removes all records.
+     */
+    public void clear() {
+        this.buffer.clear().position(HEADER_SIZE);
+        Arrays.fill(this.lastValues, 0);
+        this.count = 0;
+        this.firstTimestamp = 0;
+        this.lastTimestamp = 0;
+        this.lastDelta = 0;
+    }
+
+    /**
+     * This method appends a record, if the block has space for it.
+     *
+     * @param timestamp - the timestamp in ms, not before the last one
+     * @param values - the values, indexed by the ordinal of the TelemetryField
+     * @return boolean - true if the record was appended, false if the block is full
+     */
+    public boolean append(final long timestamp, final int[] values) {
+        if (this.isFull()) {
+            return false;
+        }
+
+        if (this.count == 0) {
+            this.firstTimestamp = timestamp;
+        } else {
+            final long delta = timestamp - this.lastTimestamp;
+            putVarLong(this.buffer, zigzag(delta - this.lastDelta));
+            this.lastDelta = delta;
+        }
+        this.lastTimestamp = timestamp;
+
+        for (int i = 0; i < TelemetryField.COUNT; i++) {
+            putVarLong(this.buffer, zigzag((long) values[i] - this.lastValues[i]));
+            this.lastValues[i] = values[i];
+        }
+        this.count++;
+        return true;
+    }
+
+    /**
+     * This method returns the number of records.
+     *
+     * @return int - the number of records
+     */
+    public int getCount() {
+        return this.count;
+    }
+
+    /**
+     * This method returns the timestamp of the first record.
+     *
+     * @return long - the timestamp in ms, 0 if the block is empty
+     */
+    public long getFirstTimestamp() {
+        return this.firstTimestamp;
+    }
+
+    /**
+     * This method returns the timestamp of the last record.
+     *
+     * @return long - the timestamp in ms, 0 if the block is empty
+     */
+    public long getLastTimestamp() {
+        return this.lastTimestamp;
+    }
+
+    /**
+     * This method writes the header and returns the whole block.
+     *
+     * @return ByteBuffer - a view of the BLOCK_SIZE bytes of the block
+     */
+    public ByteBuffer toBuffer() {
+        this.buffer.putInt(COUNT_IDX, this.count);
+        this.buffer.putInt(LENGTH_IDX, this.buffer.position() - HEADER_SIZE);
+        this.buffer.putLong(FIRST_IDX, this.firstTimestamp);
+        this.buffer.putLong(LAST_IDX, this.lastTimestamp);
+        return this.buffer.duplicate().clear().order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    /**
+     * This method checks if the block might not take another record.
+     *
+     * @return boolean - true if the block is full, false otherwise
+     */
+    public boolean isFull() {
+        return this.buffer.remaining() < MAX_RECORD_SIZE;
+    }
+
+    /**
+     * This function returns the number of records of an encoded block.
+     *
+     * @param block - the block (little endian)
+     * @return int - the number of records
+     */
+    public static int getCount(final ByteBuffer block) {
+        return block.getInt(block.position() + COUNT_IDX);
+    }
+
+    /**
+     * This function returns the first timestamp of an encoded block.
+     *
+     * @param block - the block (little endian)
+     * @return long - the timestamp in ms
+     */
+    public static long getFirstTimestamp(final ByteBuffer block) {
+        return block.getLong(block.position() + FIRST_IDX);
+    }
+
+    /**
+     * This function returns the last timestamp of an encoded block.
+     *
+     * @param block - the block (little endian)
+     * @return long - the timestamp in ms
+     */
+    public static long getLastTimestamp(final ByteBuffer block) {
+        return block.getLong(block.position() + LAST_IDX);
+    }
+
+    /**
+     * This function decodes the records of an encoded block.
+     *
+     * @param block - the block (little endian), its position is not changed
+     * @param consumer - receives every record
+     */
+    public static void decode(final ByteBuffer block, final RecordConsumer consumer) {
+        final int start = block.position();
+        final int records = block.getInt(start + COUNT_IDX);
+        final var payload = block.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+        payload.position(start + HEADER_SIZE)
+               .limit(start + HEADER_SIZE + block.getInt(start + LENGTH_IDX));
+
+        final int[] values = new int[TelemetryField.COUNT];
+        long timestamp = block.getLong(start + FIRST_IDX);
+        long delta = 0;
+        for (int r = 0; r < records; r++) {
+            if (r > 0) {
+                delta += unzigzag(getVarLong(payload));
+                timestamp += delta;
+            }
+            for (int i = 0; i < TelemetryField.COUNT; i++) {
+                values[i] += (int) unzigzag(getVarLong(payload));
+            }
+            consumer.accept(timestamp, values);
+        }
+    }
+
+    /**
+     * This function maps signed values to unsigned ones, small magnitudes-
+     * to small values.
+     *
+     * @param value - the signed value
+     * @return long - the unsigned value
+     */
+    private static long zigzag(final long value) {
+        return (value << 1) ^ (value >> (Long.SIZE - 1));
+    }
+
+    /**
+     * This function reverts zigzag.
+     *
+     * @param value - the unsigned value
+     * @return long - the signed value
+     */
+    private static long unzigzag(final long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    /**
+     * This function writes a varint (7 bits per byte, least significant first).
+     *
+     * @param target - the target buffer
+     * @param value - the unsigned value
+     */
+    private static void putVarLong(final ByteBuffer target, final long value) {
+        long rest = value;
+        while ((rest & ~VARINT_MASK) != 0) {
+            target.put((byte) ((rest & VARINT_MASK) | VARINT_MORE));
+            rest >>>= VARINT_BITS;
+        }
+        target.put((byte) rest);
+    }
+
+    /**
+     * This function reads a varint.
+     *
+     * @param source - the source buffer
+     * @return long - the unsigned value
+     */
+    private static long getVarLong(final ByteBuffer source) {
+        long value = 0;
+        int shift = 0;
+        byte b;
+        do {
+            b = source.get();
+            value |= (long) (b & VARINT_MASK) << shift;
+            shift += VARINT_BITS;
+        } while ((b & VARINT_MORE) != 0);
+        return value;
+    }
+}
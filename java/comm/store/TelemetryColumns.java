@@ -0,0 +1,107 @@
+package comm.store;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+
+/**
+ * This class holds decoded telemetry records as primitive columns, one array-
+ * per field, so an analysis scans them without creating objects.
+ */
+public final class TelemetryColumns {
+    /**
+     * The timestamps in ms.
+     */
+    private final long[] timestamps;
+    /**
+     * The values, indexed by the ordinal of the TelemetryField and the row.
+     */
+    private final int[][] columns;
+    /**
+     * The number of rows.
+     */
+    private int size;
+
+    /**
+     * Constructor, creates empty columns.
+     *
+     * @param capacity - the maximum number of rows
+     */
+    public TelemetryColumns(final int capacity) {
+        this.timestamps = new long[capacity];
+        this.columns = new int[TelemetryField.COUNT][capacity];
+        this.size = 0;
+    }
+
+    /**
+     * This function decodes consecutive blocks of a block file (see-
+     * TelemetryStore) into columns. The file may be read by several threads-
+     * at once.
+     *
+     * @param blocks - the block file
+     * @param first - the index of the first block
+     * @param count - the number of blocks
+     * @return TelemetryColumns - the records of the blocks
+     * @throws IOException if the file could not be read
+     */
+    public static TelemetryColumns read(final FileChannel blocks, final int first,
+            final int count) throws IOException {
+        final var buffer = ByteBuffer.allocate(count * TelemetryBlock.BLOCK_SIZE)
+                                     .order(ByteOrder.LITTLE_ENDIAN);
+        TelemetryStore.readFully(blocks, buffer, (long) first * TelemetryBlock.BLOCK_SIZE);
+
+        int capacity = 0;
+        for (int i = 0; i < count; i++) {
+            capacity += TelemetryBlock.getCount(buffer.position(i * TelemetryBlock.BLOCK_SIZE));
+        }
+        final var result = new TelemetryColumns(capacity);
+        for (int i = 0; i < count; i++) {
+            result.decode(buffer.position(i * TelemetryBlock.BLOCK_SIZE));
+        }
+        return result;
+    }
+
+    /**
+     * This method appends the records of an encoded block.
+     *
+     * @param block - the block (little endian), its position is not changed
+     */
+    public void decode(final ByteBuffer block) {
+        TelemetryBlock.decode(block, (timestamp, values) -> {
+            this.timestamps[this.size] = timestamp;
+            for (int i = 0; i < TelemetryField.COUNT; i++) {
+                this.columns[i][this.size] = values[i];
+            }
+            this.size++;
+        });
+    }
+
+    /**
+     * This method returns the number of rows.
+     *
+     * @return int - the number of rows
+     */
+    public int size() {
+        return this.size;
+    }
+
+    /**
+     * This method returns the column of the timestamps.
+     *
+     * @return long[] - the timestamps in ms (valid up to size())
+     */
+    public long[] getTimestamps() {
+        return this.timestamps;
+    }
+
+    /**
+     * This method returns the column of a field.
+     *
+     * @param field - the field
+     * @return int[] - the values (valid up to size())
+     */
+    public int[] getColumn(final TelemetryField field) {
+        return this.columns[field.ordinal()];
+    }
+}
@@ -0,0 +1,100 @@
+package comm.store;
+
+import static comm.Constants.BYTE_MAX;
+
+import comm.protocol.StatusInfo;
+import comm.protocol.TelemetryData;
+import comm.protocol.UnsignedShort;
+
+/**
+ * This enum represents the fields of the telemetry data, that are stored-
+ * as columns. The ordinal is the index of the field in a record.
+ */
+public enum TelemetryField {
+    /**
+     * The direction of the wind.
+     */
+    WIND_DIRECTION,
+    /**
+     * The speed of the wind.
+     */
+    WIND_SPEED,
+    /**
+     * The speed of the agent.
+     */
+    AGENT_SPEED,
+    /**
+     * The position of the agent in the x-axis.
+     */
+    AGENT_POS_X,
+    /**
+     * The position of the agent in the y-axis.
+     */
+    AGENT_POS_Y,
+    /**
+     * The battery status of the agent (unsigned).
+     */
+    BATTERY_STATUS,
+    /**
+     * The direction of the agent.
+     */
+    AGENT_DIRECTION,
+    /**
+     * The status information (unsigned).
+     */
+    STATUS_INFO;
+
+    /**
+     * The number of fields.
+     */
+    public static final int COUNT = values().length;
+
+    /**
+     * This method returns the value of the field.
+     *
+     * @param data - the telemetry data
+     * @return int - the value
+     */
+    public int get(final TelemetryData data) {
+        return switch (this) {
+            case WIND_DIRECTION -> data.windDirection().getAsInt();
+            case WIND_SPEED -> data.windSpeed().getAsInt();
+            case AGENT_SPEED -> data.agentSpeed().getAsInt();
+            case AGENT_POS_X -> data.agentPosX();
+            case AGENT_POS_Y -> data.agentPosY();
+            case BATTERY_STATUS -> data.batteryStatus() & BYTE_MAX;
+            case AGENT_DIRECTION -> data.agentDirection().getAsInt();
+            case STATUS_INFO -> data.statusInfo().value() & BYTE_MAX;
+        };
+    }
+
+    /**
+     * This function writes the values of all fields into a record.
+     *
+     * @param data - the telemetry data
+     * @param values - the record, indexed by the ordinal of the field
+     */
+    public static void toValues(final TelemetryData data, final int[] values) {
+        for (final var field : values()) {
+            values[field.ordinal()] = field.get(data);
+        }
+    }
+
+    /**
+     * This function creates the telemetry data of a record.
+     *
+     * @param values - the record, indexed by the ordinal of the field
+     * @return TelemetryData - the telemetry data
+     */
+    public static TelemetryData toTelemetryData(final int[] values) {
+        return new TelemetryData(
+            new UnsignedShort(values[WIND_DIRECTION.ordinal()]),
+            new UnsignedShort(values[WIND_SPEED.ordinal()]),
+            new UnsignedShort(values[AGENT_SPEED.ordinal()]),
+            (short) values[AGENT_POS_X.ordinal()],
+            (short) values[AGENT_POS_Y.ordinal()],
+            (byte) values[BATTERY_STATUS.ordinal()],
+            new UnsignedShort(values[AGENT_DIRECTION.ordinal()]),
+            new StatusInfo((byte) values[STATUS_INFO.ordinal()]));
+    }
+}
@@ -0,0 +1,503 @@
+package comm.store;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import comm.ConnectionHandler;
+import comm.TelemetrySnapshot;
+import comm.protocol.TelemetryData;
+
+/**
+ * This class stores the telemetry data persistently and compressed, so a-
+ * season of missions fits on the disk and time ranges are read in ms.
+ *
+ * The records are compressed into blocks of TelemetryBlock.BLOCK_SIZE bytes,-
+ * that are appended to the file BLOCKS_FILE. The first and the last-
+ * timestamp of every block are kept in an index, so a range query only-
+ * reads the blocks, that overlap the range (binary search). The index is-
+ * rebuilt from the block headers on open. The block being filled is kept in-
+ * memory and rewritten on every flush.
+ * Rollups (min, max and mean per minute) are maintained as the records-
+ * arrive. The store is flushed to the disk every FLUSH_INTERVAL ms of-
+ * telemetry, the blocks before the rollups. On open the rollups from the-
+ * bucket of the last stored record on are rebuilt from the records, so a-
+ * crash loses at most the last interval and leaves them consistent.
+ *
+ * The records are appended by one thread in the order of their timestamps,-
+ * queries can run in any thread.
+ */
+public final class TelemetryStore {
+
+    /**
+     * The name of the file of the blocks.
+     */
+    public static final String BLOCKS_FILE = "telemetry.blocks";
+    /**
+     * The initial capacity of the block index.
+     */
+    private static final int INITIAL_INDEX_CAPACITY = 64;
+    /**
+     * The interval of the flushes to the disk in ms of telemetry.
+     */
+    private static final long FLUSH_INTERVAL = 10_000;
+
+    /**
+     * The directory of the store.
+     */
+    private final Path directory;
+    /**
+     * The file of the blocks.
+     */
+    private final FileChannel blocks;
+    /**
+     * The block being filled.
+     */
+    private final TelemetryBlock active;
+    /**
+     * The buffer of a block read from the file.
+     */
+    private final ByteBuffer readBuffer;
+    /**
+     * The values of the record being appended.
+     */
+    private final int[] values;
+    /**
+     * The rollups of every resolution.
+     */
+    private final Map<Rollup.Resolution, RollupSeries> rollups;
+    /**
+     * The first timestamp of every completed block.
+     */
+    private long[] firstTimestamps;
+    /**
+     * The last timestamp of every completed block.
+     */
+    private long[] lastTimestamps;
+    /**
+     * The number of completed blocks.
+     */
+    private int completed;
+    /**
+     * The number of records.
+     */
+    private long size;
+    /**
+     * The timestamp of the last record in ms.
+     */
+    private long lastTimestamp;
+    /**
+     * The timestamp of the record of the last flush in ms.
+     */
+    private long lastFlush;
+    /**
+     * The sequence number of the last stored snapshot of a handler.
+     */
+    private long lastSequence;
+
+    /**
+     * The logger.
+     */
+    private static final Logger LOGGER = LogManager.getLogger(TelemetryStore.class);
+
+    /**
+     * Constructor.
+     *
+     * @param storeDirectory - the directory of the store
+     * @param blockChannel - the file of the blocks
+     * @throws IOException if the rollups could not be opened
+     */
+    private TelemetryStore(final Path storeDirectory, final FileChannel blockChannel)
+            throws IOException {
+        this.directory = storeDirectory;
+        this.blocks = blockChannel;
+        this.active = new TelemetryBlock();
+        this.readBuffer = ByteBuffer.allocate(TelemetryBlock.BLOCK_SIZE)
+                                    .order(ByteOrder.LITTLE_ENDIAN);
+        this.values = new int[TelemetryField.COUNT];
+        this.rollups = new EnumMap<>(Rollup.Resolution.class);
+        for (final var resolution : Rollup.Resolution.values()) {
+            this.rollups.put(resolution, new RollupSeries(storeDirectory.resolve(
+                "rollup-" + resolution.name().toLowerCase() + ".dat"), resolution));
+        }
+        this.firstTimestamps = new long[INITIAL_INDEX_CAPACITY];
+        this.lastTimestamps = new long[INITIAL_INDEX_CAPACITY];
+        this.completed = 0;
+        this.size = 0;
+        this.lastTimestamp = Long.MIN_VALUE;
+        this.lastFlush = Long.MIN_VALUE;
+        this.lastSequence = 0;
+    }
+
+    /**
+     * This function opens (or creates) a store. The index is rebuilt from the-
+     * block headers, a block, that is not full, is continued.
+     *
+     * @param directory - the directory of the store
+     * @return Optional<TelemetryStore> - the store, empty if it could not be opened
+     */
+    public static Optional<TelemetryStore> open(final Path directory) {
+        FileChannel channel = null;
+        try {
+            Files.createDirectories(directory);
+            channel = FileChannel.open(directory.resolve(BLOCKS_FILE), StandardOpenOption.CREATE,
+                                       StandardOpenOption.READ, StandardOpenOption.WRITE);
+            final var store = new TelemetryStore(directory, channel);
+            store.load();
+            store.rebuildRollups();
+            return Optional.of(store);
+        } catch (IOException e) {
+            LOGGER.error("Failed to open the telemetry store {}", directory, e);
+            if (channel != null) {
+                try {
+                    channel.close();
+                } catch (IOException ignored) {
+                }
+            }
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * This method stores every new frame of a handler.
+     *
+     * @param handler - the handler, whose telemetry data is stored
+     */
+    public void attach(final ConnectionHandler handler) {
+        handler.attach(() -> this.append(handler.getTelemetrySnapshot()));
+    }
+
+    /**
+     * This method appends a snapshot, that is newer than the last one.
+     *
+     * @param snapshot - the snapshot, null is ignored
+     * @return boolean - true if the snapshot was stored, false otherwise
+     */
+    public synchronized boolean append(final TelemetrySnapshot snapshot) {
+        if (snapshot == null || snapshot.sequence() <= this.lastSequence) {
+            return false;
+        }
+        this.lastSequence = snapshot.sequence();
+        return this.append(snapshot.sourceTimestamp(), snapshot.data());
+    }
+
+    /**
+     * This method appends a record.
+     *
+     * @param timestamp - the timestamp in ms, not before the last one
+     * @param data - the telemetry data
+     * @return boolean - true if the record was stored, false if it is older-
+     *         than the last one or could not be written
+     */
+    public synchronized boolean append(final long timestamp, final TelemetryData data) {
+        if (timestamp < this.lastTimestamp) {
+            LOGGER.warn("Telemetry of {} is older than the last record ({}) -> Dropped",
+                timestamp, this.lastTimestamp);
+            return false;
+        }
+
+        TelemetryField.toValues(data, this.values);
+        try {
+            if (!this.active.append(timestamp, this.values)) {
+                this.completeBlock();
+                this.active.append(timestamp, this.values);
+            }
+            for (final var series : this.rollups.values()) {
+                series.add(timestamp, this.values);
+            }
+        } catch (IOException e) {
+            LOGGER.error("Failed to write the telemetry store {}", this.directory, e);
+            return false;
+        }
+
+        this.lastTimestamp = timestamp;
+        this.size++;
+        if (this.lastFlush == Long.MIN_VALUE) {
+            this.lastFlush = timestamp;
+        } else if (timestamp - this.lastFlush >= FLUSH_INTERVAL) {
+            this.lastFlush = timestamp;
+            return this.flush();
+        }
+        return true;
+    }
+
+    /**
+     * This method writes the block being filled and the current rollups to-
+     * the disk, the blocks first.
+     *
+     * @return boolean - true if the store was written, false otherwise
+     */
+    public synchronized boolean flush() {
+        try {
+            if (this.active.getCount() > 0) {
+                this.writeBlock(this.completed);
+            }
+            this.blocks.force(false);
+            for (final var series : this.rollups.values()) {
+                series.flush();
+                series.force();
+            }
+            return true;
+        } catch (IOException e) {
+            LOGGER.error("Failed to flush the telemetry store {}", this.directory, e);
+            return false;
+        }
+    }
+
+    /**
+     * This method flushes and closes the store.
+     */
+    public synchronized void close() {
+        this.flush();
+        try {
+            this.blocks.close();
+            for (final var series : this.rollups.values()) {
+                series.close();
+            }
+        } catch (IOException e) {
+            LOGGER.warn("Failed to close the telemetry store {}", this.directory, e);
+        }
+    }
+
+    /**
+     * This method returns the number of records.
+     *
+     * @return long - the number of records
+     */
+    public synchronized long size() {
+        return this.size;
+    }
+
+    /**
+     * This method returns the size of the stored blocks.
+     *
+     * @return long - the size in bytes
+     */
+    public synchronized long getStoredBytes() {
+        return (long) (this.completed + (this.active.getCount() > 0 ? 1 : 0))
+               * TelemetryBlock.BLOCK_SIZE;
+    }
+
+    /**
+     * This method passes the records of a time range to a consumer, in the-
+     * order of their timestamps.
+     *
+     * @param from - the start of the range in ms (inclusive)
+     * @param to - the end of the range in ms (inclusive)
+     * @param consumer - receives every record of the range
+     * @return boolean - true if the range was read, false if the file could-
+     *         not be read
+     */
+    public synchronized boolean query(final long from, final long to,
+            final TelemetryBlock.RecordConsumer consumer) {
+        final TelemetryBlock.RecordConsumer filter = (timestamp, record) -> {
+            if (timestamp >= from && timestamp <= to) {
+                consumer.accept(timestamp, record);
+            }
+        };
+
+        //The first block, that ends in the range
+        int low = 0;
+        int high = this.completed;
+        while (low < high) {
+            final int mid = (low + high) >>> 1;
+            if (this.lastTimestamps[mid] < from) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+
+        try {
+            for (int i = low; i < this.completed && this.firstTimestamps[i] <= to; i++) {
+                TelemetryBlock.decode(this.readBlock(i), filter);
+            }
+        } catch (IOException e) {
+            LOGGER.error("Failed to read the telemetry store {}", this.directory, e);
+            return false;
+        }
+
+        if (this.active.getCount() > 0 && this.active.getLastTimestamp() >= from
+                && this.active.getFirstTimestamp() <= to) {
+            TelemetryBlock.decode(this.active.toBuffer(), filter);
+        }
+        return true;
+    }
+
+    /**
+     * This method returns the records of a time range.
+     *
+     * @param from - the start of the range in ms (inclusive)
+     * @param to - the end of the range in ms (inclusive)
+     * @return List<StoredTelemetry> - the records in the order of their timestamps
+     */
+    public List<StoredTelemetry> query(final long from, final long to) {
+        final List<StoredTelemetry> result = new ArrayList<>();
+        this.query(from, to, (timestamp, record) -> result.add(
+            new StoredTelemetry(timestamp, TelemetryField.toTelemetryData(record))));
+        return result;
+    }
+
+    /**
+     * This method returns the rollups of a time range.
+     *
+     * @param resolution - the resolution of the rollups
+     * @param from - the start of the range in ms (inclusive)
+     * @param to - the end of the range in ms (inclusive)
+     * @return List<Rollup> - the rollups of the buckets, that overlap the-
+     *         range, in the order of time
+     */
+    public synchronized List<Rollup> getRollups(final Rollup.Resolution resolution,
+            final long from, final long to) {
+        try {
+            return this.rollups.get(resolution).query(from, to);
+        } catch (IOException e) {
+            LOGGER.error("Failed to read the rollups of {}", this.directory, e);
+            return List.of();
+        }
+    }
+
+    /**
+     * This method rebuilds the index from the block headers and continues-
+     * the last block, if it is not full.
+     *
+     * @throws IOException if the file could not be read
+     */
+    private void load() throws IOException {
+        final int stored = (int) (this.blocks.size() / TelemetryBlock.BLOCK_SIZE);
+        for (int i = 0; i < stored; i++) {
+            final var block = this.readBlock(i);
+            this.size += TelemetryBlock.getCount(block);
+            this.lastTimestamp = TelemetryBlock.getLastTimestamp(block);
+            this.addToIndex(TelemetryBlock.getFirstTimestamp(block), this.lastTimestamp);
+        }
+        if (stored == 0) {
+            return;
+        }
+
+        //Encoding the records of the last block again gives the same block,-
+        //which is continued, if it can take more records
+        this.completed--;
+        TelemetryBlock.decode(this.readBlock(this.completed), this.active::append);
+        if (this.active.isFull()) {
+            this.completed++;
+            this.active.clear();
+        }
+    }
+
+    /**
+     * This method rebuilds the rollups from the bucket of the last stored-
+     * record (or the last bucket of a rollup, that is behind) on, so records-
+     * lost in a crash are dropped from the rollups and rollups lost are-
+     * restored from the records.
+     *
+     * @throws IOException if the files could not be read or written
+     */
+    private void rebuildRollups() throws IOException {
+        for (final var entry : this.rollups.entrySet()) {
+            final var series = entry.getValue();
+            final long from = this.size == 0 ? Long.MIN_VALUE
+                              : Math.min(series.getStart(),
+                                         entry.getKey().getStart(this.lastTimestamp));
+            series.truncate(from);
+            try {
+                if (!this.query(from, this.lastTimestamp, (timestamp, values) -> {
+                    try {
+                        series.add(timestamp, values);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                })) {
+                    throw new IOException("Failed to read the records of the rollups");
+                }
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+        }
+    }
+
+    /**
+     * This method writes the full block and starts a new one.
+     *
+     * @throws IOException if the block could not be written
+     */
+    private void completeBlock() throws IOException {
+        this.writeBlock(this.completed);
+        this.addToIndex(this.active.getFirstTimestamp(), this.active.getLastTimestamp());
+        this.active.clear();
+    }
+
+    /**
+     * This method adds a completed block to the index.
+     *
+     * @param first - the first timestamp of the block in ms
+     * @param last - the last timestamp of the block in ms
+     */
+    private void addToIndex(final long first, final long last) {
+        if (this.completed == this.firstTimestamps.length) {
+            this.firstTimestamps = Arrays.copyOf(this.firstTimestamps, this.completed * 2);
+            this.lastTimestamps = Arrays.copyOf(this.lastTimestamps, this.completed * 2);
+        }
+        this.firstTimestamps[this.completed] = first;
+        this.lastTimestamps[this.completed] = last;
+        this.completed++;
+    }
+
+    /**
+     * This method writes the block being filled into its place in the file.
+     *
+     * @param index - the index of the block
+     * @throws IOException if the block could not be written
+     */
+    private void writeBlock(final int index) throws IOException {
+        final var buffer = this.active.toBuffer();
+        final long position = (long) index * TelemetryBlock.BLOCK_SIZE;
+        while (buffer.hasRemaining()) {
+            this.blocks.write(buffer, position + buffer.position());
+        }
+    }
+
+    /**
+     * This method reads a block of the file.
+     *
+     * @param index - the index of the block
+     * @return ByteBuffer - the block, valid until the next read
+     * @throws IOException if the block could not be read
+     */
+    private ByteBuffer readBlock(final int index) throws IOException {
+        readFully(this.blocks, this.readBuffer.clear(), (long) index * TelemetryBlock.BLOCK_SIZE);
+        return this.readBuffer.flip();
+    }
+
+    /**
+     * This function reads a buffer from a position of a file.
+     *
+     * @param channel - the file
+     * @param buffer - the buffer, filled up to its limit
+     * @param position - the position in the file
+     * @throws IOException if the file could not be read or ended before
+     */
+    static void readFully(final FileChannel channel, final ByteBuffer buffer, final long position)
+            throws IOException {
+        final int start = buffer.position();
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position() - start) < 0) {
+                throw new IOException("Unexpected end of file at " + position);
+            }
+        }
+    }
+}
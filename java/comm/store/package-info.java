@@ -0,0 +1,5 @@
+/**
+ * The store package contains the persistent, compressed store of the
+ * received telemetry data and its rollups.
+ */
+package comm.store;
@@ -0,0 +1,373 @@
+package comm.track;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * This class represents a polygon, that the sail agent must stay inside
+ * (course area) or outside (obstacle) of. Positions are NED (x north, y east)
+ * in m.
+ *
+ * The polygon is compiled once into a grid over its bounding box: a cell,
+ * that no edge crosses, is completely inside or outside, a cell with edges
+ * stores them together with the side of its center. A point is tested by
+ * counting the edges between it and the center of its cell, so a test costs
+ * a few edges regardless of the number of vertices.
+ */
+public final class Geofence {
+    /**
+     * This enum represents what the sail agent must do.
+     */
+    public enum Type {
+        /**
+         * The sail agent must stay inside the polygon (e.g. the course area).
+         */
+        KEEP_IN,
+        /**
+         * The sail agent must stay outside the polygon (e.g. an obstacle).
+         */
+        KEEP_OUT
+    }
+
+    /**
+     * The name of the fence (used in log messages).
+     */
+    private final String name;
+    /**
+     * The type of the fence.
+     */
+    private final Type type;
+    /**
+     * The x coordinates of the vertices.
+     */
+    private final double[] vertexX;
+    /**
+     * The y coordinates of the vertices.
+     */
+    private final double[] vertexY;
+    /**
+     * The minimal x of the bounding box.
+     */
+    private final double minX;
+    /**
+     * The minimal y of the bounding box.
+     */
+    private final double minY;
+    /**
+     * The edge length of a cell in m.
+     */
+    private final double cellSize;
+    /**
+     * The number of cells in x.
+     */
+    private final int columns;
+    /**
+     * The number of cells in y.
+     */
+    private final int rows;
+    /**
+     * Flag if the center of every cell is inside the polygon.
+     */
+    private final boolean[] isCenterInside;
+    /**
+     * The indices of the edges crossing every cell, null if none does.
+     */
+    private final int[][] cellEdges;
+
+    /**
+     * The default number of cells along the longer side of the bounding box.
+     */
+    public static final int DEFAULT_RESOLUTION = 32;
+    /**
+     * The minimal number of vertices of a polygon.
+     */
+    private static final int MIN_VERTICES = 3;
+
+    /**
+     * Constructor.
+     *
+     * @param fenceName - the name of the fence
+     * @param fenceType - the type of the fence
+     * @param xs - the x coordinates of the vertices
+     * @param ys - the y coordinates of the vertices
+     * @param resolution - the number of cells along the longer side
+     */
+    private Geofence(final String fenceName, final Type fenceType,
+            final double[] xs, final double[] ys, final int resolution) {
+        this.name = fenceName;
+        this.type = fenceType;
+        this.vertexX = xs.clone();
+        this.vertexY = ys.clone();
+
+        double lowX = Double.MAX_VALUE;
+        double lowY = Double.MAX_VALUE;
+        double highX = -Double.MAX_VALUE;
+        double highY = -Double.MAX_VALUE;
+        for (int i = 0; i < xs.length; i++) {
+            lowX = Math.min(lowX, xs[i]);
+            lowY = Math.min(lowY, ys[i]);
+            highX = Math.max(highX, xs[i]);
+            highY = Math.max(highY, ys[i]);
+        }
+
+        this.minX = lowX;
+        this.minY = lowY;
+        this.cellSize = Math.max(highX - lowX, highY - lowY) / resolution;
+        this.columns = Math.max(1, (int) Math.ceil((highX - lowX) / this.cellSize));
+        this.rows = Math.max(1, (int) Math.ceil((highY - lowY) / this.cellSize));
+        this.isCenterInside = new boolean[this.columns * this.rows];
+        this.cellEdges = new int[this.columns * this.rows][];
+        this.compile();
+    }
+
+    /**
+     * This function compiles a polygon with the default resolution.
+     *
+     * @param name - the name of the fence
+     * @param type - the type of the fence
+     * @param xs - the x coordinates of the vertices (north in m)
+     * @param ys - the y coordinates of the vertices (east in m)
+     * @return Geofence - the compiled fence
+     */
+    public static Geofence compile(final String name, final Type type,
+            final double[] xs, final double[] ys) {
+        return compile(name, type, xs, ys, DEFAULT_RESOLUTION);
+    }
+
+    /**
+     * This function compiles a polygon.
+     *
+     * @param name - the name of the fence
+     * @param type - the type of the fence
+     * @param xs - the x coordinates of the vertices (north in m)
+     * @param ys - the y coordinates of the vertices (east in m)
+     * @param resolution - the number of cells along the longer side of the-
+     *        bounding box (more cells = less edges per test, more memory)
+     * @return Geofence - the compiled fence
+     * @throws IllegalArgumentException if the polygon is degenerated
+     */
+    public static Geofence compile(final String name, final Type type,
+            final double[] xs, final double[] ys, final int resolution) {
+        if (xs.length != ys.length || xs.length < MIN_VERTICES || resolution <= 0) {
+            throw new IllegalArgumentException("Invalid polygon: " + name);
+        }
+
+        for (int i = 0; i < xs.length; i++) {
+            if (!Double.isFinite(xs[i]) || !Double.isFinite(ys[i])) {
+                throw new IllegalArgumentException("Invalid vertex of polygon: " + name);
+            }
+        }
+
+        final double width = Arrays.stream(xs).max().getAsDouble()
+                             - Arrays.stream(xs).min().getAsDouble();
+        final double height = Arrays.stream(ys).max().getAsDouble()
+                              - Arrays.stream(ys).min().getAsDouble();
+        if (width <= 0 || height <= 0) {
+            throw new IllegalArgumentException("Degenerated polygon: " + name);
+        }
+
+        return new Geofence(name, type, xs, ys, resolution);
+    }
+
+    /**
+     * This method returns the name of the fence.
+     *
+     * @return String - the name
+     */
+    public String getName() {
+        return this.name;
+    }
+
+    /**
+     * This method returns the type of the fence.
+     *
+     * @return Type - the type
+     */
+    public Type getType() {
+        return this.type;
+    }
+
+    /**
+     * This method checks if a position is allowed by the fence.
+     *
+     * @param x - the position north in m
+     * @param y - the position east in m
+     * @return boolean - true if the position is allowed, false on a breach
+     */
+    public boolean allows(final double x, final double y) {
+        return this.contains(x, y) == (this.type == Type.KEEP_IN);
+    }
+
+    /**
+     * This method checks if a position is inside the polygon.
+     *
+     * @param x - the position north in m
+     * @param y - the position east in m
+     * @return boolean - true if the position is inside, false otherwise
+     */
+    public boolean contains(final double x, final double y) {
+        final int column = (int) Math.floor((x - this.minX) / this.cellSize);
+        final int row = (int) Math.floor((y - this.minY) / this.cellSize);
+        if (column < 0 || column >= this.columns || row < 0 || row >= this.rows) {
+            return false;
+        }
+
+        final int cell = column * this.rows + row;
+        boolean isInside = this.isCenterInside[cell];
+        final var edges = this.cellEdges[cell];
+        if (edges != null) {
+            //Every edge between the center and the position changes the side
+            final double centerX = this.minX + (column + 0.5) * this.cellSize;
+            final double centerY = this.minY + (row + 0.5) * this.cellSize;
+            for (final int edge : edges) {
+                if (this.crosses(edge, centerX, centerY, x, y)) {
+                    isInside = !isInside;
+                }
+            }
+        }
+
+        return isInside;
+    }
+
+    /**
+     * This method classifies every cell of the grid.
+     */
+    private void compile() {
+        final List<List<Integer>> edges = new ArrayList<>(this.columns * this.rows);
+        for (int i = 0; i < this.columns * this.rows; i++) {
+            edges.add(null);
+        }
+
+        //Assign every edge to the cells its bounding box overlaps
+        final int count = this.vertexX.length;
+        for (int edge = 0; edge < count; edge++) {
+            final int next = (edge + 1) % count;
+            final int firstColumn = this.clampColumn(Math.min(this.vertexX[edge], this.vertexX[next]));
+            final int lastColumn = this.clampColumn(Math.max(this.vertexX[edge], this.vertexX[next]));
+            final int firstRow = this.clampRow(Math.min(this.vertexY[edge], this.vertexY[next]));
+            final int lastRow = this.clampRow(Math.max(this.vertexY[edge], this.vertexY[next]));
+
+            for (int column = firstColumn; column <= lastColumn; column++) {
+                for (int row = firstRow; row <= lastRow; row++) {
+                    final int cell = column * this.rows + row;
+                    if (edges.get(cell) == null) {
+                        edges.set(cell, new ArrayList<>());
+                    }
+                    edges.get(cell).add(edge);
+                }
+            }
+        }
+
+        for (int column = 0; column < this.columns; column++) {
+            for (int row = 0; row < this.rows; row++) {
+                final int cell = column * this.rows + row;
+                this.isCenterInside[cell] = this.containsExact(
+                                                this.minX + (column + 0.5) * this.cellSize,
+                                                this.minY + (row + 0.5) * this.cellSize);
+                if (edges.get(cell) != null) {
+                    this.cellEdges[cell] = edges.get(cell).stream()
+                                                .mapToInt(Integer::intValue).toArray();
+                }
+            }
+        }
+    }
+
+    /**
+     * This method checks by ray casting over all edges, if a position is-
+     * inside the polygon (only used to compile the grid).
+     *
+     * @param x - the position north in m
+     * @param y - the position east in m
+     * @return boolean - true if the position is inside, false otherwise
+     */
+    private boolean containsExact(final double x, final double y) {
+        boolean isInside = false;
+        final int count = this.vertexX.length;
+        for (int i = 0, j = count - 1; i < count; j = i++) {
+            if ((this.vertexY[i] > y) != (this.vertexY[j] > y)
+                    && x < (this.vertexX[j] - this.vertexX[i]) * (y - this.vertexY[i])
+                           / (this.vertexY[j] - this.vertexY[i]) + this.vertexX[i]) {
+                isInside = !isInside;
+            }
+        }
+        return isInside;
+    }
+
+    /**
+     * This method checks if an edge crosses the segment between two positions.
+     * The end points of the edge are treated half-open, so a segment through-
+     * a vertex is counted once.
+     *
+     * @param edge - the index of the edge
+     * @param ax - the x of the first position
+     * @param ay - the y of the first position
+     * @param bx - the x of the second position
+     * @param by - the y of the second position
+     * @return boolean - true if the edge crosses the segment, false otherwise
+     */
+    private boolean crosses(final int edge, final double ax, final double ay,
+            final double bx, final double by) {
+        final int next = (edge + 1) % this.vertexX.length;
+        final double px = this.vertexX[edge];
+        final double py = this.vertexY[edge];
+        final double qx = this.vertexX[next];
+        final double qy = this.vertexY[next];
+
+        //The edge must separate the positions and the segment must separate-
+        //the end points of the edge (half-open)
+        final double sideA = cross(px, py, qx, qy, ax, ay);
+        final double sideB = cross(px, py, qx, qy, bx, by);
+        if ((sideA > 0) == (sideB > 0)) {
+            return false;
+        }
+
+        final double sideP = cross(ax, ay, bx, by, px, py);
+        final double sideQ = cross(ax, ay, bx, by, qx, qy);
+        return (sideP > 0) != (sideQ > 0);
+    }
+
+    /**
+     * This function calculates on which side of the line a-b a position is.
+     *
+     * @param ax - the x of the first point of the line
+     * @param ay - the y of the first point of the line
+     * @param bx - the x of the second point of the line
+     * @param by - the y of the second point of the line
+     * @param x - the x of the position
+     * @param y - the y of the position
+     * @return double - positive on the left side, negative on the right side
+     */
+    private static double cross(final double ax, final double ay, final double bx,
+            final double by, final double x, final double y) {
+        return (bx - ax) * (y - ay) - (by - ay) * (x - ax);
+    }
+
+    /**
+     * This method returns the column of a position, clamped to the grid.
+     *
+     * @param x - the position north in m
+     * @return int - the column
+     */
+    private int clampColumn(final double x) {
+        return Math.max(0, Math.min(this.columns - 1,
+                        (int) Math.floor((x - this.minX) / this.cellSize)));
+    }
+
+    /**
+     * This method returns the row of a position, clamped to the grid.
+     *
+     * @param y - the position east in m
+     * @return int - the row
+     */
+    private int clampRow(final double y) {
+        return Math.max(0, Math.min(this.rows - 1,
+                        (int) Math.floor((y - this.minY) / this.cellSize)));
+    }
+
+    @Override
+    public String toString() {
+        return "Geofence [name=" + this.name + ", type=" + this.type
+                + ", vertices=" + this.vertexX.length + "]";
+    }
+}
@@ -0,0 +1,168 @@
+package comm.track;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import comm.ConnectionHandler;
+import comm.protocol.CliftonCommand;
+
+import utils.observer_pattern.Observer;
+
+/**
+ * This class checks every received telemetry frame against the geofences
+ * and adds it to the track index.
+ * When the sail agent breaches a fence, the route is stopped once via.
+ * CliftonCommand.stopRoute(); the fence is armed again, as soon as the
+ * agent is back in the allowed area.
+ */
+public final class GeofenceMonitor implements Observer {
+    /**
+     * This class holds a fence and whether it is breached.
+     */
+    private static final class FenceState {
+        /**
+         * The compiled fence.
+         */
+        private final Geofence fence;
+        /**
+         * Flag if the last position breached the fence.
+         */
+        private boolean isBreached;
+
+        /**
+         * Constructor.
+         *
+         * @param geofence - the compiled fence
+         */
+        FenceState(final Geofence geofence) {
+            this.fence = geofence;
+        }
+    }
+
+    /**
+     * The handler, whose telemetry data is checked.
+     */
+    private final ConnectionHandler handler;
+    /**
+     * The index of the track, null if the track is not recorded.
+     */
+    private final TrackIndex track;
+    /**
+     * The fences and their states.
+     */
+    private final List<FenceState> fences;
+    /**
+     * Called on every breach (optional).
+     */
+    private volatile Consumer<Geofence> breachListener;
+    /**
+     * The sequence number of the last checked frame, guarded by this.
+     */
+    private long lastSequence;
+
+    /**
+     * The logger.
+     */
+    private static final Logger LOGGER = LogManager.getLogger(GeofenceMonitor.class);
+
+    /**
+     * Constructor.
+     *
+     * @param connectionHandler - the handler, whose telemetry data is checked
+     * @param trackIndex - the index of the track, null to not record the track
+     */
+    private GeofenceMonitor(final ConnectionHandler connectionHandler,
+            final TrackIndex trackIndex) {
+        this.handler = connectionHandler;
+        this.track = trackIndex;
+        this.fences = new CopyOnWriteArrayList<>();
+        this.breachListener = null;
+        this.lastSequence = 0;
+    }
+
+    /**
+     * This function creates a monitor and attaches it to a handler.
+     *
+     * @param connectionHandler - the handler, whose telemetry data is checked
+     * @param trackIndex - the index of the track, null to not record the track
+     * @return GeofenceMonitor - the attached monitor
+     */
+    public static GeofenceMonitor attach(final ConnectionHandler connectionHandler,
+            final TrackIndex trackIndex) {
+        final var monitor = new GeofenceMonitor(connectionHandler, trackIndex);
+        connectionHandler.attach(monitor);
+        return monitor;
+    }
+
+    /**
+     * This method adds a fence, it is checked from the next frame on.
+     *
+     * @param fence - the compiled fence
+     */
+    public void addFence(final Geofence fence) {
+        this.fences.add(new FenceState(fence));
+    }
+
+    /**
+     * This method removes all fences.
+     */
+    public void clearFences() {
+        this.fences.clear();
+    }
+
+    /**
+     * This method sets the listener, that is called on every breach.
+     *
+     * @param listener - the listener or null
+     */
+    public void setBreachListener(final Consumer<Geofence> listener) {
+        this.breachListener = listener;
+    }
+
+    /**
+     * This method checks, if the last position breached a fence.
+     *
+     * @return boolean - true if any fence is breached, false otherwise
+     */
+    public synchronized boolean isBreached() {
+        return this.fences.stream().anyMatch(state -> state.isBreached);
+    }
+
+    /**
+     * This method is called by the handler for every received frame and-
+     * every change of the link state.
+     */
+    @Override
+    public synchronized void update() {
+        final var snapshot = this.handler.getTelemetrySnapshot();
+        if (snapshot == null || snapshot.sequence() == this.lastSequence) {
+            return;
+        }
+        this.lastSequence = snapshot.sequence();
+
+        final double x = snapshot.data().agentPosX();
+        final double y = snapshot.data().agentPosY();
+        if (this.track != null) {
+            this.track.add(x, y, snapshot.sourceTimestamp());
+        }
+
+        for (final var state : this.fences) {
+            final boolean wasBreached = state.isBreached;
+            state.isBreached = !state.fence.allows(x, y);
+            if (state.isBreached && !wasBreached) {
+                LOGGER.error("Geofence {} breached at ({}, {})...Stopping route",
+                    state.fence.getName(), x, y);
+                this.handler.sendCommand(CliftonCommand.stopRoute());
+
+                final var listener = this.breachListener;
+                if (listener != null) {
+                    listener.accept(state.fence);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,481 @@
+package comm.track;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * This class indexes the sailed track in a uniform grid, so region, time-
+ * window and nearest point queries only visit the cells around the query
+ * instead of every stored point.
+ *
+ * The points are stored in columns (arrays of primitives) in the order of
+ * arrival, every cell holds the indices of its points. Timestamps are kept
+ * non-decreasing, so the indices of a cell are also ordered by time and time
+ * windows are found by binary search. Points are added by one thread (the
+ * receive worker), queries can run in any thread.
+ */
+public final class TrackIndex {
+    /**
+     * This class holds the indices of the points of a cell.
+     */
+    private static final class Cell {
+        /**
+         * The indices of the points, ascending.
+         */
+        private int[] indices = new int[INITIAL_CELL_CAPACITY];
+        /**
+         * The number of points.
+         */
+        private int size;
+
+        /**
+         * This method adds the index of a point.
+         *
+         * @param index - the index of the point
+         */
+        void add(final int index) {
+            if (this.size == this.indices.length) {
+                this.indices = Arrays.copyOf(this.indices, this.size * 2);
+            }
+            this.indices[this.size++] = index;
+        }
+    }
+
+    /**
+     * The edge length of a cell in m.
+     */
+    private final double cellSize;
+    /**
+     * The cells, that contain points, by their key.
+     */
+    private final Map<Long, Cell> cells;
+    /**
+     * The position north of every point.
+     */
+    private double[] posX;
+    /**
+     * The position east of every point.
+     */
+    private double[] posY;
+    /**
+     * The timestamp of every point in ms.
+     */
+    private long[] timestamps;
+    /**
+     * The number of points.
+     */
+    private int size;
+    /**
+     * The smallest cell column of any point.
+     */
+    private long minColumn;
+    /**
+     * The largest cell column of any point.
+     */
+    private long maxColumn;
+    /**
+     * The smallest cell row of any point.
+     */
+    private long minRow;
+    /**
+     * The largest cell row of any point.
+     */
+    private long maxRow;
+    /**
+     * Guards the points and cells.
+     */
+    private final ReentrantReadWriteLock lock;
+
+    /**
+     * The default edge length of a cell in m.
+     */
+    public static final double DEFAULT_CELL_SIZE = 20;
+    /**
+     * The initial number of points.
+     */
+    private static final int INITIAL_CAPACITY = 1024;
+    /**
+     * The initial number of points of a cell.
+     */
+    private static final int INITIAL_CELL_CAPACITY = 8;
+    /**
+     * The number of bits of the row in the key of a cell.
+     */
+    private static final int ROW_BITS = 32;
+
+    /**
+     * Constructor with the default cell size.
+     */
+    public TrackIndex() {
+        this(DEFAULT_CELL_SIZE);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param size - the edge length of a cell in m (about the typical query radius)
+     */
+    public TrackIndex(final double size) {
+        if (!(size > 0)) {
+            throw new IllegalArgumentException("Invalid cell size: " + size);
+        }
+
+        this.cellSize = size;
+        this.cells = new HashMap<>();
+        this.posX = new double[INITIAL_CAPACITY];
+        this.posY = new double[INITIAL_CAPACITY];
+        this.timestamps = new long[INITIAL_CAPACITY];
+        this.lock = new ReentrantReadWriteLock();
+    }
+
+    /**
+     * This method appends a point to the track.
+     * A timestamp older than the last one is raised to the last one.
+     *
+     * @param x - the position north in m
+     * @param y - the position east in m
+     * @param timestamp - the time of the point in ms
+     * @return int - the index of the point
+     */
+    public int add(final double x, final double y, final long timestamp) {
+        final long column = this.toCell(x);
+        final long row = this.toCell(y);
+
+        this.lock.writeLock().lock();
+        try {
+            if (this.size == this.posX.length) {
+                final int capacity = this.size * 2;
+                this.posX = Arrays.copyOf(this.posX, capacity);
+                this.posY = Arrays.copyOf(this.posY, capacity);
+                this.timestamps = Arrays.copyOf(this.timestamps, capacity);
+            }
+
+            final int index = this.size++;
+            this.posX[index] = x;
+            this.posY[index] = y;
+            this.timestamps[index] = index == 0 ? timestamp
+                                     : Math.max(timestamp, this.timestamps[index - 1]);
+            this.cells.computeIfAbsent(key(column, row), k -> new Cell()).add(index);
+
+            if (index == 0) {
+                this.minColumn = column;
+                this.maxColumn = column;
+                this.minRow = row;
+                this.maxRow = row;
+            } else {
+                this.minColumn = Math.min(this.minColumn, column);
+                this.maxColumn = Math.max(this.maxColumn, column);
+                this.minRow = Math.min(this.minRow, row);
+                this.maxRow = Math.max(this.maxRow, row);
+            }
+
+            return index;
+        } finally {
+            this.lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * This method returns the number of points.
+     *
+     * @return int - the number of points
+     */
+    public int size() {
+        this.lock.readLock().lock();
+        try {
+            return this.size;
+        } finally {
+            this.lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * This method returns a point.
+     *
+     * @param index - the index of the point
+     * @return TrackPoint - the point
+     */
+    public TrackPoint get(final int index) {
+        this.lock.readLock().lock();
+        try {
+            if (index < 0 || index >= this.size) {
+                throw new IndexOutOfBoundsException(index);
+            }
+            return this.point(index);
+        } finally {
+            this.lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * This method finds all points within a rectangle and a time window.
+     *
+     * @param minX - the minimal position north in m
+     * @param minY - the minimal position east in m
+     * @param maxX - the maximal position north in m
+     * @param maxY - the maximal position east in m
+     * @param from - the start of the time window in ms (inclusive)
+     * @param to - the end of the time window in ms (inclusive)
+     * @return List<TrackPoint> - the points in the order of arrival
+     */
+    public List<TrackPoint> queryRegion(final double minX, final double minY,
+            final double maxX, final double maxY, final long from, final long to) {
+        final List<TrackPoint> result = new ArrayList<>();
+
+        this.lock.readLock().lock();
+        try {
+            if (this.size == 0) {
+                return result;
+            }
+
+            final long firstColumn = Math.max(this.toCell(minX), this.minColumn);
+            final long lastColumn = Math.min(this.toCell(maxX), this.maxColumn);
+            final long firstRow = Math.max(this.toCell(minY), this.minRow);
+            final long lastRow = Math.min(this.toCell(maxY), this.maxRow);
+
+            for (long column = firstColumn; column <= lastColumn; column++) {
+                for (long row = firstRow; row <= lastRow; row++) {
+                    final var cell = this.cells.get(key(column, row));
+                    if (cell == null) {
+                        continue;
+                    }
+
+                    for (int i = this.firstAtOrAfter(cell, from); i < cell.size; i++) {
+                        final int index = cell.indices[i];
+                        if (this.timestamps[index] > to) {
+                            break;
+                        }
+                        if (this.posX[index] >= minX && this.posX[index] <= maxX
+                                && this.posY[index] >= minY && this.posY[index] <= maxY) {
+                            result.add(this.point(index));
+                        }
+                    }
+                }
+            }
+        } finally {
+            this.lock.readLock().unlock();
+        }
+
+        result.sort((a, b) -> Integer.compare(a.index(), b.index()));
+        return result;
+    }
+
+    /**
+     * This method finds all points within a time window.
+     *
+     * @param from - the start of the time window in ms (inclusive)
+     * @param to - the end of the time window in ms (inclusive)
+     * @return List<TrackPoint> - the points in the order of arrival
+     */
+    public List<TrackPoint> queryTimeWindow(final long from, final long to) {
+        final List<TrackPoint> result = new ArrayList<>();
+
+        this.lock.readLock().lock();
+        try {
+            int index = lowerBound(this.timestamps, 0, this.size, from);
+            for (; index < this.size && this.timestamps[index] <= to; index++) {
+                result.add(this.point(index));
+            }
+        } finally {
+            this.lock.readLock().unlock();
+        }
+
+        return result;
+    }
+
+    /**
+     * This method finds the point nearest to a position.
+     * The rings of cells around the position are searched, until no-
+     * unvisited cell can contain a nearer point.
+     *
+     * @param x - the position north in m
+     * @param y - the position east in m
+     * @return Optional<TrackPoint> - the nearest point, empty if the track is empty
+     */
+    public Optional<TrackPoint> nearest(final double x, final double y) {
+        this.lock.readLock().lock();
+        try {
+            if (this.size == 0) {
+                return Optional.empty();
+            }
+
+            final long column = this.toCell(x);
+            final long row = this.toCell(y);
+            //The rings before the bounding box of the track are empty
+            final long firstRing = Math.max(0, Math.max(
+                    Math.max(this.minColumn - column, column - this.maxColumn),
+                    Math.max(this.minRow - row, row - this.maxRow)));
+            final long lastRing = Math.max(
+                    Math.max(Math.abs(column - this.minColumn), Math.abs(column - this.maxColumn)),
+                    Math.max(Math.abs(row - this.minRow), Math.abs(row - this.maxRow)));
+
+            int best = -1;
+            double bestDistance = Double.MAX_VALUE;
+            for (long ring = firstRing; ring <= lastRing; ring++) {
+                //Every point in this ring is at least (ring - 1) cells away
+                final double ringDistance = (ring - 1) * this.cellSize;
+                if (best >= 0 && ringDistance > 0 && ringDistance * ringDistance > bestDistance) {
+                    break;
+                }
+
+                final long firstColumn = Math.max(column - ring, this.minColumn);
+                final long lastColumn = Math.min(column + ring, this.maxColumn);
+                for (long c = firstColumn; c <= lastColumn; c++) {
+                    //Only the border of the ring is new
+                    final boolean isBorder = c == column - ring || c == column + ring;
+                    final long firstRow = Math.max(row - ring, this.minRow);
+                    final long lastRow = Math.min(row + ring, this.maxRow);
+                    for (long r = firstRow; r <= lastRow; r++) {
+                        if (!isBorder && r != row - ring && r != row + ring) {
+                            r = row + ring - 1;
+                            continue;
+                        }
+
+                        final int found = this.nearestInCell(this.cells.get(key(c, r)),
+                                                             x, y, bestDistance);
+                        if (found >= 0) {
+                            best = found;
+                            bestDistance = this.squaredDistance(found, x, y);
+                        }
+                    }
+                }
+            }
+
+            return Optional.of(this.point(best));
+        } finally {
+            this.lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * This method finds the point of a cell nearest to a position, the read-
+     * lock must be held.
+     *
+     * @param cell - the cell, null if it is empty
+     * @param x - the position north in m
+     * @param y - the position east in m
+     * @param bound - the squared distance of the nearest point so far
+     * @return int - the index of a nearer point, -1 if there is none
+     */
+    private int nearestInCell(final Cell cell, final double x, final double y,
+            final double bound) {
+        int best = -1;
+        double bestDistance = bound;
+        for (int i = 0; cell != null && i < cell.size; i++) {
+            final double distance = this.squaredDistance(cell.indices[i], x, y);
+            if (distance < bestDistance) {
+                bestDistance = distance;
+                best = cell.indices[i];
+            }
+        }
+        return best;
+    }
+
+    /**
+     * This method calculates the squared distance of a point to a position.
+     *
+     * @param index - the index of the point
+     * @param x - the position north in m
+     * @param y - the position east in m
+     * @return double - the squared distance in m^2
+     */
+    private double squaredDistance(final int index, final double x, final double y) {
+        final double dx = this.posX[index] - x;
+        final double dy = this.posY[index] - y;
+        return dx * dx + dy * dy;
+    }
+
+    /**
+     * This method removes all points.
+     */
+    public void clear() {
+        this.lock.writeLock().lock();
+        try {
+            this.cells.clear();
+            this.size = 0;
+        } finally {
+            this.lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * This method creates the point of an index, the read lock must be held.
+     *
+     * @param index - the index of the point
+     * @return TrackPoint - the point
+     */
+    private TrackPoint point(final int index) {
+        return new TrackPoint(index, this.posX[index], this.posY[index], this.timestamps[index]);
+    }
+
+    /**
+     * This method finds the first point of a cell at or after a time.
+     *
+     * @param cell - the cell
+     * @param from - the time in ms
+     * @return int - the position in the cell
+     */
+    private int firstAtOrAfter(final Cell cell, final long from) {
+        int low = 0;
+        int high = cell.size;
+        while (low < high) {
+            final int mid = (low + high) >>> 1;
+            if (this.timestamps[cell.indices[mid]] < from) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * This function finds the first element at or above a value.
+     *
+     * @param values - the ascending values
+     * @param from - the first index
+     * @param to - the end index (exclusive)
+     * @param value - the value
+     * @return int - the index of the first element at or above the value
+     */
+    private static int lowerBound(final long[] values, final int from, final int to,
+            final long value) {
+        int low = from;
+        int high = to;
+        while (low < high) {
+            final int mid = (low + high) >>> 1;
+            if (values[mid] < value) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * This method converts a position to the column or row of its cell.
+     *
+     * @param value - the position in m
+     * @return long - the column or row
+     */
+    private long toCell(final double value) {
+        return (long) Math.floor(value / this.cellSize);
+    }
+
+    /**
+     * This function combines the column and row of a cell to its key.
+     *
+     * @param column - the column
+     * @param row - the row
+     * @return long - the key
+     */
+    private static long key(final long column, final long row) {
+        return (column << ROW_BITS) ^ (row & 0xFFFF_FFFFL);
+    }
+}
@@ -0,0 +1,26 @@
+package comm.track;
+
+/**
+ * This record represents a point of the sailed track.
+ * Positions are NED (x north, y east) in m.
+ *
+ * @param index - the index of the point in the track (in order of arrival)
+ * @param posX - the position north in m
+ * @param posY - the position east in m
+ * @param timestamp - the time of the point in ms since the epoch
+ */
+public record TrackPoint(int index, double posX, double posY, long timestamp) {
+
+    /**
+     * This method calculates the squared distance to a position.
+     *
+     * @param x - the position north in m
+     * @param y - the position east in m
+     * @return double - the squared distance in m^2
+     */
+    public double squaredDistance(final double x, final double y) {
+        final double dx = this.posX - x;
+        final double dy = this.posY - y;
+        return dx * dx + dy * dy;
+    }
+}
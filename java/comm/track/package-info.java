@@ -0,0 +1,5 @@
+/**
+ * The track package contains the spatial index of the sailed track and the
+ * geofences, that are checked against every received telemetry frame.
+ */
+package comm.track;
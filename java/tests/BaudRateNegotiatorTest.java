@@ -0,0 +1,158 @@
+package comm;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.Optional;
+
+import org.junit.jupiter.api.Test;
+
+import comm.protocol.BaudRateAck;
+import comm.protocol.CommandFrame;
+import comm.protocol.StatusInfo;
+import comm.protocol.TelemetryData;
+import comm.protocol.UnsignedShort;
+
+/**
+ * This class is used to test the baud rate negotiation.
+ */
+public class BaudRateNegotiatorTest {
+
+    /**
+     * This class simulates the baud rate handling of the clifton.
+     * Frames are only understood, if both sides use the same baud rate.
+     */
+    private static final class FakeClifton implements IConnection {
+        /**
+         * True if the clifton acknowledges a confirmed baud rate.
+         */
+        private final boolean isAcknowledging;
+        /**
+         * The baud rate of the laptop.
+         */
+        private int laptopBaudRate;
+        /**
+         * The baud rate of the clifton.
+         */
+        private int cliftonBaudRate;
+        /**
+         * True if the clifton waits for the confirmation.
+         */
+        private boolean isTrial;
+        /**
+         * True if an acknowledgement is pending.
+         */
+        private boolean isAckPending;
+
+        /**
+         * Constructor.
+         *
+         * @param acknowledging - true if the clifton acknowledges a confirmed baud rate
+         */
+        FakeClifton(final boolean acknowledging) {
+            this.isAcknowledging = acknowledging;
+            this.laptopBaudRate = DEFAULT_BAUD_RATE;
+            this.cliftonBaudRate = DEFAULT_BAUD_RATE;
+        }
+
+        @Override
+        public void create() { }
+
+        @Override
+        public void close() { }
+
+        @Override
+        public boolean isConnected() {
+            return true;
+        }
+
+        @Override
+        public boolean sendData(final byte[] data) {
+            if (this.laptopBaudRate != this.cliftonBaudRate) {
+                return true;
+            }
+
+            for (final var command : CommandFrame.decodeFrame(data)) {
+                final int baudRate = new UnsignedShort(command.data()[0], command.data()[1])
+                                        .getAsInt() * 100;
+                if (baudRate == this.cliftonBaudRate) {
+                    this.isTrial = false;
+                    this.isAckPending = this.isAcknowledging;
+                } else if (!this.isTrial) {
+                    this.cliftonBaudRate = baudRate;
+                    this.isTrial = true;
+                }
+            }
+            return true;
+        }
+
+        @Override
+        public Optional<byte[]> receiveData(final int length) {
+            if (this.laptopBaudRate != this.cliftonBaudRate) {
+                return Optional.empty();
+            }
+            if (this.isAckPending) {
+                this.isAckPending = false;
+                return Optional.of(new BaudRateAck(this.cliftonBaudRate).toByteArray());
+            }
+
+            return Optional.of(new TelemetryData(new UnsignedShort(0), new UnsignedShort(0),
+                    new UnsignedShort(0), (short) 0, (short) 0, (byte) 100, new UnsignedShort(0),
+                    new StatusInfo((byte) 1)).toByteArray());
+        }
+
+        @Override
+        public Optional<byte[]> receiveData() {
+            return this.receiveData(0);
+        }
+
+        @Override
+        public boolean setBaudRate(final int baudRate) {
+            this.laptopBaudRate = baudRate;
+            return true;
+        }
+
+        @Override
+        public int getBaudRate() {
+            return this.laptopBaudRate;
+        }
+    }
+
+    /**
+     * The default baud rate of both sides.
+     */
+    private static final int DEFAULT_BAUD_RATE = 38400;
+
+    /**
+     * Tests that the laptop commits the baud rate after the acknowledgement.
+     */
+    @Test
+    public void testAcknowledgedBaudRate() {
+        final var clifton = new FakeClifton(true);
+
+        assertEquals(115200, new BaudRateNegotiator(115200).negotiate(clifton));
+        assertEquals(115200, clifton.cliftonBaudRate);
+    }
+
+    /**
+     * Tests that the laptop falls back without the acknowledgement, even if-
+     * the clifton confirmed the baud rate and stays there until its loss timeout.
+     */
+    @Test
+    public void testMissingAcknowledgement() {
+        final var clifton = new FakeClifton(false);
+
+        assertEquals(DEFAULT_BAUD_RATE, new BaudRateNegotiator(115200).negotiate(clifton));
+        assertEquals(DEFAULT_BAUD_RATE, clifton.getBaudRate());
+    }
+
+    /**
+     * Tests the conversion of the acknowledgement.
+     */
+    @Test
+    public void testBaudRateAckConversion() {
+        final byte[] frame = new BaudRateAck(230400).toByteArray();
+
+        assertEquals(Optional.of(new BaudRateAck(230400)), BaudRateAck.fromByteArray(frame));
+        assertEquals(Optional.empty(), BaudRateAck.fromByteArray(new byte[frame.length - 1]));
+    }
+}
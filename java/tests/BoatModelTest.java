@@ -0,0 +1,84 @@
+package comm;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+import comm.sim.BoatModel;
+import comm.sim.PolarDiagram;
+
+/**
+ * This class is used to test the BoatModel class of the simulation.
+ */
+public class BoatModelTest {
+
+    /**
+     * The time step of the simulation in seconds.
+     */
+    private static final double DT = 0.1;
+
+    /**
+     * The number of simulated steps (one minute).
+     */
+    private static final int STEPS = 600;
+
+    /**
+     * The wind direction (wind from north).
+     */
+    private static final double WIND_DIRECTION = 0;
+
+    /**
+     * The wind speed in cm/s.
+     */
+    private static final double WIND_SPEED = 1000;
+
+    /**
+     * The commanded course (beam reach to the east).
+     */
+    private static final double COURSE = 90;
+
+    /**
+     * This method tests that the boat turns to the course and sails east.
+     */
+    @Test
+    public void testBeamReach() {
+        final var boat = new BoatModel(PolarDiagram.createDefault(), 0);
+        boat.setCourse(COURSE);
+        boat.setRouteRunning(true);
+
+        for (int i = 0; i < STEPS; i++) {
+            boat.step(DT, WIND_DIRECTION, WIND_SPEED);
+        }
+
+        assertEquals(COURSE, boat.getHeading(), 1e-6);
+        assertEquals(PolarDiagram.createDefault().getBoatSpeed(COURSE, WIND_SPEED),
+                     boat.getSpeed(), 1.0);
+        assertTrue(boat.getPosY() > 0);
+        assertTrue(boat.getBattery() < 100);
+    }
+
+    /**
+     * This method tests that the boat can not sail into the wind.
+     */
+    @Test
+    public void testNoGoZone() {
+        final var boat = new BoatModel(PolarDiagram.createDefault(), WIND_DIRECTION);
+        boat.setRouteRunning(true);
+
+        for (int i = 0; i < STEPS; i++) {
+            boat.step(DT, WIND_DIRECTION, WIND_SPEED);
+        }
+
+        assertEquals(0, boat.getSpeed(), 1e-9);
+    }
+
+    /**
+     * This method tests the wrap around of the shortest angle difference.
+     */
+    @Test
+    public void testAngleDifference() {
+        assertEquals(20, BoatModel.angleDifference(10, 350), 1e-9);
+        assertEquals(-20, BoatModel.angleDifference(350, 10), 1e-9);
+    }
+}
@@ -5,9 +5,18 @@ import org.junit.jupiter.api.Test;
 import static comm.protocol.CliftonCommand.heartbeat;
 import static comm.protocol.CliftonCommand.startRoute;
 import static comm.protocol.CliftonCommand.stopRoute;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import java.nio.charset.StandardCharsets;
 import java.util.Arrays;
+import java.util.List;
+
+import comm.protocol.CliftonCommand;
+import comm.protocol.CommandFrame;
+import comm.protocol.CommandFrameReader;
 
 import static comm.protocol.CliftonCommand.setCourse;
 
@@ -20,18 +29,18 @@ public class CliftonCommandTest {
      * The raw bytes for the heartbeat command.
      */
     private static final byte[] HEARTBEAT_RAW
-        = new byte[] { 0x00, 0x00, 0x00 };
+        = new byte[] { 0x00, 0x00 };
 
     /**
      * The raw bytes for the start route command.
      */
     private static final byte[] START_ROUTE_RAW
-        = new byte[] { 0x01, 0x00, 0x00 };
+        = new byte[] { 0x01, 0x00 };
     /**
      * The raw bytes for the stop route command.
      */
     private static final byte[] STOP_ROUTE_RAW
-        = new byte[] { 0x02, 0x00, 0x00 };
+        = new byte[] { 0x02, 0x00 };
     /**
      * The course to set.
      */
@@ -40,7 +49,7 @@ public class CliftonCommandTest {
      * The raw bytes for the set course command.
      */
     private static final byte[] SET_COURSE_RAW
-        = new byte[] { 0x03, 0x67, 0x01 };
+        = new byte[] { 0x03, 0x02, 0x67, 0x01 };
 
     /**
      * This method tests the creation of the command.
@@ -52,4 +61,72 @@ public class CliftonCommandTest {
         assertTrue(Arrays.equals(stopRoute().toByteArray(), STOP_ROUTE_RAW));
         assertTrue(Arrays.equals(setCourse(COURSE).toByteArray(), SET_COURSE_RAW));
     }
+
+    /**
+     * This method tests that several commands are packed into one frame.
+     */
+    @Test
+    public void testFramePacking() {
+        final byte[] frame = CommandFrame.encode(stopRoute(), setCourse(COURSE));
+        assertArrayEquals(new byte[] { (byte) 0xA5, 0x06, 0x02, 0x00, 0x03, 0x02, 0x67, 0x01,
+                                       (byte) 0x8B, (byte) 0xAC }, frame);
+
+        final List<CliftonCommand> commands = CommandFrame.decodeFrame(frame);
+        assertEquals(2, commands.size());
+        assertEquals(CliftonCommand.ID.STOP_ROUTE, commands.get(0).id());
+        assertArrayEquals(setCourse(COURSE).data(), commands.get(1).data());
+    }
+
+    /**
+     * This method tests that unknown, too short and truncated commands are skipped.
+     */
+    @Test
+    public void testFrameSkipsUnknownCommands() {
+        final byte[] body = new byte[] {
+            0x7F, 0x03, 0x01, 0x02, 0x03,   //Unknown type
+            0x03, 0x01, 0x05,               //SET_COURSE without its second byte
+            0x03, 0x03, 0x67, 0x01, 0x09,   //SET_COURSE with an appended field
+            0x01, 0x05, 0x00                //Truncated
+        };
+
+        final var commands = CommandFrame.decode(body);
+        assertEquals(1, commands.size());
+        assertEquals(CliftonCommand.ID.SET_COURSE, commands.get(0).id());
+        assertEquals(COURSE, (commands.get(0).data()[1] & 0xFF) << 8
+                             | commands.get(0).data()[0] & 0xFF);
+        assertFalse(CliftonCommand.ID.fromByte((byte) 0x7F).isPresent());
+    }
+
+    /**
+     * This method tests the CRC against the check value of CRC-16 (CCITT).
+     */
+    @Test
+    public void testFrameCrc() {
+        final byte[] check = "123456789".getBytes(StandardCharsets.US_ASCII);
+        assertEquals(0x29B1, CommandFrame.crc(check, 0, check.length));
+    }
+
+    /**
+     * This method tests that the reader skips garbage and corrupted frames-
+     * and resynchronizes on the following frame, even if it is split.
+     */
+    @Test
+    public void testFrameResynchronization() {
+        final byte[] corrupted = CommandFrame.encode(startRoute());
+        corrupted[CommandFrame.HEADER_SIZE] ^= 0x01;
+        final byte[] valid = CommandFrame.encode(stopRoute(), setCourse(COURSE));
+
+        final var reader = new CommandFrameReader();
+        assertTrue(reader.read(new byte[] { 0x11, CommandFrame.SYNC, 0x01 }).isEmpty());
+        assertTrue(reader.read(corrupted).isEmpty());
+        assertTrue(reader.read(Arrays.copyOf(valid, 3)).isEmpty());
+        final var commands = reader.read(Arrays.copyOfRange(valid, 3, valid.length));
+
+        assertEquals(2, commands.size());
+        assertEquals(CliftonCommand.ID.STOP_ROUTE, commands.get(0).id());
+        assertEquals(CliftonCommand.ID.SET_COURSE, commands.get(1).id());
+        assertEquals(0, reader.getBufferedBytes());
+        assertEquals(3L + corrupted.length, reader.getSkippedBytes());
+        assertTrue(CommandFrame.decodeFrame(corrupted).isEmpty());
+    }
 }
@@ -0,0 +1,154 @@
+package comm;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import comm.protocol.CliftonCommand;
+import comm.protocol.CommandFrame;
+
+/**
+ * This class is used to test the priority and the deadlines of the-
+ * CommandQueue.
+ */
+public class CommandQueueTest {
+
+    /**
+     * Tests that STOP_ROUTE is sent before the commands queued earlier.
+     */
+    @Test
+    public void testPriority() {
+        final var queue = new CommandQueue(CommandQueue.DEFAULT_CAPACITY);
+        final var course = CliftonCommand.setCourse(90);
+        final var baudRate = CliftonCommand.setBaudRate(19200);
+        final var stop = CliftonCommand.stopRoute();
+        assertTrue(queue.offer(baudRate, 0));
+        assertTrue(queue.offer(stop, 0));
+        assertTrue(queue.offer(course, 0));
+
+        final var frame = new CommandFrame();
+        assertEquals(3, queue.pack(frame, CommandFrame.MAX_BODY_LENGTH, 0));
+        assertArrayEquals(CommandFrame.encode(stop, course, baudRate), frame.toByteArray());
+        assertEquals(List.of(stop, course, baudRate), queue.commitPacked());
+        assertTrue(queue.isEmpty());
+    }
+
+    /**
+     * Tests that a full queue keeps the more important commands.
+     */
+    @Test
+    public void testOverflow() {
+        final var queue = new CommandQueue(2);
+        final List<CliftonCommand> dropped = new ArrayList<>();
+        queue.setOverflowListener(dropped::add);
+
+        final var first = CliftonCommand.setBaudRate(19200);
+        final var second = CliftonCommand.setBaudRate(38400);
+        final var third = CliftonCommand.setBaudRate(57600);
+        final var course = CliftonCommand.setCourse(90);
+        assertTrue(queue.offer(first, 0));
+        assertTrue(queue.offer(second, 0));
+
+        //The same priority is rejected, a higher one replaces the newest
+        assertFalse(queue.offer(third, 0));
+        assertTrue(queue.offer(course, 0));
+        assertEquals(List.of(third, second), dropped);
+        assertEquals(2, queue.size());
+
+        queue.pack(new CommandFrame(), CommandFrame.MAX_BODY_LENGTH, 0);
+        assertEquals(List.of(course, first), queue.commitPacked());
+    }
+
+    /**
+     * Tests that stale commands are dropped instead of sent.
+     */
+    @Test
+    public void testExpiry() {
+        final var queue = new CommandQueue(CommandQueue.DEFAULT_CAPACITY);
+        final List<CliftonCommand> expired = new ArrayList<>();
+        queue.setExpiryListener(expired::add);
+
+        final var course = CliftonCommand.setCourse(90);
+        final var stop = CliftonCommand.stopRoute();
+        final var start = CliftonCommand.startRoute();
+        queue.offer(stop, 0);
+        queue.offer(course, 0);
+        queue.offer(start, CommandQueue.COURSE_TIME_TO_LIVE);
+
+        assertEquals(0, queue.expire(CommandQueue.COURSE_TIME_TO_LIVE - 1));
+        assertEquals(1, queue.expire(CommandQueue.COURSE_TIME_TO_LIVE));
+        assertEquals(List.of(course), expired);
+
+        //STOP_ROUTE never expires
+        final var frame = new CommandFrame();
+        assertEquals(1, queue.pack(frame, CommandFrame.MAX_BODY_LENGTH, Long.MAX_VALUE - 1));
+        assertEquals(List.of(stop), queue.commitPacked());
+        assertEquals(List.of(course, start), expired);
+    }
+
+    /**
+     * Tests that commands of a frame, that was not sent, are queued again.
+     */
+    @Test
+    public void testRestorePacked() {
+        final var queue = new CommandQueue(CommandQueue.DEFAULT_CAPACITY);
+        final var baudRate = CliftonCommand.setBaudRate(19200);
+        final var stop = CliftonCommand.stopRoute();
+        queue.offer(baudRate, 0);
+        queue.offer(stop, 0);
+
+        assertEquals(2, queue.pack(new CommandFrame(), CommandFrame.MAX_BODY_LENGTH, 0));
+        assertTrue(queue.isEmpty());
+        queue.restorePacked();
+        assertEquals(2, queue.size());
+
+        queue.pack(new CommandFrame(), CommandFrame.MAX_BODY_LENGTH, 0);
+        assertEquals(List.of(stop, baudRate), queue.commitPacked());
+    }
+
+    /**
+     * Tests that STOP_ROUTE supersedes the route commands queued before it,-
+     * so START_ROUTE is never sent after it.
+     */
+    @Test
+    public void testStopSupersedesRoute() {
+        final var queue = new CommandQueue(CommandQueue.DEFAULT_CAPACITY);
+        final List<CliftonCommand> superseded = new ArrayList<>();
+        queue.setSupersededListener(superseded::add);
+
+        final var start = CliftonCommand.startRoute();
+        final var course = CliftonCommand.setCourse(90);
+        final var stop = CliftonCommand.stopRoute();
+        queue.offer(start, 0);
+        queue.offer(course, 0);
+        queue.offer(stop, 0);
+        assertEquals(List.of(start, course), superseded);
+
+        final var frame = new CommandFrame();
+        queue.pack(frame, CommandFrame.MAX_BODY_LENGTH, 0);
+        assertArrayEquals(CommandFrame.encode(stop), frame.toByteArray());
+        assertEquals(List.of(stop), queue.commitPacked());
+
+        //A START_ROUTE of a frame, that was not sent, is superseded as well
+        final var restart = CliftonCommand.startRoute();
+        queue.offer(restart, 0);
+        assertEquals(1, queue.pack(new CommandFrame(), CommandFrame.MAX_BODY_LENGTH, 0));
+        queue.offer(stop, 0);
+        queue.restorePacked();
+        queue.pack(new CommandFrame(), CommandFrame.MAX_BODY_LENGTH, 0);
+        assertEquals(List.of(stop), queue.commitPacked());
+        assertEquals(List.of(start, course, restart), superseded);
+
+        //A START_ROUTE queued after the stop is sent after it
+        queue.offer(stop, 0);
+        queue.offer(restart, 0);
+        queue.pack(new CommandFrame(), CommandFrame.MAX_BODY_LENGTH, 0);
+        assertEquals(List.of(stop, restart), queue.commitPacked());
+    }
+}
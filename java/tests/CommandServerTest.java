@@ -0,0 +1,223 @@
+package comm;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.junit.jupiter.api.Test;
+
+import comm.protocol.CliftonCommand;
+import comm.protocol.CommandFrame;
+import comm.server.CommandArbiter;
+import comm.server.CommandArbiter.Verdict;
+import comm.server.CommandServer;
+
+/**
+ * This class is used to test the arbitration of the commands of local-
+ * controllers and the command server.
+ */
+public class CommandServerTest {
+
+    /**
+     * The timeout for waiting on the server in ms.
+     */
+    private static final int TIMEOUT = 1000;
+
+    /**
+     * Tests that a controller cannot exceed its rate, except for STOP_ROUTE.
+     */
+    @Test
+    public void testRateLimit() {
+        final List<CliftonCommand> queued = new CopyOnWriteArrayList<>();
+        final var arbiter = new CommandArbiter(queued::add, 10, 2);
+        final var autopilot = arbiter.register("autopilot", CommandArbiter.AUTOPILOT_RANK, 0);
+
+        assertEquals(Verdict.QUEUED, arbiter.submit(autopilot, CliftonCommand.setCourse(10), 0));
+        assertEquals(Verdict.QUEUED, arbiter.submit(autopilot, CliftonCommand.setCourse(20), 0));
+        assertEquals(Verdict.RATE_LIMITED,
+            arbiter.submit(autopilot, CliftonCommand.setCourse(30), 0));
+        assertEquals(Verdict.QUEUED, arbiter.submit(autopilot, CliftonCommand.stopRoute(), 0));
+
+        //10 commands/s refill a token in 100 ms
+        assertEquals(Verdict.RATE_LIMITED,
+            arbiter.submit(autopilot, CliftonCommand.setCourse(30), 99));
+        assertEquals(Verdict.QUEUED, arbiter.submit(autopilot, CliftonCommand.setCourse(30), 100));
+        assertEquals(Verdict.REJECTED,
+            arbiter.submit(autopilot, CliftonCommand.setBaudRate(19200), 1000));
+        assertEquals(4, queued.size());
+    }
+
+    /**
+     * Tests that a flood of STOP_ROUTE is coalesced into one queued command.
+     */
+    @Test
+    public void testStopCoalescing() {
+        final List<CliftonCommand> queued = new CopyOnWriteArrayList<>();
+        final var arbiter = new CommandArbiter(queued::add, CommandArbiter.DEFAULT_RATE,
+                                               CommandArbiter.DEFAULT_BURST);
+        final var autopilot = arbiter.register("autopilot", CommandArbiter.AUTOPILOT_RANK, 0);
+        final var operator = arbiter.register("operator", CommandArbiter.OPERATOR_RANK, 0);
+
+        assertEquals(Verdict.QUEUED, arbiter.submit(autopilot, CliftonCommand.stopRoute(), 0));
+        for (int i = 0; i < 100; i++) {
+            assertEquals(Verdict.COALESCED,
+                arbiter.submit(i % 2 == 0 ? autopilot : operator, CliftonCommand.stopRoute(), i));
+        }
+        assertEquals(Verdict.QUEUED, arbiter.submit(operator, CliftonCommand.stopRoute(),
+                                                    CommandArbiter.STOP_INTERVAL));
+        assertEquals(2, queued.size());
+    }
+
+    /**
+     * Tests that a STOP_ROUTE after a START_ROUTE is queued, even within-
+     * STOP_INTERVAL ms of the previous stop.
+     */
+    @Test
+    public void testStopAfterStart() {
+        final List<CliftonCommand> queued = new CopyOnWriteArrayList<>();
+        final var arbiter = new CommandArbiter(queued::add, CommandArbiter.DEFAULT_RATE,
+                                               CommandArbiter.DEFAULT_BURST);
+        final var operator = arbiter.register("operator", CommandArbiter.OPERATOR_RANK, 0);
+
+        assertEquals(Verdict.QUEUED, arbiter.submit(operator, CliftonCommand.stopRoute(), 0));
+        assertEquals(Verdict.QUEUED, arbiter.submit(operator, CliftonCommand.startRoute(), 10));
+        assertEquals(Verdict.QUEUED, arbiter.submit(operator, CliftonCommand.stopRoute(), 20));
+        assertEquals(Verdict.COALESCED, arbiter.submit(operator, CliftonCommand.stopRoute(), 30));
+        assertEquals(List.of(CliftonCommand.ID.STOP_ROUTE, CliftonCommand.ID.START_ROUTE,
+                             CliftonCommand.ID.STOP_ROUTE),
+                     queued.stream().map(CliftonCommand::id).toList());
+    }
+
+    /**
+     * Tests that the operator takes over the course from the autopilot, but-
+     * not the other way round.
+     */
+    @Test
+    public void testArbitration() {
+        final List<CliftonCommand> queued = new CopyOnWriteArrayList<>();
+        final var arbiter = new CommandArbiter(queued::add, CommandArbiter.DEFAULT_RATE,
+                                               CommandArbiter.DEFAULT_BURST);
+        final var autopilot = arbiter.register("autopilot", CommandArbiter.AUTOPILOT_RANK, 0);
+        final var operator = arbiter.register("operator", CommandArbiter.OPERATOR_RANK, 0);
+
+        assertEquals(Verdict.QUEUED, arbiter.submit(autopilot, CliftonCommand.setCourse(10), 0));
+        assertEquals(Verdict.QUEUED, arbiter.submit(operator, CliftonCommand.setCourse(20), 10));
+        assertEquals(Verdict.OVERRULED,
+            arbiter.submit(autopilot, CliftonCommand.setCourse(30), 20));
+        assertEquals(Verdict.QUEUED, arbiter.submit(autopilot, CliftonCommand.stopRoute(), 30));
+
+        //The autopilot gets the control back, when the lease of the operator ran out
+        assertEquals(Verdict.QUEUED, arbiter.submit(autopilot, CliftonCommand.setCourse(40),
+                                                    10 + CommandArbiter.CONTROL_LEASE));
+        assertEquals(autopilot, arbiter.getOwner(10 + CommandArbiter.CONTROL_LEASE));
+        arbiter.unregister(autopilot);
+        assertNull(arbiter.getOwner(10 + CommandArbiter.CONTROL_LEASE));
+        assertEquals(4, queued.size());
+    }
+
+    /**
+     * Tests that the server answers the commands of a client with verdicts-
+     * and that the rank of a client is given by the server.
+     */
+    @Test
+    public void testIngress() throws IOException {
+        final List<CliftonCommand> queued = new CopyOnWriteArrayList<>();
+        final var arbiter = new CommandArbiter(queued::add, CommandArbiter.DEFAULT_RATE,
+                                               CommandArbiter.DEFAULT_BURST);
+        final var operatorServer = new CommandServer(arbiter, Clock.system(), 0,
+                                                     CommandArbiter.OPERATOR_RANK);
+        final var autopilotServer = new CommandServer(arbiter, Clock.system(), 0,
+                                                      CommandArbiter.AUTOPILOT_RANK);
+        assertTrue(operatorServer.start());
+        assertTrue(autopilotServer.start());
+
+        try (var operator = new Socket(InetAddress.getLoopbackAddress(),
+                                       operatorServer.getPort());
+                var autopilot = new Socket(InetAddress.getLoopbackAddress(),
+                                           autopilotServer.getPort())) {
+            operator.setSoTimeout(TIMEOUT);
+            autopilot.setSoTimeout(TIMEOUT);
+
+            send(operator, CliftonCommand.startRoute(), CliftonCommand.setCourse(90));
+            assertEquals(Verdict.QUEUED, receive(operator));
+            assertEquals(Verdict.QUEUED, receive(operator));
+
+            //A leading byte of rank 0 is no command, the autopilot keeps its rank
+            autopilot.getOutputStream().write(CommandArbiter.OPERATOR_RANK);
+            send(autopilot, CliftonCommand.setCourse(180));
+            assertEquals(Verdict.OVERRULED, receive(autopilot));
+            assertEquals(List.of(CliftonCommand.ID.START_ROUTE, CliftonCommand.ID.SET_COURSE),
+                         queued.stream().map(CliftonCommand::id).toList());
+            assertEquals(2, operatorServer.getCommandsReceived());
+            assertEquals(1, autopilotServer.getCommandsReceived());
+        } finally {
+            operatorServer.close();
+            autopilotServer.close();
+        }
+    }
+
+    /**
+     * Tests that a client, that sends many commands before it reads the-
+     * verdicts, gets a verdict for every command instead of being dropped.
+     */
+    @Test
+    public void testVerdictBackpressure() throws IOException {
+        final var arbiter = new CommandArbiter(command -> true, CommandArbiter.DEFAULT_RATE,
+                                               CommandArbiter.DEFAULT_BURST);
+        final var server = new CommandServer(arbiter, Clock.system(), 0,
+                                             CommandArbiter.OPERATOR_RANK);
+        assertTrue(server.start());
+
+        final int frames = 50;
+        final var stops = new CliftonCommand[CommandFrame.MAX_BODY_LENGTH
+                                             / CliftonCommand.TLV_HEADER_SIZE];
+        Arrays.fill(stops, CliftonCommand.stopRoute());
+        try (var client = new Socket(InetAddress.getLoopbackAddress(), server.getPort())) {
+            client.setSoTimeout(TIMEOUT);
+            for (int i = 0; i < frames; i++) {
+                send(client, stops);
+            }
+
+            for (int i = 0; i < frames * stops.length; i++) {
+                receive(client);
+            }
+            assertEquals(frames * stops.length, server.getCommandsReceived());
+        } finally {
+            server.close();
+        }
+    }
+
+    /**
+     * This function sends a frame.
+     *
+     * @param client - the client
+     * @param commands - the commands of the frame
+     * @throws IOException if the data could not be sent
+     */
+    private static void send(final Socket client, final CliftonCommand... commands)
+            throws IOException {
+        final OutputStream output = client.getOutputStream();
+        output.write(CommandFrame.encode(commands));
+        output.flush();
+    }
+
+    /**
+     * This function receives a verdict of the server.
+     *
+     * @param client - the client
+     * @return Verdict - the verdict
+     * @throws IOException if no verdict was received in time
+     */
+    private static Verdict receive(final Socket client) throws IOException {
+        return Verdict.values()[new DataInputStream(client.getInputStream()).readUnsignedByte()];
+    }
+}
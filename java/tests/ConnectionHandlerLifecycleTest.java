@@ -0,0 +1,132 @@
+package comm;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import comm.protocol.CliftonCommand;
+import comm.protocol.CommandFrame;
+import comm.protocol.TelemetryLayout;
+
+/**
+ * This class tests the start and stop lifecycle of the ConnectionHandler
+ * via. an in-memory connection.
+ */
+public class ConnectionHandlerLifecycleTest {
+
+    /**
+     * Pseudo telemetry data for testing.
+     */
+    private static final byte[] TELEMETRY_DATA
+        = new byte[] { 0x01, 0x02, 0x03, 0x04,
+                       0x05, 0x06, 0x07, 0x08,
+                       0x09, 0x0A, 0x0B, 0x0C,
+                       0x0D, 0x0E };
+
+    /**
+     * The maximum accepted duration of close in ms.
+     */
+    private static final long MAX_CLOSE_TIME = 50;
+
+    /**
+     * The frame, that tells the clifton the telemetry layout at connect time.
+     */
+    private static final byte[] LAYOUT_FRAME
+        = CommandFrame.encode(CliftonCommand.layout(TelemetryLayout.CHECKSUM));
+
+    /**
+     * The IConnection instance for Clifton.
+     */
+    private IConnection clifton;
+
+    /**
+     * The ConnectionHandler instance for GUI.
+     */
+    private ConnectionHandler gui;
+
+    /**
+     * Sets up the in-memory link and starts the handler.
+     */
+    @BeforeEach
+    public void setUp() {
+        final var link = InMemoryConnection.createLink(InMemoryConnection.DEFAULT_CAPACITY);
+        this.clifton = link.clifton();
+        this.gui = new ConnectionHandler(link.laptop());
+        this.clifton.create();
+        assertTrue(this.gui.start());
+        assertArrayEquals(LAYOUT_FRAME, this.clifton.receiveData(LAYOUT_FRAME.length).orElseThrow());
+    }
+
+    /**
+     * Closes the handler and the link.
+     */
+    @AfterEach
+    public void cleanUp() {
+        this.clifton.close();
+        this.gui.close();
+        assertFalse(this.gui.isConnected());
+    }
+
+    /**
+     * Tests that close interrupts the blocked receive worker immediately.
+     */
+    @Test
+    public void testCloseIsFast() {
+        final long start = System.nanoTime();
+        this.gui.close();
+        final long elapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        assertTrue(elapsed < MAX_CLOSE_TIME, "close took " + elapsed + " ms");
+        assertFalse(this.gui.isConnected());
+        assertEquals(LinkState.LOST, this.gui.getLinkState());
+    }
+
+    /**
+     * Tests that the handler can be restarted and keeps its queue and metrics.
+     */
+    @Test
+    public void testRestartKeepsQueueAndMetrics() {
+        assertTrue(this.clifton.sendData(TELEMETRY_DATA));
+        awaitTelemetry(1);
+        this.gui.close();
+
+        //Commands sent while closed are transmitted after the restart
+        final var command = CliftonCommand.setCourse(42);
+        this.gui.sendCommand(command);
+        assertEquals(0, this.clifton.getAvailableBytes());
+
+        assertTrue(this.gui.start());
+        assertTrue(this.gui.isConnected());
+        assertArrayEquals(LAYOUT_FRAME, this.clifton.receiveData(LAYOUT_FRAME.length).orElseThrow());
+        final var frame = CommandFrame.encode(command);
+        assertArrayEquals(frame, this.clifton.receiveData(frame.length).orElseThrow());
+
+        assertTrue(this.clifton.sendData(TELEMETRY_DATA));
+        awaitTelemetry(2);
+        assertEquals(2, this.gui.getTelemetryReceived());
+    }
+
+    /**
+     * Waits until the handler received a number of telemetry frames.
+     *
+     * @param frames - the number of frames
+     */
+    private void awaitTelemetry(final long frames) {
+        final long deadline = System.currentTimeMillis() + 1000;
+        while (this.gui.getTelemetryReceived() < frames
+                && System.currentTimeMillis() < deadline) {
+            try {
+                Thread.sleep(1);
+            } catch (InterruptedException ignored) { }
+        }
+
+        assertEquals(frames, this.gui.getTelemetryReceived());
+    }
+}
@@ -7,6 +7,8 @@ import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import comm.protocol.CliftonCommand;
+import comm.protocol.CommandFrame;
 import comm.protocol.TelemetryData;
 import utils.observer_pattern.Observer;
 
@@ -130,7 +132,7 @@ public class ConnectionHandlerTest implements Observer {
         assertFalse(this.gui.isConnected());
 
         //Send telem data and receive heartbeat from GUI
-        final var heartbeatCmdSize = 3;
+        final var heartbeatCmdSize = CommandFrame.encode(CliftonCommand.heartbeat()).length;
         assertTrue(this.clifton.sendData(TELEMETRY_DATA));
         assertTrue(this.clifton.receiveData(heartbeatCmdSize).isPresent());
 
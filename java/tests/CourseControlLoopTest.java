@@ -0,0 +1,189 @@
+package comm;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import org.junit.jupiter.api.Test;
+
+import comm.control.CourseControlLoop;
+import comm.protocol.CliftonCommand;
+import comm.protocol.CommandFrame;
+import comm.protocol.Waypoint;
+import comm.sim.SailingSimulator;
+
+/**
+ * This class is used to test the closed course control loop.
+ */
+public class CourseControlLoopTest {
+
+    /**
+     * This class wraps the connection of the laptop, the writes of frames-
+     * with a SET_COURSE fail.
+     */
+    private static final class FailingCourseConnection implements IConnection {
+        /**
+         * The wrapped connection.
+         */
+        private final IConnection connection;
+
+        /**
+         * Constructor.
+         *
+         * @param conn - the wrapped connection
+         */
+        FailingCourseConnection(final IConnection conn) {
+            this.connection = conn;
+        }
+
+        @Override
+        public void create() {
+            this.connection.create();
+        }
+
+        @Override
+        public void close() {
+            this.connection.close();
+        }
+
+        @Override
+        public boolean sendData(final byte[] data) {
+            if (CommandFrame.decodeFrame(data).stream()
+                            .anyMatch(command -> command.id() == CliftonCommand.ID.SET_COURSE)) {
+                return false;
+            }
+            return this.connection.sendData(data);
+        }
+
+        @Override
+        public Optional<byte[]> receiveData(final int length) {
+            return this.connection.receiveData(length);
+        }
+
+        @Override
+        public Optional<byte[]> receiveData() {
+            return this.connection.receiveData();
+        }
+
+        @Override
+        public boolean isConnected() {
+            return this.connection.isConnected();
+        }
+
+        @Override
+        public boolean setBaudRate(final int baudRate) {
+            return this.connection.setBaudRate(baudRate);
+        }
+
+        @Override
+        public int getBaudRate() {
+            return this.connection.getBaudRate();
+        }
+    }
+
+    /**
+     * The timeout of the test in ms.
+     */
+    private static final long TIMEOUT = 5000;
+
+    /**
+     * Tests that the loop commands the course to the simulator and measures-
+     * every stage.
+     */
+    @Test
+    public void testClosedLoop() throws Exception {
+        final var link = InMemoryConnection.createLink(InMemoryConnection.DEFAULT_CAPACITY);
+        final var simulator = new SailingSimulator(link.clifton(), 50, 1);
+        final var gui = new ConnectionHandler(link.laptop());
+        //The waypoint lies east, across the wind
+        final var loop = CourseControlLoop.attach(gui,
+                            List.of(new Waypoint((short) 0, (short) 1000)));
+
+        assertTrue(simulator.start());
+        assertTrue(gui.start());
+        try {
+            gui.sendCommand(CliftonCommand.startRoute());
+            final long deadline = System.currentTimeMillis() + TIMEOUT;
+            while (loop.getLatency(CourseControlLoop.Stage.TOTAL).getCount() == 0
+                    && System.currentTimeMillis() < deadline) {
+                Thread.sleep(10);
+            }
+
+            assertEquals(1, loop.getLatency(CourseControlLoop.Stage.TOTAL).getCount());
+            assertEquals(1, loop.getCommandsIssued());
+            assertEquals(0, loop.getCommandsCoalesced());
+            assertFalse(loop.isFinished());
+
+            //The first frame, that reached the loop, caused the command
+            final var dispatch = loop.getLatency(CourseControlLoop.Stage.DISPATCH);
+            final var total = loop.getLatency(CourseControlLoop.Stage.TOTAL);
+            assertTrue(dispatch.getCount() >= 1);
+            assertEquals(dispatch.getCount(),
+                         loop.getLatency(CourseControlLoop.Stage.DECISION).getCount());
+            assertTrue(total.getMax() >= loop.getLatency(CourseControlLoop.Stage.TRANSMIT)
+                                             .getMax());
+            assertTrue(total.getMax() < TimeUnit.SECONDS.toNanos(1), total.toString());
+
+            //The heading follows the commanded course
+            final long turned = System.currentTimeMillis() + TIMEOUT;
+            while (gui.getCurrentTelemetryData().agentDirection().getAsInt() == 0
+                    && System.currentTimeMillis() < turned) {
+                Thread.sleep(10);
+            }
+            assertTrue(gui.getCurrentTelemetryData().agentDirection().getAsInt() > 0);
+        } finally {
+            gui.close();
+            simulator.stop();
+        }
+    }
+
+    /**
+     * Tests that a course, whose write failed, does not block the next one.
+     */
+    @Test
+    public void testFailedWrite() throws Exception {
+        final var link = InMemoryConnection.createLink(InMemoryConnection.DEFAULT_CAPACITY);
+        final var simulator = new SailingSimulator(link.clifton(), 50, 1);
+        final var gui = new ConnectionHandler(new FailingCourseConnection(link.laptop()));
+        final var loop = CourseControlLoop.attach(gui,
+                            List.of(new Waypoint((short) 0, (short) 1000)));
+        final List<CliftonCommand> dropped = new CopyOnWriteArrayList<>();
+        gui.addCommandDropListener(dropped::add);
+
+        assertTrue(simulator.start());
+        assertTrue(gui.start());
+        try {
+            waitFor(() -> dropped.size() == 1);
+            assertEquals(CliftonCommand.ID.SET_COURSE, dropped.get(0).id());
+
+            //The waypoint lies west now, the new course is queued at once
+            loop.setRoute(List.of(new Waypoint((short) 0, (short) -1000)));
+            waitFor(() -> loop.getCommandsIssued() == 2);
+            assertEquals(2, loop.getCommandsIssued());
+            assertEquals(0, gui.getCommandsTransmitted());
+        } finally {
+            gui.close();
+            simulator.stop();
+        }
+    }
+
+    /**
+     * This function waits until a condition holds or the timeout passed.
+     *
+     * @param condition - the condition
+     * @throws InterruptedException if the thread was interrupted
+     */
+    private static void waitFor(final BooleanSupplier condition)
+            throws InterruptedException {
+        final long deadline = System.currentTimeMillis() + TIMEOUT;
+        while (!condition.getAsBoolean() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+    }
+}
@@ -0,0 +1,139 @@
+package comm;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.SplittableRandom;
+
+import org.junit.jupiter.api.Test;
+
+import comm.protocol.CliftonCommand;
+import comm.protocol.CommandFrame;
+import comm.protocol.StatusInfo;
+import comm.protocol.TelemetryData;
+import comm.protocol.TelemetryLayout;
+import comm.protocol.UnsignedShort;
+import comm.track.Geofence;
+import comm.track.GeofenceMonitor;
+import comm.track.TrackIndex;
+
+/**
+ * This class is used to test the compiled geofences and the monitor.
+ */
+public class GeofenceTest {
+
+    /**
+     * The x coordinates of an L-shaped course area.
+     */
+    private static final double[] AREA_X = {0, 300, 300, 100, 100, 0};
+
+    /**
+     * The y coordinates of an L-shaped course area.
+     */
+    private static final double[] AREA_Y = {0, 0, 100, 100, 300, 300};
+
+    /**
+     * The timeout for waiting on telemetry data in ms.
+     */
+    private static final long TIMEOUT = 1000;
+
+    /**
+     * Tests the compiled fence against ray casting over all edges.
+     */
+    @Test
+    public void testContains() {
+        final var fence = Geofence.compile("area", Geofence.Type.KEEP_IN, AREA_X, AREA_Y, 7);
+        final var random = new SplittableRandom(2);
+
+        for (int i = 0; i < 10_000; i++) {
+            final double x = random.nextDouble(-50, 350);
+            final double y = random.nextDouble(-50, 350);
+            assertEquals(rayCasting(x, y), fence.contains(x, y), "(" + x + ", " + y + ")");
+        }
+
+        assertTrue(fence.allows(50, 250));
+        assertFalse(fence.allows(200, 200));
+    }
+
+    /**
+     * Tests that a breach stops the route once and the track is recorded.
+     */
+    @Test
+    public void testBreachStopsRoute() {
+        final var link = InMemoryConnection.createLink(InMemoryConnection.DEFAULT_CAPACITY);
+        final var clifton = link.clifton();
+        final var gui = new ConnectionHandler(link.laptop());
+        final var track = new TrackIndex();
+        final var monitor = GeofenceMonitor.attach(gui, track);
+        monitor.addFence(Geofence.compile("area", Geofence.Type.KEEP_IN, AREA_X, AREA_Y));
+
+        clifton.create();
+        assertTrue(gui.start());
+        try {
+            //The layout is sent at connect time
+            final var layout = CommandFrame.encode(CliftonCommand.layout(TelemetryLayout.CHECKSUM));
+            assertArrayEquals(layout, clifton.receiveData(layout.length).orElseThrow());
+
+            this.receive(clifton, gui, track, 50, 50);
+            assertFalse(monitor.isBreached());
+
+            this.receive(clifton, gui, track, 200, 200);
+            this.receive(clifton, gui, track, 210, 210);
+            assertTrue(monitor.isBreached());
+            assertEquals(3, track.size());
+
+            //The route is stopped once, not for every frame outside
+            final var frame = CommandFrame.encode(CliftonCommand.stopRoute());
+            assertArrayEquals(frame, clifton.receiveData(frame.length).orElseThrow());
+            assertEquals(0, clifton.getAvailableBytes());
+        } finally {
+            clifton.close();
+            gui.close();
+        }
+    }
+
+    /**
+     * This method sends a position and waits until the monitor checked it.
+     *
+     * @param clifton - the clifton end of the link
+     * @param gui - the handler
+     * @param track - the track recorded by the monitor
+     * @param x - the position north in m
+     * @param y - the position east in m
+     */
+    private void receive(final IConnection clifton, final ConnectionHandler gui,
+            final TrackIndex track, final int x, final int y) {
+        final int size = track.size();
+        assertTrue(clifton.sendData(new TelemetryData(new UnsignedShort(0), new UnsignedShort(0),
+                new UnsignedShort(0), (short) x, (short) y, (byte) 100, new UnsignedShort(0),
+                new StatusInfo((byte) 1)).toByteArray()));
+
+        //The observers are notified after the snapshot is published
+        final long deadline = System.currentTimeMillis() + TIMEOUT;
+        while (track.size() == size && System.currentTimeMillis() < deadline) {
+            Thread.onSpinWait();
+        }
+        assertEquals(size + 1, track.size());
+    }
+
+    /**
+     * This function checks by ray casting, if a position is in the area.
+     *
+     * @param x - the position north in m
+     * @param y - the position east in m
+     * @return boolean - true if the position is inside, false otherwise
+     */
+    private static boolean rayCasting(final double x, final double y) {
+        boolean isInside = false;
+        for (int i = 0, j = AREA_X.length - 1; i < AREA_X.length; j = i++) {
+            if ((AREA_Y[i] > y) != (AREA_Y[j] > y)
+                    && x < (AREA_X[j] - AREA_X[i]) * (y - AREA_Y[i])
+                           / (AREA_Y[j] - AREA_Y[i]) + AREA_X[i]) {
+                isInside = !isInside;
+            }
+        }
+        return isInside;
+    }
+}
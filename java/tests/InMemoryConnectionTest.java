@@ -0,0 +1,128 @@
+package comm;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * This class is used to test the in-memory link in virtual time.
+ */
+public class InMemoryConnectionTest {
+
+    /**
+     * The capacity of a direction of the link in bytes.
+     */
+    private static final int CAPACITY = 8;
+    /**
+     * The read and write timeout of the link in ms.
+     */
+    private static final long READ_WRITE_TIMEOUT = 3000;
+    /**
+     * The maximum time to wait for a thread in ms.
+     */
+    private static final long TIMEOUT = 1000;
+
+    /**
+     * The virtual clock of the timeouts.
+     */
+    private VirtualClock clock;
+    /**
+     * The end of the clifton.
+     */
+    private InMemoryConnection clifton;
+    /**
+     * The end of the laptop.
+     */
+    private InMemoryConnection laptop;
+
+    /**
+     * Creates and opens the link.
+     */
+    @BeforeEach
+    public void setUp() {
+        this.clock = new VirtualClock(0);
+        final var link = InMemoryConnection.createLink(CAPACITY, this.clock);
+        this.clifton = link.clifton();
+        this.laptop = link.laptop();
+        this.clifton.create();
+        this.laptop.create();
+    }
+
+    /**
+     * Tests that a full direction blocks the writer until the reader frees-
+     * space and that the bytes keep their order.
+     */
+    @Test
+    public void testCapacity() throws InterruptedException {
+        assertTrue(this.laptop.sendData(new byte[] {0, 1, 2, 3, 4, 5, 6, 7}));
+        assertEquals(CAPACITY, this.clifton.getAvailableBytes());
+        assertEquals(0, this.laptop.getAvailableBytes());
+
+        final var isSent = new AtomicBoolean();
+        final var writer = this.clock.newThread(
+            () -> isSent.set(this.laptop.sendData(new byte[] {8, 9, 10, 11})), "writer");
+        writer.start();
+        this.clock.advance(0);
+        assertTrue(writer.isAlive(), "The writer waits for space");
+
+        assertArrayEquals(new byte[] {0, 1, 2, 3}, this.clifton.receiveData(4).orElseThrow());
+        writer.join(TIMEOUT);
+        assertFalse(writer.isAlive());
+        assertTrue(isSent.get());
+        assertArrayEquals(new byte[] {4, 5, 6, 7, 8, 9, 10, 11},
+                          this.clifton.receiveData().orElseThrow());
+    }
+
+    /**
+     * Tests that a writer gives up after the timeout, if nobody reads.
+     */
+    @Test
+    public void testWriteTimeout() throws InterruptedException {
+        final var isSent = new AtomicBoolean(true);
+        final var writer = this.clock.newThread(
+            () -> isSent.set(this.laptop.sendData(new byte[CAPACITY + 1])), "writer");
+        writer.start();
+
+        this.clock.advance(READ_WRITE_TIMEOUT - 1);
+        assertTrue(writer.isAlive());
+        this.clock.advance(1);
+        writer.join(TIMEOUT);
+        assertFalse(writer.isAlive());
+        assertFalse(isSent.get());
+        assertEquals(CAPACITY, this.clifton.getAvailableBytes());
+    }
+
+    /**
+     * Tests that close wakes up a blocked reader of the closed end at once-
+     * and that the closed end neither sends nor receives.
+     */
+    @Test
+    public void testClose() throws InterruptedException {
+        final AtomicReference<Optional<byte[]>> received = new AtomicReference<>();
+        final var reader = this.clock.newThread(
+            () -> received.set(this.clifton.receiveData(1)), "reader");
+        reader.start();
+        this.clock.advance(0);
+        assertTrue(reader.isAlive(), "The reader waits for data");
+
+        this.clifton.close();
+        reader.join(TIMEOUT);
+        assertFalse(reader.isAlive());
+        assertTrue(received.get().isEmpty());
+        assertEquals(0L, this.clock.currentTimeMillis(), "No timeout passed");
+
+        assertFalse(this.clifton.isConnected());
+        assertFalse(this.clifton.sendData(new byte[] {1}));
+        assertTrue(this.laptop.sendData(new byte[] {1}));
+        assertTrue(this.clifton.receiveData(1).isEmpty());
+        assertEquals(1, this.clifton.getAvailableBytes());
+    }
+}
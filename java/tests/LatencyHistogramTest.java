@@ -0,0 +1,99 @@
+package comm;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * This class is used to test the lock-free latency histogram.
+ */
+public class LatencyHistogramTest {
+
+    /**
+     * The number of recording threads.
+     */
+    private static final int THREADS = 4;
+    /**
+     * The number of values recorded by every thread.
+     */
+    private static final int VALUES_PER_THREAD = 10_000;
+
+    /**
+     * Tests that the percentiles are the upper bounds of their power of two-
+     * buckets, limited by the maximum.
+     */
+    @Test
+    public void testPercentiles() {
+        final var histogram = new LatencyHistogram();
+        assertEquals(0, histogram.getPercentile(50));
+
+        //1 up to 100 us
+        for (int i = 1; i <= 100; i++) {
+            histogram.record(i * 1000L);
+        }
+
+        assertEquals(100, histogram.getCount());
+        assertEquals(50_500, histogram.getMean());
+        assertEquals(100_000, histogram.getMax());
+        assertEquals(1024, histogram.getPercentile(0.5));
+        assertEquals(65_536, histogram.getPercentile(50));
+        assertEquals(100_000, histogram.getPercentile(99));
+        assertEquals(100_000, histogram.getPercentile(100));
+        for (final double percentile : new double[] {10, 25, 50, 75, 90}) {
+            final long exact = (long) Math.ceil(percentile) * 1000;
+            final long approximated = histogram.getPercentile(percentile);
+            assertTrue(approximated >= exact && approximated < 2 * exact,
+                percentile + ": " + approximated);
+        }
+    }
+
+    /**
+     * Tests that negative values are recorded as 0 and reset removes all values.
+     */
+    @Test
+    public void testNegativeAndReset() {
+        final var histogram = new LatencyHistogram();
+        histogram.record(-5);
+        assertEquals(1, histogram.getCount());
+        assertEquals(0, histogram.getMax());
+        assertEquals(0, histogram.getPercentile(100));
+
+        histogram.record(Long.MAX_VALUE);
+        assertEquals(Long.MAX_VALUE, histogram.getPercentile(100));
+
+        histogram.reset();
+        assertEquals(0, histogram.getCount());
+        assertEquals(0, histogram.getMean());
+        assertEquals(0, histogram.getMax());
+    }
+
+    /**
+     * Tests that no value is lost, if many threads record concurrently.
+     */
+    @Test
+    public void testConcurrentRecording() throws InterruptedException {
+        final var histogram = new LatencyHistogram();
+        final List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            final var thread = new Thread(() -> {
+                for (int i = 1; i <= VALUES_PER_THREAD; i++) {
+                    histogram.record(i);
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+        for (final var thread : threads) {
+            thread.join();
+        }
+
+        assertEquals(THREADS * VALUES_PER_THREAD, histogram.getCount());
+        assertEquals((VALUES_PER_THREAD + 1) / 2.0, histogram.getMean());
+        assertEquals(VALUES_PER_THREAD, histogram.getMax());
+        assertEquals(VALUES_PER_THREAD, histogram.getPercentile(100));
+    }
+}
@@ -0,0 +1,180 @@
+package comm;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Objects;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Test;
+
+import comm.protocol.LayoutReport;
+import comm.protocol.TelemetryLayout;
+import comm.protocol.schema.LayoutGenerator;
+
+/**
+ * This class is used to test the codecs generated from the telemetry schema.
+ */
+public class LayoutGeneratorTest {
+
+    /**
+     * The schema relative to the root of the repository.
+     */
+    private static final String SCHEMA = "protocol/telemetry.schema";
+    /**
+     * The system property with the root of the repository, if the tests run-
+     * outside of it.
+     */
+    private static final String ROOT_PROPERTY = "comm.repository.root";
+
+    /**
+     * Tests that the checked in codecs match the schema.
+     */
+    @Test
+    public void testGeneratedFilesAreUpToDate() throws IOException {
+        final Path root = findRoot();
+        assumeTrue(root != null, SCHEMA + " not found above the working directory or the test"
+                                 + " classes -> Skipped, set -D" + ROOT_PROPERTY
+                                 + "=<repository> to run it");
+
+        final var layout = LayoutGenerator.parse(readLines(root.resolve(SCHEMA)));
+        assertEquals(TelemetryLayout.SIZE, layout.size());
+        assertEquals(TelemetryLayout.CHECKSUM, layout.checksum());
+        assertEquals(LayoutGenerator.generateJava(layout, "comm.protocol"),
+            Files.readString(root.resolve("java/comm/protocol/TelemetryLayout.java")),
+            "Run the LayoutGenerator after changing " + SCHEMA);
+        assertEquals(LayoutGenerator.generateCpp(layout),
+            Files.readString(root.resolve("px4/TelemetryLayout.hpp")),
+            "Run the LayoutGenerator after changing " + SCHEMA);
+    }
+
+    /**
+     * Tests that the accessors keep the sign and the range of every type.
+     */
+    @Test
+    public void testAccessors() {
+        final byte[] frame = new byte[TelemetryLayout.SIZE];
+        TelemetryLayout.putWindDirection(frame, 0xFFFF);
+        TelemetryLayout.putAgentPosX(frame, Short.MIN_VALUE);
+        TelemetryLayout.putAgentPosY(frame, -1);
+        TelemetryLayout.putBatteryStatus(frame, 200);
+        TelemetryLayout.putStatusInfo(frame, 1);
+
+        assertEquals(0xFFFF, TelemetryLayout.getWindDirection(frame));
+        assertEquals(Short.MIN_VALUE, TelemetryLayout.getAgentPosX(frame));
+        assertEquals(-1, TelemetryLayout.getAgentPosY(frame));
+        assertEquals(200, TelemetryLayout.getBatteryStatus(frame));
+        assertEquals(1, TelemetryLayout.getStatusInfo(frame));
+        assertEquals(0, TelemetryLayout.getWindSpeed(frame));
+    }
+
+    /**
+     * Tests that every change of the layout changes the checksum.
+     */
+    @Test
+    public void testChecksum() {
+        final var layout = LayoutGenerator.parse(List.of(
+            "layout Test TEST", "field uint16 a", "field int16 b"));
+        final var reordered = LayoutGenerator.parse(List.of(
+            "layout Test TEST", "field int16 b", "field uint16 a"));
+        final var retyped = LayoutGenerator.parse(List.of(
+            "layout Test TEST", "field uint16 a", "field uint16 b"));
+
+        assertEquals(4, layout.size());
+        assertNotEquals(layout.checksum(), reordered.checksum());
+        assertNotEquals(layout.checksum(), retyped.checksum());
+        assertThrows(IllegalArgumentException.class, () -> LayoutGenerator.parse(List.of(
+            "layout Test TEST", "field float a")));
+    }
+
+    /**
+     * Tests the layout report of the clifton.
+     */
+    @Test
+    public void testLayoutReport() {
+        final var report = new LayoutReport(TelemetryLayout.CHECKSUM, 3000);
+        final byte[] frame = report.toByteArray();
+
+        assertEquals(TelemetryLayout.SIZE, frame.length);
+        assertEquals(report, LayoutReport.fromByteArray(frame).orElseThrow());
+        assertTrue(report.isCompatible());
+        assertFalse(new LayoutReport(TelemetryLayout.CHECKSUM + 1, 0).isCompatible());
+    }
+
+    /**
+     * This function reads a file.
+     *
+     * @param path - the path of the file
+     * @return List<String> - the lines
+     * @throws IOException if the file could not be read
+     */
+    private static List<String> readLines(final Path path) throws IOException {
+        return Files.readAllLines(path, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * This function searches the root of the repository. The system property-
+     * takes precedence, otherwise the parents of the working directory and-
+     * of the test classes are searched.
+     *
+     * @return Path - the root, null if not found
+     */
+    private static Path findRoot() {
+        final String property = System.getProperty(ROOT_PROPERTY);
+        if (property != null) {
+            final Path root = Path.of(property).toAbsolutePath();
+            return Files.isRegularFile(root.resolve(SCHEMA)) ? root : null;
+        }
+
+        return Stream.of(Path.of(System.getProperty("user.dir")), getClassLocation())
+                     .filter(Objects::nonNull)
+                     .map(LayoutGeneratorTest::findRoot)
+                     .filter(Objects::nonNull)
+                     .findFirst()
+                     .orElse(null);
+    }
+
+    /**
+     * This function searches the root of the repository from a directory-
+     * upwards.
+     *
+     * @param start - the directory to start from
+     * @return Path - the root, null if not found
+     */
+    private static Path findRoot(final Path start) {
+        for (Path dir = start.toAbsolutePath(); dir != null; dir = dir.getParent()) {
+            if (Files.isRegularFile(dir.resolve(SCHEMA))) {
+                return dir;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * This function returns the location of the test classes.
+     *
+     * @return Path - the directory or jar of the test classes, null if unknown
+     */
+    private static Path getClassLocation() {
+        final var source = LayoutGeneratorTest.class.getProtectionDomain().getCodeSource();
+        if (source == null) {
+            return null;
+        }
+
+        try {
+            return Path.of(source.getLocation().toURI());
+        } catch (URISyntaxException | IllegalArgumentException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package comm;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+import comm.LinkBudget.TrafficClass;
+
+/**
+ * This class is used to test the token buckets of the LinkBudget.
+ */
+public class LinkBudgetTest {
+
+    /**
+     * The baud rate of the XBee link.
+     */
+    private static final int BAUD_RATE = 38400;
+
+    /**
+     * Tests that bulk traffic cannot use up the share of the heartbeats.
+     */
+    @Test
+    public void testGuaranteedShare() {
+        final var budget = new LinkBudget(BAUD_RATE, 0);
+        assertEquals(3840.0, budget.getBytesPerSecond(), 1e-9);
+
+        //Bulk traffic borrows the shared tokens until nothing is left
+        while (budget.tryAcquire(TrafficClass.BULK, 1, 0)) {
+            continue;
+        }
+        assertEquals(0, budget.getAvailable(TrafficClass.BULK, 0));
+        assertTrue(budget.tryAcquire(TrafficClass.HEARTBEAT, 3, 0));
+        assertTrue(budget.tryAcquire(TrafficClass.COMMAND, 200, 0));
+    }
+
+    /**
+     * Tests that the buckets are refilled with the capacity of the link.
+     */
+    @Test
+    public void testRefillAndBorrowing() {
+        final var budget = new LinkBudget(BAUD_RATE, 0);
+        for (final var trafficClass : TrafficClass.values()) {
+            while (budget.tryAcquire(trafficClass, 1, 0)) {
+                continue;
+            }
+        }
+        assertFalse(budget.tryAcquire(TrafficClass.COMMAND, 1, 0));
+
+        //The guaranteed share of 35% (1344 bytes/s) refills 38 bytes in 29 ms
+        assertEquals(29, budget.getDelay(TrafficClass.COMMAND, 38, 0));
+
+        //After 100 ms 384 bytes were refilled, bulk traffic borrows the-
+        //unguaranteed half, but not the shares of the other classes
+        assertEquals(38 + 192, budget.getAvailable(TrafficClass.BULK, 100));
+        assertTrue(budget.tryAcquire(TrafficClass.BULK, 230, 100));
+        assertEquals(134, budget.getAvailable(TrafficClass.COMMAND, 100));
+        assertEquals(19, budget.getAvailable(TrafficClass.HEARTBEAT, 100));
+    }
+
+    /**
+     * Tests the utilization within the last second.
+     */
+    @Test
+    public void testUtilization() {
+        final var budget = new LinkBudget(BAUD_RATE, 0);
+        assertEquals(0.0, budget.getUtilization(0), 1e-9);
+
+        assertTrue(budget.tryAcquire(TrafficClass.COMMAND, 192, 0));
+        assertTrue(budget.tryAcquire(TrafficClass.BULK, 192, 500));
+        assertEquals(0.1, budget.getUtilization(900), 1e-9);
+        assertEquals(0.05, budget.getUtilization(1200), 1e-9);
+        assertEquals(0.0, budget.getUtilization(2000), 1e-9);
+        assertEquals(192, budget.getBytesSent(TrafficClass.BULK));
+    }
+}
@@ -0,0 +1,153 @@
+package comm;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import comm.analytics.MissionLogAnalyzer;
+import comm.analytics.MissionReport;
+import comm.protocol.StatusInfo;
+import comm.protocol.TelemetryData;
+import comm.protocol.UnsignedShort;
+import comm.store.TelemetryStore;
+
+/**
+ * This class is used to test the parallel analysis of recorded sessions.
+ */
+public class MissionLogAnalyzerTest {
+
+    /**
+     * The timestamp of the first record in ms.
+     */
+    private static final long START = 1_700_000_000_000L;
+    /**
+     * The number of records of a session (spans several chunks).
+     */
+    private static final int RECORDS = 40_000;
+
+    /**
+     * The directory of the test.
+     */
+    private Path directory;
+
+    /**
+     * Creates the directory of the test.
+     */
+    @BeforeEach
+    public void setUp() throws IOException {
+        this.directory = Files.createTempDirectory("mission-log");
+    }
+
+    /**
+     * Deletes the directory of the test.
+     */
+    @AfterEach
+    public void cleanUp() throws IOException {
+        try (Stream<Path> paths = Files.walk(this.directory)) {
+            for (final var path : paths.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(path);
+            }
+        }
+    }
+
+    /**
+     * Tests the aggregates of sessions, that span several chunks.
+     */
+    @Test
+    public void testAggregates() {
+        final var sessions = this.record(2);
+        final var report = new MissionLogAnalyzer().analyze(sessions).orElseThrow();
+
+        assertEquals(2L * RECORDS, report.records());
+        assertEquals(2, report.legs().size());
+        final var leg = report.legs().get(1);
+        assertEquals(1, leg.session());
+        assertEquals(RECORDS, leg.records());
+        assertEquals((RECORDS - 1) * 100L, leg.getDuration());
+        //The agent sails 1 m north per record
+        assertEquals(RECORDS - 1, leg.distance(), 1e-6);
+        assertEquals(50, leg.meanSpeed(), 1e-9);
+        assertEquals(50, leg.maxSpeed());
+        assertEquals(99, leg.batteryUsed());
+
+        //The wind comes from 90 degrees at 200 cm/s, the agent heads north
+        assertEquals(2L * RECORDS, report.windDirections()[90 / MissionReport.DIRECTION_BIN]);
+        assertEquals(2L * RECORDS, report.windSpeeds()[200 / MissionReport.SPEED_BIN]);
+        assertEquals(0.25, report.speedPolar()[90 / MissionReport.DIRECTION_BIN], 1e-9);
+        assertTrue(Double.isNaN(report.speedPolar()[0]));
+
+        //A minute spans 600 records, the battery drops every 400 records
+        final double[] curve = report.batteryCurve();
+        assertEquals((RECORDS - 1) / 600 + 1, curve.length);
+        assertEquals(100 - (0 + 599) / 2.0 / 400, curve[0], 0.5);
+        assertTrue(curve[0] > curve[curve.length - 1]);
+    }
+
+    /**
+     * Tests that the parallel analysis gives the same report as a sequential one.
+     */
+    @Test
+    public void testParallelEqualsSequential() {
+        final var sessions = this.record(3);
+        final var sequentialPool = new ForkJoinPool(1);
+        final var parallelPool = new ForkJoinPool(4);
+        final var sequential = new MissionLogAnalyzer(sequentialPool).analyze(sessions)
+                                                                     .orElseThrow();
+        final var parallel = new MissionLogAnalyzer(parallelPool).analyze(sessions)
+                                                                 .orElseThrow();
+        sequentialPool.shutdown();
+        parallelPool.shutdown();
+
+        assertEquals(sequential.records(), parallel.records());
+        assertEquals(sequential.legs(), parallel.legs());
+        assertArrayEquals(sequential.windDirections(), parallel.windDirections());
+        assertArrayEquals(sequential.batteryCurve(), parallel.batteryCurve());
+        assertTrue(new MissionLogAnalyzer().analyze(List.of(this.directory.resolve("none")))
+                                           .isEmpty());
+    }
+
+    /**
+     * This method records sessions into stores.
+     *
+     * @param count - the number of sessions
+     * @return List<Path> - the directories of the sessions
+     */
+    private List<Path> record(final int count) {
+        final List<Path> sessions = new ArrayList<>();
+        for (int s = 0; s < count; s++) {
+            final var session = this.directory.resolve("session-" + s);
+            final var store = TelemetryStore.open(session).orElseThrow();
+            for (int i = 0; i < RECORDS; i++) {
+                store.append(START + s * 10_000_000L + i * 100L, data(i));
+            }
+            store.close();
+            sessions.add(session);
+        }
+        return sessions;
+    }
+
+    /**
+     * This function creates the telemetry data of a record.
+     *
+     * @param i - the index of the record
+     * @return TelemetryData - the telemetry data
+     */
+    private static TelemetryData data(final int i) {
+        return new TelemetryData(new UnsignedShort(90), new UnsignedShort(200),
+            new UnsignedShort(50), (short) (i - Short.MAX_VALUE), (short) 0,
+            (byte) (100 - i / 400), new UnsignedShort(0), new StatusInfo((byte) 1));
+    }
+}
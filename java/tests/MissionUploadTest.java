@@ -0,0 +1,190 @@
+package comm;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.junit.jupiter.api.Test;
+
+import comm.LinkBudget.TrafficClass;
+import comm.protocol.CliftonCommand;
+import comm.protocol.MissionAck;
+import comm.protocol.Waypoint;
+import comm.sim.MissionReceiver;
+import comm.sim.SailingSimulator;
+
+/**
+ * This class is used to test the mission upload.
+ */
+public class MissionUploadTest {
+
+    /**
+     * The timeout of an upload in s.
+     */
+    private static final long TIMEOUT = 10;
+
+    /**
+     * Tests that a 100 waypoint mission arrives complete at the simulator.
+     */
+    @Test
+    public void testUploadToSimulator() throws Exception {
+        final var link = InMemoryConnection.createLink(InMemoryConnection.DEFAULT_CAPACITY);
+        final var simulator = new SailingSimulator(link.clifton(), 10, 1);
+        final var gui = new ConnectionHandler(link.laptop());
+        final var waypoints = createMission(100);
+
+        assertTrue(simulator.start());
+        assertTrue(gui.start());
+        try {
+            assertTrue(gui.uploadMission(waypoints).get(TIMEOUT, TimeUnit.SECONDS));
+            assertEquals(waypoints, simulator.getMissionReceiver().getWaypoints());
+        } finally {
+            gui.close();
+            simulator.stop();
+        }
+    }
+
+    /**
+     * Tests that the budget holds exactly the bytes, that were written to-
+     * the link, while commands and mission chunks compete for it.
+     */
+    @Test
+    public void testBudgetCountsSentBytes() throws Exception {
+        final var link = InMemoryConnection.createLink(InMemoryConnection.DEFAULT_CAPACITY);
+        final var simulator = new SailingSimulator(link.clifton(), 10, 1);
+        final var written = new LongAdder();
+        final var gui = new ConnectionHandler(new IConnection() {
+            @Override
+            public void create() {
+                link.laptop().create();
+            }
+
+            @Override
+            public void close() {
+                link.laptop().close();
+            }
+
+            @Override
+            public boolean sendData(final byte[] data) {
+                final boolean sent = link.laptop().sendData(data);
+                if (sent) {
+                    written.add(data.length);
+                }
+                return sent;
+            }
+
+            @Override
+            public Optional<byte[]> receiveData(final int length) {
+                return link.laptop().receiveData(length);
+            }
+
+            @Override
+            public Optional<byte[]> receiveData() {
+                return link.laptop().receiveData();
+            }
+
+            @Override
+            public boolean isConnected() {
+                return link.laptop().isConnected();
+            }
+        });
+
+        assertTrue(simulator.start());
+        assertTrue(gui.start());
+        try {
+            final var upload = gui.uploadMission(createMission(100));
+            for (int i = 0; !upload.isDone(); i++) {
+                gui.sendCommand(CliftonCommand.setCourse(i % 360));
+                Thread.sleep(1);
+            }
+            assertTrue(upload.get());
+        } finally {
+            gui.close();
+            simulator.stop();
+        }
+
+        long recorded = 0;
+        for (final var trafficClass : TrafficClass.values()) {
+            recorded += gui.getLinkBudget().getBytesSent(trafficClass);
+        }
+        assertEquals(written.sum(), recorded);
+    }
+
+    /**
+     * Tests that a gap is sent again as soon as a later chunk is acknowledged.
+     */
+    @Test
+    public void testSelectiveRetransmit() {
+        final var upload = new MissionUpload(7, createMission(20));
+        final var receiver = new MissionReceiver();
+        assertEquals(3, upload.getChunkCount());
+
+        final var first = upload.nextChunk(0);
+        final var second = upload.nextChunk(0);
+        final var third = upload.nextChunk(0);
+        assertNull(upload.nextChunk(0));
+
+        //The second chunk is lost
+        receive(receiver, first);
+        final var ack = receive(receiver, third);
+        assertEquals(1, ack.cumulative());
+        assertFalse(ack.isAcknowledged(1));
+        assertTrue(ack.isAcknowledged(2));
+
+        upload.acknowledge(MissionAck.fromByteArray(ack.toByteArray()).get(), 10);
+        assertEquals(second, upload.nextChunk(10));
+        assertNull(upload.nextChunk(10));
+
+        upload.acknowledge(receive(receiver, second), 20);
+        assertTrue(upload.getResult().getNow(false));
+        assertTrue(receiver.isComplete());
+    }
+
+    /**
+     * Tests that an unacknowledged chunk is sent again after the timeout.
+     */
+    @Test
+    public void testTimeoutRetransmit() {
+        final var upload = new MissionUpload(1, createMission(3));
+        final var chunk = upload.nextChunk(0);
+        assertNull(upload.nextChunk(1));
+
+        final long timeout = upload.getNextTimeout();
+        assertNull(upload.nextChunk(timeout - 1));
+        assertEquals(chunk, upload.nextChunk(timeout));
+        assertFalse(upload.getResult().isDone());
+    }
+
+    /**
+     * This function passes a chunk to the receiver.
+     *
+     * @param receiver - the receiver
+     * @param chunk - the chunk
+     * @return MissionAck - the acknowledgement
+     */
+    private static MissionAck receive(final MissionReceiver receiver,
+            final CliftonCommand chunk) {
+        return receiver.receive(chunk).get();
+    }
+
+    /**
+     * This function creates a mission.
+     *
+     * @param count - the number of waypoints
+     * @return List<Waypoint> - the waypoints
+     */
+    private static List<Waypoint> createMission(final int count) {
+        final List<Waypoint> waypoints = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            waypoints.add(new Waypoint((short) (i * 10), (short) (-i * 7)));
+        }
+        return waypoints;
+    }
+}
@@ -0,0 +1,70 @@
+package comm;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.jupiter.api.Test;
+
+import comm.protocol.Waypoint;
+import comm.sim.MonteCarloSimulation;
+
+/**
+ * This class is used to test the Monte Carlo simulation of missions.
+ */
+public class MonteCarloSimulationTest {
+
+    /**
+     * The route of the test: upwind, across the wind and back to the start.
+     */
+    private static final List<Waypoint> ROUTE = List.of(new Waypoint((short) 300, (short) 0),
+                                                        new Waypoint((short) 300, (short) 300),
+                                                        new Waypoint((short) 0, (short) 0));
+
+    /**
+     * Tests that a run only depends on the seed and not on the threads.
+     */
+    @Test
+    public void testDeterministic() {
+        final var sequentialPool = new ForkJoinPool(1);
+        final var parallelPool = new ForkJoinPool(4);
+        final var sequential = new MonteCarloSimulation(ROUTE, MonteCarloSimulation.DEFAULT_TIMEOUT,
+                                                        sequentialPool).run(200, 42);
+        final var parallel = new MonteCarloSimulation(ROUTE, MonteCarloSimulation.DEFAULT_TIMEOUT,
+                                                      parallelPool).run(200, 42);
+        sequentialPool.shutdown();
+        parallelPool.shutdown();
+
+        assertEquals(sequential.completed(), parallel.completed());
+        assertArrayEquals(sequential.completionTimes(), parallel.completionTimes());
+        assertArrayEquals(sequential.batteryUse(), parallel.batteryUse());
+        assertEquals(sequential.courseCommands(), parallel.courseCommands());
+    }
+
+    /**
+     * Tests the distributions of the completed missions.
+     */
+    @Test
+    public void testDistributions() {
+        final var report = new MonteCarloSimulation(ROUTE, MonteCarloSimulation.DEFAULT_TIMEOUT)
+                            .run(200, 7);
+
+        assertEquals(200, report.missions());
+        assertTrue(report.getCompletionRate() > 0.9, "Rate: " + report.getCompletionRate());
+        //The route is 1024 m long, the boat sails at most 55 % of the wind speed (30 m/s)
+        assertTrue(report.getCompletionTimePercentile(0) > 1024 / (0.55 * 30));
+        assertTrue(report.getCompletionTimePercentile(50)
+                   <= report.getCompletionTimePercentile(90));
+        assertTrue(report.getBatteryUsePercentile(50) <= report.getBatteryUsePercentile(100));
+        assertTrue(report.getBatteryUsePercentile(100) > 0);
+        assertTrue(report.courseCommands() >= 3L * report.missions());
+
+        //Nobody sails the route in a minute
+        final var timedOut = new MonteCarloSimulation(ROUTE, 60).run(20, 7);
+        assertEquals(0, timedOut.completed());
+        assertTrue(Double.isNaN(timedOut.getCompletionTimePercentile(50)));
+    }
+}
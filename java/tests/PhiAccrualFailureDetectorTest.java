@@ -0,0 +1,84 @@
+package comm;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * This class is used to test the PhiAccrualFailureDetector class.
+ */
+public class PhiAccrualFailureDetectorTest {
+
+    /**
+     * The telemetry interval in ms.
+     */
+    private static final long INTERVAL = 1000;
+
+    /**
+     * The number of regular arrivals.
+     */
+    private static final int ARRIVALS = 20;
+
+    /**
+     * The suspicion level from which on the link is declared lost.
+     */
+    private static final double LOSS_THRESHOLD = 8.0;
+
+    /**
+     * This method tests that the suspicion level grows while an arrival is overdue.
+     */
+    @Test
+    public void testSuspicionGrows() {
+        final var detector = new PhiAccrualFailureDetector(INTERVAL, 0);
+        long now = 0;
+        for (int i = 0; i < ARRIVALS; i++) {
+            now += INTERVAL;
+            detector.arrived(now);
+        }
+
+        assertEquals(INTERVAL, detector.getMeanInterval(), 1e-9);
+
+        final double onTime = detector.phi(now + INTERVAL / 2);
+        final double late = detector.phi(now + INTERVAL + INTERVAL / 4);
+        final double missed = detector.phi(now + 5 * INTERVAL);
+
+        assertTrue(onTime < 1.0);
+        assertTrue(late > onTime);
+        assertTrue(missed > LOSS_THRESHOLD);
+    }
+
+    /**
+     * This method tests that a single dropped frame at 1 Hz does not declare-
+     * the link lost.
+     */
+    @Test
+    public void testSingleMissedFrame() {
+        final var detector = new PhiAccrualFailureDetector(INTERVAL, 0);
+        long now = 0;
+        for (int i = 0; i < ARRIVALS; i++) {
+            now += INTERVAL;
+            detector.arrived(now);
+        }
+
+        //The next frame is dropped, the one after it arrives on time
+        final double beforeNext = detector.phi(now + 2 * INTERVAL - 1);
+        assertTrue(beforeNext < LOSS_THRESHOLD, "phi " + beforeNext);
+        assertTrue(beforeNext > detector.phi(now + INTERVAL));
+
+        detector.arrived(now + 2 * INTERVAL);
+        assertTrue(detector.phi(now + 2 * INTERVAL + INTERVAL / 2) < 1.0);
+    }
+
+    /**
+     * This method tests that a reset starts a new measurement.
+     */
+    @Test
+    public void testReset() {
+        final var detector = new PhiAccrualFailureDetector(INTERVAL, 0);
+        assertTrue(detector.phi(5 * INTERVAL) > LOSS_THRESHOLD);
+
+        detector.reset(3 * INTERVAL);
+        assertTrue(detector.phi(3 * INTERVAL) < 1.0);
+    }
+}
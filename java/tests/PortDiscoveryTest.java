@@ -0,0 +1,270 @@
+package comm;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+import comm.protocol.StatusInfo;
+import comm.protocol.TelemetryData;
+import comm.protocol.UnsignedShort;
+
+/**
+ * This class is used to test the discovery of the port of the clifton-
+ * with fake ports.
+ */
+public class PortDiscoveryTest {
+
+    /**
+     * This enum represents the behaviour of a fake port.
+     */
+    private enum Behaviour {
+        /**
+         * Nothing is received.
+         */
+        SILENT,
+        /**
+         * Receiving throws an exception.
+         */
+        BROKEN,
+        /**
+         * Receiving blocks until the port is closed.
+         */
+        BLOCKING
+    }
+
+    /**
+     * This class simulates a serial port, the clifton responds at one baud rate.
+     */
+    private static final class FakePort implements IConnection {
+        /**
+         * The baud rate, the clifton responds to, 0 if none.
+         */
+        private final int cliftonBaudRate;
+        /**
+         * The behaviour, if the clifton does not respond.
+         */
+        private final Behaviour behaviour;
+        /**
+         * Counted down, when the port is closed.
+         */
+        private final CountDownLatch closed;
+        /**
+         * The baud rate of the port.
+         */
+        private volatile int baudRate;
+        /**
+         * Flag if the port is open.
+         */
+        private volatile boolean isOpen;
+
+        /**
+         * Constructor.
+         *
+         * @param bRate - the baud rate of the port
+         * @param cliftonRate - the baud rate, the clifton responds to, 0 if none
+         * @param otherwise - the behaviour, if the clifton does not respond
+         */
+        FakePort(final int bRate, final int cliftonRate, final Behaviour otherwise) {
+            this.baudRate = bRate;
+            this.cliftonBaudRate = cliftonRate;
+            this.behaviour = otherwise;
+            this.closed = new CountDownLatch(1);
+        }
+
+        @Override
+        public void create() {
+            this.isOpen = true;
+        }
+
+        @Override
+        public void close() {
+            this.isOpen = false;
+            this.closed.countDown();
+        }
+
+        @Override
+        public boolean sendData(final byte[] data) {
+            return this.isOpen;
+        }
+
+        @Override
+        public Optional<byte[]> receiveData(final int length) {
+            if (this.isOpen && this.baudRate == this.cliftonBaudRate) {
+                return Optional.of(new TelemetryData(new UnsignedShort(0), new UnsignedShort(0),
+                        new UnsignedShort(0), (short) 0, (short) 0, (byte) 100,
+                        new UnsignedShort(0), new StatusInfo((byte) 1)).toByteArray());
+            }
+
+            switch (this.behaviour) {
+                case BROKEN -> throw new IllegalStateException("Port vanished");
+                case BLOCKING -> {
+                    try {
+                        this.closed.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+                default -> { }
+            }
+            return Optional.empty();
+        }
+
+        @Override
+        public Optional<byte[]> receiveData() {
+            return this.receiveData(0);
+        }
+
+        @Override
+        public boolean isConnected() {
+            return this.isOpen;
+        }
+
+        @Override
+        public boolean setBaudRate(final int newBaudRate) {
+            this.baudRate = newBaudRate;
+            return true;
+        }
+
+        @Override
+        public int getBaudRate() {
+            return this.baudRate;
+        }
+    }
+
+    /**
+     * The default baud rate.
+     */
+    private static final int BAUD_RATE = 38400;
+    /**
+     * A negotiated baud rate.
+     */
+    private static final int NEGOTIATED_BAUD_RATE = 115200;
+    /**
+     * The timeout of a discovery in ms.
+     */
+    private static final long TIMEOUT = 2000;
+
+    /**
+     * The baud rate, the clifton responds to, per port.
+     */
+    private final Map<String, Integer> cliftonBaudRates = new ConcurrentHashMap<>();
+    /**
+     * The behaviour of every port, if the clifton does not respond.
+     */
+    private final Map<String, Behaviour> behaviours = new ConcurrentHashMap<>();
+    /**
+     * All created ports.
+     */
+    private final List<FakePort> created = new CopyOnWriteArrayList<>();
+
+    /**
+     * Tests that a failing probe does not end the search on the other ports.
+     */
+    @Test
+    public void testFailedProbeIsSkipped() {
+        this.behaviours.put("broken", Behaviour.BROKEN);
+        this.cliftonBaudRates.put("clifton", BAUD_RATE);
+
+        final var found = this.createDiscovery("broken", "silent", "clifton").discover();
+        assertTrue(found.isPresent());
+        assertTrue(found.get().isConnected());
+        assertEquals(1, this.created.stream().filter(FakePort::isConnected).count());
+    }
+
+    /**
+     * Tests that a clifton left at a negotiated baud rate is found, if that-
+     * baud rate is probed.
+     */
+    @Test
+    public void testNegotiatedBaudRate() {
+        this.cliftonBaudRates.put("clifton", NEGOTIATED_BAUD_RATE);
+        final var discovery = this.createDiscovery("silent", "clifton");
+
+        assertFalse(discovery.discover().isPresent());
+        final var found = discovery.discover(NEGOTIATED_BAUD_RATE, BAUD_RATE);
+        assertTrue(found.isPresent());
+        assertEquals(NEGOTIATED_BAUD_RATE, found.get().getBaudRate());
+    }
+
+    /**
+     * Tests that the port is searched again after failed receives and that-
+     * the last baud rate is probed again.
+     */
+    @Test
+    public void testRediscovery() {
+        this.cliftonBaudRates.put("first", BAUD_RATE);
+        final var connection = new DiscoveringConnection(this.createDiscovery("first", "second"));
+        connection.create();
+        assertTrue(connection.isConnected());
+        assertTrue(connection.receiveData(1).isPresent());
+        assertTrue(connection.setBaudRate(NEGOTIATED_BAUD_RATE));
+
+        //The dongle re-enumerated, the clifton kept the negotiated baud rate
+        this.cliftonBaudRates.remove("first");
+        this.cliftonBaudRates.put("second", NEGOTIATED_BAUD_RATE);
+        for (int i = 0; i < 3; i++) {
+            assertFalse(connection.receiveData(1).isPresent());
+        }
+
+        assertTrue(connection.receiveData(1).isPresent());
+        assertEquals(NEGOTIATED_BAUD_RATE, connection.getBaudRate());
+        connection.close();
+        assertFalse(connection.isConnected());
+    }
+
+    /**
+     * Tests that close cancels a running discovery.
+     */
+    @Test
+    public void testCloseCancelsDiscovery() throws Exception {
+        this.behaviours.put("blocking", Behaviour.BLOCKING);
+        final var connection = new DiscoveringConnection(
+            new PortDiscovery(List.of("blocking"), BAUD_RATE, TimeUnit.MINUTES.toMillis(1),
+                              this::createPort));
+        final var creator = new Thread(connection::create);
+        creator.start();
+        while (this.created.isEmpty()) {
+            Thread.sleep(1);
+        }
+
+        connection.close();
+        creator.join(TIMEOUT);
+        assertFalse(creator.isAlive());
+        assertFalse(connection.isConnected());
+        assertEquals(0, this.created.stream().filter(FakePort::isConnected).count());
+    }
+
+    /**
+     * This method creates a discovery of the given fake ports.
+     *
+     * @param ports - the names of the ports
+     * @return PortDiscovery - the discovery
+     */
+    private PortDiscovery createDiscovery(final String... ports) {
+        return new PortDiscovery(List.of(ports), BAUD_RATE, TIMEOUT, this::createPort);
+    }
+
+    /**
+     * This method creates a fake port.
+     *
+     * @param port - the name of the port
+     * @param baudRate - the baud rate of the port
+     * @return IConnection - the fake port
+     */
+    private IConnection createPort(final String port, final int baudRate) {
+        final var fake = new FakePort(baudRate, this.cliftonBaudRates.getOrDefault(port, 0),
+                                      this.behaviours.getOrDefault(port, Behaviour.SILENT));
+        this.created.add(fake);
+        return fake;
+    }
+}
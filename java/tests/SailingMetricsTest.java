@@ -0,0 +1,91 @@
+package comm;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+import comm.analytics.CircularWindow;
+import comm.analytics.SailingMetrics;
+import comm.protocol.StatusInfo;
+import comm.protocol.TelemetryData;
+import comm.protocol.UnsignedShort;
+
+/**
+ * This class is used to test the derived sailing values.
+ */
+public class SailingMetricsTest {
+
+    /**
+     * The allowed error of angles in degrees and speeds in cm/s.
+     */
+    private static final double DELTA = 1.0;
+
+    /**
+     * The boat speed in cm/s.
+     */
+    private static final int BOAT_SPEED = 100;
+
+    /**
+     * Tests that the circular mean handles the wrap-around at north.
+     */
+    @Test
+    public void testCircularWindow() {
+        final var window = new CircularWindow(2);
+        window.add(350);
+        window.add(10);
+        assertEquals(0, SailingMetrics.wrap(window.getMean() + 180) - 180, 1e-9);
+        assertTrue(window.getVariance() < 0.02);
+
+        //The oldest direction leaves the window
+        window.add(10);
+        assertEquals(10, window.getMean(), 1e-9);
+        assertEquals(0, window.getVariance(), 1e-9);
+    }
+
+    /**
+     * Tests the true wind, if the boat sails east with the true wind from-
+     * north: the apparent wind comes from north east.
+     */
+    @Test
+    public void testTrueWind() {
+        final var metrics = new SailingMetrics(1);
+        final double apparentSpeed = Math.hypot(BOAT_SPEED, BOAT_SPEED);
+        final var derived = metrics.update(telemetry(45, (int) Math.round(apparentSpeed), 90));
+
+        assertEquals(0, SailingMetrics.wrap(derived.trueWindDirection() + 180) - 180, DELTA);
+        assertEquals(BOAT_SPEED, derived.trueWindSpeed(), DELTA);
+        //Beam reach: nothing is made good towards the wind
+        assertEquals(0, derived.upwindVmg(), DELTA);
+        assertEquals(1, derived.windStatistics().get(0).samples());
+    }
+
+    /**
+     * Tests the velocity made good towards a target.
+     */
+    @Test
+    public void testTargetVmg() {
+        final var metrics = new SailingMetrics();
+        assertTrue(Double.isNaN(metrics.update(telemetry(0, 0, 45)).targetVmg()));
+
+        metrics.setTarget(1000, 0);
+        assertEquals(BOAT_SPEED * Math.cos(Math.toRadians(45)),
+                     metrics.update(telemetry(0, 0, 45)).targetVmg(), DELTA);
+    }
+
+    /**
+     * This function creates telemetry data of a boat at the origin.
+     *
+     * @param windDirection - the apparent wind direction in degrees
+     * @param windSpeed - the apparent wind speed in cm/s
+     * @param heading - the heading in degrees
+     * @return TelemetryData - the telemetry data
+     */
+    private static TelemetryData telemetry(final int windDirection, final int windSpeed,
+            final int heading) {
+        return new TelemetryData(new UnsignedShort(windDirection), new UnsignedShort(windSpeed),
+                                 new UnsignedShort(BOAT_SPEED), (short) 0, (short) 0,
+                                 (byte) 100, new UnsignedShort(heading),
+                                 new StatusInfo((byte) 1));
+    }
+}
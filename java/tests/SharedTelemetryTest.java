@@ -0,0 +1,169 @@
+package comm;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import comm.protocol.StatusInfo;
+import comm.protocol.TelemetryData;
+import comm.protocol.UnsignedShort;
+import comm.server.SharedTelemetry;
+
+/**
+ * This class is used to test the publication of the telemetry data into a-
+ * memory-mapped file.
+ */
+public class SharedTelemetryTest {
+
+    /**
+     * The index of the layout checksum in the header.
+     */
+    private static final int CHECKSUM_IDX = 8;
+
+    /**
+     * The file of the test.
+     */
+    private Path file;
+
+    /**
+     * Creates the file of the test.
+     */
+    @BeforeEach
+    public void setUp() throws IOException {
+        this.file = Files.createTempFile("telemetry", ".shm");
+    }
+
+    /**
+     * Deletes the file of the test.
+     */
+    @AfterEach
+    public void cleanUp() throws IOException {
+        Files.deleteIfExists(this.file);
+    }
+
+    /**
+     * Tests that a reader gets the latest frame and the history.
+     */
+    @Test
+    public void testLatestAndHistory() {
+        final var writer = SharedTelemetry.create(this.file, 2).orElseThrow();
+        final var reader = SharedTelemetry.open(this.file).orElseThrow();
+        assertTrue(reader.readLatest().isEmpty());
+
+        for (int i = 1; i <= 3; i++) {
+            writer.publish(snapshot(i));
+        }
+        //Older snapshots are ignored
+        writer.publish(snapshot(2));
+
+        final var latest = reader.readLatest().orElseThrow();
+        assertEquals(3, latest.sequence());
+        assertEquals(3, latest.data().agentPosX());
+        assertEquals(3000, latest.sourceTimestamp());
+        assertEquals(2, reader.read(2).orElseThrow().data().agentPosX());
+        assertTrue(reader.read(1).isEmpty(), "Overwritten by frame 3");
+        assertTrue(reader.read(4).isEmpty(), "Not published yet");
+
+        writer.close();
+        reader.close();
+    }
+
+    /**
+     * Tests that a reader never sees a half written frame.
+     */
+    @Test
+    public void testConcurrentReader() throws InterruptedException {
+        final int frames = 200_000;
+        final var writer = SharedTelemetry.create(this.file, 4).orElseThrow();
+        final var reader = SharedTelemetry.open(this.file).orElseThrow();
+        final var publisher = new Thread(() -> {
+            for (int i = 1; i <= frames; i++) {
+                writer.publish(snapshot(i));
+            }
+        });
+        publisher.start();
+
+        long last = 0;
+        while (last < frames) {
+            final var frame = reader.readLatest();
+            if (frame.isEmpty()) {
+                continue;
+            }
+
+            //Every field of a frame is derived from its sequence number
+            final long sequence = frame.get().sequence();
+            assertTrue(sequence >= last);
+            assertEquals((short) sequence, frame.get().data().agentPosX());
+            assertEquals((short) ~sequence, frame.get().data().agentPosY());
+            assertEquals(sequence * 1000, frame.get().sourceTimestamp());
+            last = sequence;
+        }
+        publisher.join();
+    }
+
+    /**
+     * Tests that a new writer does not pull the file away under a reader of-
+     * the old one, the reader sees that its file is stale.
+     */
+    @Test
+    public void testReplacedFile() {
+        final var oldWriter = SharedTelemetry.create(this.file, 4).orElseThrow();
+        final var oldReader = SharedTelemetry.open(this.file).orElseThrow();
+        oldWriter.publish(snapshot(1));
+        oldWriter.close();
+
+        final var writer = SharedTelemetry.create(this.file, 2).orElseThrow();
+        assertTrue(oldReader.isStale());
+        assertEquals(1, oldReader.readLatest().orElseThrow().sequence());
+
+        final var reader = SharedTelemetry.open(this.file).orElseThrow();
+        assertFalse(reader.isStale());
+        assertEquals(2, reader.getHistory());
+        assertTrue(reader.readLatest().isEmpty());
+        writer.publish(snapshot(5));
+        assertEquals(5, reader.readLatest().orElseThrow().sequence());
+
+        writer.close();
+        reader.close();
+        oldReader.close();
+    }
+
+    /**
+     * Tests that a file of another telemetry layout is not opened.
+     */
+    @Test
+    public void testLayoutMismatch() throws IOException {
+        SharedTelemetry.create(this.file, 2).orElseThrow().close();
+        try (var channel = FileChannel.open(this.file, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.allocate(Integer.BYTES).order(ByteOrder.LITTLE_ENDIAN)
+                                    .putInt(0, 1), CHECKSUM_IDX);
+        }
+        assertFalse(SharedTelemetry.open(this.file).isPresent());
+    }
+
+    /**
+     * This function creates a snapshot, whose fields are derived from its-
+     * sequence number.
+     *
+     * @param sequence - the sequence number
+     * @return TelemetrySnapshot - the snapshot
+     */
+    private static TelemetrySnapshot snapshot(final long sequence) {
+        return new TelemetrySnapshot(sequence, 0, sequence * 1000,
+            new TelemetryData(new UnsignedShort(0), new UnsignedShort(0),
+                new UnsignedShort(0), (short) sequence, (short) ~sequence, (byte) 100,
+                new UnsignedShort(0), new StatusInfo((byte) 1)), null);
+    }
+}
@@ -0,0 +1,53 @@
+package comm;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import comm.protocol.TelemetryData;
+import comm.sim.Scenario;
+
+/**
+ * This class is used to test the headless replay of the SimulatedConnection.
+ */
+public class SimulatedConnectionTest {
+
+    /**
+     * The scripted scenario.
+     */
+    private static final List<String> SCRIPT = List.of(
+        "# time telemetry windDir windSpeed agentSpeed posX posY battery agentDir status",
+        "0 telemetry 359 1000 500 30000 16000 70 180 1",
+        "100 disconnect",
+        "200 telemetry 0 0 0 0 0 0 0 0",
+        "300 connect",
+        "",
+        "400 telemetry 0 9000 700 3000 6500 30 10 0"
+    );
+
+    /**
+     * This method tests that the scenario is replayed in order and that no
+     * telemetry data is received while disconnected.
+     */
+    @Test
+    public void testReplay() {
+        final var connection = new SimulatedConnection(Scenario.parse(SCRIPT), 0);
+        connection.create();
+
+        assertEquals("359, 1000, 500, 30000, 16000, 70, 180, 1",
+            connection.receiveData(Constants.TELEMETRY_SIZE)
+                .flatMap(TelemetryData::fromByteArray).get().getAsTestString());
+        assertTrue(connection.receiveData(Constants.TELEMETRY_SIZE).isEmpty());
+        assertFalse(connection.isReplayFinished());
+        assertEquals("0, 9000, 700, 3000, 6500, 30, 10, 0",
+            connection.receiveData(Constants.TELEMETRY_SIZE)
+                .flatMap(TelemetryData::fromByteArray).get().getAsTestString());
+        assertTrue(connection.isReplayFinished());
+
+        connection.close();
+    }
+}
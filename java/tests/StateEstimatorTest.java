@@ -0,0 +1,94 @@
+package comm;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+import comm.analytics.StateEstimator;
+import comm.protocol.StatusInfo;
+import comm.protocol.TelemetryData;
+import comm.protocol.UnsignedShort;
+
+/**
+ * This class is used to test the dead-reckoning of the StateEstimator.
+ */
+public class StateEstimatorTest {
+
+    /**
+     * The interval of the telemetry data in ns (1 Hz).
+     */
+    private static final long INTERVAL = TimeUnit.SECONDS.toNanos(1);
+
+    /**
+     * The number of received frames.
+     */
+    private static final int FRAMES = 20;
+
+    /**
+     * The boat speed in cm/s.
+     */
+    private static final int SPEED = 200;
+
+    /**
+     * Tests the prediction of a boat sailing east between two frames.
+     */
+    @Test
+    public void testDeadReckoning() {
+        final var estimator = new StateEstimator();
+        assertNull(estimator.estimate(0));
+
+        for (int i = 0; i < FRAMES; i++) {
+            estimator.update(telemetry(0, SPEED * i / 100, SPEED, 90), i * INTERVAL);
+        }
+
+        //Half an interval after the last frame, the boat moved on by 1 m
+        final long last = (FRAMES - 1) * INTERVAL;
+        final var estimate = estimator.estimate(last + INTERVAL / 2);
+        assertEquals(0, estimate.posX(), 0.3);
+        assertEquals(SPEED * (FRAMES - 1) / 100.0 + 1, estimate.posY(), 0.3);
+        assertEquals(SPEED / 100.0, estimate.getSpeed(), 0.1);
+        assertEquals(90, estimate.heading(), 1);
+
+        //The uncertainty grows without frames
+        assertTrue(estimator.estimate(last + 10 * INTERVAL).positionStdDeviation()
+                   > estimate.positionStdDeviation());
+    }
+
+    /**
+     * Tests the prediction of the heading while turning over north.
+     */
+    @Test
+    public void testTurnRate() {
+        final int turnRate = 10;
+        final var estimator = new StateEstimator();
+
+        for (int i = 0; i < FRAMES; i++) {
+            estimator.update(telemetry(0, 0, 0, (300 + turnRate * i) % 360), i * INTERVAL);
+        }
+
+        final var estimate = estimator.estimate((FRAMES - 1) * INTERVAL + INTERVAL / 2);
+        assertEquals(turnRate, estimate.turnRate(), 1);
+        assertEquals((300 + turnRate * (FRAMES - 1) + turnRate / 2) % 360, estimate.heading(), 1);
+    }
+
+    /**
+     * This function creates telemetry data of a boat.
+     *
+     * @param posX - the position north in m
+     * @param posY - the position east in m
+     * @param speed - the speed in cm/s
+     * @param heading - the heading in degrees
+     * @return TelemetryData - the telemetry data
+     */
+    private static TelemetryData telemetry(final int posX, final int posY, final int speed,
+            final int heading) {
+        return new TelemetryData(new UnsignedShort(0), new UnsignedShort(0),
+                                 new UnsignedShort(speed),
+                                 (short) posX, (short) posY, (byte) 100,
+                                 new UnsignedShort(heading), new StatusInfo((byte) 1));
+    }
+}
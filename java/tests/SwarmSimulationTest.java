@@ -0,0 +1,153 @@
+package comm;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import org.junit.jupiter.api.Test;
+
+import comm.sim.SwarmSimulation;
+
+/**
+ * This class is used to test the swarm of simulated agents.
+ */
+public class SwarmSimulationTest {
+
+    /**
+     * This class wraps the end of the clifton, the first writes fail with-
+     * an exception.
+     */
+    private static final class FailingConnection implements IConnection {
+        /**
+         * The wrapped connection.
+         */
+        private final IConnection connection;
+        /**
+         * The number of writes, that still fail.
+         */
+        private final AtomicInteger failures;
+
+        /**
+         * Constructor.
+         *
+         * @param conn - the wrapped connection
+         * @param failureCount - the number of writes, that fail
+         */
+        FailingConnection(final IConnection conn, final int failureCount) {
+            this.connection = conn;
+            this.failures = new AtomicInteger(failureCount);
+        }
+
+        @Override
+        public void create() {
+            this.connection.create();
+        }
+
+        @Override
+        public void close() {
+            this.connection.close();
+        }
+
+        @Override
+        public boolean sendData(final byte[] data) {
+            if (this.failures.getAndDecrement() > 0) {
+                throw new IllegalStateException("Simulated failure");
+            }
+            return this.connection.sendData(data);
+        }
+
+        @Override
+        public Optional<byte[]> receiveData(final int length) {
+            return this.connection.receiveData(length);
+        }
+
+        @Override
+        public Optional<byte[]> receiveData() {
+            return this.connection.receiveData();
+        }
+
+        @Override
+        public boolean isConnected() {
+            return this.connection.isConnected();
+        }
+
+        @Override
+        public int getAvailableBytes() {
+            return this.connection.getAvailableBytes();
+        }
+    }
+
+    /**
+     * The number of agents.
+     */
+    private static final int AGENTS = 4;
+    /**
+     * The telemetry rate of every agent in Hz.
+     */
+    private static final double RATE = 20;
+    /**
+     * The interval of the course commands in ms.
+     */
+    private static final long COMMAND_INTERVAL = 100;
+    /**
+     * The timeout of the test in ms.
+     */
+    private static final long TIMEOUT = 5000;
+
+    /**
+     * Tests that the telemetry and the commands of all agents flow.
+     */
+    @Test
+    public void testSwarm() throws InterruptedException {
+        final var swarm = SwarmSimulation.inMemory(AGENTS, RATE, COMMAND_INTERVAL, 2);
+        assertTrue(swarm.start());
+        try {
+            waitFor(() -> swarm.getReport().commandsReceived() >= AGENTS
+                          && swarm.getReport().telemetryFrames() >= AGENTS * RATE / 2);
+
+            final var report = swarm.getReport();
+            assertEquals(AGENTS, report.agents());
+            assertTrue(report.telemetryFrames() >= AGENTS * RATE / 2, report.toString());
+            assertTrue(report.commandsReceived() >= AGENTS, report.toString());
+            assertTrue(report.commandsSent() >= report.commandsReceived());
+            assertTrue(report.commandLatency().getCount() > 0);
+        } finally {
+            swarm.stop();
+        }
+    }
+
+    /**
+     * Tests that a failing tick does not stop the agent.
+     */
+    @Test
+    public void testFailingTick() throws InterruptedException {
+        final var swarm = new SwarmSimulation(1, RATE, COMMAND_INTERVAL, 1, agent -> {
+            final var link = InMemoryConnection.createLink(InMemoryConnection.DEFAULT_CAPACITY);
+            return new IConnection[] {new FailingConnection(link.clifton(), 3), link.laptop()};
+        });
+        assertTrue(swarm.start());
+        try {
+            waitFor(() -> swarm.getReport().telemetryFrames() >= RATE / 2);
+            assertTrue(swarm.getReport().telemetryFrames() >= RATE / 2,
+                swarm.getReport().toString());
+        } finally {
+            swarm.stop();
+        }
+    }
+
+    /**
+     * This function waits until a condition holds or the timeout passed.
+     *
+     * @param condition - the condition
+     * @throws InterruptedException if the thread was interrupted
+     */
+    private static void waitFor(final BooleanSupplier condition) throws InterruptedException {
+        final long deadline = System.currentTimeMillis() + TIMEOUT;
+        while (!condition.getAsBoolean() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+    }
+}
@@ -1,7 +1,10 @@
 package comm;
 
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 
+import java.nio.ByteBuffer;
+import java.util.Arrays;
 import java.util.List;
 
 import org.junit.jupiter.api.Test;
@@ -136,4 +139,26 @@ public class TelemetryDataTest {
             assertEquals(telemetryData.getAsTestString(), data.getExpectedTelemetryData());
         });
     }
+
+    /**
+     * This method tests that writeTo writes the same bytes as toByteArray at-
+     * the given offset and leaves the rest of the buffer untouched.
+     */
+    @Test
+    public void testWriteTo() {
+        final int offset = 5;
+        TELEM_TEST_DATA.stream().forEach(data -> {
+            final var telemetryData = TelemetryData
+                                        .fromByteArray(data.getRawByteData()).get();
+            final var buffer = ByteBuffer.allocateDirect(offset + Constants.TELEMETRY_SIZE + 1);
+            telemetryData.writeTo(buffer, offset);
+
+            final byte[] written = new byte[buffer.capacity()];
+            buffer.get(0, written);
+            assertArrayEquals(telemetryData.toByteArray(), Arrays.copyOfRange(written, offset,
+                              offset + Constants.TELEMETRY_SIZE));
+            assertEquals(0, written[offset - 1]);
+            assertEquals(0, written[offset + Constants.TELEMETRY_SIZE]);
+        });
+    }
 }
@@ -0,0 +1,172 @@
+package comm;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import comm.protocol.CliftonCommand;
+import comm.protocol.CommandFrame;
+import comm.protocol.StatusInfo;
+import comm.protocol.TelemetryData;
+import comm.protocol.TelemetryLayout;
+import comm.protocol.UnsignedShort;
+import comm.server.TelemetryServer;
+
+/**
+ * This class is used to test the local fan-out of the telemetry data.
+ */
+public class TelemetryServerTest {
+
+    /**
+     * The timeout for waiting on the server in ms.
+     */
+    private static final int TIMEOUT = 1000;
+
+    /**
+     * The IConnection instance for Clifton.
+     */
+    private IConnection clifton;
+
+    /**
+     * The ConnectionHandler instance for GUI.
+     */
+    private ConnectionHandler gui;
+
+    /**
+     * The server under test.
+     */
+    private TelemetryServer server;
+
+    /**
+     * Sets up the in-memory link, the handler and the server.
+     */
+    @BeforeEach
+    public void setUp() {
+        final var link = InMemoryConnection.createLink(InMemoryConnection.DEFAULT_CAPACITY);
+        this.clifton = link.clifton();
+        this.gui = new ConnectionHandler(link.laptop());
+        this.server = new TelemetryServer(this.gui, 0);
+        this.clifton.create();
+        assertTrue(this.gui.start());
+        assertTrue(this.server.start());
+
+        final var layout = CommandFrame.encode(CliftonCommand.layout(TelemetryLayout.CHECKSUM));
+        assertTrue(this.clifton.receiveData(layout.length).isPresent());
+    }
+
+    /**
+     * Closes the server, the handler and the link.
+     */
+    @AfterEach
+    public void cleanUp() {
+        this.server.close();
+        this.clifton.close();
+        this.gui.close();
+    }
+
+    /**
+     * Tests that every client gets the frame, while it is encoded once.
+     */
+    @Test
+    public void testBroadcast() throws IOException {
+        try (var first = this.connect(1); var second = this.connect(2)) {
+            final var data = telemetry(42);
+            assertTrue(this.clifton.sendData(data.toByteArray()));
+
+            for (final var client : new Socket[] {first, second}) {
+                final var frame = read(client);
+                assertEquals(1, frame.getLong(TelemetryServer.SEQUENCE_IDX));
+                assertArrayEquals(data.toByteArray(), Arrays.copyOfRange(frame.array(),
+                    TelemetryServer.TELEMETRY_IDX, TelemetryServer.FRAME_SIZE));
+            }
+            assertEquals(1, this.server.getFramesEncoded());
+        }
+    }
+
+    /**
+     * Tests that a client gets the newest frame only, not the missed ones.
+     */
+    @Test
+    public void testNewestFrameOnConnect() throws IOException {
+        for (int i = 1; i <= 3; i++) {
+            assertTrue(this.clifton.sendData(telemetry(i).toByteArray()));
+            this.awaitTelemetry(i);
+        }
+
+        try (var client = this.connect(1)) {
+            final var frame = read(client);
+            assertEquals(3, frame.getLong(TelemetryServer.SEQUENCE_IDX));
+            assertEquals(3, TelemetryLayout.getAgentPosX(Arrays.copyOfRange(frame.array(),
+                TelemetryServer.TELEMETRY_IDX, TelemetryServer.FRAME_SIZE)));
+        }
+    }
+
+    /**
+     * This method connects a client and waits until the server accepted it.
+     *
+     * @param clients - the number of clients afterwards
+     * @return Socket - the client
+     * @throws IOException if the connection failed
+     */
+    private Socket connect(final int clients) throws IOException {
+        final var socket = new Socket(InetAddress.getLoopbackAddress(), this.server.getPort());
+        socket.setSoTimeout(TIMEOUT);
+
+        final long deadline = System.currentTimeMillis() + TIMEOUT;
+        while (this.server.getClientCount() < clients && System.currentTimeMillis() < deadline) {
+            Thread.onSpinWait();
+        }
+        assertEquals(clients, this.server.getClientCount());
+        return socket;
+    }
+
+    /**
+     * This method waits until the handler received a number of frames.
+     *
+     * @param frames - the number of frames
+     */
+    private void awaitTelemetry(final long frames) {
+        final long deadline = System.currentTimeMillis() + TIMEOUT;
+        while (this.gui.getTelemetryReceived() < frames && System.currentTimeMillis() < deadline) {
+            Thread.onSpinWait();
+        }
+        assertEquals(frames, this.gui.getTelemetryReceived());
+    }
+
+    /**
+     * This function reads a frame of the server.
+     *
+     * @param client - the client
+     * @return ByteBuffer - the frame in little endian order
+     * @throws IOException if no frame was received in time
+     */
+    private static ByteBuffer read(final Socket client) throws IOException {
+        final byte[] frame = new byte[TelemetryServer.FRAME_SIZE];
+        new DataInputStream(client.getInputStream()).readFully(frame);
+        return ByteBuffer.wrap(frame).order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    /**
+     * This function creates telemetry data with a position.
+     *
+     * @param x - the position north in m
+     * @return TelemetryData - the telemetry data
+     */
+    private static TelemetryData telemetry(final int x) {
+        return new TelemetryData(new UnsignedShort(0), new UnsignedShort(0),
+            new UnsignedShort(0), (short) x, (short) 0, (byte) 100, new UnsignedShort(0),
+            new StatusInfo((byte) 1));
+    }
+}
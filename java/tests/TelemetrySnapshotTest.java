@@ -0,0 +1,116 @@
+package comm;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * This class tests the telemetry snapshots of the ConnectionHandler in
+ * virtual time, via. an in-memory connection.
+ */
+public class TelemetrySnapshotTest {
+
+    /**
+     * Pseudo telemetry data for testing.
+     */
+    private static final byte[] TELEMETRY_DATA
+        = new byte[] { 0x01, 0x02, 0x03, 0x04,
+                       0x05, 0x06, 0x07, 0x08,
+                       0x09, 0x0A, 0x0B, 0x0C,
+                       0x0D, 0x0E };
+
+    /**
+     * The timeout for waiting on telemetry data in ms.
+     */
+    private static final long TIMEOUT = 1000;
+
+    /**
+     * The virtual clock.
+     */
+    private VirtualClock clock;
+
+    /**
+     * The IConnection instance for Clifton.
+     */
+    private IConnection clifton;
+
+    /**
+     * The ConnectionHandler instance for GUI.
+     */
+    private ConnectionHandler gui;
+
+    /**
+     * Sets up the in-memory link and starts the handler in virtual time.
+     */
+    @BeforeEach
+    public void setUp() {
+        this.clock = new VirtualClock(0);
+        final var link = InMemoryConnection.createLink(InMemoryConnection.DEFAULT_CAPACITY,
+                                                       this.clock);
+        this.clifton = link.clifton();
+        this.gui = new ConnectionHandler(link.laptop(), this.clock);
+        this.clifton.create();
+        assertTrue(this.gui.start());
+    }
+
+    /**
+     * Closes the handler and the link.
+     */
+    @AfterEach
+    public void cleanUp() {
+        this.clifton.close();
+        this.gui.close();
+    }
+
+    /**
+     * Tests the sequence numbers and the waiting for newer data.
+     */
+    @Test
+    public void testAwaitNewerThan() {
+        assertNull(this.gui.getTelemetrySnapshot());
+        assertTrue(this.gui.isStale(TIMEOUT));
+
+        //The waiter is woken up by the reception, not by the time
+        final CompletableFuture<Optional<TelemetrySnapshot>> waiter =
+                CompletableFuture.supplyAsync(() -> this.gui.awaitNewerThan(0, TIMEOUT));
+        assertTrue(this.clifton.sendData(TELEMETRY_DATA));
+        final var first = waiter.join().orElseThrow();
+        assertEquals(1, first.sequence());
+        assertEquals(first.data(), this.gui.getCurrentTelemetryData());
+
+        assertTrue(this.clifton.sendData(TELEMETRY_DATA));
+        final var second = this.gui.awaitNewerThan(first.sequence(), TIMEOUT).orElseThrow();
+        assertEquals(2, second.sequence());
+
+        //Nothing newer is received, so the wait times out
+        assertFalse(this.gui.awaitNewerThan(second.sequence(), 0).isPresent());
+    }
+
+    /**
+     * Tests the age of the telemetry data.
+     */
+    @Test
+    public void testStaleness() {
+        final long maxAge = 500;
+        final long shortTime = 100;
+
+        assertTrue(this.clifton.sendData(TELEMETRY_DATA));
+        final var snapshot = this.gui.awaitNewerThan(0, TIMEOUT).orElseThrow();
+        assertEquals(this.clock.currentTimeMillis(), snapshot.sourceTimestamp());
+
+        this.clock.advance(shortTime);
+        assertFalse(this.gui.isStale(maxAge));
+        assertEquals(shortTime, snapshot.getAge(this.clock.nanoTime()));
+
+        this.clock.advance(maxAge);
+        assertTrue(this.gui.isStale(maxAge));
+    }
+}
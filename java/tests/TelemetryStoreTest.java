@@ -0,0 +1,236 @@
+package comm;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Comparator;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import comm.protocol.StatusInfo;
+import comm.protocol.TelemetryData;
+import comm.protocol.UnsignedShort;
+import comm.store.Rollup;
+import comm.store.TelemetryBlock;
+import comm.store.TelemetryField;
+import comm.store.TelemetryStore;
+
+/**
+ * This class is used to test the compressed telemetry store.
+ */
+public class TelemetryStoreTest {
+
+    /**
+     * The timestamp of the first record in ms.
+     */
+    private static final long START = 1_700_000_000_000L;
+    /**
+     * The interval of the records in ms.
+     */
+    private static final long INTERVAL = 100;
+    /**
+     * The number of records, that span several blocks.
+     */
+    private static final int RECORDS = 5000;
+
+    /**
+     * The directory of the test.
+     */
+    private Path directory;
+
+    /**
+     * Creates the directory of the test.
+     */
+    @BeforeEach
+    public void setUp() throws IOException {
+        this.directory = Files.createTempDirectory("telemetry-store");
+    }
+
+    /**
+     * Deletes the directory of the test.
+     */
+    @AfterEach
+    public void cleanUp() throws IOException {
+        try (Stream<Path> paths = Files.walk(this.directory)) {
+            for (final var path : paths.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(path);
+            }
+        }
+    }
+
+    /**
+     * Tests that the records of a range are read back unchanged and compressed.
+     */
+    @Test
+    public void testRangeQuery() {
+        final var store = TelemetryStore.open(this.directory).orElseThrow();
+        for (int i = 0; i < RECORDS; i++) {
+            assertTrue(store.append(timestamp(i), data(i)));
+        }
+        assertEquals(RECORDS, store.size());
+        assertTrue(store.getStoredBytes() > TelemetryBlock.BLOCK_SIZE,
+            "The records span several blocks");
+        assertTrue(store.getStoredBytes() < RECORDS * (Long.BYTES + 14) / 2,
+            "Stored bytes: " + store.getStoredBytes());
+
+        final var records = store.query(timestamp(1234), timestamp(4321));
+        assertEquals(4321 - 1234 + 1, records.size());
+        for (int i = 0; i < records.size(); i++) {
+            assertEquals(timestamp(1234 + i), records.get(i).timestamp());
+            assertData(data(1234 + i), records.get(i).data());
+        }
+        assertTrue(store.query(timestamp(RECORDS), timestamp(RECORDS + 10)).isEmpty());
+        store.close();
+    }
+
+    /**
+     * Tests that the records and rollups survive a restart and the last-
+     * block is continued.
+     */
+    @Test
+    public void testReopen() {
+        var store = TelemetryStore.open(this.directory).orElseThrow();
+        for (int i = 0; i < RECORDS / 2; i++) {
+            store.append(timestamp(i), data(i));
+        }
+        store.close();
+        final long storedBytes = store.getStoredBytes();
+
+        store = TelemetryStore.open(this.directory).orElseThrow();
+        assertEquals(RECORDS / 2, store.size());
+        assertFalse(store.append(timestamp(0), data(0)), "Older than the last record");
+        for (int i = RECORDS / 2; i < RECORDS; i++) {
+            assertTrue(store.append(timestamp(i), data(i)));
+        }
+        assertTrue(store.getStoredBytes() < storedBytes * 2 + TelemetryBlock.BLOCK_SIZE);
+
+        final var records = store.query(timestamp(0), timestamp(RECORDS));
+        assertEquals(RECORDS, records.size());
+        for (int i = 0; i < RECORDS; i++) {
+            assertData(data(i), records.get(i).data());
+        }
+
+        final var minutes = store.getRollups(Rollup.Resolution.MINUTE, timestamp(0),
+                                             timestamp(RECORDS));
+        assertEquals(RECORDS, minutes.stream().mapToInt(Rollup::count).sum());
+        store.close();
+    }
+
+    /**
+     * Tests the minimum, maximum and mean of the rollups.
+     */
+    @Test
+    public void testRollups() {
+        final var store = TelemetryStore.open(this.directory).orElseThrow();
+        for (int i = 0; i < RECORDS; i++) {
+            store.append(timestamp(i), data(i));
+        }
+
+        //The start is aligned to a minute, the first minute is not complete
+        final var minutes = store.getRollups(Rollup.Resolution.MINUTE, START,
+                                             timestamp(RECORDS - 1));
+        assertEquals(Rollup.Resolution.MINUTE.getStart(START), minutes.get(0).start());
+        assertEquals(RECORDS, minutes.stream().mapToInt(Rollup::count).sum());
+
+        final var minute = minutes.get(1);
+        final int first = minutes.get(0).count();
+        assertEquals(600, minute.count());
+        assertEquals(first, minute.getMin(TelemetryField.AGENT_POS_X));
+        assertEquals(first + 599, minute.getMax(TelemetryField.AGENT_POS_X));
+        assertEquals(first + 299.5, minute.getMean(TelemetryField.AGENT_POS_X));
+        assertEquals(200, minute.getMin(TelemetryField.BATTERY_STATUS), "Read unsigned");
+        store.close();
+    }
+
+    /**
+     * Tests that the rollups are rebuilt from the records, if the files-
+     * disagree after a crash.
+     */
+    @Test
+    public void testRollupsAfterCrash() throws IOException {
+        var store = TelemetryStore.open(this.directory).orElseThrow();
+        for (int i = 0; i < RECORDS; i++) {
+            store.append(timestamp(i), data(i));
+        }
+        store.close();
+
+        //The last blocks were lost, the rollups are ahead of the records
+        try (var blocks = FileChannel.open(this.directory.resolve(TelemetryStore.BLOCKS_FILE),
+                                           StandardOpenOption.WRITE)) {
+            blocks.truncate(2 * TelemetryBlock.BLOCK_SIZE);
+        }
+        store = TelemetryStore.open(this.directory).orElseThrow();
+        final long size = store.size();
+        assertTrue(size < RECORDS);
+        assertEquals(size, countRollups(store));
+        store.close();
+
+        //The rollups were lost, they are behind the records
+        try (Stream<Path> paths = Files.list(this.directory)) {
+            for (final var path : paths.filter(p -> p.getFileName().toString()
+                                                     .startsWith("rollup")).toList()) {
+                Files.delete(path);
+            }
+        }
+        store = TelemetryStore.open(this.directory).orElseThrow();
+        assertEquals(size, countRollups(store));
+        store.close();
+    }
+
+    /**
+     * This function returns the number of records in the rollups of a store.
+     *
+     * @param store - the store
+     * @return long - the number of records
+     */
+    private static long countRollups(final TelemetryStore store) {
+        return store.getRollups(Rollup.Resolution.MINUTE, START, timestamp(RECORDS))
+                    .stream().mapToInt(Rollup::count).sum();
+    }
+
+    /**
+     * This function returns the timestamp of a record.
+     *
+     * @param i - the index of the record
+     * @return long - the timestamp in ms
+     */
+    private static long timestamp(final int i) {
+        return START + i * INTERVAL;
+    }
+
+    /**
+     * This function creates the telemetry data of a record.
+     *
+     * @param i - the index of the record
+     * @return TelemetryData - the telemetry data
+     */
+    private static TelemetryData data(final int i) {
+        return new TelemetryData(new UnsignedShort(180 + i % 7), new UnsignedShort(12),
+            new UnsignedShort(30 + i % 3), (short) i, (short) -i, (byte) 200,
+            new UnsignedShort(i % 360), new StatusInfo((byte) 1));
+    }
+
+    /**
+     * This function asserts that two telemetry data have the same values.
+     *
+     * @param expected - the expected telemetry data
+     * @param actual - the actual telemetry data
+     */
+    private static void assertData(final TelemetryData expected, final TelemetryData actual) {
+        final int[] expectedValues = new int[TelemetryField.COUNT];
+        final int[] actualValues = new int[TelemetryField.COUNT];
+        TelemetryField.toValues(expected, expectedValues);
+        TelemetryField.toValues(actual, actualValues);
+        assertArrayEquals(expectedValues, actualValues);
+    }
+}
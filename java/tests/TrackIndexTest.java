@@ -0,0 +1,73 @@
+package comm;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import org.junit.jupiter.api.Test;
+
+import comm.track.TrackIndex;
+import comm.track.TrackPoint;
+
+/**
+ * This class compares the queries of the TrackIndex with a linear scan.
+ */
+public class TrackIndexTest {
+
+    /**
+     * The number of points of the random track.
+     */
+    private static final int POINTS = 5000;
+
+    /**
+     * The number of random queries.
+     */
+    private static final int QUERIES = 200;
+
+    /**
+     * The extent of the random track in m.
+     */
+    private static final double EXTENT = 2000;
+
+    /**
+     * Tests the region, time window and nearest point queries.
+     */
+    @Test
+    public void testQueries() {
+        final var random = new SplittableRandom(1);
+        final var index = new TrackIndex();
+        final List<TrackPoint> points = new ArrayList<>();
+        for (int i = 0; i < POINTS; i++) {
+            final double x = random.nextDouble(-EXTENT, EXTENT);
+            final double y = random.nextDouble(-EXTENT, EXTENT);
+            index.add(x, y, i * 1000L);
+            points.add(new TrackPoint(i, x, y, i * 1000L));
+        }
+        assertEquals(POINTS, index.size());
+
+        for (int q = 0; q < QUERIES; q++) {
+            final double x = random.nextDouble(-EXTENT * 2, EXTENT * 2);
+            final double y = random.nextDouble(-EXTENT * 2, EXTENT * 2);
+            final double size = random.nextDouble(1, 500);
+            final long from = random.nextLong(POINTS * 1000L);
+            final long to = from + random.nextLong(POINTS * 500L);
+
+            final var expected = points.stream()
+                    .filter(p -> p.posX() >= x && p.posX() <= x + size
+                              && p.posY() >= y && p.posY() <= y + size
+                              && p.timestamp() >= from && p.timestamp() <= to)
+                    .toList();
+            assertEquals(expected, index.queryRegion(x, y, x + size, y + size, from, to));
+
+            final double nearest = points.stream()
+                    .mapToDouble(p -> p.squaredDistance(x, y)).min().getAsDouble();
+            assertEquals(nearest, index.nearest(x, y).orElseThrow().squaredDistance(x, y), 1e-9);
+        }
+
+        assertEquals(11, index.queryTimeWindow(10_000, 20_000).size());
+        assertTrue(index.queryTimeWindow(POINTS * 1000L, Long.MAX_VALUE).isEmpty());
+    }
+}
@@ -0,0 +1,153 @@
+package comm;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import comm.protocol.CliftonCommand;
+import comm.protocol.CommandFrame;
+import comm.protocol.LayoutReport;
+import comm.protocol.TelemetryLayout;
+
+/**
+ * This class tests the heartbeat and reconnect behaviour of the
+ * ConnectionHandler in virtual time, via. an in-memory connection.
+ */
+public class VirtualClockTest {
+
+    /**
+     * Pseudo telemetry data for testing.
+     */
+    private static final byte[] TELEMETRY_DATA
+        = new byte[] { 0x01, 0x02, 0x03, 0x04,
+                       0x05, 0x06, 0x07, 0x08,
+                       0x09, 0x0A, 0x0B, 0x0C,
+                       0x0D, 0x0E };
+
+    /**
+     * The size of a heartbeat command.
+     */
+    private static final int HEARTBEAT_SIZE
+        = CommandFrame.encode(CliftonCommand.heartbeat()).length;
+    /**
+     * The size of the layout frame sent at connect time.
+     */
+    private static final int LAYOUT_SIZE = CommandFrame.encode(
+                                CliftonCommand.layout(TelemetryLayout.CHECKSUM)).length;
+
+    /**
+     * The virtual clock.
+     */
+    private VirtualClock clock;
+
+    /**
+     * The IConnection instance for Clifton.
+     */
+    private IConnection clifton;
+
+    /**
+     * The ConnectionHandler instance for GUI.
+     */
+    private ConnectionHandler gui;
+
+    /**
+     * Sets up the in-memory link and starts the handler in virtual time.
+     */
+    @BeforeEach
+    public void setUp() {
+        this.clock = new VirtualClock(0);
+        final var link = InMemoryConnection.createLink(InMemoryConnection.DEFAULT_CAPACITY,
+                                                       this.clock);
+        this.clifton = link.clifton();
+        this.gui = new ConnectionHandler(link.laptop(), this.clock);
+        this.clifton.create();
+        assertTrue(this.gui.start());
+        assertTrue(this.clifton.receiveData(LAYOUT_SIZE).isPresent());
+    }
+
+    /**
+     * Closes the handler and the link.
+     */
+    @AfterEach
+    public void cleanUp() {
+        this.clifton.close();
+        this.gui.close();
+        assertFalse(this.gui.isConnected());
+    }
+
+    /**
+     * Tests the heartbeat and reconnect functionality, without sleeping.
+     */
+    @Test
+    public void testHeartbeatAndReconnect() {
+        final long lostAfter = 3500;
+        final long hour = 3_600_000;
+        final long reconnectTime = 100;
+
+        assertTrue(this.gui.isConnected());
+
+        this.clock.advance(lostAfter);
+        assertFalse(this.gui.isConnected());
+        assertEquals(LinkState.LOST, this.gui.getLinkState());
+
+        //A heartbeat is sent every second while no command is sent
+        assertTrue(this.clifton.getAvailableBytes() >= HEARTBEAT_SIZE);
+        assertTrue(this.clifton.receiveData(HEARTBEAT_SIZE).isPresent());
+
+        //Send telemetry data, the handler should be connected again.
+        //advance waits until the receive worker, woken by the data, blocks again
+        assertTrue(this.clifton.sendData(TELEMETRY_DATA));
+        this.clock.advance(reconnectTime);
+        assertEquals(1, this.gui.getTelemetryReceived());
+        assertTrue(this.gui.isConnected());
+
+        //Without telemetry data, the link stays lost for hours
+        this.clock.advance(hour);
+        assertFalse(this.gui.isConnected());
+        assertEquals(hour + lostAfter + reconnectTime, this.clock.currentTimeMillis());
+    }
+
+    /**
+     * Tests that the heartbeat interval follows the loss timeout reported by-
+     * the clifton.
+     */
+    @Test
+    public void testAdaptiveHeartbeat() {
+        final long interval = LayoutReport.DEFAULT_LOSS_TIMEOUT / 2 - 200;
+        assertTrue(this.clifton.sendData(new LayoutReport(TelemetryLayout.CHECKSUM,
+                                         LayoutReport.DEFAULT_LOSS_TIMEOUT).toByteArray()));
+        this.clock.advance(0);
+        assertEquals(interval, this.gui.getHeartbeatInterval());
+
+        //The default interval would have sent a heartbeat by now
+        this.clock.advance(interval - 100);
+        assertEquals(0, this.clifton.getAvailableBytes());
+
+        this.clock.advance(200);
+        assertEquals(HEARTBEAT_SIZE, this.clifton.getAvailableBytes());
+    }
+
+    /**
+     * Tests that a loss timeout shorter than the default interval shortens-
+     * the heartbeat interval down to its lower bound.
+     */
+    @Test
+    public void testShortLossTimeout() {
+        assertTrue(this.clifton.sendData(new LayoutReport(TelemetryLayout.CHECKSUM, 1000)
+                                         .toByteArray()));
+        this.clock.advance(0);
+        assertEquals(300, this.gui.getHeartbeatInterval());
+
+        this.clock.advance(400);
+        assertEquals(HEARTBEAT_SIZE, this.clifton.getAvailableBytes());
+
+        assertTrue(this.clifton.sendData(new LayoutReport(TelemetryLayout.CHECKSUM, 300)
+                                         .toByteArray()));
+        this.clock.advance(0);
+        assertEquals(100, this.gui.getHeartbeatInterval());
+    }
+}
@@ -0,0 +1,90 @@
+package comm;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.Optional;
+
+import org.junit.jupiter.api.Test;
+
+import comm.control.WaypointFollower;
+import comm.protocol.CliftonCommand;
+import comm.protocol.StatusInfo;
+import comm.protocol.TelemetryData;
+import comm.protocol.UnsignedShort;
+import comm.protocol.Waypoint;
+
+/**
+ * This class is used to test the course following of a route.
+ */
+public class WaypointFollowerTest {
+
+    /**
+     * Tests the course to a waypoint, the deadband and passing a waypoint.
+     */
+    @Test
+    public void testCourse() {
+        final var follower = new WaypointFollower(List.of(new Waypoint((short) 0, (short) 100),
+                                                          new Waypoint((short) -100, (short) 100)));
+
+        //The wind comes from north, the waypoint lies east
+        assertEquals(Optional.of(90), course(follower.update(telemetry(0, 0, 0))));
+        //Small corrections are coalesced
+        assertTrue(follower.update(telemetry(0, 3, 0)).isEmpty());
+        assertEquals(Optional.of(99), course(follower.update(telemetry(15, 0, 0))));
+
+        //Within the arrival radius, the agent heads to the next waypoint (about south)
+        assertEquals(Optional.of(178), course(follower.update(telemetry(3, 97, 0))));
+        assertEquals(1, follower.getWaypointIndex());
+        assertTrue(follower.update(telemetry(-100, 100, 0)).isEmpty());
+        assertTrue(follower.isFinished());
+    }
+
+    /**
+     * Tests that the agent beats to an upwind waypoint and keeps its tack.
+     */
+    @Test
+    public void testBeating() {
+        final var follower = new WaypointFollower(List.of(new Waypoint((short) 500, (short) 0)));
+
+        //The waypoint lies right in the wind, the first tack is clockwise of the wind
+        assertEquals(Optional.of(WaypointFollower.TACK_ANGLE),
+                     course(follower.update(telemetry(0, 0, 0))));
+        //The waypoint moves slightly to port, the agent stays on its tack
+        assertTrue(follower.update(telemetry(100, 30, 0)).isEmpty());
+        //Far off the layline the agent tacks
+        assertEquals(Optional.of(360 - WaypointFollower.TACK_ANGLE),
+                     course(follower.update(telemetry(200, 150, 0))));
+        assertFalse(follower.isFinished());
+    }
+
+    /**
+     * This function returns the course of a SET_COURSE command.
+     *
+     * @param command - the command
+     * @return Optional<Integer> - the course in degrees
+     */
+    private static Optional<Integer> course(final Optional<CliftonCommand> command) {
+        return command.map(c -> {
+            assertEquals(CliftonCommand.ID.SET_COURSE, c.id());
+            return new UnsignedShort(c.data()[0], c.data()[1]).getAsInt();
+        });
+    }
+
+    /**
+     * This function creates the telemetry data at a position.
+     *
+     * @param posX - the position north in m
+     * @param posY - the position east in m
+     * @param windDirection - the direction the wind comes from in degrees
+     * @return TelemetryData - the telemetry data
+     */
+    private static TelemetryData telemetry(final int posX, final int posY,
+            final int windDirection) {
+        return new TelemetryData(new UnsignedShort(windDirection), new UnsignedShort(500),
+            new UnsignedShort(200), (short) posX, (short) posY, (byte) 100,
+            new UnsignedShort(0), new StatusInfo((byte) 1));
+    }
+}
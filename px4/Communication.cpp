@@ -8,17 +8,45 @@
 
 extern "C" __EXPORT int communication_main(int argc, char* argv[]);
 
+/**
+ * The baud rates supported by both, the XBee and the UART.
+ * The index is the value of the XBee AT command BD.
+*/
+static constexpr struct {
+	uint32_t baudRate;
+	speed_t speed;
+} XBEE_BAUD_RATES[] = {
+	{1200, B1200}, {2400, B2400}, {4800, B4800}, {9600, B9600}, {19200, B19200},
+	{38400, B38400}, {57600, B57600}, {115200, B115200}, {230400, B230400}
+};
+
 /**
  * Communication Constructor
 */
 Communication::Communication() :
 	m_SerialPort(CommConstants::TELEM_SERIAL_PORT, B38400),
+	m_LinkBudget(CommConstants::DEFAULT_BAUD_RATE),
 	m_WorkerThread(-1),
 	m_IsConnected(false),
 	m_ThreadRunning(false),
 	m_LastCommandReceived(0),
 	m_LastTelemetryTransmission(0),
-	m_LastReconnectCheck(0)
+	m_LastReconnectCheck(0),
+	m_BaudRate(CommConstants::DEFAULT_BAUD_RATE),
+	m_FallbackBaudRate(CommConstants::DEFAULT_BAUD_RATE),
+	m_BaudTrialStart(0),
+	m_IsBaudTrial(false),
+	m_IsBaudRateAckPending(false),
+	m_IsCommandPublished(false),
+	m_MissionId(-1),
+	m_MissionChunks(0),
+	m_MissionReceived(0),
+	m_MissionWaypoints(0),
+	m_RxCount(0),
+	m_RxSince(0),
+	m_IsMissionAckPending(false),
+	m_LastMissionAck(0),
+	m_IsLayoutReportPending(false)
 {
 	m_CliftonCommand.course = 0;
 	m_CliftonCommand.is_stop_route = true;
@@ -70,6 +98,14 @@ void Communication::print_info() {
 	PX4_INFO("Communication info:");
 	PX4_INFO("  Is Connected: %s", m_IsConnected.load() ? "true" : "false");
 	PX4_INFO("  Threads Running: %s", m_ThreadRunning.load() ? "true" : "false");
+	PX4_INFO("  Baud Rate: %u%s", m_BaudRate, m_IsBaudTrial ? " (unconfirmed)" : "");
+	PX4_INFO("  Mission: %d (%u/%u chunks, %u waypoints)", m_MissionId, missionCumulative(),
+		 m_MissionChunks, m_MissionWaypoints);
+	PX4_INFO("  Telemetry Layout: %08x", (unsigned)TelemetryLayout::CHECKSUM);
+	PX4_INFO("  Link Utilization: %.1f%% (telemetry %u bytes, control %u bytes)",
+		 (double)(m_LinkBudget.getUtilization() * 100.0f),
+		 m_LinkBudget.getBytesSent(TRAFFIC_CLASS::TELEMETRY),
+		 m_LinkBudget.getBytesSent(TRAFFIC_CLASS::CONTROL));
 }
 
 void Communication::stop() {
@@ -137,79 +173,501 @@ long Communication::getCurrentTimeInMs() {
 }
 
 /*
-* Method, that handles the receiving and publishing of commands
+* Method, that handles the receiving and publishing of commands.
+* A frame starts with a sync byte and the length of its body, the body holds commands
+* encoded as type-length-value and is followed by the CRC-16 (CCITT, little endian) of
+* the length and the body. Bytes before a sync byte are skipped. If the CRC does not
+* match, only the sync byte is dropped, so a corrupted length does not swallow the
+* following frames.
 */
 void Communication::handleCommandReceive(long currentSysTime) {
 	auto availableBytes = m_SerialPort.getAvailableBytes();
-	uint8_t buffer[CommConstants::COMMAND_SIZE_BYTES] = {0xDE, 0xAD, 0xBE};
+
+	//Fall back, if the laptop did not confirm the new baud rate in time
+	if (m_IsBaudTrial && currentSysTime - m_BaudTrialStart >= CommConstants::BAUD_TRIAL_TIMEOUT) {
+		PX4_ERR("Baud rate %u not confirmed -> Falling back to %u", m_BaudRate, m_FallbackBaudRate);
+		m_IsBaudTrial = false;
+		m_RxCount = 0;
+		if (!switchBaudRate(m_FallbackBaudRate)) {
+			PX4_ERR("Failed to fall back to baud rate %u", m_FallbackBaudRate);
+		}
+
+		m_LastCommandReceived = getCurrentTimeInMs();
+		return;
+	}
 
 	if (!m_IsConnected.load() && currentSysTime - m_LastReconnectCheck
 		< CommConstants::RECONNECT_INTERVAL) {
 		return;
 	}
 
-	if ((availableBytes <= 0 && currentSysTime - m_LastCommandReceived
-		>= CommConstants::CONNECTION_LOST_TIMEOUT)
-		|| (availableBytes >= CommConstants::COMMAND_SIZE_BYTES
-			&& !m_SerialPort.readData(buffer, CommConstants::COMMAND_SIZE_BYTES))) {
+	//Append the received bytes to the incomplete frame
+	const int space = CommConstants::MAX_FRAME_SIZE - m_RxCount;
+	const int readBytes = availableBytes < space ? availableBytes : space;
+	if (readBytes > 0) {
+		if (!m_SerialPort.readData(m_RxBuffer + m_RxCount, readBytes)) {
+			handleConnectionLost(currentSysTime);
+			return;
+		}
+
+		if (m_RxCount == 0) m_RxSince = currentSysTime;
+		m_RxCount += readBytes;
+	}
+
+	bool isFrameReceived = false;
+	bool isPublishPending = false;
+	int start = 0;
+	while (true) {
+		while (start < m_RxCount && m_RxBuffer[start] != CommConstants::FRAME_SYNC) {
+			start++;
+		}
+
+		if (m_RxCount - start < CommConstants::FRAME_HEADER_SIZE) break;
 
-		PX4_ERR("Sail agent has no connection -> Attempting to connect...");
+		const uint8_t bodyLength = m_RxBuffer[start + CommConstants::FRAME_SYNC_SIZE];
+		const int frameSize = CommConstants::FRAME_HEADER_SIZE + bodyLength
+			+ CommConstants::FRAME_CRC_SIZE;
+		if (m_RxCount - start < frameSize) {
+			//A stray sync byte must not block the following frames
+			if (currentSysTime - m_RxSince >= CommConstants::FRAME_BODY_TIMEOUT) {
+				PX4_ERR("Frame of %hhu bytes incomplete -> Resynchronizing", bodyLength);
+				start++;
+				m_RxSince = currentSysTime;
+				continue;
+			}
+
+			break;
+		}
 
-		//Check if connection already lost (if so do not publish)
-		if (m_IsConnected.load()) {
-			m_IsConnected.store(false);
-			m_CliftonCommand.is_sail_agent_connected = false;
-			m_CliftonCommandPub.publish(m_CliftonCommand);
+		const uint8_t* crc = m_RxBuffer + start + CommConstants::FRAME_HEADER_SIZE + bodyLength;
+		if ((crc[0] | crc[1] << 8) != crc16(m_RxBuffer + start + CommConstants::FRAME_SYNC_SIZE,
+			CommConstants::FRAME_LENGTH_SIZE + bodyLength)) {
+			PX4_ERR("Frame with an invalid CRC -> Resynchronizing");
+			start++;
+			continue;
+		}
+
+		isPublishPending |= handleFrame(m_RxBuffer + start + CommConstants::FRAME_HEADER_SIZE,
+			bodyLength, currentSysTime);
+		isFrameReceived = true;
+		start += frameSize;
+	}
+
+	//Keep the incomplete frame at the start of the buffer
+	if (start > 0) {
+		memmove(m_RxBuffer, m_RxBuffer + start, m_RxCount - start);
+		m_RxCount -= start;
+		m_RxSince = currentSysTime;
+	}
+
+	//While a baud rate switch is in progress, the trial timeout detects the connection loss
+	if (!isFrameReceived) {
+		if (!m_IsBaudTrial && currentSysTime - m_LastCommandReceived
+			>= CommConstants::CONNECTION_LOST_TIMEOUT) {
+			handleConnectionLost(currentSysTime);
 		}
 
-		m_LastReconnectCheck = currentSysTime;
 		return;
 	}
 
-	//Avoid command parsing, if no command is actual received
-	if (memcmp(buffer, "\xDE\xAD\xBE", sizeof(buffer)) == 0) return;
+	//A baud rate switch can take some seconds, do not count it as silence
+	m_LastCommandReceived = getCurrentTimeInMs();
+
+	//Publish clifton command topic
+	if (isPublishPending) {
+		publishCliftonCommand();
+	}
+}
 
+/*
+* Method, that executes the commands of a valid frame.
+*
+* @return bool - true if the clifton command topic needs to be published
+*/
+bool Communication::handleFrame(const uint8_t* body, uint8_t bodyLength, long currentSysTime) {
 	//Check if connection was lost before
+	bool isPublishPending = false;
 	if (!m_IsConnected.load()) {
 		PX4_INFO("Sail agent connected");
 		m_IsConnected.store(true);
+		isPublishPending = true;
 	}
 
 	m_CliftonCommand.is_sail_agent_connected = m_IsConnected.load();
 
-	//File out command struct before publish
-	switch (buffer[CommConstants::COMMAND_ID_IDX]) {
-		case CLIFTON_COMMAND_ID::HEARTBEAT:
-			PX4_INFO("Received HEARTBEAT");
+	//Execute every command of the frame, unknown commands are skipped
+	int offset = 0;
+	while (offset + CommConstants::TLV_HEADER_SIZE <= bodyLength) {
+		const uint8_t type = body[offset + CommConstants::COMMAND_ID_IDX];
+		const uint8_t length = body[offset + CommConstants::COMMAND_LENGTH_IDX];
+		const uint8_t* data = body + offset + CommConstants::TLV_HEADER_SIZE;
+		offset += CommConstants::TLV_HEADER_SIZE + length;
+		if (offset > bodyLength) {
+			PX4_ERR("Received truncated command: id (%hhu), length (%hhu)", type, length);
 			break;
+		}
+
+		isPublishPending |= handleCommand(type, data, length, currentSysTime);
+	}
+
+	return isPublishPending;
+}
+
+/*
+* Function, that calculates the CRC-16 (CCITT) of a command frame
+*/
+uint16_t Communication::crc16(const uint8_t* data, size_t length) {
+	uint16_t crc = CommConstants::FRAME_CRC_INITIAL;
+	for (size_t i = 0; i < length; i++) {
+		crc ^= data[i] << 8;
+		for (int bit = 0; bit < 8; bit++) {
+			crc = (crc & 0x8000) ? (crc << 1) ^ CommConstants::FRAME_CRC_POLYNOMIAL : crc << 1;
+		}
+	}
+
+	return crc;
+}
+
+/*
+* Method, that executes a single command of a frame.
+* A newer laptop may append fields to a command, so only the minimal length is checked.
+*
+* @return bool - true if the clifton command topic needs to be published
+*/
+bool Communication::handleCommand(uint8_t type, const uint8_t* data, uint8_t length, long currentSysTime) {
+	switch (type) {
+		case CLIFTON_COMMAND_ID::HEARTBEAT:
+			//Every frame refreshes the connection, a heartbeat changes nothing to publish
+			PX4_DEBUG("Received HEARTBEAT");
+			return false;
 
 		case CLIFTON_COMMAND_ID::SET_COURSE:
-			memcpy(&m_CliftonCommand.course, buffer + 1, sizeof(uint16_t));
+			if (length < sizeof(uint16_t)) break;
+
+			memcpy(&m_CliftonCommand.course, data, sizeof(uint16_t));
 			PX4_INFO("Received SET_COURSE: %hu", m_CliftonCommand.course);
-			break;
+			return true;
 
 		case CLIFTON_COMMAND_ID::START_ROUTE:
 			m_CliftonCommand.is_stop_route = false;
 			PX4_INFO("Received START_ROUTE");
-			break;
+			return true;
 
 		case CLIFTON_COMMAND_ID::STOP_ROUTE:
 			m_CliftonCommand.is_stop_route = true;
 			PX4_INFO("Received STOP_ROUTE");
-			break;
+			return true;
+
+		case CLIFTON_COMMAND_ID::SET_BAUD_RATE: {
+			if (length < sizeof(uint16_t)) break;
+
+			uint16_t value = 0;
+			memcpy(&value, data, sizeof(uint16_t));
+			PX4_INFO("Received SET_BAUD_RATE: %u", value * CommConstants::BAUD_RATE_UNIT);
+			handleBaudRateCommand(value * CommConstants::BAUD_RATE_UNIT, currentSysTime);
+			return false;
+		}
+
+		case CLIFTON_COMMAND_ID::MISSION_CHUNK:
+			//A mission is not published as clifton command
+			if (length < CommConstants::CHUNK_HEADER_SIZE) break;
+
+			handleMissionChunk(data, length);
+			return false;
+
+		case CLIFTON_COMMAND_ID::LAYOUT: {
+			if (length < CommConstants::LAYOUT_LENGTH) break;
+
+			uint32_t checksum = 0;
+			memcpy(&checksum, data, sizeof(uint32_t));
+			if (checksum != TelemetryLayout::CHECKSUM) {
+				PX4_ERR("Telemetry layout mismatch: laptop (%08x), agent (%08x)",
+					(unsigned)checksum, (unsigned)TelemetryLayout::CHECKSUM);
+			} else {
+				PX4_INFO("Received LAYOUT: %08x", (unsigned)checksum);
+			}
+
+			m_IsLayoutReportPending = true;
+			return false;
+		}
 
 		default:
-			uint16_t course = 0;
-			memcpy(&course, buffer + 1, sizeof(uint16_t));
-			PX4_ERR("Received invalid command: id (%hhu), data (%hu)",
-					buffer[0], course);
-			break;
+			PX4_WARN("Skipped unknown command: id (%hhu), length (%hhu)", type, length);
+			return false;
 	}
 
-	m_LastCommandReceived = currentSysTime;
+	PX4_ERR("Received invalid command: id (%hhu), length (%hhu)", type, length);
+	return false;
+}
+
+/*
+* Method, that marks the connection as lost and publishes it once.
+* The laptop falls back to its initial baud rate on loss, so the agent returns to the
+* default baud rate from any other one.
+*/
+void Communication::handleConnectionLost(long currentSysTime) {
+	PX4_ERR("Sail agent has no connection -> Attempting to connect...");
+
+	if (m_BaudRate != CommConstants::DEFAULT_BAUD_RATE) {
+		PX4_ERR("Baud rate %u lost -> Returning to %u", m_BaudRate, CommConstants::DEFAULT_BAUD_RATE);
+		m_RxCount = 0;
+		m_IsBaudTrial = false;
+		m_IsBaudRateAckPending = false;
+		if (!switchBaudRate(CommConstants::DEFAULT_BAUD_RATE)) {
+			PX4_ERR("Failed to return to baud rate %u", CommConstants::DEFAULT_BAUD_RATE);
+		}
+	}
+
+	//Check if connection already lost (if so do not publish)
+	if (m_IsConnected.load()) {
+		m_IsConnected.store(false);
+		m_CliftonCommand.is_sail_agent_connected = false;
+		publishCliftonCommand();
+	}
+
+	m_LastReconnectCheck = currentSysTime;
+}
+
+/*
+* Method, that publishes the clifton command topic, if it differs from the last publication.
+* Repeated commands (e.g. the same course) do not wake up the subscribers again.
+*/
+void Communication::publishCliftonCommand() {
+	if (m_IsCommandPublished
+		&& m_PublishedCommand.course == m_CliftonCommand.course
+		&& m_PublishedCommand.is_stop_route == m_CliftonCommand.is_stop_route
+		&& m_PublishedCommand.is_sail_agent_connected == m_CliftonCommand.is_sail_agent_connected) {
+		return;
+	}
 
-	//Publish clifton command topic
 	m_CliftonCommandPub.publish(m_CliftonCommand);
+	m_PublishedCommand = m_CliftonCommand;
+	m_IsCommandPublished = true;
+}
+
+/*
+* Method, that handles the baud rate negotiation.
+* The first SET_BAUD_RATE switches to the new baud rate, the same command received
+* at the new baud rate confirms it and is acknowledged. Without confirmation the agent
+* falls back. If the acknowledgement is lost, the laptop falls back and the loss timeout
+* returns the agent to the default baud rate.
+*/
+void Communication::handleBaudRateCommand(uint32_t baudRate, long currentSysTime) {
+	if (baudRate == m_BaudRate) {
+		if (m_IsBaudTrial) {
+			PX4_INFO("Baud rate %u confirmed", m_BaudRate);
+			m_IsBaudTrial = false;
+		}
+
+		//A repeated confirmation is acknowledged again
+		m_IsBaudRateAckPending = true;
+		return;
+	}
+
+	if (m_IsBaudTrial) return;
+
+	const auto fallbackBaudRate = m_BaudRate;
+	if (!switchBaudRate(baudRate)) {
+		PX4_ERR("Failed to switch to baud rate %u", baudRate);
+		switchBaudRate(fallbackBaudRate);
+		return;
+	}
+
+	m_FallbackBaudRate = fallbackBaudRate;
+	m_IsBaudTrial = true;
+	m_BaudTrialStart = getCurrentTimeInMs();
+}
+
+/*
+* Method, that stores the waypoints of a received mission chunk.
+* A chunk of another mission discards the current one. The chunk is acknowledged
+* together with the chunks received within the next MISSION_ACK_INTERVAL.
+*/
+void Communication::handleMissionChunk(const uint8_t* data, uint8_t length) {
+	const uint8_t sequence = data[CommConstants::CHUNK_SEQUENCE_IDX];
+	const int waypoints = (length - CommConstants::CHUNK_HEADER_SIZE) / (int)sizeof(WAYPOINT);
+	if ((length - CommConstants::CHUNK_HEADER_SIZE) % sizeof(WAYPOINT) != 0
+		|| waypoints > CommConstants::MISSION_CHUNK_WAYPOINTS) {
+		PX4_ERR("Received invalid mission chunk: sequence (%hhu), length (%hhu)", sequence, length);
+		return;
+	}
+
+	const uint8_t missionId = data[CommConstants::CHUNK_MISSION_IDX];
+	const uint8_t chunks = data[CommConstants::CHUNK_COUNT_IDX];
+	if (chunks == 0 || chunks > CommConstants::MAX_MISSION_CHUNKS || sequence >= chunks) {
+		PX4_ERR("Received invalid mission chunk: sequence (%hhu), chunks (%hhu)", sequence, chunks);
+		return;
+	}
+
+	if (missionId != m_MissionId || chunks != m_MissionChunks) {
+		PX4_INFO("Receiving mission %hhu (%hhu chunks)", missionId, chunks);
+		m_MissionId = missionId;
+		m_MissionChunks = chunks;
+		m_MissionReceived = 0;
+		m_MissionWaypoints = 0;
+	}
+
+	//The waypoints are stored at sequence * MISSION_CHUNK_WAYPOINTS, so only the last chunk
+	//may be short. A short chunk before it is not stored, the acknowledgement reports it missing.
+	if (sequence + 1 < chunks && waypoints != CommConstants::MISSION_CHUNK_WAYPOINTS) {
+		PX4_ERR("Received short mission chunk: sequence (%hhu), waypoints (%d)", sequence, waypoints);
+		m_IsMissionAckPending = true;
+		return;
+	}
+
+	memcpy(&m_Mission[sequence * CommConstants::MISSION_CHUNK_WAYPOINTS],
+	       data + CommConstants::CHUNK_HEADER_SIZE, waypoints * sizeof(WAYPOINT));
+	m_MissionChunkWaypoints[sequence] = waypoints;
+	m_MissionReceived |= 1ULL << sequence;
+	m_IsMissionAckPending = true;
+
+	//All chunks before the last one are full (checked above), so the waypoints are contiguous
+	if (missionCumulative() >= m_MissionChunks && m_MissionWaypoints == 0) {
+		for (int i = 0; i < m_MissionChunks; i++) {
+			m_MissionWaypoints += m_MissionChunkWaypoints[i];
+		}
+
+		PX4_INFO("Received mission %d (%u waypoints)", m_MissionId, m_MissionWaypoints);
+	}
+}
+
+/*
+* Method, that returns the number of chunks received without a gap
+*/
+uint8_t Communication::missionCumulative() const {
+	uint8_t cumulative = 0;
+	while (cumulative < m_MissionChunks && (m_MissionReceived >> cumulative & 1ULL)) {
+		cumulative++;
+	}
+
+	return cumulative;
+}
+
+/*
+* Method, that sends the acknowledgement of the received mission chunks.
+* The acknowledgements are coalesced, only a complete mission is acknowledged right away.
+*/
+void Communication::handleMissionAck(long currentSysTime) {
+	const auto cumulative = missionCumulative();
+	if (!m_IsMissionAckPending || (cumulative < m_MissionChunks
+		&& currentSysTime - m_LastMissionAck < CommConstants::MISSION_ACK_INTERVAL)) {
+		return;
+	}
+
+	//Coalesced further, if the link budget is used up
+	if (!m_LinkBudget.tryAcquire(TRAFFIC_CLASS::CONTROL, sizeof(MISSION_ACK), currentSysTime)) return;
+
+	MISSION_ACK ack = {};
+	ack.marker = CommConstants::MISSION_ACK_MARKER;
+	ack.missionId = m_MissionId;
+	ack.chunks = m_MissionChunks;
+	ack.cumulative = cumulative;
+	ack.selective = cumulative + 1 < 64 ? (uint32_t)(m_MissionReceived >> (cumulative + 1)) : 0;
+
+	if (!m_SerialPort.writeData(&ack, sizeof(MISSION_ACK))) {
+		PX4_ERR("Failed to write mission acknowledgement to serial port");
+		return;
+	}
+
+	m_IsMissionAckPending = false;
+	m_LastMissionAck = currentSysTime;
+}
+
+/*
+* Method, that answers the LAYOUT command with the telemetry layout of the agent
+*/
+void Communication::handleLayoutReport(long currentSysTime) {
+	if (!m_IsLayoutReportPending
+		|| !m_LinkBudget.tryAcquire(TRAFFIC_CLASS::CONTROL, sizeof(LAYOUT_REPORT), currentSysTime)) {
+		return;
+	}
+
+	LAYOUT_REPORT report = {};
+	report.marker = CommConstants::LAYOUT_REPORT_MARKER;
+	report.checksum = TelemetryLayout::CHECKSUM;
+	report.lossTimeout = CommConstants::CONNECTION_LOST_TIMEOUT;
+
+	if (!m_SerialPort.writeData(&report, sizeof(LAYOUT_REPORT))) {
+		PX4_ERR("Failed to write layout report to serial port");
+		return;
+	}
+
+	m_IsLayoutReportPending = false;
+}
+
+/*
+* Method, that acknowledges the confirmed baud rate
+*/
+void Communication::handleBaudRateAck(long currentSysTime) {
+	if (!m_IsBaudRateAckPending
+		|| !m_LinkBudget.tryAcquire(TRAFFIC_CLASS::CONTROL, sizeof(BAUD_RATE_ACK), currentSysTime)) {
+		return;
+	}
+
+	BAUD_RATE_ACK ack = {};
+	ack.marker = CommConstants::BAUD_RATE_ACK_MARKER;
+	ack.baudRate = m_BaudRate / CommConstants::BAUD_RATE_UNIT;
+
+	if (!m_SerialPort.writeData(&ack, sizeof(BAUD_RATE_ACK))) {
+		PX4_ERR("Failed to write baud rate acknowledgement to serial port");
+		return;
+	}
+
+	m_IsBaudRateAckPending = false;
+}
+
+/*
+* Method, that switches the local XBee and the serial port to another baud rate.
+* The XBee is configured via. its command mode. The baud rate is not written
+* to the non volatile memory, so a power cycle restores the default.
+*/
+bool Communication::switchBaudRate(uint32_t baudRate) {
+	for (size_t code = 0; code < sizeof(XBEE_BAUD_RATES) / sizeof(XBEE_BAUD_RATES[0]); code++) {
+		if (XBEE_BAUD_RATES[code].baudRate != baudRate) continue;
+
+		char command[8];
+		snprintf(command, sizeof(command), "ATBD%u", (unsigned)code);
+
+		//The XBee only accepts the escape sequence after some silence
+		usleep(CommConstants::msToUs(CommConstants::XBEE_GUARD_TIME));
+		if (!sendAtCommand("+++", true) || !sendAtCommand(command, false)
+			|| !sendAtCommand("ATCN", false)) {
+			return false;
+		}
+
+		if (!m_SerialPort.setBaudRate(XBEE_BAUD_RATES[code].speed)) return false;
+
+		m_BaudRate = baudRate;
+		m_LinkBudget.setBaudRate(baudRate, getCurrentTimeInMs());
+		PX4_INFO("Switched to baud rate %u", baudRate);
+		return true;
+	}
+
+	return false;
+}
+
+/*
+* Method, that sends an AT command to the local XBee and waits for the OK response
+*/
+bool Communication::sendAtCommand(const char* command, bool isEscapeSequence) {
+	char raw[16];
+	const int length = snprintf(raw, sizeof(raw), isEscapeSequence ? "%s" : "%s\r", command);
+
+	m_SerialPort.flush();
+	if (length <= 0 || !m_SerialPort.writeData(raw, length)) return false;
+
+	//After the escape sequence the XBee needs silence again
+	if (isEscapeSequence) usleep(CommConstants::msToUs(CommConstants::XBEE_GUARD_TIME));
+
+	const auto start = getCurrentTimeInMs();
+	while (m_SerialPort.getAvailableBytes() < 3) {
+		if (getCurrentTimeInMs() - start >= CommConstants::XBEE_AT_TIMEOUT) return false;
+		usleep(CommConstants::msToUs(1));
+	}
+
+	uint8_t response[3] = {0};
+	return m_SerialPort.readData(response, sizeof(response))
+		&& memcmp(response, "OK\r", sizeof(response)) == 0;
 }
 
 /*
@@ -285,11 +743,20 @@ void Communication::handleTelemetryTransmission(long currentSysTime) {
 		return;
 	}
 
+	//The telemetry has a guaranteed share, it is only delayed by a burst of its own
+	if (!m_LinkBudget.tryAcquire(TRAFFIC_CLASS::TELEMETRY, TelemetryLayout::SIZE, currentSysTime)) {
+		return;
+	}
+
 	sensordataPoll(&m_TelemetryData);
 	vehicleStatusPoll(&m_TelemetryData);
 
+	//Encode the frame explicitly little endian, as described by the schema
+	uint8_t frame[TelemetryLayout::SIZE];
+	TelemetryLayout::encode(m_TelemetryData, frame);
+
 	//Send data to laptop
-	if (!m_SerialPort.writeData(&m_TelemetryData, sizeof(TELEMETRY_DATA))) {
+	if (!m_SerialPort.writeData(frame, sizeof(frame))) {
 		PX4_ERR("transmitWorker failed to write telemetry data to serial port");
 	} else {
 		logTelemetryData(m_TelemetryData);
@@ -306,6 +773,9 @@ void* Communication::worker(void* arg) {
 
 	while (thisRef->m_ThreadRunning.load()) {
 		thisRef->handleCommandReceive(currentSysTime);
+		thisRef->handleMissionAck(currentSysTime);
+		thisRef->handleLayoutReport(currentSysTime);
+		thisRef->handleBaudRateAck(currentSysTime);
 		thisRef->handleTelemetryTransmission(currentSysTime);
 		usleep(CommConstants::msToUs(1));
 		currentSysTime = getCurrentTimeInMs();
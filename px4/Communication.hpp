@@ -17,6 +17,8 @@
 #include <uORB/Publication.hpp>
 
 #include "SerialPort.hpp"
+#include "LinkBudget.hpp"
+#include "Constants.hpp"
 
 /**
  * This enum represents all available commands the sail agent needs to execute.
@@ -25,7 +27,10 @@ typedef enum : uint8_t {
 	HEARTBEAT,
 	START_ROUTE,
 	STOP_ROUTE,
-	SET_COURSE
+	SET_COURSE,
+	SET_BAUD_RATE,
+	MISSION_CHUNK,
+	LAYOUT
 } CLIFTON_COMMAND_ID;
 
 /**
@@ -40,46 +45,124 @@ typedef union {
 	uint8_t packedInfo;
 } STATUS_INFO;
 
+//Generated from protocol/telemetry.schema (TELEMETRY_DATA, offsets and encoder)
+#include "TelemetryLayout.hpp"
+
+/**
+ * Struct that holds a waypoint of a mission in NED coordinates (m).
+*/
+#pragma pack(push, 1)
+typedef struct {
+	int16_t posX;
+	int16_t posY;
+} WAYPOINT;
+#pragma pack(pop)
+
+/**
+ * Struct that acknowledges the received mission chunks.
+ * It has the size of the telemetry data, the marker takes the place of the wind direction.
+ * Bit i of selective stands for the chunk cumulative + 1 + i.
+*/
+#pragma pack(push, 1)
+typedef struct {
+	uint16_t marker;
+	uint8_t missionId;
+	uint8_t chunks;
+	uint8_t cumulative;
+	uint32_t selective;
+	uint8_t reserved[5];
+} MISSION_ACK;
+#pragma pack(pop)
+
+static_assert(sizeof(MISSION_ACK) == sizeof(TELEMETRY_DATA), "MISSION_ACK must have the size of TELEMETRY_DATA");
+
 /**
- * Struct that holds the telemetry data, that gets transmited to the laptop.
+ * Struct that reports the telemetry layout of the agent, as answer to the LAYOUT command.
+ * It has the size of the telemetry data, the marker takes the place of the wind direction.
+ * The laptop derives its heartbeat interval from the loss timeout.
 */
 #pragma pack(push, 1)
 typedef struct {
-        uint16_t windDirection;
-	uint16_t windSpeed;
-	uint16_t agentSpeed;
-	int16_t agentPosX;
-	int16_t agentPosY;
-	uint8_t batteryStatus;
-	uint16_t agentDirection;
-        STATUS_INFO statusInfo;
-} TELEMETRY_DATA;
+	uint16_t marker;
+	uint32_t checksum;
+	uint16_t lossTimeout;
+	uint8_t reserved[6];
+} LAYOUT_REPORT;
 #pragma pack(pop)
 
+static_assert(sizeof(LAYOUT_REPORT) == sizeof(TELEMETRY_DATA), "LAYOUT_REPORT must have the size of TELEMETRY_DATA");
+
+/**
+ * Struct that acknowledges a baud rate switch, as answer to the confirming SET_BAUD_RATE.
+ * It has the size of the telemetry data, the marker takes the place of the wind direction.
+*/
+#pragma pack(push, 1)
+typedef struct {
+	uint16_t marker;
+	uint16_t baudRate;
+	uint8_t reserved[10];
+} BAUD_RATE_ACK;
+#pragma pack(pop)
+
+static_assert(sizeof(BAUD_RATE_ACK) == sizeof(TELEMETRY_DATA), "BAUD_RATE_ACK must have the size of TELEMETRY_DATA");
+
 
 class Communication final
 	: public ModuleBase<Communication>
 {
 	SerialPort m_SerialPort;
+	LinkBudget m_LinkBudget;
 	pthread_t m_WorkerThread;
 	px4::atomic<bool> m_IsConnected;
 	px4::atomic<bool> m_ThreadRunning;
 	long m_LastCommandReceived;
 	long m_LastTelemetryTransmission;
 	long m_LastReconnectCheck;
+	uint32_t m_BaudRate;
+	uint32_t m_FallbackBaudRate;
+	long m_BaudTrialStart;
+	bool m_IsBaudTrial;
+	bool m_IsBaudRateAckPending;
 	struct clifton_command_s m_CliftonCommand;
+	struct clifton_command_s m_PublishedCommand;
+	bool m_IsCommandPublished;
 	TELEMETRY_DATA m_TelemetryData;
+	WAYPOINT m_Mission[CommConstants::MAX_MISSION_CHUNKS * CommConstants::MISSION_CHUNK_WAYPOINTS];
+	uint8_t m_MissionChunkWaypoints[CommConstants::MAX_MISSION_CHUNKS];
+	int m_MissionId;
+	uint8_t m_MissionChunks;
+	uint64_t m_MissionReceived;
+	uint16_t m_MissionWaypoints;
+	uint8_t m_RxBuffer[CommConstants::MAX_FRAME_SIZE];
+	int m_RxCount;
+	long m_RxSince;
+	bool m_IsMissionAckPending;
+	long m_LastMissionAck;
+	bool m_IsLayoutReportPending;
 
 	static void* worker(void* arg);
 	static long getCurrentTimeInMs();
 	void print_info();
 	void stop();
 	void handleCommandReceive(long currentSysTime);
+	bool handleFrame(const uint8_t* body, uint8_t bodyLength, long currentSysTime);
+	static uint16_t crc16(const uint8_t* data, size_t length);
+	bool handleCommand(uint8_t type, const uint8_t* data, uint8_t length, long currentSysTime);
+	void handleConnectionLost(long currentSysTime);
+	void publishCliftonCommand();
 	void handleTelemetryTransmission(long currentSysTime);
 	void logTelemetryData(const TELEMETRY_DATA& data);
 	void sensordataPoll(TELEMETRY_DATA* pTelemData);
 	void vehicleStatusPoll(TELEMETRY_DATA* pTelemData);
 	void invalidateTelemetryData(TELEMETRY_DATA* pTelemData);
+	void handleBaudRateCommand(uint32_t baudRate, long currentSysTime);
+	void handleMissionChunk(const uint8_t* data, uint8_t length);
+	void handleMissionAck(long currentSysTime);
+	void handleLayoutReport(long currentSysTime);
+	void handleBaudRateAck(long currentSysTime);
+	uint8_t missionCumulative() const;
+	bool switchBaudRate(uint32_t baudRate);
+	bool sendAtCommand(const char* command, bool isEscapeSequence);
 
 	uORB::Subscription m_VehicleStatus {ORB_ID(vehicle_status)};
 	uORB::Subscription m_Sensordaten {ORB_ID(sensordaten)};
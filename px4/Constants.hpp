@@ -1,10 +1,62 @@
 #pragma once
 
+#include <stdint.h>
+
 namespace CommConstants {
 	/**
-	 * The maximum number of bytes for receiving a command
+	 * The sync byte, that starts every command frame
+	*/
+	static constexpr uint8_t FRAME_SYNC = 0xA5;
+
+	/**
+	 * The number of bytes of the sync byte of a command frame
+	*/
+	static constexpr int FRAME_SYNC_SIZE = 1;
+
+	/**
+	 * The number of bytes of the length, that follows the sync byte
+	*/
+	static constexpr int FRAME_LENGTH_SIZE = 1;
+
+	/**
+	 * The number of bytes of the header (sync byte and length) of a command frame
+	*/
+	static constexpr int FRAME_HEADER_SIZE = FRAME_SYNC_SIZE + FRAME_LENGTH_SIZE;
+
+	/**
+	 * The number of bytes of the CRC, that ends every command frame
+	*/
+	static constexpr int FRAME_CRC_SIZE = 2;
+
+	/**
+	 * The maximum length of the body of a command frame
+	*/
+	static constexpr int MAX_FRAME_BODY_LENGTH = UINT8_MAX;
+
+	/**
+	 * The maximum size of a command frame
+	*/
+	static constexpr int MAX_FRAME_SIZE = FRAME_HEADER_SIZE + MAX_FRAME_BODY_LENGTH + FRAME_CRC_SIZE;
+
+	/**
+	 * The generator polynomial of the CRC-16 (CCITT) of a command frame
 	*/
-	static constexpr int COMMAND_SIZE_BYTES = 3;
+	static constexpr uint16_t FRAME_CRC_POLYNOMIAL = 0x1021;
+
+	/**
+	 * The initial value of the CRC of a command frame
+	*/
+	static constexpr uint16_t FRAME_CRC_INITIAL = 0xFFFF;
+
+	/**
+	 * The time in ms, in which a started frame needs to be received completely
+	*/
+	static constexpr long FRAME_BODY_TIMEOUT = 500;
+
+	/**
+	 * The number of bytes of the type and the length of a command
+	*/
+	static constexpr int TLV_HEADER_SIZE = 2;
 
 	/**
 	 * The byte-array index position for the command id
@@ -12,6 +64,11 @@ namespace CommConstants {
 	*/
 	static constexpr auto COMMAND_ID_IDX = 0;
 
+	/**
+	 * The byte-array index position for the length of the command data
+	*/
+	static constexpr auto COMMAND_LENGTH_IDX = 1;
+
 	/**
 	 * The timeout for the serial port to block in ms
 	*/
@@ -29,6 +86,100 @@ namespace CommConstants {
 
 	static constexpr long RECONNECT_INTERVAL = 1000;
 
+	/**
+	 * The baud rate used at startup and as fallback
+	*/
+	static constexpr uint32_t DEFAULT_BAUD_RATE = 38400;
+
+	/**
+	 * The unit of the baud rate in the SET_BAUD_RATE command
+	*/
+	static constexpr uint32_t BAUD_RATE_UNIT = 100;
+
+	/**
+	 * The time in ms, in which a baud rate switch needs to be confirmed by the laptop.
+	 * Otherwise the agent falls back to the previous baud rate.
+	*/
+	static constexpr long BAUD_TRIAL_TIMEOUT = 10000;
+
+	/**
+	 * The marker of a baud rate acknowledgement, sent instead of the wind direction
+	*/
+	static constexpr uint16_t BAUD_RATE_ACK_MARKER = 0xFFFC;
+
+	/**
+	 * The silence in ms before and after the escape sequence of the XBee command mode
+	*/
+	static constexpr int XBEE_GUARD_TIME = 1100;
+
+	/**
+	 * The time in ms to wait for the response of an AT command
+	*/
+	static constexpr long XBEE_AT_TIMEOUT = 1000;
+
+	/**
+	 * The byte-array index positions in the data of a MISSION_CHUNK command
+	*/
+	static constexpr auto CHUNK_SEQUENCE_IDX = 0;
+	static constexpr auto CHUNK_MISSION_IDX = 1;
+	static constexpr auto CHUNK_COUNT_IDX = 2;
+
+	/**
+	 * The size of the data of a mission chunk before the waypoints
+	*/
+	static constexpr int CHUNK_HEADER_SIZE = 3;
+
+	/**
+	 * The maximum number of waypoints in a mission chunk
+	*/
+	static constexpr int MISSION_CHUNK_WAYPOINTS = 8;
+
+	/**
+	 * The maximum number of chunks of a mission (the bits of the receive bitmap)
+	*/
+	static constexpr int MAX_MISSION_CHUNKS = 64;
+
+	/**
+	 * The marker of a mission acknowledgement, sent instead of the wind direction
+	*/
+	static constexpr uint16_t MISSION_ACK_MARKER = 0xFFFE;
+
+	/**
+	 * The minimal interval between two mission acknowledgements in ms.
+	 * Chunks received meanwhile are acknowledged together.
+	*/
+	static constexpr long MISSION_ACK_INTERVAL = 20;
+
+	/**
+	 * The marker of a layout report, sent instead of the wind direction
+	*/
+	static constexpr uint16_t LAYOUT_REPORT_MARKER = 0xFFFD;
+
+	/**
+	 * The minimal length of the data of a LAYOUT command (the checksum of the laptop)
+	*/
+	static constexpr int LAYOUT_LENGTH = 4;
+
+	/**
+	 * The bits per byte on the wire (8N1: start bit, 8 data bits, stop bit)
+	*/
+	static constexpr int LINK_BITS_PER_BYTE = 10;
+
+	/**
+	 * The time, for which a bucket of the link budget may save its refill in ms
+	*/
+	static constexpr long LINK_BURST_TIME = 250;
+
+	/**
+	 * The minimal capacity of a bucket of the link budget in bytes
+	*/
+	static constexpr float LINK_MIN_BURST = 64;
+
+	/**
+	 * The window of the link utilization in ms
+	*/
+	static constexpr long LINK_UTILIZATION_WINDOW = 1000;
+
 	/*
 	* Macro function, to convert milliseconds to microseconds
 	*/
@@ -0,0 +1,105 @@
+#include "LinkBudget.hpp"
+#include "Constants.hpp"
+
+/**
+ * The guaranteed share of the link per traffic class
+*/
+static constexpr float TRAFFIC_CLASS_SHARE[TRAFFIC_CLASS_COUNT] = {
+	0.5f,	//TELEMETRY
+	0.2f	//CONTROL (mission acknowledgements, layout reports)
+};
+
+LinkBudget::LinkBudget(uint32_t baudRate)
+	: m_BytesPerMs(0),
+	m_SharedTokens(0),
+	m_LastRefill(0),
+	m_WindowBytes(0),
+	m_WindowStart(0),
+	m_Utilization(0)
+{
+	for (int i = 0; i < TRAFFIC_CLASS_COUNT; i++) {
+		m_Tokens[i] = 0;
+		m_BytesSent[i] = 0;
+	}
+
+	setBaudRate(baudRate, 0);
+}
+
+/*
+* Method, that changes the capacity of the link (8N1) and fills all buckets
+*/
+void LinkBudget::setBaudRate(uint32_t baudRate, long currentSysTime) {
+	m_BytesPerMs = (float)baudRate / CommConstants::LINK_BITS_PER_BYTE / 1000.0f;
+
+	for (int i = 0; i < TRAFFIC_CLASS_COUNT; i++) {
+		m_Tokens[i] = capacity((TRAFFIC_CLASS)i);
+	}
+
+	m_SharedTokens = sharedCapacity();
+	m_LastRefill = currentSysTime;
+}
+
+/*
+* Method, that takes bytes from the budget of a class, if they are available.
+* The own tokens are used before the shared ones.
+*/
+bool LinkBudget::tryAcquire(TRAFFIC_CLASS trafficClass, uint32_t bytes, long currentSysTime) {
+	refill(currentSysTime);
+	if (m_Tokens[trafficClass] + m_SharedTokens < bytes) return false;
+
+	const float own = m_Tokens[trafficClass] < bytes ? m_Tokens[trafficClass] : bytes;
+	m_Tokens[trafficClass] -= own;
+	m_SharedTokens -= bytes - own;
+	m_BytesSent[trafficClass] += bytes;
+
+	//Utilization of the last complete window
+	if (currentSysTime - m_WindowStart >= CommConstants::LINK_UTILIZATION_WINDOW) {
+		m_Utilization = m_WindowBytes / (m_BytesPerMs * (currentSysTime - m_WindowStart));
+		m_WindowBytes = 0;
+		m_WindowStart = currentSysTime;
+	}
+
+	m_WindowBytes += bytes;
+	return true;
+}
+
+uint32_t LinkBudget::getBytesSent(TRAFFIC_CLASS trafficClass) const {
+	return m_BytesSent[trafficClass];
+}
+
+float LinkBudget::getUtilization() const {
+	return m_Utilization;
+}
+
+/*
+* Method, that refills the buckets for the time since the last refill
+*/
+void LinkBudget::refill(long currentSysTime) {
+	const long elapsed = currentSysTime - m_LastRefill;
+	if (elapsed <= 0) return;
+
+	m_LastRefill = currentSysTime;
+	const float refill = m_BytesPerMs * elapsed;
+	float shared = refill;
+
+	for (int i = 0; i < TRAFFIC_CLASS_COUNT; i++) {
+		const float space = capacity((TRAFFIC_CLASS)i) - m_Tokens[i];
+		const float share = refill * TRAFFIC_CLASS_SHARE[i];
+		const float own = share < space ? share : space;
+		m_Tokens[i] += own;
+		shared -= own;
+	}
+
+	m_SharedTokens += shared;
+	if (m_SharedTokens > sharedCapacity()) m_SharedTokens = sharedCapacity();
+}
+
+float LinkBudget::capacity(TRAFFIC_CLASS trafficClass) const {
+	const float burst = TRAFFIC_CLASS_SHARE[trafficClass] * m_BytesPerMs * CommConstants::LINK_BURST_TIME;
+	return burst > CommConstants::LINK_MIN_BURST ? burst : CommConstants::LINK_MIN_BURST;
+}
+
+float LinkBudget::sharedCapacity() const {
+	const float burst = m_BytesPerMs * CommConstants::LINK_BURST_TIME;
+	return burst > CommConstants::LINK_MIN_BURST ? burst : CommConstants::LINK_MIN_BURST;
+}
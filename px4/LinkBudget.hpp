@@ -0,0 +1,41 @@
+#pragma once
+
+#include <stdint.h>
+
+/**
+ * This enum represents the traffic classes sent by the agent.
+*/
+typedef enum : uint8_t {
+	TELEMETRY,
+	CONTROL,
+	TRAFFIC_CLASS_COUNT
+} TRAFFIC_CLASS;
+
+/**
+ * Token buckets, that allocate the byte budget of the link to the traffic classes.
+ * Every class is refilled with its guaranteed share, the remaining share and the
+ * refill of full buckets go to a shared bucket, from which every class can borrow.
+*/
+class LinkBudget {
+
+	float m_BytesPerMs;
+	float m_Tokens[TRAFFIC_CLASS_COUNT];
+	float m_SharedTokens;
+	long m_LastRefill;
+	uint32_t m_BytesSent[TRAFFIC_CLASS_COUNT];
+	uint32_t m_WindowBytes;
+	long m_WindowStart;
+	float m_Utilization;
+
+	void refill(long currentSysTime);
+	float capacity(TRAFFIC_CLASS trafficClass) const;
+	float sharedCapacity() const;
+
+public:
+	LinkBudget(uint32_t baudRate);
+
+	void setBaudRate(uint32_t baudRate, long currentSysTime);
+	bool tryAcquire(TRAFFIC_CLASS trafficClass, uint32_t bytes, long currentSysTime);
+	uint32_t getBytesSent(TRAFFIC_CLASS trafficClass) const;
+	float getUtilization() const;
+};
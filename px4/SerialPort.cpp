@@ -92,3 +92,21 @@ int SerialPort::getAvailableBytes() {
 	ioctl(m_Fd, FIONREAD, &availableBytes);
 	return availableBytes;
 }
+
+/**
+ * This method switches the baud rate of the open port in place.
+ * Pending output is transmitted before the switch, pending input is discarded.
+*/
+bool SerialPort::setBaudRate(speed_t baudRate) {
+	struct termios tty;
+	memset(&tty, 0, sizeof(tty));
+	if (tcgetattr(m_Fd, &tty) != 0) return false;
+
+	cfsetospeed(&tty, baudRate);
+	cfsetispeed(&tty, baudRate);
+
+	if (tcsetattr(m_Fd, TCSADRAIN, &tty) != 0) return false;
+
+	m_BaudRate = baudRate;
+	return tcflush(m_Fd, TCIFLUSH) != -1;
+}
@@ -16,5 +16,6 @@ public:
 	bool readData(void* buffer, size_t size);
 	bool create();
 	bool flush();
+	bool setBaudRate(speed_t baudRate);
 	int getAvailableBytes();
 };
@@ -0,0 +1,108 @@
+#pragma once
+
+#include <stddef.h>
+#include <stdint.h>
+#include <string.h>
+
+/*
+ * Generated by LayoutGenerator from protocol/telemetry.schema, do not edit.
+ */
+
+/**
+ * Struct that holds the telemetry data, that gets transmited to the laptop.
+*/
+#pragma pack(push, 1)
+typedef struct {
+	uint16_t windDirection;
+	uint16_t windSpeed;
+	uint16_t agentSpeed;
+	int16_t agentPosX;
+	int16_t agentPosY;
+	uint8_t batteryStatus;
+	uint16_t agentDirection;
+	STATUS_INFO statusInfo;
+} TELEMETRY_DATA;
+#pragma pack(pop)
+
+namespace TelemetryLayout {
+	static constexpr size_t WIND_DIRECTION_OFFSET = 0;
+	static constexpr size_t WIND_SPEED_OFFSET = 2;
+	static constexpr size_t AGENT_SPEED_OFFSET = 4;
+	static constexpr size_t AGENT_POS_X_OFFSET = 6;
+	static constexpr size_t AGENT_POS_Y_OFFSET = 8;
+	static constexpr size_t BATTERY_STATUS_OFFSET = 10;
+	static constexpr size_t AGENT_DIRECTION_OFFSET = 11;
+	static constexpr size_t STATUS_INFO_OFFSET = 13;
+
+	/**
+	 * The size of the layout in bytes
+	*/
+	static constexpr size_t SIZE = 14;
+
+	/**
+	 * The checksum of the layout, exchanged at connect time
+	*/
+	static constexpr uint32_t CHECKSUM = 0x3BC5BB56;
+
+	/**
+	 * Encodes the data little endian into a frame of SIZE bytes
+	*/
+	inline void encode(const TELEMETRY_DATA& data, uint8_t* frame) {
+		{
+			uint16_t value;
+			memcpy(&value, &data.windDirection, sizeof(value));
+			frame[WIND_DIRECTION_OFFSET] = (uint8_t)value;
+			frame[WIND_DIRECTION_OFFSET + 1] = (uint8_t)(value >> 8);
+		}
+		{
+			uint16_t value;
+			memcpy(&value, &data.windSpeed, sizeof(value));
+			frame[WIND_SPEED_OFFSET] = (uint8_t)value;
+			frame[WIND_SPEED_OFFSET + 1] = (uint8_t)(value >> 8);
+		}
+		{
+			uint16_t value;
+			memcpy(&value, &data.agentSpeed, sizeof(value));
+			frame[AGENT_SPEED_OFFSET] = (uint8_t)value;
+			frame[AGENT_SPEED_OFFSET + 1] = (uint8_t)(value >> 8);
+		}
+		{
+			uint16_t value;
+			memcpy(&value, &data.agentPosX, sizeof(value));
+			frame[AGENT_POS_X_OFFSET] = (uint8_t)value;
+			frame[AGENT_POS_X_OFFSET + 1] = (uint8_t)(value >> 8);
+		}
+		{
+			uint16_t value;
+			memcpy(&value, &data.agentPosY, sizeof(value));
+			frame[AGENT_POS_Y_OFFSET] = (uint8_t)value;
+			frame[AGENT_POS_Y_OFFSET + 1] = (uint8_t)(value >> 8);
+		}
+		{
+			uint8_t value;
+			memcpy(&value, &data.batteryStatus, sizeof(value));
+			frame[BATTERY_STATUS_OFFSET] = (uint8_t)value;
+		}
+		{
+			uint16_t value;
+			memcpy(&value, &data.agentDirection, sizeof(value));
+			frame[AGENT_DIRECTION_OFFSET] = (uint8_t)value;
+			frame[AGENT_DIRECTION_OFFSET + 1] = (uint8_t)(value >> 8);
+		}
+		{
+			uint8_t value;
+			memcpy(&value, &data.statusInfo, sizeof(value));
+			frame[STATUS_INFO_OFFSET] = (uint8_t)value;
+		}
+	}
+}
+
+static_assert(sizeof(TELEMETRY_DATA) == TelemetryLayout::SIZE, "TELEMETRY_DATA does not match the schema");
+static_assert(offsetof(TELEMETRY_DATA, windDirection) == TelemetryLayout::WIND_DIRECTION_OFFSET, "windDirection does not match the schema");
+static_assert(offsetof(TELEMETRY_DATA, windSpeed) == TelemetryLayout::WIND_SPEED_OFFSET, "windSpeed does not match the schema");
+static_assert(offsetof(TELEMETRY_DATA, agentSpeed) == TelemetryLayout::AGENT_SPEED_OFFSET, "agentSpeed does not match the schema");
+static_assert(offsetof(TELEMETRY_DATA, agentPosX) == TelemetryLayout::AGENT_POS_X_OFFSET, "agentPosX does not match the schema");
+static_assert(offsetof(TELEMETRY_DATA, agentPosY) == TelemetryLayout::AGENT_POS_Y_OFFSET, "agentPosY does not match the schema");
+static_assert(offsetof(TELEMETRY_DATA, batteryStatus) == TelemetryLayout::BATTERY_STATUS_OFFSET, "batteryStatus does not match the schema");
+static_assert(offsetof(TELEMETRY_DATA, agentDirection) == TelemetryLayout::AGENT_DIRECTION_OFFSET, "agentDirection does not match the schema");
+static_assert(offsetof(TELEMETRY_DATA, statusInfo) == TelemetryLayout::STATUS_INFO_OFFSET, "statusInfo does not match the schema");